@@ -605,6 +605,58 @@ public class ContentResourceTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    public void bulkPOST() throws Exception {
+        final String salt=Long.toString(System.currentTimeMillis());
+
+        Structure st=new Structure();
+        st.setName("Rest Test bulk "+salt);
+        st.setVelocityVarName("restTestBulk"+salt);
+        st.setDescription("testing rest bulk content creation");
+        StructureFactory.saveStructure(st);
+        Field title=new Field("Title",FieldType.TEXT,DataType.TEXT,st,true,true,true,1,false,false,true);
+        FieldFactory.saveField(title);
+
+        // a valid line, one missing the required title, a blank one, a broken JSON and another valid line
+        final String ndjson=
+                new JSONObject().put("stName", st.getVelocityVarName()).put("languageId", 1)
+                        .put(title.getVelocityVarName(), "first bulk title").toString()+"\n"+
+                new JSONObject().put("stName", st.getVelocityVarName()).put("languageId", 1).toString()+"\n"+
+                "\n"+
+                "{\"stName\": \""+st.getVelocityVarName()+"\", \"title\": \n"+
+                new JSONObject().put("stName", st.getVelocityVarName()).put("languageId", 1)
+                        .put(title.getVelocityVarName(), "last bulk title").toString()+"\n";
+
+        Response response = webTarget.path("/bulk/publish/1")
+                .request()
+                .header(authheader, authvalue)
+                .post(Entity.entity(ndjson, "application/x-ndjson"));
+        Assert.assertEquals(200, response.getStatus());
+
+        // one result per line that isn't blank, each one with its line number
+        final Map<Integer, JSONObject> results=new HashMap<Integer, JSONObject>();
+        for(String line : response.readEntity(String.class).split("\n")) {
+            final JSONObject result=new JSONObject(line);
+            results.put(result.getInt("line"), result);
+        }
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 4, 5)), results.keySet());
+
+        Assert.assertEquals(200, results.get(1).getInt("status"));
+        Assert.assertEquals(409, results.get(2).getInt("status"));
+        Assert.assertTrue(results.get(2).has("error"));
+        Assert.assertEquals(400, results.get(4).getInt("status"));
+        Assert.assertEquals(200, results.get(5).getInt("status"));
+
+        final User sysuser=APILocator.getUserAPI().getSystemUser();
+        for(int line : new int[]{1, 5}) {
+            final Contentlet cont=APILocator.getContentletAPI().find(results.get(line).getString("inode"), sysuser, false);
+            Assert.assertNotNull(cont);
+            Assert.assertEquals(results.get(line).getString("identifier"), cont.getIdentifier());
+            Assert.assertEquals(line == 1 ? "first bulk title" : "last bulk title", cont.getStringProperty(title.getVelocityVarName()));
+            Assert.assertTrue(cont.isLive());
+        }
+    }
+
     @Test
     public void newVersion() throws Exception {
         final User sysuser=APILocator.getUserAPI().getSystemUser();
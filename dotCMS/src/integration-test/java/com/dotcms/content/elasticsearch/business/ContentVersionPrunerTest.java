@@ -0,0 +1,220 @@
+package com.dotcms.content.elasticsearch.business;
+
+import com.dotcms.IntegrationTestBase;
+import com.dotcms.datagen.ContentletDataGen;
+import com.dotcms.datagen.FieldDataGen;
+import com.dotcms.datagen.StructureDataGen;
+import com.dotcms.util.IntegrationTestInitService;
+import com.dotmarketing.beans.Host;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.util.Config;
+import com.liferay.portal.model.User;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContentVersionPrunerTest extends IntegrationTestBase {
+
+    private static final Date CUTOFF = new GregorianCalendar(2001, Calendar.JANUARY, 1).getTime();
+    private static final Date OLD    = new GregorianCalendar(2000, Calendar.JANUARY, 1).getTime();
+
+    private static User user;
+    private static Host host;
+    private static Structure structure;
+    private static final List<Contentlet> contents = new ArrayList<>();
+
+    private final ContentVersionPruner pruner = ContentVersionPruner.getInstance();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        //Setting web app environment
+        IntegrationTestInitService.getInstance().init();
+
+        user = APILocator.getUserAPI().getSystemUser();
+        host = APILocator.getHostAPI().findDefaultHost(user, false);
+
+        structure = new StructureDataGen().nextPersisted();
+        new FieldDataGen(structure).name("Title").velocityVarName("title").sortOrder(1).nextPersisted();
+    }
+
+    @After
+    public void restoreConfig() {
+
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_BATCH_SIZE, 200);
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND, 1000);
+    }
+
+    @AfterClass
+    public static void cleanUp() throws Exception {
+        for (Contentlet content : contents) {
+            ContentletDataGen.remove(content);
+        }
+        if (structure != null) {
+            StructureDataGen.remove(structure);
+        }
+    }
+
+    @Test
+    public void testTheFilesOfTheVersionsPrunedAreRemoved() throws Exception {
+
+        final List<String> inodes = this.oldVersions(1);
+        final File directory = this.assetDirectory(inodes.get(0));
+        assertTrue(directory.isDirectory());
+
+        this.pruner.prune(CUTOFF);
+
+        assertFalse(this.exists(inodes.get(0)));
+        assertFalse(directory.exists());
+        assertTrue(this.pruner.getRemovedFiles() >= 1);
+    }
+
+    @Test
+    public void testTheVersionsAreWalkedABatchAtATime() throws Exception {
+
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_BATCH_SIZE, 1);
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND, 0);
+        final List<String> inodes = this.oldVersions(3);
+
+        this.pruner.prune(CUTOFF);
+
+        for (final String inode : inodes) {
+            assertFalse(this.exists(inode));
+        }
+        // a batch per version, each page starting after the last inode of the one before
+        assertTrue(this.pruner.getBatches() >= inodes.size());
+        assertTrue(this.pruner.getPrunedVersions() >= inodes.size());
+    }
+
+    @Test
+    public void testTheBatchesAreThrottled() throws Exception {
+
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_BATCH_SIZE, 1);
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND, 10);
+        final List<String> inodes = this.oldVersions(3);
+
+        this.pruner.prune(CUTOFF);
+
+        // 10 rows per second is 100 ms per batch of one row
+        assertTrue(this.pruner.getPrunedVersions() >= inodes.size());
+        assertTrue(this.pruner.getRunMillis() >= inodes.size() * 100L);
+    }
+
+    @Test
+    public void testThePruneCanBePausedAndResumed() throws Exception {
+
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_BATCH_SIZE, 1);
+        Config.setProperty(ContentVersionPruner.CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND, 4);
+        final List<String> inodes = this.oldVersions(3);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+
+            final Future<Integer> prune = executor.submit(() -> {
+                try {
+                    return this.pruner.prune(CUTOFF);
+                } finally {
+                    DbConnectionFactory.closeSilently();
+                }
+            });
+
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (this.pruner.getBatches() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            this.pruner.pause();
+            assertTrue(this.pruner.isPaused());
+
+            // the batch being throttled ends, no batch starts after it
+            Thread.sleep(500);
+            final long batches = this.pruner.getBatches();
+            Thread.sleep(500);
+            assertEquals(batches, this.pruner.getBatches());
+            assertTrue(this.pruner.isRunning());
+            assertTrue(batches < inodes.size());
+
+            this.pruner.resume();
+            assertTrue(prune.get(30, TimeUnit.SECONDS) >= inodes.size());
+            assertFalse(this.pruner.isRunning());
+            for (final String inode : inodes) {
+                assertFalse(this.exists(inode));
+            }
+        } finally {
+            this.pruner.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a content with the given number of versions older than the cutoff date, neither working nor live, each
+     * one with a file in its asset directory
+     * @return List the inodes of the old versions
+     */
+    private List<String> oldVersions(final int count) throws Exception {
+
+        Contentlet content = new ContentletDataGen(structure.getInode()).host(host)
+                .setProperty("title", "version 0").nextPersisted();
+        final List<String> inodes = new ArrayList<>();
+
+        for (int i = 1; i <= count; i++) {
+
+            inodes.add(content.getInode());
+            final Contentlet checkout = ContentletDataGen.checkout(content);
+            checkout.setStringProperty("title", "version " + i);
+            content = ContentletDataGen.checkin(checkout);
+        }
+        contents.add(content);
+
+        final DotConnect dc = new DotConnect();
+        for (final String inode : inodes) {
+
+            dc.setSQL("update contentlet set mod_date=? where inode=?");
+            dc.addParam(OLD);
+            dc.addParam(inode);
+            dc.loadResult();
+
+            final File directory = this.assetDirectory(inode);
+            assertTrue(directory.mkdirs() || directory.isDirectory());
+            try (FileWriter writer = new FileWriter(new File(directory, "version.txt"))) {
+                writer.write(inode);
+            }
+        }
+        DbConnectionFactory.closeSilently();
+        return inodes;
+    }
+
+    private File assetDirectory(final String inode) {
+
+        final File assets = new File(APILocator.getFileAssetAPI().getRealAssetsRootPath());
+        return new File(new File(new File(assets, inode.substring(0, 1)), inode.substring(1, 2)), inode);
+    }
+
+    private boolean exists(final String inode) throws Exception {
+
+        final DotConnect dc = new DotConnect();
+        dc.setSQL("select count(*) as total from contentlet where inode=?");
+        dc.addParam(inode);
+        return dc.getInt("total") > 0;
+    }
+}
@@ -0,0 +1,172 @@
+package com.dotmarketing.portlets.contentlet.business;
+
+import com.dotcms.IntegrationTestBase;
+import com.dotcms.content.elasticsearch.business.ESContentletAPIImpl;
+import com.dotcms.datagen.ContentletDataGen;
+import com.dotcms.datagen.FieldDataGen;
+import com.dotcms.datagen.StructureDataGen;
+import com.dotcms.util.IntegrationTestInitService;
+import com.dotmarketing.beans.Host;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletCheckin;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.liferay.portal.model.User;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ContentletBatchCheckinTest extends IntegrationTestBase {
+
+    private static User user;
+    private static Host host;
+    private static Structure structure;
+    private final List<Contentlet> checkedIn = new ArrayList<>();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        //Setting web app environment
+        IntegrationTestInitService.getInstance().init();
+
+        user = APILocator.getUserAPI().getSystemUser();
+        host = APILocator.getHostAPI().findDefaultHost(user, false);
+
+        // A type with a required title
+        structure = new StructureDataGen().nextPersisted();
+        new FieldDataGen(structure).name("Title").velocityVarName("title").required(true).sortOrder(1).nextPersisted();
+    }
+
+    @AfterClass
+    public static void cleanUp() throws Exception {
+        if (structure != null) {
+            StructureDataGen.remove(structure);
+        }
+    }
+
+    @After
+    public void removeContents() throws Exception {
+        for (Contentlet contentlet : checkedIn) {
+            ContentletDataGen.remove(contentlet);
+        }
+        checkedIn.clear();
+    }
+
+    @Test
+    public void testInvalidContentletIsLeftOut() throws Exception {
+
+        final List<ContentletCheckin> batch = Arrays.asList(item("First"), item(null), item("Third"));
+        APILocator.getContentletAPI().checkin(batch, user, false);
+        collect(batch);
+
+        assertTrue(batch.get(0).isCheckedIn());
+        assertFalse(batch.get(1).isCheckedIn());
+        assertTrue(batch.get(1).getError() instanceof DotContentletValidationException);
+        assertTrue(batch.get(2).isCheckedIn());
+
+        assertEquals("First", APILocator.getContentletAPI()
+                .find(batch.get(0).getCheckedIn().getInode(), user, false).getStringProperty("title"));
+        assertEquals("Third", APILocator.getContentletAPI()
+                .find(batch.get(2).getCheckedIn().getInode(), user, false).getStringProperty("title"));
+    }
+
+    @Test
+    public void testFailingContentletIsRolledBackAlone() throws Exception {
+
+        // the checkin of Broken writes the contentlet and then fails
+        final List<Contentlet> broken = new ArrayList<>();
+        final ESContentletAPIImpl contentletAPI = spy(new ESContentletAPIImpl());
+        doAnswer(invocation -> {
+            broken.add((Contentlet) invocation.callRealMethod());
+            throw new DotDataException("Unable to check in Broken");
+        }).when(contentletAPI).checkin(titled("Broken"), anyMap(), anyList(), anyList(), any(User.class), anyBoolean());
+
+        final List<ContentletCheckin> batch = Arrays.asList(item("Before"), item("Broken"), item("After"));
+        contentletAPI.checkin(batch, user, false);
+        collect(batch);
+
+        assertTrue(batch.get(0).isCheckedIn());
+        assertTrue(batch.get(1).getError() instanceof DotDataException);
+        assertTrue(batch.get(2).isCheckedIn());
+
+        // the ones around it are checked in once and committed, Broken is gone
+        verify(contentletAPI, times(1)).checkin(titled("Before"), anyMap(), anyList(), anyList(), any(User.class), anyBoolean());
+        verify(contentletAPI, times(1)).checkin(titled("After"), anyMap(), anyList(), anyList(), any(User.class), anyBoolean());
+        assertEquals(1, broken.size());
+        assertEquals(0, count(broken.get(0).getInode()));
+        assertEquals(1, count(batch.get(0).getCheckedIn().getInode()));
+        assertEquals(1, count(batch.get(2).getCheckedIn().getInode()));
+        assertNull(APILocator.getContentletAPI().find(broken.get(0).getInode(), user, false));
+    }
+
+    @Test
+    public void testPublishedContentletsAreLive() throws Exception {
+
+        final ContentletCheckin item = new ContentletCheckin(contentlet("Published"), null, null, true);
+        APILocator.getContentletAPI().checkin(Arrays.asList(item), user, false);
+        collect(Arrays.asList(item));
+
+        assertNotNull(item.getCheckedIn());
+        assertTrue(APILocator.getContentletAPI().find(item.getCheckedIn().getInode(), user, false).isLive());
+    }
+
+    private void collect(final List<ContentletCheckin> batch) {
+        for (ContentletCheckin item : batch) {
+            if (item.isCheckedIn()) {
+                checkedIn.add(item.getCheckedIn());
+            }
+        }
+    }
+
+    private static ContentletCheckin item(final String title) {
+        return new ContentletCheckin(contentlet(title), null, null, false);
+    }
+
+    private static Contentlet contentlet(final String title) {
+        final Contentlet contentlet = new Contentlet();
+        contentlet.setStructureInode(structure.getInode());
+        contentlet.setHost(host.getIdentifier());
+        contentlet.setLanguageId(APILocator.getLanguageAPI().getDefaultLanguage().getId());
+        if (title != null) {
+            contentlet.setStringProperty("title", title);
+        }
+        return contentlet;
+    }
+
+    private static Contentlet titled(final String title) {
+        return argThat(new ArgumentMatcher<Contentlet>() {
+            @Override
+            public boolean matches(final Object argument) {
+                return argument instanceof Contentlet && title.equals(((Contentlet) argument).getStringProperty("title"));
+            }
+        });
+    }
+
+    private static int count(final String inode) throws DotDataException {
+        return new DotConnect().setSQL("select inode from contentlet where inode = ?").addParam(inode)
+                .loadObjectResults().size();
+    }
+}
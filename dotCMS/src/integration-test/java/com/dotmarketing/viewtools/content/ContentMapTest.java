@@ -0,0 +1,174 @@
+package com.dotmarketing.viewtools.content;
+
+import com.dotcms.IntegrationTestBase;
+import com.dotcms.datagen.ContentletDataGen;
+import com.dotcms.datagen.FieldDataGen;
+import com.dotcms.datagen.FileAssetDataGen;
+import com.dotcms.datagen.StructureDataGen;
+import com.dotcms.util.IntegrationTestInitService;
+import com.dotmarketing.beans.Host;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.cache.FieldsCache;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.liferay.portal.model.User;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContentMapTest extends IntegrationTestBase {
+
+    private static User user;
+    private static Host host;
+    private static Structure structure;
+    private static Contentlet file;
+    private static final List<Contentlet> contents = new ArrayList<>();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        //Setting web app environment
+        IntegrationTestInitService.getInstance().init();
+
+        user = APILocator.getUserAPI().getSystemUser();
+        host = APILocator.getHostAPI().findDefaultHost(user, false);
+
+        // A type with a title and an image
+        structure = new StructureDataGen().nextPersisted();
+        new FieldDataGen(structure).name("Title").velocityVarName("title").sortOrder(1).nextPersisted();
+        new FieldDataGen(structure).name("Image").velocityVarName("image").sortOrder(2)
+                .type(Field.FieldType.IMAGE).dataType(Field.DataType.TEXT).nextPersisted();
+
+        // Two contents showing the same image
+        File image = File.createTempFile("content-map-test", ".txt");
+        try (FileWriter writer = new FileWriter(image)) {
+            writer.write("content map test");
+        }
+        file = new FileAssetDataGen(host, image).nextPersisted();
+
+        for (String title : Arrays.asList("First", "Second")) {
+            contents.add(new ContentletDataGen(structure.getInode()).host(host)
+                    .setProperty("title", title)
+                    .setProperty("image", file.getIdentifier())
+                    .nextPersisted());
+        }
+    }
+
+    @AfterClass
+    public static void cleanUp() throws Exception {
+        for (Contentlet content : contents) {
+            ContentletDataGen.remove(content);
+        }
+        if (file != null) {
+            ContentletDataGen.remove(file);
+        }
+        if (structure != null) {
+            StructureDataGen.remove(structure);
+        }
+    }
+
+    @Test
+    public void testFieldsByVariableNameKeepTheFieldOrder() throws Exception {
+
+        final Map<String, Field> fields = FieldsCache.getFieldsByVariableName(structure.getInode());
+
+        final List<String> names = new ArrayList<>();
+        for (Field field : FieldsCache.getFieldsByStructureInode(structure.getInode())) {
+            names.add(field.getVelocityVarName());
+        }
+        assertEquals(names, new ArrayList<>(fields.keySet()));
+        assertEquals(Field.FieldType.IMAGE.toString(), fields.get("image").getFieldType());
+    }
+
+    @Test
+    public void testFieldsByVariableNameAreBuiltOncePerType() throws Exception {
+
+        final Map<String, Field> fields = FieldsCache.getFieldsByVariableName(structure.getInode());
+        assertSame(fields, FieldsCache.getFieldsByVariableName(structure.getInode()));
+
+        // removing the fields of the type builds them again
+        FieldsCache.removeFields(structure);
+        final Map<String, Field> rebuilt = FieldsCache.getFieldsByVariableName(structure.getInode());
+        assertNotSame(fields, rebuilt);
+        assertEquals(fields.keySet(), rebuilt.keySet());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFieldsByVariableNameCanNotBeModified() throws Exception {
+
+        FieldsCache.getFieldsByVariableName(structure.getInode()).remove("title");
+    }
+
+    @Test
+    public void testResolvedValuesAreRemembered() throws Exception {
+
+        final ContentMap contentMap = new ContentMap(contents.get(0), user, true, host, null);
+
+        assertEquals("First", contentMap.get("title"));
+        final Object image = contentMap.get("image");
+        assertTrue(image instanceof FileAssetMap);
+        assertSame(image, contentMap.get("image"));
+        final Object hostMap = contentMap.get("host");
+        assertNotNull(hostMap);
+        assertSame(hostMap, contentMap.get("host"));
+    }
+
+    @Test
+    public void testBatchLoadsTheFilesOfThePullTogether() throws Exception {
+
+        final List<ContentMap> pulled = pull();
+
+        final Object first = pulled.get(0).get("image");
+        assertTrue(first instanceof FileAssetMap);
+        assertEquals(file.getInode(), ((FileAssetMap) first).getInode());
+        // the second content got the file the first one loaded
+        assertSame(first, pulled.get(1).get("image"));
+    }
+
+    @Test
+    public void testBatchLoadsEveryHostOnce() throws Exception {
+
+        final List<ContentMap> pulled = pull();
+
+        final ContentMap first = (ContentMap) pulled.get(0).get("host");
+        final ContentMap second = (ContentMap) pulled.get(1).get("host");
+        assertNotNull(first);
+        assertEquals(host.getIdentifier(), first.getContentObject().getIdentifier());
+        assertSame(first.getContentObject(), second.getContentObject());
+    }
+
+    @Test
+    public void testContentsOutOfABatchLoadTheirOwnFiles() throws Exception {
+
+        final ContentMap first = new ContentMap(contents.get(0), user, true, host, null);
+        final ContentMap second = new ContentMap(contents.get(1), user, true, host, null);
+
+        final Object image = first.get("image");
+        assertTrue(image instanceof FileAssetMap);
+        assertNotSame(image, second.get("image"));
+        assertEquals(((FileAssetMap) image).getInode(), ((FileAssetMap) second.get("image")).getInode());
+    }
+
+    private List<ContentMap> pull() {
+        final List<ContentMap> pulled = new ArrayList<>();
+        for (Contentlet content : contents) {
+            pulled.add(new ContentMap(content, user, true, host, null));
+        }
+        ContentMapBatch.link(pulled);
+        return pulled;
+    }
+}
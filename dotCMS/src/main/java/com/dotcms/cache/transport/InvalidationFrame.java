@@ -0,0 +1,173 @@
+package com.dotcms.cache.transport;
+
+import com.dotmarketing.business.DotCacheAdministrator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A datagram of the {@link UdpCacheTransport}: the messages a server sent in one go, numbered per sender so the
+ * receivers can tell when they missed one.
+ *
+ * Every frame also carries the cache groups touched by the last frames sent before it, so a receiver that
+ * missed a few frames can flush just those groups instead of the whole cache.
+ */
+final class InvalidationFrame {
+
+    static final int MAGIC = 0x64434954;
+    static final byte VERSION = 1;
+
+    /**
+     * Frames touching more groups than this are remembered as a flush of the whole cache
+     */
+    static final int MAX_HISTORY_GROUPS = 32;
+
+    /**
+     * Max number of previous frames a frame can carry the groups of
+     */
+    static final int MAX_HISTORY_FRAMES = 255;
+
+    final String sender;
+    final long incarnation;
+    final long sequence;
+    final List<String> messages;
+
+    /**
+     * Groups touched by the frames sequence-1, sequence-2... of the same sender
+     */
+    final List<Set<String>> history;
+
+    InvalidationFrame(String sender, long incarnation, long sequence, List<String> messages, List<Set<String>> history) {
+        this.sender = sender;
+        this.incarnation = incarnation;
+        this.sequence = sequence;
+        this.messages = messages;
+        this.history = history;
+    }
+
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(headerSize(sender, history));
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(sender);
+        out.writeLong(incarnation);
+        out.writeLong(sequence);
+        out.writeByte(history.size());
+        for (Set<String> groups : history) {
+            out.writeShort(groups.size());
+            for (String group : groups) {
+                out.writeUTF(group);
+            }
+        }
+        out.writeShort(messages.size());
+        for (String message : messages) {
+            out.writeUTF(message);
+        }
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    static InvalidationFrame decode(byte[] data, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+
+        if (length < 5 || in.readInt() != MAGIC) {
+            throw new IOException("Not a cache invalidation frame");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache invalidation frame version: " + version);
+        }
+
+        String sender = in.readUTF();
+        long incarnation = in.readLong();
+        long sequence = in.readLong();
+
+        int historySize = in.readUnsignedByte();
+        List<Set<String>> history = new ArrayList<Set<String>>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            int groupCount = in.readUnsignedShort();
+            Set<String> groups = new HashSet<String>(groupCount);
+            for (int j = 0; j < groupCount; j++) {
+                groups.add(in.readUTF());
+            }
+            history.add(groups);
+        }
+
+        int messageCount = in.readUnsignedShort();
+        List<String> messages = new ArrayList<String>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            messages.add(in.readUTF());
+        }
+
+        return new InvalidationFrame(sender, incarnation, sequence, messages, history);
+    }
+
+    /**
+     * Bytes a frame takes before its messages
+     */
+    static int headerSize(String sender, List<Set<String>> history) {
+        int size = 4 + 1 + sizeOf(sender) + 8 + 8 + 1 + 2;
+        for (Set<String> groups : history) {
+            size += 2;
+            for (String group : groups) {
+                size += sizeOf(group);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Bytes the string takes in a frame, as written by {@link DataOutputStream#writeUTF(String)}
+     */
+    static int sizeOf(String value) {
+        int size = 2;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                size++;
+            } else if (c > 0x07FF) {
+                size += 3;
+            } else {
+                size += 2;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Cache group the invalidation message is about, or null for the messages that are not invalidations
+     */
+    static String groupOf(String message) {
+        int i = message.lastIndexOf(':');
+        return (i > 0) ? message.substring(i + 1).toLowerCase() : null;
+    }
+
+    /**
+     * Groups touched by the messages, or just the root group when the whole cache should be flushed
+     */
+    static Set<String> groupsOf(List<String> messages) {
+        Set<String> groups = new HashSet<String>();
+        for (String message : messages) {
+            String group = groupOf(message);
+            if (group != null) {
+                groups.add(group);
+            }
+        }
+        if (groups.contains(DotCacheAdministrator.ROOT_GOUP) || groups.size() > MAX_HISTORY_GROUPS) {
+            return Collections.singleton(DotCacheAdministrator.ROOT_GOUP);
+        }
+        return groups;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.dotcms.cache.transport;
+
+import com.dotmarketing.business.DotCacheAdministrator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Follows the sequence numbers of the frames received from each sender to find the ones that got lost on the way.
+ * Used by the single thread receiving the frames.
+ */
+final class SequenceTracker {
+
+    private final Map<String, long[]> senders = new HashMap<String, long[]>();
+    private volatile long gaps = 0;
+    private volatile long missedFrames = 0;
+
+    /**
+     * Registers the frame and returns the cache groups to flush because of the frames of the same sender that
+     * were missed right before it. The root group means the whole cache has to be flushed.
+     *
+     * @param frame frame just received
+     * @return groups to flush, empty when nothing was missed
+     */
+    Set<String> missedGroups(InvalidationFrame frame) {
+        long[] last = senders.get(frame.sender);
+
+        // first frame of a sender, or of a sender that was restarted: nothing to compare with
+        if (last == null || last[0] != frame.incarnation) {
+            senders.put(frame.sender, new long[]{frame.incarnation, frame.sequence});
+            return Collections.emptySet();
+        }
+
+        long expected = last[1] + 1;
+        if (frame.sequence < expected) {
+            // late or repeated frame, its invalidations are applied again which is harmless
+            return Collections.emptySet();
+        }
+        last[1] = frame.sequence;
+        if (frame.sequence == expected) {
+            return Collections.emptySet();
+        }
+
+        long missed = frame.sequence - expected;
+        gaps++;
+        missedFrames += missed;
+        if (missed > frame.history.size()) {
+            return Collections.singleton(DotCacheAdministrator.ROOT_GOUP);
+        }
+
+        Set<String> groups = new HashSet<String>();
+        for (int i = 0; i < missed; i++) {
+            Set<String> missedGroups = frame.history.get(i);
+            if (missedGroups.contains(DotCacheAdministrator.ROOT_GOUP)) {
+                return Collections.singleton(DotCacheAdministrator.ROOT_GOUP);
+            }
+            groups.addAll(missedGroups);
+        }
+        return groups;
+    }
+
+    long getGaps() {
+        return gaps;
+    }
+
+    long getMissedFrames() {
+        return missedFrames;
+    }
+
+}
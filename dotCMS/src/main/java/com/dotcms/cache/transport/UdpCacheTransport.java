@@ -0,0 +1,590 @@
+package com.dotcms.cache.transport;
+
+import com.dotcms.cluster.ClusterUtils;
+import com.dotcms.cluster.bean.Server;
+import com.dotcms.repackage.org.apache.struts.Globals;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.ChainableCacheAdministratorImpl;
+import com.dotmarketing.business.DotCacheAdministrator;
+import com.dotmarketing.business.cache.transport.CacheTransport;
+import com.dotmarketing.business.cache.transport.CacheTransportException;
+import com.dotmarketing.exception.DotRuntimeException;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UtilMethods;
+import com.dotmarketing.util.WebKeys;
+import com.liferay.portal.struts.MultiMessageResources;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lightweight cache transport for small clusters that sends the invalidations in UDP datagrams, without any
+ * cluster framework in between.
+ *
+ * The messages are queued and a single thread packs everything queued so far into frames of up to
+ * CACHE_UDP_MAX_FRAME_BYTES, so the more invalidations there are the more of them travel in each datagram. With
+ * CACHE_PROTOCOL=udp the frames are multicast to CACHE_MULTICAST_ADDRESS:CACHE_MULTICAST_PORT, otherwise they are
+ * sent to every host of CACHE_TCP_INITIAL_HOSTS and, when the transport is autowired, to every alive server.
+ *
+ * UDP may lose datagrams, so every frame is numbered per sender and carries the groups touched by the frames sent
+ * right before it (CACHE_UDP_HISTORY_FRAMES). A receiver that finds a gap in the numbers flushes those groups, or the
+ * whole cache when it missed more frames than the history covers. A sender with nothing to send sends an empty frame
+ * every CACHE_UDP_HEARTBEAT_SECONDS, so the receivers also find out when the last frames before a quiet period got
+ * lost.
+ *
+ * Everything a sender needs lives in a {@link Sender} created by every init, so a sender thread of a previous init
+ * that is still running can't touch the queue, the numbers or the history of the new one.
+ */
+public class UdpCacheTransport implements CacheTransport {
+
+    private static final int MAX_DATAGRAM_BYTES = 65507;
+
+    private final AtomicLong receivedMessages = new AtomicLong(0);
+    private final AtomicLong receivedBytes = new AtomicLong(0);
+    private final AtomicLong sentMessages = new AtomicLong(0);
+    private final AtomicLong sentBytes = new AtomicLong(0);
+    private final AtomicLong sentFrames = new AtomicLong(0);
+
+    private final AtomicBoolean isInitialized = new AtomicBoolean(false);
+
+    private final int maxFrameBytes = Math.min(Config.getIntProperty("CACHE_UDP_MAX_FRAME_BYTES", 8192), MAX_DATAGRAM_BYTES);
+    private final int historyFrames = Math.min(Config.getIntProperty("CACHE_UDP_HISTORY_FRAMES", 8), InvalidationFrame.MAX_HISTORY_FRAMES);
+    private final long lingerMillis = Config.getIntProperty("CACHE_UDP_LINGER_MILLIS", 0);
+    private final long peerRefreshMillis = TimeUnit.SECONDS.toMillis(Config.getIntProperty("CACHE_UDP_PEER_REFRESH_SECONDS", 30));
+    private final long heartbeatMillis = TimeUnit.SECONDS.toMillis(Config.getIntProperty("CACHE_UDP_HEARTBEAT_SECONDS", 5));
+
+    private volatile Sender sender;
+    private final SequenceTracker sequences = new SequenceTracker();
+
+    private Map<String, Map<String, Boolean>> cacheStatus;
+
+    @Override
+    public void init(Server localServer) throws CacheTransportException {
+        Logger.info(this, "***\t Starting UDP Cache Transport");
+
+        if (isInitialized.get()) {
+            shutdown();
+        }
+
+        try {
+            final String serverId = localServer.getServerId();
+            final DatagramChannel channel;
+            final InetSocketAddress multicastGroup;
+
+            String bindAddress = Config.getStringProperty(WebKeys.DOTCMS_CACHE_TRANSPORT_BIND_ADDRESS, null);
+            String bindPort = Config.getStringProperty(WebKeys.DOTCMS_CACHE_TRANSPORT_BIND_PORT, null);
+            int port = UtilMethods.isSet(bindPort) ? Integer.parseInt(bindPort)
+                    : (localServer.getCachePort() != null ? localServer.getCachePort() : 0);
+
+            if ("udp".equals(Config.getStringProperty("CACHE_PROTOCOL", "tcp"))) {
+                InetAddress group = InetAddress.getByName(Config.getStringProperty(WebKeys.DOTCMS_CACHE_TRANSPORT_UDP_MCAST_ADDRESS, "228.10.10.10"));
+                int groupPort = Integer.parseInt(Config.getStringProperty(WebKeys.DOTCMS_CACHE_TRANSPORT_UDP_MCAST_PORT, "45588"));
+                NetworkInterface networkInterface = UtilMethods.isSet(bindAddress)
+                        ? NetworkInterface.getByInetAddress(InetAddress.getByName(bindAddress)) : null;
+
+                channel = DatagramChannel.open(group.getAddress().length == 4 ? StandardProtocolFamily.INET : StandardProtocolFamily.INET6);
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                channel.bind(new InetSocketAddress(groupPort));
+                if (networkInterface != null) {
+                    channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+                    channel.join(group, networkInterface);
+                } else {
+                    for (NetworkInterface candidate : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                        if (candidate.isUp() && candidate.supportsMulticast() && !candidate.isLoopback()) {
+                            channel.join(group, candidate);
+                        }
+                    }
+                }
+                multicastGroup = new InetSocketAddress(group, groupPort);
+                Logger.info(this, "***\t Multicasting cache invalidations to " + multicastGroup);
+            } else {
+                channel = DatagramChannel.open();
+                channel.bind(UtilMethods.isSet(bindAddress) ? new InetSocketAddress(bindAddress, port) : new InetSocketAddress(port));
+                multicastGroup = null;
+
+                //Update the cluster_server table with the port actually used so the other servers can reach us
+                localServer.setCachePort(((InetSocketAddress) channel.getLocalAddress()).getPort());
+                APILocator.getServerAPI().updateServer(localServer);
+            }
+
+            final Sender current = new Sender(serverId, channel, multicastGroup);
+            if (multicastGroup == null) {
+                current.refreshPeers();
+                Logger.info(this, "***\t Sending cache invalidations from " + channel.getLocalAddress() + " to " + current.peers);
+            }
+            sender = current;
+
+            cacheStatus = new HashMap<String, Map<String, Boolean>>();
+            isInitialized.set(true);
+
+            //The threads stop when their channel is closed, so a new init doesn't leave the old ones running
+            Thread receiverThread = new Thread(() -> receiveFrames(channel, serverId), "UdpCacheTransport-Receiver");
+            receiverThread.setDaemon(true);
+            receiverThread.start();
+
+            Thread senderThread = new Thread(current::sendFrames, "UdpCacheTransport-Sender");
+            senderThread.setDaemon(true);
+            senderThread.start();
+
+            send(ChainableCacheAdministratorImpl.TEST_MESSAGE);
+        } catch (Exception e) {
+            Logger.error(UdpCacheTransport.class, "Error initializing UDP cache transport: " + e.getMessage(), e);
+            throw new CacheTransportException("Error initializing UDP cache transport", e);
+        }
+    }
+
+    @Override
+    public void send(String message) throws CacheTransportException {
+        if (!isInitialized.get()) {
+            throw new CacheTransportException("Unable to send message, the UDP cache transport is not running");
+        }
+
+        final Sender current = sender;
+        if (!current.queue.offer(message)) {
+            //The message is lost, ask the other servers to flush everything with the next frame
+            current.overflowed.set(true);
+            Logger.warn(this, "Cache invalidation queue is full, the other servers will flush their whole cache");
+        }
+    }
+
+    /**
+     * Loop of the receiver thread
+     */
+    private void receiveFrames(DatagramChannel current, String serverId) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_BYTES + 1);
+
+        while (current.isOpen()) {
+            try {
+                buffer.clear();
+                current.receive(buffer);
+                buffer.flip();
+                receivedBytes.addAndGet(buffer.remaining());
+
+                InvalidationFrame frame = InvalidationFrame.decode(buffer.array(), 0, buffer.limit());
+                if (serverId.equals(frame.sender)) {
+                    continue;
+                }
+
+                for (String group : sequences.missedGroups(frame)) {
+                    Logger.warn(this, "Missed cache invalidations from server " + frame.sender + ", flushing group " + group);
+                    CacheLocator.getCacheAdministrator().invalidateCacheMesageFromCluster("0:" + group);
+                }
+                for (String message : frame.messages) {
+                    receive(message);
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                Logger.warn(this, "Unable to read cache invalidation frame: " + e.getMessage());
+            } catch (Exception e) {
+                Logger.error(UdpCacheTransport.class, "Unable to apply cache invalidations: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public void receive(String msg) {
+
+        receivedMessages.addAndGet(1);
+
+        if ( msg.equals(ChainableCacheAdministratorImpl.TEST_MESSAGE) ) {
+
+            Logger.info(this, "Received Message Ping " + new Date());
+            try {
+                send("ACK");
+            } catch ( Exception e ) {
+                Logger.error(UdpCacheTransport.class, e.getMessage(), e);
+            }
+
+            //Handle when other server is responding to ping.
+        } else if ( msg.startsWith(ChainableCacheAdministratorImpl.VALIDATE_CACHE_RESPONSE) ) {
+
+            //Deletes the first part of the message, no longer needed.
+            msg = msg.replace(ChainableCacheAdministratorImpl.VALIDATE_CACHE_RESPONSE, "");
+
+            //Gets the part of the message that has the Data in Milli.
+            String dateInMillis = msg.substring(0, msg.indexOf(ChainableCacheAdministratorImpl.VALIDATE_SEPARATOR));
+            //Gets the last part of the message that has the Server ID.
+            String serverID = msg.substring(msg.lastIndexOf(ChainableCacheAdministratorImpl.VALIDATE_SEPARATOR) + 1);
+
+            synchronized (this) {
+                //Creates or updates the Map inside the Map.
+                Map<String, Boolean> localMap = cacheStatus.get(dateInMillis);
+
+                if ( localMap == null ) {
+                    localMap = new HashMap<String, Boolean>();
+                }
+
+                localMap.put(serverID, Boolean.TRUE);
+
+                //Add the Info with the Date in Millis and the Map with Server Info.
+                cacheStatus.put(dateInMillis, localMap);
+            }
+
+            Logger.debug(this, ChainableCacheAdministratorImpl.VALIDATE_CACHE_RESPONSE + " SERVER_ID: " + serverID + " DATE_MILLIS: " + dateInMillis);
+
+            //Handle when other server is trying to ping local server.
+        } else if ( msg.startsWith(ChainableCacheAdministratorImpl.VALIDATE_CACHE) ) {
+
+            //Deletes the first part of the message, no longer needed.
+            String dateInMillis = msg.replace(ChainableCacheAdministratorImpl.VALIDATE_CACHE, "");
+
+            //Sends the message back in order to alert the server we are alive.
+            try {
+                send(ChainableCacheAdministratorImpl.VALIDATE_CACHE_RESPONSE + dateInMillis + ChainableCacheAdministratorImpl.VALIDATE_SEPARATOR + APILocator.getServerAPI().readServerId());
+            } catch ( CacheTransportException e ) {
+                Logger.error(this.getClass(), "Error sending message", e);
+                throw new DotRuntimeException("Error sending message", e);
+            }
+
+            Logger.debug(this, ChainableCacheAdministratorImpl.VALIDATE_CACHE + " DATE_MILLIS: " + dateInMillis);
+
+        } else if ( msg.equals("ACK") ) {
+            Logger.info(this, "ACK Received " + new Date());
+        } else if ( msg.equals("MultiMessageResources.reload") ) {
+            MultiMessageResources messages = (MultiMessageResources) Config.CONTEXT.getAttribute(Globals.MESSAGES_KEY);
+            messages.reloadLocally();
+        } else if ( msg.equals(ChainableCacheAdministratorImpl.DUMMY_TEXT_TO_SEND) ) {
+            //Don't do anything is we are only checking sending.
+        } else {
+            CacheLocator.getCacheAdministrator().invalidateCacheMesageFromCluster(msg);
+        }
+    }
+
+    @Override
+    public void testCluster() throws CacheTransportException {
+        try {
+            send(ChainableCacheAdministratorImpl.TEST_MESSAGE);
+            Logger.info(this, "Sending Ping to Cluster " + new Date());
+        } catch ( Exception e ) {
+            Logger.error(UdpCacheTransport.class, e.getMessage(), e);
+            throw new CacheTransportException("Error testing cluster", e);
+        }
+    }
+
+    @Override
+    public Map<String, Boolean> validateCacheInCluster(String dateInMillis, int numberServers, int maxWaitSeconds) throws CacheTransportException {
+        cacheStatus = new HashMap<>();
+
+        //If we are already in Cluster.
+        if ( numberServers > 0 ) {
+            //Sends the message to the other servers.
+            send(ChainableCacheAdministratorImpl.VALIDATE_CACHE + dateInMillis);
+
+            int maxWaitTime = maxWaitSeconds * 1000;
+            int passedWaitTime = 0;
+
+            //Trying to NOT wait whole time for returning the info.
+            while ( passedWaitTime <= maxWaitTime ) {
+                try {
+                    Thread.sleep(10);
+                    passedWaitTime += 10;
+
+                    Map<String, Boolean> ourMap = cacheStatus.get(dateInMillis);
+
+                    //No need to wait if we have all server results.
+                    if ( ourMap != null && ourMap.size() == numberServers ) {
+                        passedWaitTime = maxWaitTime + 1;
+                    }
+
+                } catch ( InterruptedException ex ) {
+                    Thread.currentThread().interrupt();
+                    passedWaitTime = maxWaitTime + 1;
+                }
+            }
+        }
+
+        //Returns the Map with all the info stored by receive() method.
+        Map<String, Boolean> mapToReturn = new HashMap<String, Boolean>();
+
+        if ( cacheStatus.get(dateInMillis) != null ) {
+            mapToReturn = cacheStatus.get(dateInMillis);
+        }
+
+        return mapToReturn;
+    }
+
+    @Override
+    public void shutdown() throws CacheTransportException {
+        if (isInitialized.getAndSet(false)) {
+            try {
+                sender.channel.close();
+            } catch (IOException e) {
+                throw new CacheTransportException("Error closing UDP cache transport", e);
+            }
+        }
+    }
+
+    /**
+     * Frames sent since the transport started
+     */
+    public long getSentFrames() {
+        return sentFrames.get();
+    }
+
+    /**
+     * Times frames from another server were found missing
+     */
+    public long getGaps() {
+        return sequences.getGaps();
+    }
+
+    /**
+     * Frames from other servers found missing
+     */
+    public long getMissedFrames() {
+        return sequences.getMissedFrames();
+    }
+
+    @Override
+    public CacheTransportInfo getInfo() {
+
+        return new CacheTransportInfo(){
+            @Override
+            public String getClusterName() {
+                Sender current = sender;
+                if (current == null) {
+                    return null;
+                }
+                return (current.multicastGroup != null) ? "multicast " + current.multicastGroup : "unicast " + current.peers;
+            }
+
+            @Override
+            public String getAddress() {
+                InetSocketAddress address = localAddress();
+                return (address != null) ? address.getHostString() : null;
+            }
+
+            @Override
+            public int getPort() {
+                InetSocketAddress address = localAddress();
+                return (address != null) ? address.getPort() : -1;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return isInitialized.get() && sender.channel.isOpen();
+            }
+
+            @Override
+            public int getNumberOfNodes() {
+                try {
+                    return APILocator.getServerAPI().getAliveServersIds().length;
+                } catch (Exception e) {
+                    return (sender != null) ? sender.peers.size() : 0;
+                }
+            }
+
+            @Override
+            public long getReceivedBytes() {
+                return receivedBytes.get();
+            }
+
+            @Override
+            public long getReceivedMessages() {
+                return receivedMessages.get();
+            }
+
+            @Override
+            public long getSentBytes() {
+                return sentBytes.get();
+            }
+
+            @Override
+            public long getSentMessages() {
+                return sentMessages.get();
+            }
+        };
+    }
+
+    private InetSocketAddress localAddress() {
+        try {
+            Sender current = sender;
+            return (current != null) ? (InetSocketAddress) current.channel.getLocalAddress() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The state of the frames sent through one channel: a new one is created by every init, and its thread only
+     * touches this state, so a thread left by a previous init can't mix its frames with the new ones.
+     */
+    private final class Sender {
+
+        private final String serverId;
+        private final long incarnation = System.currentTimeMillis();
+        private final DatagramChannel channel;
+        private final InetSocketAddress multicastGroup;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<String>(Config.getIntProperty("CACHE_UDP_QUEUE_SIZE", 100000));
+        private final AtomicBoolean overflowed = new AtomicBoolean(false);
+        private final Deque<Set<String>> history = new ArrayDeque<Set<String>>();
+        private volatile List<InetSocketAddress> peers = Collections.emptyList();
+        private long peersRefreshedAt;
+        private long sequence;
+        private long sentAt = System.currentTimeMillis();
+
+        private Sender(String serverId, DatagramChannel channel, InetSocketAddress multicastGroup) {
+            this.serverId = serverId;
+            this.channel = channel;
+            this.multicastGroup = multicastGroup;
+        }
+
+        /**
+         * Loop of the sender thread, packs everything queued so far into as few frames as possible
+         */
+        private void sendFrames() {
+            while (channel.isOpen()) {
+                try {
+                    String first = queue.poll(1, TimeUnit.SECONDS);
+                    if (multicastGroup == null && System.currentTimeMillis() - peersRefreshedAt > peerRefreshMillis) {
+                        refreshPeers();
+                    }
+                    if (first == null) {
+                        if (heartbeatMillis > 0 && System.currentTimeMillis() - sentAt >= heartbeatMillis) {
+                            //An empty frame takes the next number, so a server that missed the last frames finds the gap
+                            flush(Collections.<String>emptyList());
+                        }
+                        continue;
+                    }
+                    if (lingerMillis > 0) {
+                        Thread.sleep(lingerMillis);
+                    }
+
+                    List<String> pending = new ArrayList<String>();
+                    if (overflowed.getAndSet(false)) {
+                        pending.add("0:" + DotCacheAdministrator.ROOT_GOUP);
+                    }
+                    pending.add(first);
+                    queue.drainTo(pending);
+
+                    pack(pending);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ClosedChannelException e) {
+                    return;
+                } catch (Exception e) {
+                    Logger.error(UdpCacheTransport.class, "Unable to send cache invalidations: " + e.getMessage(), e);
+                }
+            }
+        }
+
+        private void pack(List<String> pending) throws IOException {
+            List<String> frame = new ArrayList<String>();
+            int headerSize = InvalidationFrame.headerSize(serverId, new ArrayList<Set<String>>(history));
+            int size = headerSize;
+
+            for (String message : pending) {
+                if (headerSize + InvalidationFrame.sizeOf(message) > maxFrameBytes) {
+                    //Too big to travel alone, flush its whole group instead
+                    String group = InvalidationFrame.groupOf(message);
+                    if (group == null) {
+                        Logger.warn(UdpCacheTransport.class, "Message too big for CACHE_UDP_MAX_FRAME_BYTES, not sent: "
+                                + message.substring(0, Math.min(100, message.length())));
+                        continue;
+                    }
+                    message = "0:" + group;
+                }
+
+                int messageSize = InvalidationFrame.sizeOf(message);
+                if (size + messageSize > maxFrameBytes) {
+                    flush(frame);
+                    frame = new ArrayList<String>();
+                    headerSize = InvalidationFrame.headerSize(serverId, new ArrayList<Set<String>>(history));
+                    size = headerSize;
+                }
+                frame.add(message);
+                size += messageSize;
+            }
+
+            if (!frame.isEmpty()) {
+                flush(frame);
+            }
+        }
+
+        private void flush(List<String> messages) throws IOException {
+            InvalidationFrame frame = new InvalidationFrame(serverId, incarnation, ++sequence, messages,
+                    new ArrayList<Set<String>>(history));
+            ByteBuffer data = ByteBuffer.wrap(frame.encode());
+
+            List<InetSocketAddress> targets = (multicastGroup != null) ? Collections.singletonList(multicastGroup) : peers;
+            for (InetSocketAddress target : targets) {
+                try {
+                    sentBytes.addAndGet(channel.send(data.duplicate(), target));
+                } catch (ClosedChannelException e) {
+                    throw e;
+                } catch (IOException e) {
+                    Logger.warn(UdpCacheTransport.class, "Unable to send cache invalidations to " + target + ": " + e.getMessage());
+                }
+            }
+            sentMessages.addAndGet(messages.size());
+            sentFrames.incrementAndGet();
+            sentAt = System.currentTimeMillis();
+
+            history.addFirst(InvalidationFrame.groupsOf(messages));
+            while (history.size() > historyFrames) {
+                history.removeLast();
+            }
+        }
+
+        /**
+         * Works out the servers the frames are sent to when not multicasting
+         */
+        private void refreshPeers() {
+            peersRefreshedAt = System.currentTimeMillis();
+
+            Set<InetSocketAddress> addresses = new LinkedHashSet<InetSocketAddress>();
+            String initialHosts = Config.getStringProperty(WebKeys.DOTCMS_CACHE_TRANSPORT_TCP_INITIAL_HOSTS, "");
+            for (String initialHost : initialHosts.split(",")) {
+                initialHost = initialHost.trim();
+                int bracket = initialHost.indexOf('[');
+                if (bracket > 0 && initialHost.endsWith("]")) {
+                    addresses.add(new InetSocketAddress(initialHost.substring(0, bracket),
+                            Integer.parseInt(initialHost.substring(bracket + 1, initialHost.length() - 1))));
+                }
+            }
+
+            if (ClusterUtils.isTransportAutoWire()) {
+                try {
+                    for (Server server : APILocator.getServerAPI().getAliveServers(Collections.singletonList(serverId))) {
+                        if (server.getCachePort() == null) {
+                            continue;
+                        }
+                        String host = (UtilMethods.isSet(server.getHost()) && !server.getHost().equals("localhost"))
+                                ? server.getHost() : server.getIpAddress();
+                        addresses.add(new InetSocketAddress(host, server.getCachePort()));
+                    }
+                } catch (Exception e) {
+                    Logger.warn(UdpCacheTransport.class, "Unable to read the alive servers: " + e.getMessage());
+                }
+            }
+
+            peers = Collections.unmodifiableList(new ArrayList<InetSocketAddress>(addresses));
+        }
+    }
+
+}
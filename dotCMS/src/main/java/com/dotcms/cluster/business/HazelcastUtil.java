@@ -9,6 +9,11 @@ import com.dotmarketing.util.UtilMethods;
 import com.dotmarketing.util.WebKeys;
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.XmlClientConfigBuilder;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
@@ -26,6 +31,7 @@ public class HazelcastUtil {
 	private final static String PROPERTY_HAZELCAST_NETWORK_BIND_ADDRESS = "HAZELCAST_NETWORK_BIND_ADDRESS";
 	private final static String PROPERTY_HAZELCAST_NETWORK_BIND_PORT = "HAZELCAST_NETWORK_BIND_PORT";
 	private final static String PROPERTY_HAZELCAST_NETWORK_TCP_MEMBERS = "HAZELCAST_NETWORK_TCP_MEMBERS";
+	private final static String PROPERTY_HAZELCAST_EMBEDDED_NEAR_CACHE = "HAZELCAST_EMBEDDED_NEAR_CACHE";
 
 	public enum HazelcastInstanceType {
 	    EMBEDDED("hazelcast-embedded.xml"),
@@ -155,6 +161,10 @@ public class HazelcastUtil {
     			    }
     		    }
 
+    		    if (Config.getBooleanProperty(PROPERTY_HAZELCAST_EMBEDDED_NEAR_CACHE, true)) {
+    		    	addNearCaches(config);
+    		    }
+
     		    return Hazelcast.newHazelcastInstance(config);
     		} finally {
 
@@ -178,6 +188,30 @@ public class HazelcastUtil {
     		}
     	}
 
+        /**
+         * Gives the maps of the embedded member the same near caches the client has (hazelcast-client.xml),
+         * so the entries owned by other members are kept deserialized in this one and invalidated on change.
+         * Maps with a near cache already configured are left as they are.
+         */
+        private void addNearCaches(com.hazelcast.config.Config config) {
+
+            for (MapConfig mapConfig : config.getMapConfigs().values()) {
+
+                if (mapConfig.getNearCacheConfig() == null) {
+
+                    int size = mapConfig.getMaxSizeConfig().getSize();
+
+                    NearCacheConfig nearCacheConfig = new NearCacheConfig(mapConfig.getName());
+                    nearCacheConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+                    nearCacheConfig.setInvalidateOnChange(true);
+                    nearCacheConfig.setCacheLocalEntries(true);
+                    nearCacheConfig.setEvictionConfig(new EvictionConfig((size > 0 && size < Integer.MAX_VALUE) ? size : 1000,
+                            EvictionConfig.MaxSizePolicy.ENTRY_COUNT, EvictionPolicy.LFU));
+                    mapConfig.setNearCacheConfig(nearCacheConfig);
+                }
+            }
+        }
+
         private Map<String, Object> buildPropertiesEmbedded(){
             Map<String, Object> properties = new HashMap<>();
 
@@ -1,5 +1,6 @@
 package com.dotcms.concurrent;
 
+import com.dotcms.metrics.MetricsRegistry;
 import com.dotcms.repackage.org.apache.commons.lang.StringUtils;
 import com.dotcms.util.ReflectionUtils;
 import com.dotmarketing.util.Config;
@@ -13,6 +14,7 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Factory for concurrent {@link Executor} & {@link DotSubmitter}
@@ -252,10 +254,40 @@ public class DotConcurrentFactory implements DotConcurrentFactoryMBean, Serializ
                 );
 
         this.submitterMap.put(name, submitter);
+        this.registerGauges(name);
 
         return submitter;
     }
 
+    /**
+     * Exposes the threads and the queue of the submitter in the {@link MetricsRegistry}, the gauges read the
+     * submitter registered for the name when the metrics are read, so they follow it when it is recreated
+     * @param name {@link String}
+     */
+    private void registerGauges (final String name) {
+
+        final MetricsRegistry metrics = MetricsRegistry.getInstance();
+        final String executor = UtilMethods.isSet(name)? name : "default";
+
+        metrics.gauge("dotcms_executor_active_threads", "Threads of the submitter running a task",
+                "executor", executor, () -> this.readExecutor(name, ThreadPoolExecutor::getActiveCount));
+        metrics.gauge("dotcms_executor_pool_size", "Threads of the submitter",
+                "executor", executor, () -> this.readExecutor(name, ThreadPoolExecutor::getPoolSize));
+        metrics.gauge("dotcms_executor_queue_size", "Tasks waiting in the queue of the submitter",
+                "executor", executor, () -> this.readExecutor(name, pool -> pool.getQueue().size()));
+        metrics.gauge("dotcms_executor_completed_tasks", "Tasks the submitter has run",
+                "executor", executor, () -> this.readExecutor(name, ThreadPoolExecutor::getCompletedTaskCount));
+    }
+
+    private double readExecutor (final String name, final ToDoubleFunction<ThreadPoolExecutor> reader) {
+
+        final DotConcurrentImpl dotConcurrent =
+                this.submitterMap.get(name);
+
+        return (null != dotConcurrent)?
+                reader.applyAsDouble(dotConcurrent.getThreadPoolExecutor()): Double.NaN;
+    }
+
     private final class DotConcurrentImpl implements DotSubmitter {
 
         private final ThreadPoolExecutor threadPoolExecutor;
@@ -0,0 +1,481 @@
+package com.dotcms.content.elasticsearch.business;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dotcms.repackage.org.apache.commons.io.FileUtils;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.db.DotRunnable;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.WebKeys;
+
+/**
+ * Deletes the contentlet versions older than a date that are neither working nor live, and the contentlet inodes left
+ * without a contentlet, without locking the tables for the whole run.
+ * <ul>
+ * <li>The candidates are walked in order of inode, {@link #CONTENT_VERSION_PRUNE_BATCH_SIZE} at a time, each page
+ * starting after the last inode of the one before, so no page scans the rows already walked.</li>
+ * <li>Each batch is deleted and committed in its own transaction, unless the prune is called inside a transaction,
+ * and the batches are spaced out so no more than {@link #CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND} rows are deleted
+ * per second.</li>
+ * <li>Once a batch is committed, the asset directories of the versions deleted are removed, along with the files
+ * generated for them (thumbnails, resized images) that are older than the cutoff date. Those are regenerated when
+ * they are asked for again.</li>
+ * </ul>
+ * The prune can be paused, resumed and stopped between batches through JMX, where its progress can be followed too.
+ * A run that is stopped, or that fails, leaves everything it committed deleted, so the next run picks up where it
+ * ended.
+ */
+public class ContentVersionPruner implements ContentVersionPrunerMBean {
+
+    /**
+     * Rows deleted per batch, 200 by default.
+     */
+    public static final String CONTENT_VERSION_PRUNE_BATCH_SIZE          = "CONTENT_VERSION_PRUNE_BATCH_SIZE";
+
+    /**
+     * Max rows deleted per second, 1000 by default, 0 to delete them as fast as the database can.
+     */
+    public static final String CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND = "CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND";
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=ContentVersionPruner";
+
+    private static final String SELECT_OLD_VERSIONS = "select inode from contentlet where identifier<>'SYSTEM_HOST' and mod_date < ? " +
+            "and not exists (select * from contentlet_version_info where working_inode=contentlet.inode or live_inode=contentlet.inode)";
+
+    private static final String DELETE_OLD_VERSIONS = "delete from contentlet where inode in (%s) " +
+            "and not exists (select * from contentlet_version_info where working_inode=contentlet.inode or live_inode=contentlet.inode)";
+
+    private static final String SELECT_ORPHAN_INODES = "select inode from inode where type='contentlet' and idate < ? " +
+            "and not exists (select * from contentlet where contentlet.inode=inode.inode)";
+
+    private static final String DELETE_ORPHAN_INODES = "delete from inode where type='contentlet' and inode in (%s) " +
+            "and not exists (select * from contentlet where contentlet.inode=inode.inode)";
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong batches         = new AtomicLong();
+    private final AtomicLong prunedVersions  = new AtomicLong();
+    private final AtomicLong prunedInodes    = new AtomicLong();
+    private final AtomicLong removedFiles    = new AtomicLong();
+    private final Set<String> cleanedBuckets = new HashSet<>();
+
+    private volatile boolean paused  = false;
+    private volatile boolean stopped = false;
+    private volatile Date cutoffDate = null;
+    private volatile String lastInode = null;
+    private volatile long runStart = 0;
+    private volatile long runEnd   = 0;
+
+    private ContentVersionPruner() {
+    }
+
+    private static class SingletonHolder {
+        private static final ContentVersionPruner INSTANCE = new ContentVersionPruner();
+    }
+
+    /**
+     * Get the instance.
+     * @return ContentVersionPruner
+     */
+    public static ContentVersionPruner getInstance() {
+
+        return ContentVersionPruner.SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Deletes the contentlet versions modified before the date that are neither working nor live, then the
+     * contentlet inodes created before the date that have no contentlet
+     * @param date {@link Date} cutoff date
+     * @return int versions deleted
+     * @throws DotDataException if the versions can't be deleted, or another prune is running
+     */
+    public int prune(final Date date) throws DotDataException {
+
+        if (!this.running.compareAndSet(false, true)) {
+            throw new DotDataException("Old contentlet versions are already being pruned");
+        }
+
+        this.start(date);
+        try {
+
+            Logger.info(this, "Pruning the contentlet versions older than " + this.getCutoffDate()
+                    + ", " + this.getBatchSize() + " rows per batch");
+            final long versions = this.walk(SELECT_OLD_VERSIONS, date, this::deleteOldVersions);
+            final long inodes   = this.walk(SELECT_ORPHAN_INODES, date, this::deleteOrphanInodes);
+            Logger.info(this, "Pruned " + versions + " contentlet versions and " + inodes + " orphan inodes in "
+                    + this.batches.get() + " batches, " + this.removedFiles.get() + " files removed"
+                    + (this.stopped ? ", stopped before the end" : ""));
+
+            return (int) versions;
+        } finally {
+
+            this.runEnd = System.currentTimeMillis();
+            this.paused = false;
+            this.running.set(false);
+        }
+    }
+
+    private synchronized void start(final Date date) {
+
+        this.batches.set(0);
+        this.prunedVersions.set(0);
+        this.prunedInodes.set(0);
+        this.removedFiles.set(0);
+        this.cleanedBuckets.clear();
+        this.paused     = false;
+        this.stopped    = false;
+        this.cutoffDate = date;
+        this.lastInode  = null;
+        this.runStart   = System.currentTimeMillis();
+        this.runEnd     = 0;
+    }
+
+    /**
+     * Walks the inodes returned by the query, a batch at a time, deleting each batch in its own transaction
+     * @return long rows deleted
+     */
+    private long walk(final String query, final Date date, final BatchDelete delete) throws DotDataException {
+
+        final int batchSize = this.getBatchSize();
+        String after = null;
+        long deleted = 0;
+
+        while (this.awaitResume()) {
+
+            final List<String> inodes = this.nextBatch(query, date, after, batchSize);
+            if (inodes.isEmpty()) {
+                break;
+            }
+
+            final long start = System.currentTimeMillis();
+            deleted += this.deleteBatch(delete, inodes, date);
+            after = inodes.get(inodes.size() - 1);
+
+            this.lastInode = after;
+            this.batches.incrementAndGet();
+            Logger.debug(this, "Pruned batch " + this.batches.get() + " up to inode " + after + " in "
+                    + (System.currentTimeMillis() - start) + " ms");
+
+            if (inodes.size() < batchSize) {
+                break;
+            }
+            this.throttle(inodes.size(), start);
+        }
+
+        return deleted;
+    }
+
+    /**
+     * Deletes the batch in its own transaction, unless the prune is called inside one. The commit listeners of the
+     * batch, that remove its files, run once the transaction is committed.
+     */
+    private long deleteBatch(final BatchDelete delete, final List<String> inodes, final Date date)
+            throws DotDataException {
+
+        final boolean localTransaction = HibernateUtil.startLocalTransactionIfNeeded();
+        try {
+
+            final long deleted = delete.delete(inodes, date);
+            if (localTransaction) {
+                HibernateUtil.commitTransaction();
+            }
+            return deleted;
+        } catch (DotDataException | RuntimeException e) {
+
+            if (localTransaction) {
+                HibernateUtil.rollbackTransaction();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Next page of candidates, starting after the given inode
+     */
+    private List<String> nextBatch(final String query, final Date date, final String after, final int batchSize)
+            throws DotDataException {
+
+        final DotConnect dc = new DotConnect();
+        // the first page has no inode to start after, '' would be null on Oracle
+        dc.setSQL(query + ((null != after) ? " and inode > ?" : "") + " order by inode");
+        dc.addParam(date);
+        if (null != after) {
+            dc.addParam(after);
+        }
+        dc.setMaxRows(batchSize);
+
+        final List<String> inodes = new ArrayList<>(batchSize);
+        for (final Map<String, Object> row : dc.loadObjectResults()) {
+            inodes.add(String.valueOf(row.get("inode")));
+        }
+        return inodes;
+    }
+
+    /**
+     * Deletes the versions of the batch still not working nor live, and their inodes. Their files are removed once
+     * the batch is committed.
+     */
+    private long deleteOldVersions(final List<String> inodes, final Date date) throws DotDataException {
+
+        this.execute(DELETE_OLD_VERSIONS, inodes);
+        final List<String> deleted = this.notIn("contentlet", inodes);
+        this.execute(DELETE_ORPHAN_INODES, deleted);
+
+        HibernateUtil.addCommitListener(new DotRunnable() {
+            @Override
+            public void run() {
+                removeFiles(deleted, date);
+            }
+        });
+
+        this.prunedVersions.addAndGet(deleted.size());
+        return deleted.size();
+    }
+
+    private long deleteOrphanInodes(final List<String> inodes, final Date date) throws DotDataException {
+
+        this.execute(DELETE_ORPHAN_INODES, inodes);
+        final long deleted = this.notIn("inode", inodes).size();
+
+        this.prunedInodes.addAndGet(deleted);
+        return deleted;
+    }
+
+    private void execute(final String statement, final List<String> inodes) throws DotDataException {
+
+        if (inodes.isEmpty()) {
+            return;
+        }
+
+        final DotConnect dc = new DotConnect();
+        dc.setSQL(String.format(statement, DotConnect.createParametersPlaceholder(inodes.size())));
+        for (final String inode : inodes) {
+            dc.addParam(inode);
+        }
+        dc.loadResult();
+    }
+
+    /**
+     * @return List of the inodes that are no longer in the table
+     */
+    private List<String> notIn(final String table, final List<String> inodes) throws DotDataException {
+
+        final DotConnect dc = new DotConnect();
+        dc.setSQL("select inode from " + table + " where inode in ("
+                + DotConnect.createParametersPlaceholder(inodes.size()) + ")");
+        for (final String inode : inodes) {
+            dc.addParam(inode);
+        }
+
+        final Set<String> remaining = new HashSet<>();
+        for (final Map<String, Object> row : dc.loadObjectResults()) {
+            remaining.add(String.valueOf(row.get("inode")));
+        }
+
+        final List<String> gone = new ArrayList<>(inodes);
+        gone.removeAll(remaining);
+        return gone;
+    }
+
+    /**
+     * Removes the asset directories of the versions deleted, and the files generated before the cutoff date in the
+     * directories where the files generated for them are kept
+     */
+    private void removeFiles(final List<String> inodes, final Date date) {
+
+        final File assets = new File(APILocator.getFileAssetAPI().getRealAssetsRootPath());
+        for (final String inode : inodes) {
+
+            CacheLocator.getContentletCache().remove(inode);
+            if (inode.length() < 2) {
+                continue;
+            }
+
+            final String first  = String.valueOf(inode.charAt(0));
+            final String second = String.valueOf(inode.charAt(1));
+            this.remove(new File(new File(new File(assets, first), second), inode));
+            this.remove(new File(new File(new File(new File(assets, "cache"), first), second), inode));
+
+            if (this.cleanedBuckets.add(first + second)) {
+                this.removeGenerated(new File(new File(new File(assets, "dotGenerated"), first), second), date);
+            }
+        }
+    }
+
+    private void removeGenerated(final File bucket, final Date date) {
+
+        final File[] files = bucket.listFiles();
+        if (null == files) {
+            return;
+        }
+
+        for (final File file : files) {
+            if (file.isFile() && file.getName().startsWith(WebKeys.GENERATED_FILE)
+                    && file.lastModified() < date.getTime()) {
+                this.remove(file);
+            }
+        }
+    }
+
+    private void remove(final File file) {
+
+        if (file.exists()) {
+            if (FileUtils.deleteQuietly(file)) {
+                this.removedFiles.incrementAndGet();
+            } else {
+                Logger.warn(this, "can't delete " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Waits while the prune is paused
+     * @return boolean false if the prune was stopped
+     */
+    private synchronized boolean awaitResume() throws DotDataException {
+
+        while (this.paused && !this.stopped) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DotDataException("Interrupted while the prune was paused", e);
+            }
+        }
+        return !this.stopped;
+    }
+
+    /**
+     * Waits as much as needed to keep the rows deleted per second under the max
+     */
+    private void throttle(final int rows, final long start) {
+
+        final int maxRowsPerSecond = this.getMaxRowsPerSecond();
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+
+        final long wait = (rows * 1000L / maxRowsPerSecond) - (System.currentTimeMillis() - start);
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.stopped = true;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    @Override
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    @Override
+    public String getCutoffDate() {
+
+        final Date date = this.cutoffDate;
+        return (null != date) ? new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date) : "";
+    }
+
+    @Override
+    public String getLastInode() {
+        return this.lastInode;
+    }
+
+    @Override
+    public long getBatches() {
+        return this.batches.get();
+    }
+
+    @Override
+    public long getPrunedVersions() {
+        return this.prunedVersions.get();
+    }
+
+    @Override
+    public long getPrunedInodes() {
+        return this.prunedInodes.get();
+    }
+
+    @Override
+    public long getRemovedFiles() {
+        return this.removedFiles.get();
+    }
+
+    @Override
+    public long getRunMillis() {
+
+        final long start = this.runStart;
+        final long end   = this.running.get() ? System.currentTimeMillis() : this.runEnd;
+        return (start > 0) ? end - start : 0;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return Math.max(1, Config.getIntProperty(CONTENT_VERSION_PRUNE_BATCH_SIZE, 200));
+    }
+
+    @Override
+    public int getMaxRowsPerSecond() {
+        return Config.getIntProperty(CONTENT_VERSION_PRUNE_MAX_ROWS_PER_SECOND, 1000);
+    }
+
+    @Override
+    public synchronized void pause() {
+
+        if (this.running.get()) {
+            Logger.info(this, "Pausing the prune of the old contentlet versions after inode " + this.lastInode);
+            this.paused = true;
+        }
+    }
+
+    @Override
+    public synchronized void resume() {
+
+        if (this.paused) {
+            Logger.info(this, "Resuming the prune of the old contentlet versions after inode " + this.lastInode);
+        }
+        this.paused = false;
+        this.notifyAll();
+    }
+
+    @Override
+    public synchronized void stop() {
+
+        if (this.running.get()) {
+            Logger.info(this, "Stopping the prune of the old contentlet versions after inode " + this.lastInode);
+            this.stopped = true;
+        }
+        this.notifyAll();
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    @FunctionalInterface
+    private interface BatchDelete {
+
+        long delete(List<String> inodes, Date date) throws DotDataException;
+    }
+} // E:O:F:ContentVersionPruner.
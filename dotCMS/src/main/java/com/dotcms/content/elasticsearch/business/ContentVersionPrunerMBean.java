@@ -0,0 +1,91 @@
+package com.dotcms.content.elasticsearch.business;
+
+import com.dotcms.jmx.DotMBean;
+
+/**
+ * Encapsulates the MBean interface for the {@link ContentVersionPruner}
+ */
+public interface ContentVersionPrunerMBean extends DotMBean {
+
+    /**
+     * True while old versions are being pruned
+     * @return boolean
+     */
+    boolean isRunning();
+
+    /**
+     * True if the prune is paused
+     * @return boolean
+     */
+    boolean isPaused();
+
+    /**
+     * Versions older than this date are pruned by the current or the last run, empty if none ran yet
+     * @return String
+     */
+    String getCutoffDate();
+
+    /**
+     * Inode of the last version or orphan inode pruned, where the current run goes on from
+     * @return String
+     */
+    String getLastInode();
+
+    /**
+     * Batches committed by the current or the last run
+     * @return long
+     */
+    long getBatches();
+
+    /**
+     * Contentlet versions deleted by the current or the last run
+     * @return long
+     */
+    long getPrunedVersions();
+
+    /**
+     * Orphan contentlet inodes deleted by the current or the last run
+     * @return long
+     */
+    long getPrunedInodes();
+
+    /**
+     * Asset directories and generated files deleted by the current or the last run
+     * @return long
+     */
+    long getRemovedFiles();
+
+    /**
+     * Millis the current run has taken so far, or the last run took
+     * @return long
+     */
+    long getRunMillis();
+
+    /**
+     * Rows per batch
+     * @return int
+     */
+    int getBatchSize();
+
+    /**
+     * Max rows deleted per second, 0 if unlimited
+     * @return int
+     */
+    int getMaxRowsPerSecond();
+
+    /**
+     * Stops the prune after the batch being deleted, until it is resumed
+     */
+    void pause();
+
+    /**
+     * Goes on with a paused prune
+     */
+    void resume();
+
+    /**
+     * Ends the prune after the batch being deleted, the next run starts over where this one stopped
+     */
+    void stop();
+
+} // E:O:F:ContentVersionPrunerMBean.
@@ -36,9 +36,9 @@ import org.springframework.util.NumberUtils;
 import com.dotcms.content.business.DotMappingException;
 import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
 import com.dotcms.content.elasticsearch.util.ESClient;
+import com.dotcms.metrics.MetricsRegistry;
 import com.dotcms.notifications.business.NotificationAPI;
 import com.dotcms.repackage.net.sf.hibernate.ObjectNotFoundException;
-import com.dotcms.repackage.org.apache.commons.io.FileUtils;
 import com.dotcms.repackage.org.apache.commons.lang.StringUtils;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
@@ -99,6 +99,7 @@ public class ESContentFactoryImpl extends ContentletFactory {
 	private LanguageAPI langAPI;
 
 	private static final Contentlet cache404Content= new Contentlet();
+	private static final String ES_QUERY_METRIC = "dotcms_es_query_seconds";
 	public static final String CACHE_404_CONTENTLET="CACHE_404_CONTENTLET";
 
 	/**
@@ -627,7 +628,6 @@ public class ESContentFactoryImpl extends ContentletFactory {
 
 	@Override
 	protected int deleteOldContent(Date deleteFrom) throws DotDataException {
-	    ContentletCache cc = CacheLocator.getContentletCache();
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(deleteFrom);
         calendar.set(Calendar.HOUR_OF_DAY, 0);
@@ -635,54 +635,9 @@ public class ESContentFactoryImpl extends ContentletFactory {
         calendar.set(Calendar.SECOND, 0);
         calendar.set(Calendar.MILLISECOND, 0);
         Date date = calendar.getTime();
-        //Because of the way Oracle databases handle dates,
-        //this string is converted to Uppercase.This does
-        //not cause a problem with the other databases
-        DotConnect dc = new DotConnect();
-
-        String countSQL = ("select count(*) as count from contentlet");
-        dc.setSQL(countSQL);
-        List<Map<String, String>> result = dc.loadResults();
-        int before = Integer.parseInt(result.get(0).get("count"));
-
-        String deleteContentletSQL = "delete from contentlet where identifier<>'SYSTEM_HOST' and mod_date < ? " +
-        "and not exists (select * from contentlet_version_info where working_inode=contentlet.inode or live_inode=contentlet.inode)";
-        dc.setSQL(deleteContentletSQL);
-        dc.addParam(date);
-        dc.loadResult();
 
-        String deleteOrphanInodes="delete from inode where type='contentlet' and idate < ? and inode not in (select inode from contentlet)";
-        dc.setSQL(deleteOrphanInodes);
-        dc.addParam(date);
-        dc.loadResult();
-
-        dc.setSQL(countSQL);
-        result = dc.loadResults();
-        int after = Integer.parseInt(result.get(0).get("count"));
-
-        int deleted=before - after;
-
-        // deleting orphan binary files
-        java.io.File assets=new java.io.File(APILocator.getFileAssetAPI().getRealAssetsRootPath());
-        for(java.io.File ff1 : assets.listFiles())
-            if(ff1.isDirectory() && ff1.getName().length()==1 && ff1.getName().matches("^[a-f0-9]$"))
-                for(java.io.File ff2 : ff1.listFiles())
-                    if(ff2.isDirectory() && ff2.getName().length()==1 && ff2.getName().matches("^[a-f0-9]$"))
-                        for(java.io.File ff3 : ff2.listFiles())
-                            try {
-                                if(ff3.isDirectory()) {
-                                    Contentlet con=find(ff3.getName());
-                                    if(con==null || !UtilMethods.isSet(con.getIdentifier()))
-                                        if(!FileUtils.deleteQuietly(ff3))
-                                            Logger.warn(this, "can't delete "+ff3.getAbsolutePath());
-                                }
-                            }
-                            catch(Exception ex) {
-                                Logger.warn(this, ex.getMessage());
-                            }
-
-
-        return deleted;
+        // walks the old versions in small committed batches instead of a single delete
+        return ContentVersionPruner.getInstance().prune(date);
 	}
 
 	@Override
@@ -1217,7 +1172,13 @@ public class ESContentFactoryImpl extends ContentletFactory {
         CountRequestBuilder crb = client.prepareCount();
         crb.setQuery(qb);
         crb.setIndices(indexToHit);
-        return crb.execute().actionGet().getCount();
+        final long start = System.nanoTime();
+        try {
+            return crb.execute().actionGet().getCount();
+        } finally {
+            MetricsRegistry.getInstance().histogram(ES_QUERY_METRIC, "Time of the content queries to Elasticsearch",
+                    "type", "count").recordSince(start);
+        }
 	}
 
     /**
@@ -1344,6 +1305,7 @@ public class ESContentFactoryImpl extends ContentletFactory {
 
 
 
+            final long start = System.nanoTime();
             try{
             	resp = srb.execute().actionGet();
             }catch (SearchPhaseExecutionException e) {
@@ -1352,6 +1314,9 @@ public class ESContentFactoryImpl extends ContentletFactory {
 				}else{
 					throw e;
 				}
+			} finally {
+				MetricsRegistry.getInstance().histogram(ES_QUERY_METRIC, "Time of the content queries to Elasticsearch",
+						"type", "search").recordSince(start);
 			}
         } catch (Exception e) {
             Logger.debug(this, e.getMessage(), e); 
@@ -5,6 +5,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.sql.Savepoint;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -92,6 +93,7 @@ import com.dotmarketing.portlets.contentlet.business.DotReindexStateException;
 import com.dotmarketing.portlets.contentlet.business.HostAPI;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.contentlet.model.ContentletAndBinary;
+import com.dotmarketing.portlets.contentlet.model.ContentletCheckin;
 import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
 import com.dotmarketing.portlets.fileassets.business.FileAssetAPI;
 import com.dotmarketing.portlets.fileassets.business.FileAssetValidationException;
@@ -1490,6 +1492,7 @@ public class ESContentletAPIImpl implements ContentletAPI {
 		for (Contentlet contentlet : contentlets) {
 			indexAPI.removeContentFromIndex(contentlet);
 			CacheLocator.getIdentifierCache().removeFromCacheByVersionable(contentlet);
+			CacheLocator.getContentQueryCache().removeContentlet(contentlet);
 		}
 		for (Contentlet contentlet : contentletsVersion) {
 			indexAPI.removeContentFromIndex(contentlet);
@@ -1664,6 +1667,7 @@ public class ESContentletAPIImpl implements ContentletAPI {
         for (Contentlet contentlet : perCons) {
             indexAPI.removeContentFromIndex(contentlet);
             CacheLocator.getIdentifierCache().removeFromCacheByVersionable(contentlet);
+            CacheLocator.getContentQueryCache().removeContentlet(contentlet);
         }
 
         if (contentlets.size() > 0) {
@@ -1730,6 +1734,7 @@ public class ESContentletAPIImpl implements ContentletAPI {
         for (Contentlet contentlet : perCons) {
             indexAPI.removeContentFromIndex(contentlet);
             CacheLocator.getIdentifierCache().removeFromCacheByVersionable(contentlet);
+            CacheLocator.getContentQueryCache().removeContentlet(contentlet);
         }
 
         deleteBinaryFiles(contentletsVersion,null);
@@ -2636,6 +2641,91 @@ public class ESContentletAPIImpl implements ContentletAPI {
         return checkin(contentlet, relationshipsData, cats , permissions, user, respectFrontendRoles, false, false);
     }
 
+    @Override
+    public void checkin(final List<ContentletCheckin> batch, final User user, final boolean respectFrontendRoles) throws DotDataException {
+
+        final List<ContentletCheckin> valid = new ArrayList<ContentletCheckin>(batch.size());
+        for (ContentletCheckin item : batch) {
+            try {
+                validateContentlet(item.getContentlet(), relationshipsOf(item), item.getCategories());
+                valid.add(item);
+            } catch (Exception e) {
+                item.setError(e);
+            }
+        }
+
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // all of them in a single transaction, so the index requests are sent together on commit. Every contentlet
+        // is checked in after a savepoint, so a failing one is rolled back alone and the batch goes on with the
+        // next one: the contentlets checked in before it are not checked in again
+        boolean committed = false;
+        try {
+            HibernateUtil.startTransaction();
+            for (ContentletCheckin item : valid) {
+                HibernateUtil.flush();
+                final Set<String> commitListeners = HibernateUtil.getCommitListenerTags();
+                final Savepoint savepoint = HibernateUtil.setSavepoint();
+                final Contentlet contentlet = item.newContentlet();
+                try {
+                    item.setCheckedIn(checkin(item, contentlet, user, respectFrontendRoles));
+                    HibernateUtil.flush();
+                } catch (Exception e) {
+                    HibernateUtil.rollbackSavepoint(savepoint, commitListeners);
+                    forget(contentlet);
+                    item.setError(e);
+                }
+            }
+            HibernateUtil.commitTransaction();
+            committed = true;
+        } catch (Exception e) {
+            Logger.warn(this, "Unable to check in the batch of " + valid.size() + " contentlets: " + e.getMessage(), e);
+            for (ContentletCheckin item : valid) {
+                if (item.isCheckedIn()) {
+                    forget(item.getCheckedIn());
+                    item.setError(e);
+                }
+            }
+        } finally {
+            if (!committed) {
+                HibernateUtil.rollbackTransaction();
+            }
+        }
+    }
+
+    private Contentlet checkin(final ContentletCheckin item, final Contentlet contentlet, final User user,
+                               final boolean respectFrontendRoles) throws DotDataException, DotSecurityException {
+
+        final Contentlet checkedIn = checkin(contentlet, relationshipsOf(item), item.getCategories(),
+                new ArrayList<Permission>(), user, respectFrontendRoles);
+        if (item.isPublish()) {
+            publish(checkedIn, user, respectFrontendRoles);
+        }
+        return checkedIn;
+    }
+
+    /**
+     * Removes from the caches what a checkin that was rolled back may have left there
+     */
+    private void forget(final Contentlet contentlet) {
+
+        if (UtilMethods.isSet(contentlet.getInode())) {
+            CacheLocator.getContentletCache().remove(contentlet.getInode());
+        }
+        if (UtilMethods.isSet(contentlet.getIdentifier())) {
+            CacheLocator.getIdentifierCache().removeContentletVersionInfoToCache(contentlet.getIdentifier(),
+                    contentlet.getLanguageId());
+            CacheLocator.getIdentifierCache().removeFromCacheByIdentifier(contentlet.getIdentifier());
+        }
+    }
+
+    private Map<Relationship, List<Contentlet>> relationshipsOf(final ContentletCheckin item) {
+
+        return (item.getRelationships() != null) ? item.getRelationships() : new HashMap<Relationship, List<Contentlet>>();
+    }
+
     /**
      *
      * @param contentlet
@@ -329,6 +329,12 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 			indexContentletList(req, contentToIndex, reindexOnly);
 			if(bulk==null && req.numberOfActions()>0){
 				req.execute().actionGet();
+				if(!reindexOnly) {
+				    // the queries cached while the content was being saved may have missed it
+				    for(Contentlet con : contentToIndex) {
+				        CacheLocator.getContentQueryCache().removeContentlet(con);
+				    }
+				}
 			}
 		} catch (DotStateException | DotSecurityException | DotMappingException e) {
 			throw new DotDataException (e.getMessage(), e);
@@ -340,6 +346,13 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 		if ( contentToIndex != null && !contentToIndex.isEmpty() ) {
 			Logger.debug(this.getClass(), "Indexing " + contentToIndex.size() +
 					" contents, starting with identifier [ " + contentToIndex.get(0).getMap().get("identifier") + "]");
+
+			// loads the workflow tasks of the whole list with a single query, so the mapping finds them in cache
+			try {
+				APILocator.getWorkflowAPI().findTasksByContentlets(contentToIndex);
+			} catch (DotDataException e) {
+				Logger.warn(this.getClass(), "unable to load the workflow tasks of the contents to index: " + e.getMessage());
+			}
 		}
 
 		for(Contentlet con : contentToIndex) {
@@ -453,6 +466,7 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 	        	        }
 
 	                    bulk.execute().actionGet();
+	                    CacheLocator.getContentQueryCache().removeContentlet(content);
 
 	        	    }
 	        	    catch(Exception ex) {
@@ -3,6 +3,7 @@ package com.dotcms.content.elasticsearch.business;
 import static com.dotcms.util.DotPreconditions.checkArgument;
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -22,9 +23,19 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
@@ -59,8 +70,10 @@ import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRespons
 import org.elasticsearch.action.admin.indices.status.IndexStatus;
 import org.elasticsearch.action.admin.indices.status.IndicesStatusRequest;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.client.AdminClient;
@@ -84,7 +97,11 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.snapshots.SnapshotInfo;
 
 import com.dotcms.cluster.ClusterUtils;
+import com.dotcms.concurrent.DotConcurrentFactory;
+import com.dotcms.concurrent.DotSubmitter;
 import com.dotcms.content.elasticsearch.util.ESClient;
+import com.dotcms.content.elasticsearch.util.ESReindexationProcessStatus;
+import com.dotcms.content.elasticsearch.util.ESReindexationProcessStatus.IndexTransferProgress;
 import com.dotcms.repackage.com.fasterxml.jackson.databind.ObjectMapper;
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 import com.dotcms.repackage.org.dts.spell.utils.FileUtils;
@@ -109,6 +126,46 @@ public class ESIndexAPI {
     private  final int DEFAULT_HEARTBEAT_TIMEOUT = 1800; // 1800 seconds = 30 mins
 
     public static final String BACKUP_REPOSITORY = "backup";
+
+    /**
+     * Zip compression level of the index backups, 1 (the default) is the fastest
+     */
+    public static final String ES_INDEX_BACKUP_COMPRESSION_LEVEL = "ES_INDEX_BACKUP_COMPRESSION_LEVEL";
+
+    /**
+     * Max number of shards scanned in parallel by an index backup
+     */
+    public static final String ES_INDEX_BACKUP_MAX_SLICES = "ES_INDEX_BACKUP_MAX_SLICES";
+
+    /**
+     * Number of records fetched per shard on every scroll of an index backup
+     */
+    public static final String ES_INDEX_BACKUP_SCROLL_SIZE = "ES_INDEX_BACKUP_SCROLL_SIZE";
+
+    /**
+     * Max number of bulk requests sent at the same time by an index restore
+     */
+    public static final String ES_INDEX_RESTORE_CONCURRENT_BULKS = "ES_INDEX_RESTORE_CONCURRENT_BULKS";
+
+    /**
+     * Lower and upper bounds for the number of records per bulk request of an index restore
+     */
+    public static final String ES_INDEX_RESTORE_MIN_BULK_SIZE = "ES_INDEX_RESTORE_MIN_BULK_SIZE";
+    public static final String ES_INDEX_RESTORE_MAX_BULK_SIZE = "ES_INDEX_RESTORE_MAX_BULK_SIZE";
+
+    /**
+     * Time in millis a restore bulk request should take, used to grow or shrink the bulk size
+     */
+    public static final String ES_INDEX_RESTORE_BULK_TARGET_MILLIS = "ES_INDEX_RESTORE_BULK_TARGET_MILLIS";
+
+    private static final List<String> END_OF_SLICE = new ArrayList<>(0);
+
+    /**
+     * Submitters running the shard scans of the backups and the bulk requests of the restores, their pools can be
+     * tuned with the esindexbackupdotcms.concurrent.* and esindexrestoredotcms.concurrent.* properties
+     */
+    private static final String BACKUP_SUBMITTER = "esindexbackup";
+    private static final String RESTORE_SUBMITTER = "esindexrestore";
     private final String REPOSITORY_PATH = "es.path.repo";
 
 	final private ESClient esclient;
@@ -184,12 +241,18 @@ public class ESIndexAPI {
 			toFile = new File(ConfigUtils.getBackupPath() + File.separator + index + "_" + date + ".json");
 		}
 
-		Client client = esclient.getClient();
+		final Client client = esclient.getClient();
+		final int slices = this.getBackupSlices(index);
+		final long total = client.prepareCount(index).setQuery(QueryBuilders.matchAllQuery()).execute().actionGet().getCount();
+		final IndexTransferProgress progress = ESReindexationProcessStatus.startIndexTransfer(index, "backup", total);
+		final DotSubmitter submitter = DotConcurrentFactory.getInstance().getSubmitter(BACKUP_SUBMITTER);
+		final AtomicBoolean aborted = new AtomicBoolean(false);
+		final List<Future<?>> scans = new ArrayList<>(slices);
 
 		BufferedWriter bw = null;
 		try {
 		    ZipOutputStream zipOut=new ZipOutputStream(new FileOutputStream(toFile));
-		    zipOut.setLevel(9);
+		    zipOut.setLevel(Config.getIntProperty(ES_INDEX_BACKUP_COMPRESSION_LEVEL, Deflater.BEST_SPEED));
 		    zipOut.putNextEntry(new ZipEntry(toFile.getName()));
 
 			bw = new BufferedWriter(
@@ -201,29 +264,40 @@ public class ESIndexAPI {
 	        bw.write(mapping);
 	        bw.newLine();
 
-	        // setting up the search for all content
-			SearchResponse scrollResp = client.prepareSearch(index).setSearchType(SearchType.SCAN).setQuery(QueryBuilders.matchAllQuery())
-					.setSize(100).setScroll(TimeValue.timeValueMinutes(2)).execute().actionGet();
-			while (true) {
-				scrollResp = client.prepareSearchScroll(scrollResp.getScrollId()).setScroll(TimeValue.timeValueMinutes(2)).execute()
-						.actionGet();
-				boolean hitsRead = false;
-				for (SearchHit hit : scrollResp.getHits()) {
-					bw.write(hit.getId());
-					bw.write(JSON_RECORD_DELIMITER);
-					bw.write(hit.sourceAsString());
-					bw.newLine();
-					hitsRead = true;
-				}
-				if (!hitsRead) {
-					break;
-				}
-			}
+	        // every shard is scanned on its own thread, the records are written here as they arrive
+	        final BlockingQueue<List<String>> records = new ArrayBlockingQueue<>(slices * 4);
+	        for (int shard = 0; shard < slices; shard++) {
+	        	scans.add(submitter.submit(new BackupSliceTask(client, index, slices > 1 ? shard : -1, records, aborted)));
+	        }
+
+	        int finishedSlices = 0;
+	        while (finishedSlices < slices) {
+	        	final List<String> lines = records.take();
+	        	if (lines == END_OF_SLICE) {
+	        		finishedSlices++;
+	        		continue;
+	        	}
+	        	for (final String line : lines) {
+	        		bw.write(line);
+	        		bw.newLine();
+	        	}
+	        	progress.addProcessed(lines.size());
+	        }
+
+	        for (final Future<?> scan : scans) {
+	        	scan.get();
+	        }
 			return toFile;
 		} catch (Exception e) {
 		    Logger.error(this.getClass(), "Can't export index",e);
 			throw new IOException(e.getMessage(),e);
 		} finally {
+			// the writer is gone, the scans still running must not wait for room in the queue
+			aborted.set(true);
+			for (final Future<?> scan : scans) {
+				scan.cancel(true);
+			}
+			ESReindexationProcessStatus.finishIndexTransfer(index);
 			if (bw != null) {
 				bw.close();
 			}
@@ -231,6 +305,93 @@ public class ESIndexAPI {
 		}
 	}
 
+	/**
+	 * Returns the number of parallel scans used to back up the given index, one per shard up to
+	 * the {@link #ES_INDEX_BACKUP_MAX_SLICES} limit. If the index has more shards than that,
+	 * a single scan over all of them is used.
+	 * @param index
+	 * @return
+	 */
+	private int getBackupSlices(final String index) {
+		final int maxSlices = Config.getIntProperty(ES_INDEX_BACKUP_MAX_SLICES, 8);
+		final ClusterIndexHealth health = getClusterHealth().get(index);
+		final int shards = (null != health)? health.getNumberOfShards() : 1;
+		return (shards > 1 && shards <= maxSlices)? shards : 1;
+	}
+
+	/**
+	 * Scans one shard of an index (or the whole index if no shard is specified) and hands the
+	 * serialized records to the backup writer through a bounded queue. When the scan is done, or
+	 * fails, the {@link #END_OF_SLICE} marker is queued. Once the writer has aborted nothing else
+	 * is queued, so the scan never blocks on a queue no one reads.
+	 */
+	private final class BackupSliceTask implements Callable<Void> {
+
+		private final Client client;
+		private final String index;
+		private final int shard;
+		private final BlockingQueue<List<String>> records;
+		private final AtomicBoolean aborted;
+
+		BackupSliceTask(final Client client, final String index, final int shard, final BlockingQueue<List<String>> records,
+				final AtomicBoolean aborted) {
+			this.client = client;
+			this.index = index;
+			this.shard = shard;
+			this.records = records;
+			this.aborted = aborted;
+		}
+
+		/**
+		 * Queues the lines, waiting for room while the writer is still reading
+		 * @return false if the writer aborted
+		 */
+		private boolean hand(final List<String> lines) throws InterruptedException {
+			while (!aborted.get()) {
+				if (records.offer(lines, 1, TimeUnit.SECONDS)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			try {
+				final SearchRequestBuilder search = client.prepareSearch(index).setSearchType(SearchType.SCAN)
+						.setQuery(QueryBuilders.matchAllQuery())
+						.setSize(Config.getIntProperty(ES_INDEX_BACKUP_SCROLL_SIZE, 500))
+						.setScroll(TimeValue.timeValueMinutes(2));
+				if (shard >= 0) {
+					search.setPreference("_shards:" + shard);
+				}
+				SearchResponse scrollResp = search.execute().actionGet();
+				while (true) {
+					scrollResp = client.prepareSearchScroll(scrollResp.getScrollId()).setScroll(TimeValue.timeValueMinutes(2)).execute()
+							.actionGet();
+					final SearchHit[] hits = scrollResp.getHits().getHits();
+					if (hits.length == 0) {
+						break;
+					}
+					final List<String> lines = new ArrayList<>(hits.length);
+					for (final SearchHit hit : hits) {
+						lines.add(hit.getId() + JSON_RECORD_DELIMITER + hit.sourceAsString());
+					}
+					if (!hand(lines)) {
+						break;
+					}
+				}
+				return null;
+			} finally {
+				try {
+					hand(END_OF_SLICE);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
 	public boolean optimize(List<String> indexNames) {
 		try {
 			IndicesAdminClient iac = new ESClient().getClient().admin().indices();
@@ -281,6 +442,7 @@ public class ESIndexAPI {
 		BufferedReader br = null;
 
 		boolean indexExists = indexExists(index);
+		final IndexTransferProgress progress = ESReindexationProcessStatus.startIndexTransfer(index, "restore", -1);
 
 
 
@@ -291,9 +453,9 @@ public class ESIndexAPI {
 				createIndex(index);
 			}
 
-			ZipInputStream zipIn=new ZipInputStream(new FileInputStream(backupFile));
+			ZipInputStream zipIn=new ZipInputStream(new BufferedInputStream(new FileInputStream(backupFile), 500000));
 			zipIn.getNextEntry();
-			br = new BufferedReader(new InputStreamReader(zipIn));
+			br = new BufferedReader(new InputStreamReader(zipIn), 500000);
 
 			// setting number_of_replicas=0 to improve the indexing while restoring
 			// also we restrict the index to the current server
@@ -306,7 +468,6 @@ public class ESIndexAPI {
 			String mapping=br.readLine();
 			boolean mappingExists=mapping.startsWith(MAPPING_MARKER);
 			String type="content";
-			ArrayList<String> jsons = new ArrayList<String>();
 			if(mappingExists) {
 
 			    String patternStr = "^"+MAPPING_MARKER+"\\s*\\{\\s*\"(\\w+)\"";
@@ -317,49 +478,17 @@ public class ESIndexAPI {
 			        type = matcher.group(1);
 
 			// we recover the line that wasn't a mapping so it should be content
-
-			ObjectMapper mapper = new ObjectMapper();
-			while(br.ready()){
-				//read in 100 lines
-				for (int i = 0; i < 100; i++){
-					if(!br.ready()){
-						break;
-					}
-					jsons.add(br.readLine());
-				}
-
-				if (jsons.size() > 0) {
-				    try {
-						Client client = new ESClient().getClient();
-    				    BulkRequestBuilder req = client.prepareBulk();
-    				    for (String raw : jsons) {
-    					    int delimidx=raw.indexOf(JSON_RECORD_DELIMITER);
-    					    if(delimidx>0) {
-        						String id = raw.substring(0, delimidx);
-        						String json = raw.substring(delimidx + JSON_RECORD_DELIMITER.length(), raw.length());
-        						if (id != null){
-        							@SuppressWarnings("unchecked")
-									Map<String, Object> oldMap= mapper.readValue(json, HashMap.class);
-        							Map<String, Object> newMap = new HashMap<String, Object>();
-
-        							for(String key : oldMap.keySet()){
-        								Object val = oldMap.get(key);
-        								if(val!= null && UtilMethods.isSet(val.toString())){
-        									newMap.put(key, oldMap.get(key));
-        								}
-        							}
-            						req.add(new IndexRequest(index, type, id).source(mapper.writeValueAsString(newMap)));
-        						}
-    					    }
-    					}
-    				    if(req.numberOfActions()>0) {
-    				        req.execute().actionGet();
-    				    }
-				    }
-				    finally {
-				    	jsons = new ArrayList<String>();
-				    }
+			// the bulk requests are sent concurrently while the file is being read
+			final Client client = new ESClient().getClient();
+			final BulkRestorer restorer = new BulkRestorer(client, index, type, progress);
+			String line;
+			try {
+				while((line = br.readLine()) != null){
+					restorer.add(line);
 				}
+				restorer.flush();
+			} finally {
+				restorer.close();
 			}
 		}
 		}
@@ -372,7 +501,11 @@ public class ESIndexAPI {
 
 			// back to the original configuration for number_of_replicas
 			// also let it go other servers
-			moveIndexBackToCluster(index);
+			try {
+				moveIndexBackToCluster(index);
+			} finally {
+				ESReindexationProcessStatus.finishIndexTransfer(index);
+			}
 
             ArrayList<String> list=new ArrayList<String>();
             list.add(index);
@@ -382,6 +515,135 @@ public class ESIndexAPI {
 		}
 	}
 
+	/**
+	 * Groups the records of a backup file into bulk requests and sends up to
+	 * {@link #ES_INDEX_RESTORE_CONCURRENT_BULKS} of them at the same time. The number of records
+	 * per request adapts to the time the cluster takes to process them, growing while requests are
+	 * fast and shrinking when they get slow.
+	 */
+	private final class BulkRestorer {
+
+		private final Client client;
+		private final String index;
+		private final String type;
+		private final IndexTransferProgress progress;
+		private final ObjectMapper mapper = new ObjectMapper();
+		private final DotSubmitter submitter;
+		private final int concurrentBulks;
+		private final Semaphore permits;
+		private final int minBulkSize;
+		private final int maxBulkSize;
+		private final long targetMillis;
+		private final AtomicInteger bulkSize;
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+		private List<String> jsons;
+
+		BulkRestorer(final Client client, final String index, final String type, final IndexTransferProgress progress) {
+			final int concurrentBulks = Math.max(1, Config.getIntProperty(ES_INDEX_RESTORE_CONCURRENT_BULKS, 4));
+			this.client = client;
+			this.index = index;
+			this.type = type;
+			this.progress = progress;
+			this.submitter = DotConcurrentFactory.getInstance().getSubmitter(RESTORE_SUBMITTER);
+			this.concurrentBulks = concurrentBulks;
+			this.permits = new Semaphore(concurrentBulks);
+			this.minBulkSize = Config.getIntProperty(ES_INDEX_RESTORE_MIN_BULK_SIZE, 100);
+			this.maxBulkSize = Config.getIntProperty(ES_INDEX_RESTORE_MAX_BULK_SIZE, 5000);
+			this.targetMillis = Config.getLongProperty(ES_INDEX_RESTORE_BULK_TARGET_MILLIS, 1000);
+			this.bulkSize = new AtomicInteger(Math.min(Math.max(500, this.minBulkSize), this.maxBulkSize));
+			this.jsons = new ArrayList<>(this.bulkSize.get());
+		}
+
+		void add(final String raw) throws Exception {
+			jsons.add(raw);
+			if (jsons.size() >= bulkSize.get()) {
+				flush();
+			}
+		}
+
+		void flush() throws Exception {
+			final Throwable error = failure.get();
+			if (error != null) {
+				throw new IOException(error.getMessage(), error);
+			}
+			if (jsons.isEmpty()) {
+				return;
+			}
+			final List<String> batch = jsons;
+			jsons = new ArrayList<>(bulkSize.get());
+			permits.acquire();
+			try {
+				submitter.execute(() -> {
+					try {
+						sendBulk(batch);
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						permits.release();
+					}
+				});
+			} catch (RuntimeException e) {
+				permits.release();
+				throw e;
+			}
+		}
+
+		/**
+		 * Waits for the pending bulk requests, every one of them holds a permit until it is done
+		 */
+		void close() throws Exception {
+			permits.acquire(concurrentBulks);
+			permits.release(concurrentBulks);
+			final Throwable error = failure.get();
+			if (error != null) {
+				throw new IOException(error.getMessage(), error);
+			}
+		}
+
+		private void sendBulk(final List<String> batch) throws IOException {
+			BulkRequestBuilder req = client.prepareBulk();
+			for (String raw : batch) {
+				int delimidx=raw.indexOf(JSON_RECORD_DELIMITER);
+				if(delimidx>0) {
+					String id = raw.substring(0, delimidx);
+					String json = raw.substring(delimidx + JSON_RECORD_DELIMITER.length(), raw.length());
+					if (id != null){
+						@SuppressWarnings("unchecked")
+						Map<String, Object> oldMap= mapper.readValue(json, HashMap.class);
+						Map<String, Object> newMap = new HashMap<String, Object>();
+
+						for(String key : oldMap.keySet()){
+							Object val = oldMap.get(key);
+							if(val!= null && UtilMethods.isSet(val.toString())){
+								newMap.put(key, oldMap.get(key));
+							}
+						}
+						req.add(new IndexRequest(index, type, id).source(mapper.writeValueAsString(newMap)));
+					}
+				}
+			}
+			if(req.numberOfActions()>0) {
+				final long start = System.currentTimeMillis();
+				final BulkResponse response = req.execute().actionGet();
+				this.adjustBulkSize(System.currentTimeMillis() - start);
+				if (response.hasFailures()) {
+					Logger.warn(this.getClass(), "Some records could not be restored on index " + index + ": "
+							+ response.buildFailureMessage());
+				}
+			}
+			progress.addProcessed(batch.size());
+		}
+
+		private void adjustBulkSize(final long tookMillis) {
+			final int current = bulkSize.get();
+			if (tookMillis > targetMillis) {
+				bulkSize.compareAndSet(current, Math.max(minBulkSize, current / 2));
+			} else if (tookMillis < targetMillis / 2) {
+				bulkSize.compareAndSet(current, Math.min(maxBulkSize, current + current / 4 + 1));
+			}
+		}
+	}
+
 	/**
 	 * List of all indicies
 	 * @return
@@ -2,8 +2,12 @@ package com.dotcms.content.elasticsearch.util;
 
 import java.io.Serializable;
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.dotcms.content.elasticsearch.business.ESContentletIndexAPI;
 import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
@@ -15,6 +19,50 @@ import com.dotmarketing.exception.DotDataException;
 
 public class ESReindexationProcessStatus implements Serializable {
     private static final ESContentletIndexAPI indexAPI=new ESContentletIndexAPI();
+
+    /**
+     * Index backups and restores currently running on this server, keyed by index name
+     */
+    private static final Map<String, IndexTransferProgress> indexTransfers = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a new backup or restore of the given index, so its progress can be followed
+     * @param index {@link String} index name
+     * @param operation {@link String} "backup" or "restore"
+     * @param total long number of documents to transfer, or -1 if unknown
+     * @return IndexTransferProgress
+     */
+    public static IndexTransferProgress startIndexTransfer(final String index, final String operation, final long total) {
+        final IndexTransferProgress progress = new IndexTransferProgress(index, operation, total);
+        indexTransfers.put(index, progress);
+        return progress;
+    }
+
+    /**
+     * Removes the backup or restore of the given index from the running transfers
+     * @param index {@link String} index name
+     */
+    public static void finishIndexTransfer(final String index) {
+        indexTransfers.remove(index);
+    }
+
+    /**
+     * Returns the backups and restores currently running on this server
+     * @return List of maps with the index, operation, total, processed and elapsed millis
+     */
+    public static List<Map<String, Object>> getIndexTransfers() {
+        final List<Map<String, Object>> transfers = new ArrayList<>();
+        for (final IndexTransferProgress progress : indexTransfers.values()) {
+            final Map<String, Object> transfer = new Hashtable<>();
+            transfer.put("index", progress.getIndex());
+            transfer.put("operation", progress.getOperation());
+            transfer.put("total", progress.getTotal());
+            transfer.put("processed", progress.getProcessed());
+            transfer.put("elapsed", System.currentTimeMillis() - progress.getStartTime());
+            transfers.add(transfer);
+        }
+        return transfers;
+    }
     
     public synchronized static boolean inFullReindexation () throws DotDataException {
         return inFullReindexation(DbConnectionFactory.getConnection());
@@ -63,6 +111,7 @@ public class ESReindexationProcessStatus implements Serializable {
             Map<String, Object> theMap = new Hashtable<String, Object> ();
 
             theMap.put("inFullReindexation", inFullReindexation());
+            theMap.put("indexTransfers", getIndexTransfers());
             // no reason to hit db if not needed
             if(inFullReindexation()){
 	            theMap.put("contentCountToIndex", getContentCountToIndex());
@@ -76,4 +125,46 @@ public class ESReindexationProcessStatus implements Serializable {
             HibernateUtil.closeSession();
         }
     }
+
+    /**
+     * Keeps track of the documents processed by a running index backup or restore
+     */
+    public static class IndexTransferProgress implements Serializable {
+
+        private final String index;
+        private final String operation;
+        private final long total;
+        private final long startTime = System.currentTimeMillis();
+        private final AtomicLong processed = new AtomicLong();
+
+        private IndexTransferProgress(final String index, final String operation, final long total) {
+            this.index = index;
+            this.operation = operation;
+            this.total = total;
+        }
+
+        public String getIndex() {
+            return index;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getProcessed() {
+            return processed.get();
+        }
+
+        public void addProcessed(final long count) {
+            processed.addAndGet(count);
+        }
+    }
 }
@@ -1,8 +1,15 @@
 package com.dotcms.listeners;
 
 import com.dotcms.concurrent.DotConcurrentFactory;
+import com.dotcms.content.elasticsearch.business.ContentVersionPruner;
 import com.dotcms.jmx.DotMBean;
+import com.dotcms.metrics.MetricsRegistry;
+import com.dotmarketing.business.BlockPageCacheLoader;
+import com.dotmarketing.business.CacheWarmer;
+import com.dotmarketing.loggers.AsyncClickstreamLogger;
+import com.dotmarketing.portlets.rules.business.RulesEngineStats;
 import com.dotmarketing.util.Logger;
+import com.dotmarketing.velocity.DotResourceLoaderStats;
 
 import javax.management.*;
 import javax.servlet.ServletContextEvent;
@@ -67,6 +74,13 @@ public class RegisterMBeansListener implements ServletContextListener,
         final Set<DotMBean> mbeans = new HashSet<>();
 
         mbeans.add(DotConcurrentFactory.getInstance());
+        mbeans.add(BlockPageCacheLoader.getInstance());
+        mbeans.add(RulesEngineStats.getInstance());
+        mbeans.add(AsyncClickstreamLogger.getInstance());
+        mbeans.add(CacheWarmer.getInstance());
+        mbeans.add(DotResourceLoaderStats.getInstance());
+        mbeans.add(ContentVersionPruner.getInstance());
+        mbeans.add(MetricsRegistry.getInstance());
 
         return mbeans;
     }
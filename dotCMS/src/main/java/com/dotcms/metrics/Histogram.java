@@ -0,0 +1,165 @@
+package com.dotcms.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations, in nanoseconds, kept the way HDR histograms keep them: every power of two is split in
+ * {@value #SUB_BUCKETS} buckets of the same width, so any value is counted in a bucket no wider than an eighth of it
+ * and the quantiles are off by 12.5% at most, whatever the range of the values. The buckets are a fixed array of
+ * counts, so recording a value doesn't allocate.
+ *
+ * @see MetricsRegistry#histogram(String, String, String, String)
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    Histogram() {
+    }
+
+    /**
+     * Records a duration
+     * @param nanos long
+     */
+    public void record(final long nanos) {
+
+        final long value = Math.max(0, nanos);
+        this.counts.incrementAndGet(index(value));
+        this.sum.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * Records the time elapsed since the start
+     * @param startNanos long taken from {@link System#nanoTime()}
+     */
+    public void recordSince(final long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Copies the counts, so the quantiles can be worked out while the histogram goes on recording
+     * @return Snapshot
+     */
+    public Snapshot snapshot() {
+
+        final long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            copy[index] = this.counts.get(index);
+            count      += copy[index];
+        }
+        return new Snapshot(copy, count, this.sum.sum(), this.max.get());
+    }
+
+    static int index(final long value) {
+
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int magnitude = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+        final int shift     = magnitude - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @return long highest value counted in the bucket
+     */
+    static long highestValue(final int index) {
+
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * The counts of the histogram at some point
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(final long[] counts, final long count, final long sum, final long max) {
+
+            this.counts = counts;
+            this.count  = count;
+            this.sum    = sum;
+            this.max    = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return long sum of the values recorded, in nanoseconds
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the value under which the given fraction of the values fall
+         * @param quantile double between 0 and 1
+         * @return long nanoseconds, 0 if nothing was recorded
+         */
+        public long getValueAtQuantile(final double quantile) {
+
+            if (this.count == 0) {
+                return 0;
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(quantile * this.count));
+            long seen = 0;
+            for (int index = 0; index < this.counts.length; index++) {
+
+                seen += this.counts[index];
+                if (seen >= rank) {
+                    return Math.min(highestValue(index), this.max);
+                }
+            }
+            return this.max;
+        }
+
+        /**
+         * Returns how many values are lower than each bound, adding up the buckets below it
+         * @param bounds long[] nanoseconds, powers of two in ascending order so they fall on the edge of a bucket
+         * @return long[] count of the values lower than each bound
+         */
+        public long[] getCountsBelow(final long[] bounds) {
+
+            final long[] below = new long[bounds.length];
+            long seen = 0;
+            int index = 0;
+            for (int bound = 0; bound < bounds.length; bound++) {
+
+                final int end = Math.min(index(bounds[bound]), this.counts.length);
+                for (; index < end; index++) {
+                    seen += this.counts[index];
+                }
+                below[bound] = seen;
+            }
+            return below;
+        }
+    }
+} // E:O:F:Histogram.
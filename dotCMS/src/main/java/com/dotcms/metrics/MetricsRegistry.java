@@ -0,0 +1,360 @@
+package com.dotcms.metrics;
+
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.util.Logger;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * Keeps the operational metrics of the node in one place: counters, gauges and latency {@link Histogram}s, exposed
+ * through JMX as {@value #MBEAN_OBJECT_NAME} and in the Prometheus text format by the /api/v1/metrics end-point.
+ * <p>
+ * A metric has a name and, optionally, one label, such as the region of a cache or the mode of a page render. The
+ * metric of a name and label is created the first time it is asked for, and the next times the same instance is
+ * returned, found with two map lookups that don't allocate, so the code on the hot paths can ask the registry for
+ * the metric every time instead of keeping it around. Gauges are read when the metrics are, so they cost nothing
+ * in between. The durations are recorded in nanoseconds and exposed in seconds, as Prometheus expects, as histograms
+ * with the cumulative counts of {@link #BUCKET_BOUNDS}, so the quantiles can be worked out over any window and
+ * across the nodes of the cluster.
+ * <pre>
+ * final long start = System.nanoTime();
+ * ...
+ * MetricsRegistry.getInstance().histogram("dotcms_page_render_seconds", "Time to render a page", "mode", "live")
+ *         .recordSince(start);
+ * </pre>
+ */
+public final class MetricsRegistry implements MetricsRegistryMBean {
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=Metrics";
+
+    static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    /**
+     * Upper bounds of the buckets the histograms are exposed with, in nanoseconds: every fourth power of two, from
+     * 16 microseconds to 69 seconds. They fall on the edges of the buckets of the {@link Histogram}, so the counts
+     * exposed are exact.
+     */
+    static final long[] BUCKET_BOUNDS = new long[12];
+
+    static {
+        for (int bound = 0; bound < BUCKET_BOUNDS.length; bound++) {
+            BUCKET_BOUNDS[bound] = 1L << (14 + 2 * bound);
+        }
+    }
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private static final String NO_LABEL = "";
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+        this.registerDataSourceGauges();
+    }
+
+    private static class SingletonHolder {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+
+    /**
+     * Get the instance.
+     * @return MetricsRegistry
+     */
+    public static MetricsRegistry getInstance() {
+
+        return MetricsRegistry.SingletonHolder.INSTANCE;
+    }
+
+    public Counter counter(final String name, final String help) {
+        return this.counter(name, help, null, NO_LABEL);
+    }
+
+    /**
+     * Returns the counter of the name and label, creating it the first time
+     * @param name {@link String} metric name, such as dotcms_cache_hits_total
+     * @param help {@link String} what is counted
+     * @param labelName {@link String} name of the label, null if the metric has none
+     * @param labelValue {@link String} value of the label
+     * @return Counter
+     */
+    public Counter counter(final String name, final String help, final String labelName, final String labelValue) {
+        return (Counter) this.get(name, help, Type.COUNTER, labelName, labelValue, key -> new Counter());
+    }
+
+    public Histogram histogram(final String name, final String help) {
+        return this.histogram(name, help, null, NO_LABEL);
+    }
+
+    /**
+     * Returns the histogram of the name and label, creating it the first time
+     * @param name {@link String} metric name, ending in _seconds
+     * @param help {@link String} what is timed
+     * @param labelName {@link String} name of the label, null if the metric has none
+     * @param labelValue {@link String} value of the label
+     * @return Histogram
+     */
+    public Histogram histogram(final String name, final String help, final String labelName, final String labelValue) {
+        return (Histogram) this.get(name, help, Type.HISTOGRAM, labelName, labelValue, key -> new Histogram());
+    }
+
+    public void gauge(final String name, final String help, final DoubleSupplier supplier) {
+        this.gauge(name, help, null, NO_LABEL, supplier);
+    }
+
+    /**
+     * Sets the gauge of the name and label, replacing the one set before
+     * @param name {@link String} metric name
+     * @param help {@link String} what is measured
+     * @param labelName {@link String} name of the label, null if the metric has none
+     * @param labelValue {@link String} value of the label
+     * @param supplier {@link DoubleSupplier} called every time the metrics are read
+     */
+    public void gauge(final String name, final String help, final String labelName, final String labelValue,
+                      final DoubleSupplier supplier) {
+
+        this.family(name, help, Type.GAUGE, labelName).children.put(labelValue(labelValue), supplier);
+    }
+
+    private Object get(final String name, final String help, final Type type, final String labelName,
+                       final String labelValue, final Function<String, Object> factory) {
+
+        final Family family = this.family(name, help, type, labelName);
+        final String key = labelValue(labelValue);
+        final Object metric = family.children.get(key);
+        return (null != metric) ? metric : family.children.computeIfAbsent(key, factory);
+    }
+
+    private Family family(final String name, final String help, final Type type, final String labelName) {
+
+        Family family = this.families.get(name);
+        if (null == family) {
+            family = this.families.computeIfAbsent(name, key -> new Family(name, help, type, labelName));
+        }
+
+        if (family.type != type) {
+            throw new IllegalArgumentException("The metric " + name + " is a " + family.type.name + ", not a " + type.name);
+        }
+        return family;
+    }
+
+    private static String labelValue(final String labelValue) {
+        return (null != labelValue) ? labelValue : NO_LABEL;
+    }
+
+    /**
+     * Writes every metric in the Prometheus text format, version 0.0.4
+     * @param writer {@link Writer}
+     * @throws IOException
+     */
+    public void write(final Writer writer) throws IOException {
+
+        for (final Family family : new TreeMap<>(this.families).values()) {
+
+            writer.write("# HELP " + family.name + ' ' + escape(family.help, false) + '\n');
+            writer.write("# TYPE " + family.name + ' ' + family.type.name + '\n');
+
+            for (final Map.Entry<String, Object> child : new TreeMap<>(family.children).entrySet()) {
+
+                final String label = (null != family.labelName)
+                        ? family.labelName + "=\"" + escape(child.getKey(), true) + '"' : null;
+                final Object metric = child.getValue();
+
+                if (metric instanceof Histogram) {
+
+                    final Histogram.Snapshot snapshot = ((Histogram) metric).snapshot();
+                    final String labels = (null != label) ? label + ',' : "";
+                    final long[] below = snapshot.getCountsBelow(BUCKET_BOUNDS);
+                    for (int bound = 0; bound < BUCKET_BOUNDS.length; bound++) {
+                        writeSample(writer, family.name + "_bucket",
+                                labels + "le=\"" + format(BUCKET_BOUNDS[bound] / NANOS_PER_SECOND) + '"', below[bound]);
+                    }
+                    writeSample(writer, family.name + "_bucket", labels + "le=\"+Inf\"", snapshot.getCount());
+                    writeSample(writer, family.name + "_sum", label, snapshot.getSum() / NANOS_PER_SECOND);
+                    writeSample(writer, family.name + "_count", label, snapshot.getCount());
+                } else {
+
+                    writeSample(writer, family.name, label, value(family, metric));
+                }
+            }
+        }
+    }
+
+    private static void writeSample(final Writer writer, final String name, final String labels, final double value)
+            throws IOException {
+
+        writer.write(name);
+        if (null != labels) {
+            writer.write('{' + labels + '}');
+        }
+        writer.write(' ');
+        writer.write(format(value));
+        writer.write('\n');
+    }
+
+    private static double value(final Family family, final Object metric) {
+
+        if (metric instanceof Counter) {
+            return ((Counter) metric).get();
+        }
+
+        try {
+            return ((DoubleSupplier) metric).getAsDouble();
+        } catch (Exception e) {
+            Logger.debug(MetricsRegistry.class, "Unable to read the gauge " + family.name + ": " + e.getMessage(), e);
+            return Double.NaN;
+        }
+    }
+
+    static String format(final double value) {
+
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return (value > 0) ? "+Inf" : "-Inf";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escape(final String text, final boolean quoted) {
+
+        final StringBuilder escaped = new StringBuilder(text.length());
+        for (final char character : text.toCharArray()) {
+            if (character == '\\') {
+                escaped.append("\\\\");
+            } else if (character == '\n') {
+                escaped.append("\\n");
+            } else if (quoted && character == '"') {
+                escaped.append("\\\"");
+            } else {
+                escaped.append(character);
+            }
+        }
+        return escaped.toString();
+    }
+
+    @Override
+    public Map<String, Double> getValues() {
+
+        final Map<String, Double> values = new LinkedHashMap<>();
+        for (final Family family : new TreeMap<>(this.families).values()) {
+            for (final Map.Entry<String, Object> child : new TreeMap<>(family.children).entrySet()) {
+
+                final String name = (null != family.labelName)
+                        ? family.name + '{' + family.labelName + "=\"" + child.getKey() + "\"}" : family.name;
+                final Object metric = child.getValue();
+
+                if (metric instanceof Histogram) {
+
+                    final Histogram.Snapshot snapshot = ((Histogram) metric).snapshot();
+                    values.put(name + ".count", (double) snapshot.getCount());
+                    values.put(name + ".sum", snapshot.getSum() / NANOS_PER_SECOND);
+                    for (final double quantile : QUANTILES) {
+                        values.put(name + ".p" + Math.round(quantile * 100), snapshot.getValueAtQuantile(quantile) / NANOS_PER_SECOND);
+                    }
+                    values.put(name + ".max", snapshot.getMax() / NANOS_PER_SECOND);
+                } else {
+
+                    values.put(name, value(family, metric));
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String getPrometheusText() {
+
+        final StringWriter writer = new StringWriter();
+        try {
+            this.write(writer);
+        } catch (IOException e) {
+            Logger.error(this, e.getMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    /**
+     * Connections of the pool of the default data source, read from the DBCP data source the container creates.
+     * The gauges read NaN if the data source is not a DBCP one.
+     */
+    private void registerDataSourceGauges() {
+
+        this.gauge("dotcms_db_pool_active_connections", "Connections of the database pool in use",
+                () -> readDataSource("getNumActive"));
+        this.gauge("dotcms_db_pool_idle_connections", "Idle connections of the database pool",
+                () -> readDataSource("getNumIdle"));
+        this.gauge("dotcms_db_pool_max_connections", "Max connections of the database pool",
+                () -> readDataSource("getMaxTotal", "getMaxActive"));
+    }
+
+    private static double readDataSource(final String... getters) {
+
+        final DataSource dataSource = DbConnectionFactory.getDataSource();
+        if (null == dataSource) {
+            return Double.NaN;
+        }
+
+        for (final String getter : getters) {
+            try {
+
+                final Method method = dataSource.getClass().getMethod(getter);
+                return ((Number) method.invoke(dataSource)).doubleValue();
+            } catch (NoSuchMethodException e) {
+                // try the next one
+            } catch (Exception e) {
+                Logger.debug(MetricsRegistry.class, "Unable to call " + getter + " on the data source: " + e.getMessage(), e);
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private enum Type {
+
+        COUNTER("counter"), GAUGE("gauge"), HISTOGRAM("histogram");
+
+        private final String name;
+
+        Type(final String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * The metrics of a name, by the value of their label
+     */
+    private static final class Family {
+
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final String labelName;
+        private final ConcurrentMap<String, Object> children = new ConcurrentHashMap<>();
+
+        private Family(final String name, final String help, final Type type, final String labelName) {
+
+            this.name      = name;
+            this.help      = (null != help) ? help : name;
+            this.type      = type;
+            this.labelName = labelName;
+        }
+    }
+} // E:O:F:MetricsRegistry.
@@ -0,0 +1,25 @@
+package com.dotcms.metrics;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link MetricsRegistry}
+ */
+public interface MetricsRegistryMBean extends DotMBean {
+
+    /**
+     * Current value of every metric, by name and label. The histograms show their count, their sum and their
+     * quantiles, in seconds.
+     * @return Map
+     */
+    Map<String, Double> getValues();
+
+    /**
+     * The metrics in the Prometheus text format, as the /api/v1/metrics end-point returns them
+     * @return String
+     */
+    String getPrometheusText();
+
+} // E:O:F:MetricsRegistryMBean.
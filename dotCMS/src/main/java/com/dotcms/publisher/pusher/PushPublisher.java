@@ -12,7 +12,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
+import com.dotcms.concurrent.DotConcurrentException;
+import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotcms.enterprise.publishing.remote.bundler.BundleXMLAsc;
 import com.dotcms.enterprise.publishing.remote.bundler.CategoryBundler;
@@ -31,7 +37,6 @@ import com.dotcms.enterprise.publishing.remote.bundler.RuleBundler;
 import com.dotcms.enterprise.publishing.remote.bundler.TemplateBundler;
 import com.dotcms.enterprise.publishing.remote.bundler.UserBundler;
 import com.dotcms.enterprise.publishing.remote.bundler.WorkflowBundler;
-import com.dotcms.publisher.bundle.bean.Bundle;
 import com.dotcms.publisher.business.DotPublisherException;
 import com.dotcms.publisher.business.EndpointDetail;
 import com.dotcms.publisher.business.PublishAuditAPI;
@@ -92,6 +97,12 @@ public class PushPublisher extends Publisher {
     private static final String PROTOCOL_HTTP = "http";
     private static final String PROTOCOL_HTTPS = "https";
 
+    public static final String PUSH_PUBLISHING_SUBMITTER_NAME = "pushpublishing";
+    private static final String PUSH_PUBLISHING_PARALLEL_ENDPOINTS = "PUSH_PUBLISHING_PARALLEL_ENDPOINTS";
+    private static final String PUSH_PUBLISHING_CHUNK_SIZE = "PUSH_PUBLISHING_CHUNK_SIZE";
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final int BUNDLE_STREAM_BUFFER_SIZE = 64 * 1024;
+
     @Override
     public PublisherConfig init ( PublisherConfig config ) throws DotPublishingException {
         if ( LicenseUtil.getLevel() < 300 ) {
@@ -135,9 +146,10 @@ public class PushPublisher extends Publisher {
 
 			Client client = RestClientBuilder.newClient();
 			client.property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED");
-			client.property(ClientProperties.CHUNKED_ENCODING_SIZE, 1024);
+			client.property(ClientProperties.CHUNKED_ENCODING_SIZE,
+					Config.getIntProperty(PUSH_PUBLISHING_CHUNK_SIZE, DEFAULT_CHUNK_SIZE));
 
-			String contentDisposition = "attachment; filename=\"" + bundle.getName() + "\"";
+			final String bundleName = APILocator.getBundleAPI().getBundleById(this.config.getId()).getName();
 
 			//Updating audit table
 			currentStatusHistory = pubAuditAPI.getPublishAuditStatus(this.config.getId()).getStatusPojo();
@@ -152,6 +164,8 @@ public class PushPublisher extends Publisher {
 			// Counters for determining the publishing status
 	        int errorCounter = 0;
 	        int totalEndpoints = 0;
+	        // The bundle is sent to all the end-points at the same time, results are collected in order afterwards
+	        final List<EndpointDelivery> deliveries = new ArrayList<>();
 			for (Environment environment : environments) {
 				List<PublishingEndPoint> allEndpoints = this.publishingEndPointAPI.findSendingEndPointsByEnvironment(environment.getId());
 				List<PublishingEndPoint> endpoints = new ArrayList<PublishingEndPoint>();
@@ -180,7 +194,6 @@ public class PushPublisher extends Publisher {
 					}
 				}
 
-				boolean failedEnvironment = false;
 				if(!environment.getPushToAll()) {
 					Collections.shuffle(endpoints);
 					if(!endpoints.isEmpty())
@@ -188,57 +201,25 @@ public class PushPublisher extends Publisher {
 				}
 
 				for (PublishingEndPoint endpoint : endpoints) {
-					EndpointDetail detail = new EndpointDetail();
-
-					InputStream bundleStream = new BufferedInputStream(new FileInputStream(bundle));
-	        		try {
-	        			Bundle b=APILocator.getBundleAPI().getBundleById(this.config.getId());
-
-	        			WebTarget webTarget = client.target(endpoint.toURL()+"/api/bundlePublisher/publish")
-	        					.queryParam("AUTH_TOKEN", retriveKeyString(PublicEncryptionFactory.decryptString(endpoint.getAuthKey().toString())))
-	        					.queryParam("GROUP_ID", UtilMethods.isSet(endpoint.getGroupId()) ? endpoint.getGroupId() : endpoint.getId())
-	        					.queryParam("BUNDLE_NAME", b.getName())
-	        					.queryParam("ENDPOINT_ID", endpoint.getId())
-	        					.queryParam("FILE_NAME", bundle.getName())
-	        			;
-
-	        			Response response = webTarget.request(MediaType.APPLICATION_OCTET_STREAM_TYPE)
-	        					.header("Content-Disposition", contentDisposition)
-	        					.post(Entity.entity(bundleStream, MediaType.APPLICATION_OCTET_STREAM_TYPE));
-
-	        			if(response.getStatus() == HttpStatus.SC_OK)
-	        			{
-							PushPublishLogger.log(this.getClass(), "Status Update: Bundle sent");
-	        				detail.setStatus(PublishAuditStatus.Status.BUNDLE_SENT_SUCCESSFULLY.getCode());
-	        				detail.setInfo("Everything ok");
-	        			} else {
+					deliveries.add(new EndpointDelivery(environment, endpoint, this.submitDelivery(client, bundle, bundleName, endpoint)));
+				}
+			}
 
-	        				if(currentStatusHistory.getNumTries()==PublisherQueueJob.MAX_NUM_TRIES) {
-		        				APILocator.getPushedAssetsAPI().deletePushedAssets(this.config.getId(), environment.getId());
-		        			}
-	        				detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
-	        				detail.setInfo(
-	        						"Returned "+response.getStatus()+ " status code " +
-	        								"for the endpoint " + endpoint.getServerName() + "with address "+endpoint.getAddress());
-	        				failedEnvironment |= true;
-	        			}
-	        		} catch(Exception e) {
-	        			// if the bundle can't be sent after the total num of tries, delete the pushed assets for this bundle
-	        			if(currentStatusHistory.getNumTries()==PublisherQueueJob.MAX_NUM_TRIES) {
-	        				APILocator.getPushedAssetsAPI().deletePushedAssets(this.config.getId(), environment.getId());
-	        			}
-	        			detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
-	        			String error = 	"An error occured for the endpoint "+ endpoint.getServerName() + " with address "+ endpoint.getAddress() + ". Error: " + e.getMessage();
-	        			detail.setInfo(error);
-	        			failedEnvironment |= true;
-	        			errorCounter++;
-	        			Logger.error(this.getClass(), error);
-	        		} finally {
-	        			CloseUtils.closeQuietly(bundleStream);
-	        		}
-	        		if (isHistoryEmpty || failedEnvironment) {
-	        			currentStatusHistory.addOrUpdateEndpoint(environment.getId(), endpoint.getId(), detail);
-	        		}
+			final Set<String> failedEnvironments = new HashSet<>();
+			for (EndpointDelivery delivery : deliveries) {
+				final EndpointDetail detail = this.getDeliveryDetail(delivery);
+				if (PublishAuditStatus.Status.BUNDLE_SENT_SUCCESSFULLY.getCode() != detail.getStatus()) {
+					failedEnvironments.add(delivery.environment.getId());
+					// if the bundle can't be sent after the total num of tries, delete the pushed assets for this bundle
+					if(currentStatusHistory.getNumTries()==PublisherQueueJob.MAX_NUM_TRIES) {
+						APILocator.getPushedAssetsAPI().deletePushedAssets(this.config.getId(), delivery.environment.getId());
+					}
+					if (delivery.failedWithError) {
+						errorCounter++;
+					}
+				}
+				if (isHistoryEmpty || failedEnvironments.contains(delivery.environment.getId())) {
+					currentStatusHistory.addOrUpdateEndpoint(delivery.environment.getId(), delivery.endpoint.getId(), detail);
 				}
 			}
 
@@ -270,6 +251,132 @@ public class PushPublisher extends Publisher {
 		}
 	}
 
+	/**
+	 * Sends the bundle file to the specified end-point using the push publishing
+	 * submitter. Every end-point reads its own stream of the bundle file, so
+	 * several end-points can receive the same bundle at the same time.
+	 *
+	 * @param client
+	 *            The REST client used to send the bundle.
+	 * @param bundle
+	 *            The compressed bundle file.
+	 * @param bundleName
+	 *            The name of the bundle, as specified by the user.
+	 * @param endpoint
+	 *            The end-point that will receive the bundle.
+	 * @return The {@link Future} holding the delivery result.
+	 */
+	private Future<EndpointDetail> submitDelivery(final Client client, final File bundle, final String bundleName,
+			final PublishingEndPoint endpoint) {
+		final Callable<EndpointDetail> delivery = () -> this.sendBundle(client, bundle, bundleName, endpoint);
+		if (!Config.getBooleanProperty(PUSH_PUBLISHING_PARALLEL_ENDPOINTS, true)) {
+			final FutureTask<EndpointDetail> task = new FutureTask<>(delivery);
+			task.run();
+			return task;
+		}
+		try {
+			return DotConcurrentFactory.getInstance().getSubmitter(PUSH_PUBLISHING_SUBMITTER_NAME).submit(delivery);
+		} catch (DotConcurrentException e) {
+			// The pool is saturated, send it from the current thread instead
+			Logger.debug(this, "Push publishing pool is busy, sending bundle from the current thread: " + e.getMessage());
+			final FutureTask<EndpointDetail> task = new FutureTask<>(delivery);
+			task.run();
+			return task;
+		}
+	}
+
+	/**
+	 * Posts the bundle file to the bundle publisher REST end-point of the
+	 * specified server.
+	 *
+	 * @param client
+	 *            The REST client used to send the bundle.
+	 * @param bundle
+	 *            The compressed bundle file.
+	 * @param bundleName
+	 *            The name of the bundle, as specified by the user.
+	 * @param endpoint
+	 *            The end-point that will receive the bundle.
+	 * @return The {@link EndpointDetail} describing the delivery.
+	 * @throws Exception
+	 *             An error occurred when sending the bundle.
+	 */
+	private EndpointDetail sendBundle(final Client client, final File bundle, final String bundleName,
+			final PublishingEndPoint endpoint) throws Exception {
+		final EndpointDetail detail = new EndpointDetail();
+		final InputStream bundleStream = new BufferedInputStream(new FileInputStream(bundle), BUNDLE_STREAM_BUFFER_SIZE);
+		try {
+			WebTarget webTarget = client.target(endpoint.toURL()+"/api/bundlePublisher/publish")
+					.queryParam("AUTH_TOKEN", retriveKeyString(PublicEncryptionFactory.decryptString(endpoint.getAuthKey().toString())))
+					.queryParam("GROUP_ID", UtilMethods.isSet(endpoint.getGroupId()) ? endpoint.getGroupId() : endpoint.getId())
+					.queryParam("BUNDLE_NAME", bundleName)
+					.queryParam("ENDPOINT_ID", endpoint.getId())
+					.queryParam("FILE_NAME", bundle.getName())
+			;
+
+			Response response = webTarget.request(MediaType.APPLICATION_OCTET_STREAM_TYPE)
+					.header("Content-Disposition", "attachment; filename=\"" + bundle.getName() + "\"")
+					.post(Entity.entity(bundleStream, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+
+			if(response.getStatus() == HttpStatus.SC_OK) {
+				PushPublishLogger.log(this.getClass(), "Status Update: Bundle sent");
+				detail.setStatus(PublishAuditStatus.Status.BUNDLE_SENT_SUCCESSFULLY.getCode());
+				detail.setInfo("Everything ok");
+			} else {
+				detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
+				detail.setInfo(
+						"Returned "+response.getStatus()+ " status code " +
+								"for the endpoint " + endpoint.getServerName() + "with address "+endpoint.getAddress());
+			}
+		} finally {
+			CloseUtils.closeQuietly(bundleStream);
+		}
+		return detail;
+	}
+
+	/**
+	 * Waits for the result of a bundle delivery. If the delivery failed with an
+	 * error, the returned detail will contain it and the delivery will be
+	 * flagged accordingly.
+	 *
+	 * @param delivery
+	 *            The delivery to wait for.
+	 * @return The {@link EndpointDetail} describing the delivery.
+	 */
+	private EndpointDetail getDeliveryDetail(final EndpointDelivery delivery) {
+		try {
+			return delivery.result.get();
+		} catch (Exception e) {
+			final Throwable cause = (e instanceof ExecutionException && null != e.getCause())? e.getCause(): e;
+			final EndpointDetail detail = new EndpointDetail();
+			detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
+			String error = 	"An error occured for the endpoint "+ delivery.endpoint.getServerName() + " with address "+ delivery.endpoint.getAddress() + ". Error: " + cause.getMessage();
+			detail.setInfo(error);
+			delivery.failedWithError = true;
+			Logger.error(this.getClass(), error);
+			return detail;
+		}
+	}
+
+	/**
+	 * Keeps track of a bundle that is being sent to a specific end-point.
+	 */
+	private static class EndpointDelivery {
+
+		private final Environment environment;
+		private final PublishingEndPoint endpoint;
+		private final Future<EndpointDetail> result;
+		private boolean failedWithError = false;
+
+		EndpointDelivery(final Environment environment, final PublishingEndPoint endpoint,
+				final Future<EndpointDetail> result) {
+			this.environment = environment;
+			this.endpoint = endpoint;
+			this.result = result;
+		}
+
+	}
+
     /**
      * 
      * @param token
@@ -6,19 +6,41 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 import com.dotcms.repackage.org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import com.dotcms.repackage.org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import com.dotcms.repackage.org.apache.commons.io.IOUtils;
 
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 
 public class PushUtils {
 
-	
-	
+	/**
+	 * Compression level used for the bundle file. The default favors speed over size, as
+	 * bundles are sent right after being generated.
+	 */
+	public static final String PUSH_PUBLISHING_COMPRESSION_LEVEL = "PUSH_PUBLISHING_COMPRESSION_LEVEL";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * {@link GZIPOutputStream} that uses the compression level set by the
+	 * {@link #PUSH_PUBLISHING_COMPRESSION_LEVEL} property.
+	 */
+	private static class BundleGZIPOutputStream extends GZIPOutputStream {
+
+		BundleGZIPOutputStream(final OutputStream out) throws IOException {
+			super(out, BUFFER_SIZE);
+			this.def.setLevel(Config.getIntProperty(PUSH_PUBLISHING_COMPRESSION_LEVEL, Deflater.BEST_SPEED));
+		}
+
+	}
+
 	/**
 	 * Compress (tar.gz) the input files to the output file
 	 *
@@ -35,7 +57,7 @@ public class PushUtils {
 		FileOutputStream fos = new FileOutputStream(output);
 	               // Wrap the output file stream in streams that will tar and gzip everything
 		TarArchiveOutputStream taos = new TarArchiveOutputStream(
-			new GZIPOutputStream(new BufferedOutputStream(fos)));
+			new BufferedOutputStream(new BundleGZIPOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE)), BUFFER_SIZE));
 
 	               // TAR originally didn't support long file names, so enable the support for it
 		taos.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
@@ -75,10 +97,10 @@ public class PushUtils {
 	    			taos.putArchiveEntry(new TarArchiveEntry(file, dir + "/" + file.getName()));
 				if (file.isFile()) {
 			        // Add the file to the archive
-					BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
-					IOUtils.copy(new FileInputStream(file), taos);
+					try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+						IOUtils.copy(bis, taos);
+					}
 					taos.closeArchiveEntry();
-					bis.close();
 				} else if (file.isDirectory()) {
 					//Logger.info(this.getClass(),file.getPath().substring(bundleRoot.length()));
 			         // close the archive entry
@@ -1,5 +1,6 @@
 package com.dotcms.publisher.receiver;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -80,6 +81,8 @@ import com.liferay.util.FileUtil;
  */
 public class BundlePublisher extends Publisher {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private PublishAuditAPI auditAPI = null;
 
     boolean bundleSuccess = true;
@@ -165,7 +168,7 @@ public class BundlePublisher extends Publisher {
         // Extract file to a directory
         InputStream bundleIS;
         try {
-            bundleIS = new FileInputStream(bundlePath + bundleName);
+            bundleIS = new BufferedInputStream(new FileInputStream(bundlePath + bundleName), BUFFER_SIZE);
             untar(bundleIS, folderOut.getAbsolutePath() + File.separator + bundleName, bundleName);
         } catch (FileNotFoundException e) {
             throw new DotPublishingException("Cannot extract the selected archive", e);
@@ -283,13 +286,14 @@ public class BundlePublisher extends Publisher {
                 FileUtils.cleanDirectory(previousFolder);
             }
             // get a stream to tar file
-            InputStream gstream = new GZIPInputStream(bundle);
+            InputStream gstream = new BufferedInputStream(new GZIPInputStream(bundle, BUFFER_SIZE), BUFFER_SIZE);
             inputStream =
                 new TarArchiveInputStream(gstream, TarBuffer.DEFAULT_BLKSIZE, TarBuffer.DEFAULT_RCDSIZE,
                     UtilMethods.getCharsetConfiguration());
 
             // For each entry in the tar, extract and save the entry to the file
             // system
+            final byte[] buf = new byte[BUFFER_SIZE];
             while (null != (entry = inputStream.getNextTarEntry())) {
                 // for each entry to be extracted
                 int bytesRead;
@@ -326,9 +330,8 @@ public class BundlePublisher extends Publisher {
                 
                 
                 // write to file
-                byte[] buf = new byte[1024];
                 outputStream = new FileOutputStream(pathWithoutName + entry.getName());
-                while ((bytesRead = inputStream.read(buf, 0, 1024)) > -1) {
+                while ((bytesRead = inputStream.read(buf, 0, BUFFER_SIZE)) > -1) {
                     outputStream.write(buf, 0, bytesRead);
                 }
                 try {
@@ -1,16 +1,23 @@
 package com.dotcms.rest;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -39,6 +46,7 @@ import com.dotcms.repackage.javax.ws.rs.core.Context;
 import com.dotcms.repackage.javax.ws.rs.core.MediaType;
 import com.dotcms.repackage.javax.ws.rs.core.Response;
 import com.dotcms.repackage.javax.ws.rs.core.Response.Status;
+import com.dotcms.repackage.javax.ws.rs.core.StreamingOutput;
 import com.dotcms.repackage.org.apache.commons.httpclient.HttpStatus;
 import com.dotcms.repackage.org.apache.commons.io.FileUtils;
 import com.dotcms.repackage.org.apache.commons.io.IOUtils;
@@ -58,11 +66,13 @@ import com.dotmarketing.cache.FieldsCache;
 import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotHibernateException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.business.DotContentletStateException;
 import com.dotmarketing.portlets.contentlet.business.DotLockException;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletCheckin;
 import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
 import com.dotmarketing.portlets.contentlet.util.ContentletUtil;
 import com.dotmarketing.portlets.folders.model.Folder;
@@ -84,6 +94,20 @@ public class ContentResource {
 
 	public static final String[] ignoreFields = {"disabledWYSIWYG", "lowIndexPriority"};
 
+	private static final String NDJSON = "application/x-ndjson";
+
+	/**
+	 * XStream is thread safe once it is configured, so the same instance marshals and unmarshals all the requests
+	 */
+	static final XStream XSTREAM = createXStream();
+
+	private static XStream createXStream() {
+		XStream xstream = new XStream(new DomDriver());
+		xstream.alias("content", Map.class);
+		xstream.registerConverter(new MapEntryConverter());
+		return xstream;
+	}
+
 	private static final String RELATIONSHIP_KEY = "__##relationships##__";
 	private static final String IP_ADDRESS = "ipAddress";
 	private static final String HOST_HEADER = "hostHeader";
@@ -412,7 +436,6 @@ public class ContentResource {
 		String limitStr = paramsMap.get(RESTParams.LIMIT.getValue());
 		String offsetStr = paramsMap.get(RESTParams.OFFSET.getValue());
 		String inode = paramsMap.get(RESTParams.INODE.getValue());
-		String result = null;
 		type = UtilMethods.isSet(type)?type:"json";
 		orderBy = UtilMethods.isSet(orderBy)?orderBy:"modDate desc";
 		long language = APILocator.getLanguageAPI().getDefaultLanguage().getId();
@@ -473,65 +496,20 @@ public class ContentResource {
 			}
 		}
 
-		/* Converting the Contentlet list to XML or JSON */
-
-		try {
-			if("xml".equals(type)) {
-				result = getXML(cons, request, response, render, user);
-			} else {
-				result = getJSON(cons, request, response, render, user);
-			}
-		} catch (Exception e) {
-			Logger.warn(this, "Error converting result to XML/JSON");
-		}
-
-		return responseResource.response( result );
-	}
-
-
-	private String getXML(List<Contentlet> cons, HttpServletRequest request, HttpServletResponse response, String render, User user) throws DotDataException, IOException {
-		XStream xstream = new XStream(new DomDriver());
-		xstream.alias("content", Map.class);
-		xstream.registerConverter(new MapEntryConverter());
-		StringBuilder sb = new StringBuilder();
-		sb.append("<?xml version=\"1.0\" encoding='UTF-8'?>");
-		sb.append("<contentlets>");
-
-		for(Contentlet c : cons){
-			Map<String, Object> m = new HashMap<>();
-			Structure s = c.getStructure();
-
-			m.putAll(ContentletUtil.getContentPrintableMap(user, c));
-
-			if(s.getStructureType() == Structure.STRUCTURE_TYPE_WIDGET && "true".equals(render)) {
-				m.put("parsedCode",  WidgetResource.parseWidget(request, response, c));
-			}
-
-			Set<String> jsonFields=getJSONFields(s);
-			for(String key : m.keySet())
-				if(jsonFields.contains(key))
-					m.put(key, c.getKeyValueProperty(key));
-
-			sb.append(xstream.toXML(m));
-		}
+		/* Writing the Contentlet list as XML or JSON straight to the response */
 
-		sb.append("</contentlets>");
-		return sb.toString();
+		return responseResource.response( new ContentStreamingOutput( cons, request, response, render, user, "xml".equals(type) ) );
 	}
 
 
-
 	private String getXMLContentIds(Contentlet con) throws DotDataException, IOException {
-		XStream xstream = new XStream(new DomDriver());
-		xstream.alias("content", Map.class);
-		xstream.registerConverter(new MapEntryConverter());
 		StringBuilder sb = new StringBuilder();
 		sb.append("<?xml version=\"1.0\" encoding='UTF-8'?>");
 		sb.append("<contentlet>");
 		Map<String, Object> m = new HashMap<String, Object>();
 		m.put("inode",con.getInode());
 		m.put("identifier",con.getIdentifier());
-		sb.append(xstream.toXML(m));
+		sb.append(XSTREAM.toXML(m));
 		sb.append("</contentlet>");
 		return sb.toString();
 	}
@@ -548,29 +526,6 @@ public class ContentResource {
 		return json.toString();
 	}
 
-	private String getJSON(List<Contentlet> cons, HttpServletRequest request, HttpServletResponse response, String render, User user) throws IOException, DotDataException{
-		JSONObject json = new JSONObject();
-		JSONArray jsonCons = new JSONArray();
-
-		for(Contentlet c : cons){
-			try {
-				jsonCons.put(contentletToJSON(c, request, response, render, user));
-			} catch (Exception e) {
-				Logger.warn(this.getClass(), "unable JSON contentlet " + c.getIdentifier());
-				Logger.debug(this.getClass(), "unable to find contentlet", e);
-			}
-		}
-
-		try {
-			json.put("contentlets", jsonCons);
-		} catch (JSONException e) {
-			Logger.warn(this.getClass(), "unable to create JSONObject");
-			Logger.debug(this.getClass(), "unable to create JSONObject", e);
-		}
-
-		return json.toString();
-	}
-
 	public static Set<String> getJSONFields(Structure s) {
 		Set<String> jsonFields=new HashSet<String>();
 		for(Field f : FieldsCache.getFieldsByStructureInode(s.getInode()))
@@ -604,7 +559,7 @@ public class ContentResource {
 		return jo;
 	}
 
-	public class MapEntryConverter implements Converter{
+	public static class MapEntryConverter implements Converter{
 		public boolean canConvert(@SuppressWarnings("rawtypes") Class clazz) {
 			return AbstractMap.class.isAssignableFrom(clazz);
 		}
@@ -818,70 +773,135 @@ public class ContentResource {
 		return saveContent(contentlet,init);
 	}
 
-	protected Response saveContent(Contentlet contentlet, InitDataObject init) throws URISyntaxException {
-		boolean live = init.getParamsMap().containsKey("publish");
-		boolean clean=false;
+	/**
+	 * Saves the contentlets of a NDJSON stream, one JSON object per line with the same fields accepted by a single
+	 * PUT or POST. The contentlets are checked in in batches of REST_API_CONTENT_BULK_BATCH_SIZE, each batch in a single
+	 * transaction with all its index requests sent together once it commits, and the response does not wait for the
+	 * index. The outcome of each line is streamed back as a NDJSON line as soon as its batch is done: its line number
+	 * and status, and the inode and identifier saved or the error.
+	 */
+	@POST
+	@Path("/bulk/{params:.*}")
+	@Produces(NDJSON)
+	@Consumes(NDJSON)
+	public Response bulkPOST(@Context HttpServletRequest request, @PathParam("params") String params) {
+		final InitDataObject init = webResource.init(params, true, request, true, null);
+		final StreamingOutput output = outputStream -> bulkSave(request, init, outputStream);
+		return Response.ok(output, NDJSON).build();
+	}
+
+	private void bulkSave(HttpServletRequest request, InitDataObject init, OutputStream outputStream) throws IOException {
+		final boolean publish = init.getParamsMap().containsKey("publish");
+		final boolean allowFrontEndSaving = Config.getBooleanProperty("REST_API_CONTENT_ALLOW_FRONT_END_SAVING", false);
+		final int batchSize = Math.max(1, Config.getIntProperty("REST_API_CONTENT_BULK_BATCH_SIZE", 100));
+
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+		final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+		final Map<Integer, ContentletCheckin> batch = new LinkedHashMap<Integer, ContentletCheckin>();
+		int lineNumber = 0;
+
 		try {
+			String line;
+			while((line = reader.readLine()) != null) {
+				lineNumber++;
+				if(!UtilMethods.isSet(line.trim())) {
+					continue;
+				}
 
-			// preparing categories
-			List<Category> cats=new ArrayList<Category>();
-			for(Field field : FieldsCache.getFieldsByStructureInode(contentlet.getStructureInode())) {
-				if(field.getFieldType().equals(FieldType.CATEGORY.toString())) {
-					String catValue=contentlet.getStringProperty(field.getVelocityVarName());
-					if(UtilMethods.isSet(catValue)) {
-						for(String cat : catValue.split("\\s*,\\s*")) {
-							// take it as catId
-							Category category=APILocator.getCategoryAPI().find(cat, init.getUser(), false);
-							if(category!=null && InodeUtils.isSet(category.getCategoryId())) {
-								cats.add(category);
-							}
-							else {
-								// try it as catKey
-								category=APILocator.getCategoryAPI().findByKey(cat, init.getUser(), false);
-								if(category!=null && InodeUtils.isSet(category.getCategoryId())) {
-									cats.add(category);
-								}
-								else {
-									// try it as variable
-									// FIXME: https://github.com/dotCMS/dotCMS/issues/2847
-									HibernateUtil hu=new HibernateUtil(Category.class);
-									hu.setQuery("from "+Category.class.getCanonicalName()+" WHERE category_velocity_var_name=?");
-									hu.setParam(cat);
-									category=(Category)hu.load();
-									if(category!=null && InodeUtils.isSet(category.getCategoryId())) {
-										cats.add(category);
-									}
-								}
-							}
+				try {
+					batch.put(lineNumber, toCheckin(line, request, init, publish));
+				} catch (Exception e) {
+					writeBulkResult(writer, lineNumber, null, e);
+				}
 
-						}
-					}
+				if(batch.size() >= batchSize) {
+					checkinBatch(batch, writer, init.getUser(), allowFrontEndSaving);
 				}
 			}
+			checkinBatch(batch, writer, init.getUser(), allowFrontEndSaving);
+		} finally {
+			try {
+				HibernateUtil.closeSession();
+			} catch (DotHibernateException e) {
+				Logger.warn(this, e.getMessage(), e);
+			}
+		}
+	}
 
-			// running a workflow action?
-			for(WorkflowAction action : APILocator.getWorkflowAPI().findAvailableActions(contentlet, init.getUser())) {
-				if(init.getParamsMap().containsKey(action.getName().toLowerCase())) {
+	@SuppressWarnings("unchecked")
+	private ContentletCheckin toCheckin(String line, HttpServletRequest request, InitDataObject init, boolean publish) throws Exception {
+		Contentlet contentlet = new Contentlet();
+		setRequestMetadata(contentlet, request);
+		processMap(contentlet, WebResource.processJSON(line));
 
-					contentlet.setStringProperty(Contentlet.WORKFLOW_ACTION_KEY, action.getId());
+		List<Category> cats = getCategories(contentlet, init.getUser());
+		boolean live = publish && !setWorkflowAction(contentlet, init);
+		return new ContentletCheckin(contentlet, (Map<Relationship,List<Contentlet>>) contentlet.get(RELATIONSHIP_KEY), cats, live);
+	}
 
-					if(action.isCommentable()) {
-						String comment=init.getParamsMap().get(Contentlet.WORKFLOW_COMMENTS_KEY.toLowerCase());
-						if(UtilMethods.isSet(comment)) {
-							contentlet.setStringProperty(Contentlet.WORKFLOW_COMMENTS_KEY, comment);
-						}
-					}
+	private void checkinBatch(Map<Integer, ContentletCheckin> batch, Writer writer, User user, boolean allowFrontEndSaving) throws IOException {
+		if(batch.isEmpty()) {
+			return;
+		}
 
-					if(action.isAssignable()) {
-						String assignTo=init.getParamsMap().get(Contentlet.WORKFLOW_ASSIGN_KEY.toLowerCase());
-						if(UtilMethods.isSet(assignTo)) {
-							contentlet.setStringProperty(Contentlet.WORKFLOW_ASSIGN_KEY, assignTo);
-						}
-					}
+		try {
+			APILocator.getContentletAPI().checkin(new ArrayList<ContentletCheckin>(batch.values()), user, allowFrontEndSaving);
+			for(Entry<Integer, ContentletCheckin> entry : batch.entrySet()) {
+				writeBulkResult(writer, entry.getKey(), entry.getValue().getCheckedIn(), entry.getValue().getError());
+			}
+		} catch (DotDataException e) {
+			Logger.warn(this, "Unable to save a batch of contentlets: " + e.getMessage(), e);
+			for(Integer line : batch.keySet()) {
+				writeBulkResult(writer, line, null, e);
+			}
+		}
 
-					live=false; // avoid manually publishing
-					break;
-				}
+		batch.clear();
+		writer.flush();
+	}
+
+	private void writeBulkResult(Writer writer, int line, Contentlet contentlet, Exception error) throws IOException {
+		JSONObject result = new JSONObject();
+		try {
+			result.put("line", line);
+			if(contentlet != null) {
+				result.put("status", HttpStatus.SC_OK);
+				result.put("inode", contentlet.getInode());
+				result.put("identifier", contentlet.getIdentifier());
+			} else {
+				result.put("status", getBulkStatus(error));
+				result.put("error", (error != null && error.getMessage() != null) ? error.getMessage() : String.valueOf(error));
+			}
+		} catch (JSONException e) {
+			Logger.warn(this.getClass(), "unable to create JSONObject");
+			Logger.debug(this.getClass(), "unable to create JSONObject", e);
+		}
+		writer.write(result.toString());
+		writer.write('\n');
+	}
+
+	private int getBulkStatus(Exception error) {
+		if(error instanceof JSONException) {
+			return HttpStatus.SC_BAD_REQUEST;
+		} else if(error instanceof DotContentletStateException || error instanceof IllegalArgumentException) {
+			return HttpStatus.SC_CONFLICT;
+		} else if(error instanceof DotSecurityException) {
+			return HttpStatus.SC_FORBIDDEN;
+		}
+		return HttpStatus.SC_INTERNAL_SERVER_ERROR;
+	}
+
+	protected Response saveContent(Contentlet contentlet, InitDataObject init) throws URISyntaxException {
+		boolean live = init.getParamsMap().containsKey("publish");
+		boolean clean=false;
+		try {
+
+			// preparing categories
+			List<Category> cats=getCategories(contentlet, init.getUser());
+
+			// running a workflow action?
+			if(setWorkflowAction(contentlet, init)) {
+				live=false; // avoid manually publishing
 			}
 
 			Map<Relationship,List<Contentlet>> relationships=(Map<Relationship,List<Contentlet>>)contentlet.get(RELATIONSHIP_KEY);
@@ -997,6 +1017,78 @@ public class ContentResource {
 		}
 	}
 
+	/**
+	 * Resolves the values of the category fields of the contentlet, taking each of them as a category id, key or
+	 * variable name
+	 */
+	protected List<Category> getCategories(Contentlet contentlet, User user) throws DotDataException, DotSecurityException {
+		List<Category> cats=new ArrayList<Category>();
+		for(Field field : FieldsCache.getFieldsByStructureInode(contentlet.getStructureInode())) {
+			if(field.getFieldType().equals(FieldType.CATEGORY.toString())) {
+				String catValue=contentlet.getStringProperty(field.getVelocityVarName());
+				if(UtilMethods.isSet(catValue)) {
+					for(String cat : catValue.split("\\s*,\\s*")) {
+						// take it as catId
+						Category category=APILocator.getCategoryAPI().find(cat, user, false);
+						if(category!=null && InodeUtils.isSet(category.getCategoryId())) {
+							cats.add(category);
+						}
+						else {
+							// try it as catKey
+							category=APILocator.getCategoryAPI().findByKey(cat, user, false);
+							if(category!=null && InodeUtils.isSet(category.getCategoryId())) {
+								cats.add(category);
+							}
+							else {
+								// try it as variable
+								// FIXME: https://github.com/dotCMS/dotCMS/issues/2847
+								HibernateUtil hu=new HibernateUtil(Category.class);
+								hu.setQuery("from "+Category.class.getCanonicalName()+" WHERE category_velocity_var_name=?");
+								hu.setParam(cat);
+								category=(Category)hu.load();
+								if(category!=null && InodeUtils.isSet(category.getCategoryId())) {
+									cats.add(category);
+								}
+							}
+						}
+
+					}
+				}
+			}
+		}
+		return cats;
+	}
+
+	/**
+	 * Sets on the contentlet the workflow action named in the request parameters, if any
+	 * @return true if a workflow action was set, so the contentlet must not be published by hand
+	 */
+	protected boolean setWorkflowAction(Contentlet contentlet, InitDataObject init) throws DotDataException, DotSecurityException {
+		for(WorkflowAction action : APILocator.getWorkflowAPI().findAvailableActions(contentlet, init.getUser())) {
+			if(init.getParamsMap().containsKey(action.getName().toLowerCase())) {
+
+				contentlet.setStringProperty(Contentlet.WORKFLOW_ACTION_KEY, action.getId());
+
+				if(action.isCommentable()) {
+					String comment=init.getParamsMap().get(Contentlet.WORKFLOW_COMMENTS_KEY.toLowerCase());
+					if(UtilMethods.isSet(comment)) {
+						contentlet.setStringProperty(Contentlet.WORKFLOW_COMMENTS_KEY, comment);
+					}
+				}
+
+				if(action.isAssignable()) {
+					String assignTo=init.getParamsMap().get(Contentlet.WORKFLOW_ASSIGN_KEY.toLowerCase());
+					if(UtilMethods.isSet(assignTo)) {
+						contentlet.setStringProperty(Contentlet.WORKFLOW_ASSIGN_KEY, assignTo);
+					}
+				}
+
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@SuppressWarnings("unchecked")
 	protected void processXML(Contentlet contentlet, InputStream inputStream) throws IOException, DotSecurityException, DotDataException {
 		
@@ -1009,10 +1101,7 @@ public class ContentResource {
 		if(upper.contains("<!DOCTYPE") || upper.contains("<!ENTITY") || upper.startsWith("<?XML")){
 			throw new DotSecurityException("Invalid XML");
 		}
-		XStream xstream=new XStream(new DomDriver());
-		xstream.alias("content", Map.class);
-		xstream.registerConverter(new MapEntryConverter());
-		Map<String,Object> root=(Map<String,Object>) xstream.fromXML(input);
+		Map<String,Object> root=(Map<String,Object>) XSTREAM.fromXML(input);
 		processMap(contentlet,root);
 	}
 
@@ -0,0 +1,230 @@
+package com.dotcms.rest;
+
+import com.dotcms.repackage.com.thoughtworks.xstream.XStream;
+import com.dotcms.repackage.javax.ws.rs.WebApplicationException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.util.ContentletUtil;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.util.Logger;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liferay.portal.model.User;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the contentlets of the {@link ContentResource} responses straight to the response stream, one contentlet
+ * after another, with a streaming Jackson generator for JSON or the shared {@link XStream} for XML. Only the contentlet
+ * being written is kept as a map, instead of the whole response as a tree of JSONObjects and then as a String, so the
+ * first bytes go out while the rest of the contentlets are still being hydrated.
+ *
+ * The fields that need a special treatment (key/value fields and the parsed code of the widgets) are worked out once
+ * per content type of the response, not for every contentlet.
+ */
+public class ContentStreamingOutput extends DotStreamingOutput<List<Contentlet>> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final String render;
+    private final User user;
+    private final boolean xml;
+    private final Map<String, ContentTypeFields> contentTypeFields = new HashMap<>();
+
+    public ContentStreamingOutput(final List<Contentlet> contentlets, final HttpServletRequest request,
+                                  final HttpServletResponse response, final String render, final User user,
+                                  final boolean xml) {
+
+        super(contentlets, OBJECT_MAPPER);
+        this.request  = request;
+        this.response = response;
+        this.render   = render;
+        this.user     = user;
+        this.xml      = xml;
+    }
+
+    @Override
+    public void write(final OutputStream outputStream) throws IOException, WebApplicationException {
+
+        if (this.xml) {
+            this.writeXML(outputStream);
+        } else {
+            this.writeJSON(outputStream);
+        }
+    } // write.
+
+    private void writeJSON(final OutputStream outputStream) throws IOException {
+
+        try (final JsonGenerator generator = this.getObjectMapper().getFactory()
+                .createGenerator(outputStream, JsonEncoding.UTF8)) {
+
+            // the jsonp callback may still be written after the contentlets
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("contentlets");
+            for (final Contentlet contentlet : this.getEntity()) {
+
+                final Map<String, Object> map = this.toMap(contentlet, true);
+                if (null != map) {
+                    writeValue(generator, map);
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    } // writeJSON.
+
+    private void writeXML(final OutputStream outputStream) throws IOException {
+
+        final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        writer.write("<?xml version=\"1.0\" encoding='UTF-8'?>");
+        writer.write("<contentlets>");
+        for (final Contentlet contentlet : this.getEntity()) {
+
+            final Map<String, Object> map = this.toMap(contentlet, false);
+            if (null != map) {
+                ContentResource.XSTREAM.toXML(map, writer);
+            }
+        }
+        writer.write("</contentlets>");
+        writer.flush();
+    } // writeXML.
+
+    /**
+     * Hydrates the contentlet into the map that is written, before anything of it is written, so a contentlet that
+     * fails is left out of the response as a whole
+     * @return Map or null if the contentlet can't be written
+     */
+    private Map<String, Object> toMap(final Contentlet contentlet, final boolean skipIgnoredFields) {
+
+        try {
+
+            final Structure structure = contentlet.getStructure();
+            final ContentTypeFields fields = this.contentTypeFields.computeIfAbsent(structure.getInode(),
+                    inode -> new ContentTypeFields(structure, "true".equals(this.render)));
+            final Map<String, Object> map = new LinkedHashMap<>();
+
+            for (final Map.Entry<String, Object> entry : ContentletUtil.getContentPrintableMap(this.user, contentlet).entrySet()) {
+
+                final String key = entry.getKey();
+                if (skipIgnoredFields && Arrays.binarySearch(ContentResource.ignoreFields, key) >= 0) {
+                    continue;
+                }
+
+                map.put(key, (fields.jsonFields.contains(key)) ? contentlet.getKeyValueProperty(key) : entry.getValue());
+            }
+
+            if (fields.parseWidget) {
+                map.put("parsedCode", WidgetResource.parseWidget(this.request, this.response, contentlet));
+            }
+
+            return map;
+        } catch (Exception e) {
+
+            Logger.warn(this.getClass(), "unable JSON contentlet " + contentlet.getIdentifier());
+            Logger.debug(this.getClass(), "unable to find contentlet", e);
+            return null;
+        }
+    } // toMap.
+
+    /**
+     * Writes the value the way the JSONObjects of {@link ContentResource#contentletToJSON} print it: maps as
+     * objects, collections and arrays as arrays, numbers and booleans as they are, anything else as a string and
+     * the fields with a null value are left out.
+     */
+    static void writeValue(final JsonGenerator generator, final Object value) throws IOException {
+
+        if (null == value) {
+
+            generator.writeNull();
+        } else if (value instanceof Map) {
+
+            generator.writeStartObject();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+
+                if (null != entry.getValue()) {
+                    generator.writeFieldName(String.valueOf(entry.getKey()));
+                    writeValue(generator, entry.getValue());
+                }
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Collection) {
+
+            generator.writeStartArray();
+            for (final Object item : (Collection<?>) value) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else if (value.getClass().isArray()) {
+
+            generator.writeStartArray();
+            for (int index = 0; index < Array.getLength(value); index++) {
+                writeValue(generator, Array.get(value, index));
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Boolean) {
+
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+
+            generator.writeNumber(((Number) value).intValue());
+        } else if (value instanceof Long) {
+
+            generator.writeNumber((Long) value);
+        } else if (value instanceof BigDecimal) {
+
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof Float && !isNotFinite((Number) value)) {
+
+            generator.writeNumber((Float) value);
+        } else if (value instanceof Number && !isNotFinite((Number) value)) {
+
+            generator.writeNumber(((Number) value).doubleValue());
+        } else {
+
+            generator.writeString(value.toString());
+        }
+    } // writeValue.
+
+    private static boolean isNotFinite(final Number number) {
+
+        return Double.isNaN(number.doubleValue()) || Double.isInfinite(number.doubleValue());
+    }
+
+    /**
+     * What is worked out once per content type of the response
+     */
+    private static final class ContentTypeFields {
+
+        private final Set<String> jsonFields;
+        private final boolean parseWidget;
+
+        private ContentTypeFields(final Structure structure, final boolean render) {
+
+            this.jsonFields  = ContentResource.getJSONFields(structure);
+            this.parseWidget = render && structure.getStructureType() == Structure.STRUCTURE_TYPE_WIDGET;
+        }
+    }
+} // E:O:F:ContentStreamingOutput.
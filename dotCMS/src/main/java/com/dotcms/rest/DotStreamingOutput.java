@@ -23,6 +23,14 @@ public class DotStreamingOutput<T> implements StreamingOutput {
         this.objectMapper = objectMapper;
     }
 
+    protected T getEntity() {
+        return entity;
+    }
+
+    protected ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
     @Override
     public void write(final OutputStream outputStream) throws IOException, WebApplicationException {
 
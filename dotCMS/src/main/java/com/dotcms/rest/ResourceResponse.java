@@ -7,6 +7,9 @@ import com.dotcms.repackage.org.apache.commons.httpclient.HttpStatus;
 import com.dotcms.repackage.javax.ws.rs.core.CacheControl;
 import com.dotcms.repackage.javax.ws.rs.core.MediaType;
 import com.dotcms.repackage.javax.ws.rs.core.Response;
+import com.dotcms.repackage.javax.ws.rs.core.StreamingOutput;
+
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -130,6 +133,40 @@ public class ResourceResponse {
         return responseBuilder.build();
     }
 
+    /**
+     * Prepares a Response object that writes its data straight to the response stream, choosing the content type and
+     * wrapping <strong>type=jsonp</strong> responses within a javascript callback the same way {@link #response(String)} does.
+     *
+     * @param output StreamingOutput writing the data to response
+     * @return
+     */
+    public Response response ( final StreamingOutput output ) {
+
+        StreamingOutput entity = output;
+        String contentType = null;
+        if ( UtilMethods.isSet( getType() ) ) {
+            if ( getType().equalsIgnoreCase( "jsonp" ) ) {
+                contentType = "application/javascript";
+
+                String callback = getParamsMap().get( RESTParams.CALLBACK.getValue() );
+                final String function = UtilMethods.isSet( callback ) ? callback : "dotJsonpCall";
+                entity = outputStream -> {
+                    outputStream.write( (function + "(").getBytes( StandardCharsets.UTF_8 ) );
+                    output.write( outputStream );
+                    outputStream.write( ')' );
+                };
+            } else if ( getType().equalsIgnoreCase( "json" ) ) {
+                contentType = MediaType.APPLICATION_JSON;
+            } else if ( getType().equalsIgnoreCase( "xml" ) ) {
+                contentType = MediaType.APPLICATION_XML;
+            } else if ( getType().equalsIgnoreCase( "plain" ) ) {
+                contentType = MediaType.TEXT_PLAIN;
+            }
+        }
+
+        return ( contentType != null ) ? Response.ok( entity, contentType ).build() : Response.ok( entity ).build();
+    }
+
     public Response responseError ( String response ) {
         return responseError( response, HttpStatus.SC_INTERNAL_SERVER_ERROR );
     }
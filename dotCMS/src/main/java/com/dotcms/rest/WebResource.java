@@ -455,8 +455,12 @@ public  class WebResource {
     }
 
     protected static Map processJSON(InputStream input) throws JSONException, IOException {
+        return processJSON(IOUtils.toString(input));
+    }
+
+    protected static Map processJSON(String json) throws JSONException {
         HashMap<String,Object> map=new HashMap<String,Object>();
-        JSONObject obj=new JSONObject(IOUtils.toString(input));
+        JSONObject obj=new JSONObject(json);
         Iterator<String> keys = obj.keys();
         while(keys.hasNext()) {
             String key=keys.next();
@@ -0,0 +1,92 @@
+package com.dotcms.rest.api.v1.system;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.dotcms.metrics.MetricsRegistry;
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotcms.repackage.javax.ws.rs.GET;
+import com.dotcms.repackage.javax.ws.rs.Path;
+import com.dotcms.repackage.javax.ws.rs.Produces;
+import com.dotcms.repackage.javax.ws.rs.core.Context;
+import com.dotcms.repackage.javax.ws.rs.core.Response;
+import com.dotcms.repackage.javax.ws.rs.core.Response.Status;
+import com.dotcms.repackage.javax.ws.rs.core.StreamingOutput;
+import com.dotcms.rest.InitDataObject;
+import com.dotcms.rest.WebResource;
+import com.dotcms.rest.annotation.NoCache;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.LayoutAPI;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.SecurityLogger;
+
+/**
+ * This Jersey end-point returns the metrics of the {@link MetricsRegistry} in the Prometheus text format, so they
+ * can be scraped. As the rest of the maintenance end-points, it needs a user with access to the Maintenance portlet,
+ * which the scraper can send through basic authentication.
+ */
+@Path("/v1/metrics")
+public class MetricsResource {
+
+	public static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final MetricsRegistry metricsRegistry;
+	private final WebResource webResource;
+	private final LayoutAPI layoutAPI;
+
+	public MetricsResource() {
+		this(MetricsRegistry.getInstance(), new WebResource(), APILocator.getLayoutAPI());
+	}
+
+	@VisibleForTesting
+	protected MetricsResource(final MetricsRegistry metricsRegistry, final WebResource webResource,
+							  final LayoutAPI layoutAPI) {
+		this.metricsRegistry = metricsRegistry;
+		this.webResource = webResource;
+		this.layoutAPI = layoutAPI;
+	}
+
+	protected InitDataObject auth(final HttpServletRequest request) throws DotSecurityException, DotDataException {
+		final InitDataObject init = webResource.init(null, true, request, true, null);
+		if (!this.layoutAPI.doesUserHaveAccessToPortlet("maintenance", init.getUser())) {
+			throw new DotSecurityException("unauthorized");
+		}
+		return init;
+	}
+
+	/**
+	 * Returns every metric of the node
+	 * @param request {@link HttpServletRequest}
+	 * @return Response the metrics, written as they are read
+	 */
+	@GET
+	@NoCache
+	@Produces(PROMETHEUS_TEXT)
+	public Response getMetrics(@Context final HttpServletRequest request) {
+
+		try {
+
+			auth(request);
+			final StreamingOutput stream = output -> {
+
+				final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+				this.metricsRegistry.write(writer);
+				writer.flush();
+			};
+			return Response.ok(stream).type(PROMETHEUS_TEXT).build();
+		} catch (DotSecurityException sec) {
+			SecurityLogger.logInfo(this.getClass(), "Access denied on getMetrics from " + request.getRemoteAddr());
+			return Response.status(Status.UNAUTHORIZED).build();
+		} catch (Exception e) {
+			Logger.error(this, "Error on getMetrics. URI: " + request.getRequestURI(), e);
+			return Response.serverError().build();
+		}
+	}
+
+}
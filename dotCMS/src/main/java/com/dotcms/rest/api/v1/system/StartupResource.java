@@ -0,0 +1,79 @@
+package com.dotcms.rest.api.v1.system;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotcms.repackage.javax.ws.rs.GET;
+import com.dotcms.repackage.javax.ws.rs.Path;
+import com.dotcms.repackage.javax.ws.rs.Produces;
+import com.dotcms.repackage.javax.ws.rs.core.Context;
+import com.dotcms.repackage.javax.ws.rs.core.MediaType;
+import com.dotcms.repackage.javax.ws.rs.core.Response;
+import com.dotcms.repackage.javax.ws.rs.core.Response.Status;
+import com.dotcms.rest.InitDataObject;
+import com.dotcms.rest.ResponseEntityView;
+import com.dotcms.rest.WebResource;
+import com.dotcms.rest.annotation.NoCache;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.LayoutAPI;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.init.StartupProfile;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.SecurityLogger;
+
+/**
+ * This Jersey end-point returns the {@link StartupProfile} of the node: how long every startup task took, on
+ * which thread, and when the node got ready to take traffic. It needs a user with access to the Maintenance portlet.
+ */
+@Path("/v1/startup")
+public class StartupResource {
+
+	private final StartupProfile startupProfile;
+	private final WebResource webResource;
+	private final LayoutAPI layoutAPI;
+
+	public StartupResource() {
+		this(StartupProfile.getInstance(), new WebResource(), APILocator.getLayoutAPI());
+	}
+
+	@VisibleForTesting
+	protected StartupResource(final StartupProfile startupProfile, final WebResource webResource,
+							  final LayoutAPI layoutAPI) {
+		this.startupProfile = startupProfile;
+		this.webResource = webResource;
+		this.layoutAPI = layoutAPI;
+	}
+
+	protected InitDataObject auth(final HttpServletRequest request) throws DotSecurityException, DotDataException {
+		final InitDataObject init = webResource.init(null, true, request, true, null);
+		if (!this.layoutAPI.doesUserHaveAccessToPortlet("maintenance", init.getUser())) {
+			throw new DotSecurityException("unauthorized");
+		}
+		return init;
+	}
+
+	/**
+	 * Returns the startup profile
+	 * @param request {@link HttpServletRequest}
+	 * @return Response
+	 */
+	@GET
+	@NoCache
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getProfile(@Context final HttpServletRequest request) {
+
+		try {
+
+			auth(request);
+			return Response.ok(new ResponseEntityView(this.startupProfile.toMap())).build();
+		} catch (DotSecurityException sec) {
+			SecurityLogger.logInfo(this.getClass(), "Access denied on getProfile from " + request.getRemoteAddr());
+			return Response.status(Status.UNAUTHORIZED).build();
+		} catch (Exception e) {
+			Logger.error(this, "Error on getProfile. URI: " + request.getRequestURI(), e);
+			return Response.serverError().build();
+		}
+	}
+
+}
@@ -28,6 +28,8 @@ import com.dotcms.rest.api.v1.sites.ruleengine.rules.conditions.ConditionResourc
 import com.dotcms.rest.api.v1.sites.ruleengine.rules.conditions.ConditionValueResource;
 import com.dotcms.rest.api.v1.system.AppContextInitResource;
 import com.dotcms.rest.api.v1.system.ConfigurationResource;
+import com.dotcms.rest.api.v1.system.MetricsResource;
+import com.dotcms.rest.api.v1.system.StartupResource;
 import com.dotcms.rest.api.v1.system.i18n.I18NResource;
 import com.dotcms.rest.api.v1.system.role.RoleResource;
 import com.dotcms.rest.api.v1.system.ruleengine.actionlets.ActionletsResource;
@@ -102,6 +104,8 @@ public class DotRestApplication extends com.dotcms.repackage.javax.ws.rs.core.Ap
 					REST_CLASSES.add(ForgotPasswordResource.class);
 					REST_CLASSES.add(ConfigurationResource.class);
 					REST_CLASSES.add(AppContextInitResource.class);
+					REST_CLASSES.add(MetricsResource.class);
+					REST_CLASSES.add(StartupResource.class);
 					REST_CLASSES.add(SiteResource.class);
 					REST_CLASSES.add(ContentTypeResource.class);
 					REST_CLASSES.add(FieldResource.class);
@@ -5,8 +5,10 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.Map;
 import java.util.TimeZone;
 
 import javax.servlet.http.HttpServletRequest;
@@ -17,6 +19,8 @@ import com.dotcms.repackage.com.maxmind.geoip2.model.CityResponse;
 import com.dotcms.repackage.com.maxmind.geoip2.record.City;
 import com.dotcms.repackage.com.maxmind.geoip2.record.Country;
 import com.dotcms.repackage.com.maxmind.geoip2.record.Subdivision;
+import com.dotcms.repackage.org.apache.commons.collections.map.LRUMap;
+import com.dotmarketing.business.APILocator;
 import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.portlets.rules.conditionlet.Location;
 import com.dotmarketing.util.Config;
@@ -47,6 +51,15 @@ import com.dotmarketing.util.Logger;
  * href="http://maxmind.github.io/GeoIP2-java/index.html">GeoIP2 Java API</a>
  * page.
  * </p>
+ * <p>
+ * The responses of the database are kept in a LRU cache by IP address, its
+ * size can be set with the {@code GEOIP2_CITY_CACHE_SIZE} property (10000 by
+ * default), so all the lookups for the same visitor share a single database
+ * read. The addresses the database does not have are cached too. The database
+ * file is watched with the {@link FileWatcherAPI} and re-loaded when it is
+ * modified, the new reader comes with a new cache so a lookup still running
+ * on the previous reader can not leave an old response behind.
+ * </p>
  * 
  * @author Jose Castro
  * @version 1.0
@@ -55,9 +68,32 @@ import com.dotmarketing.util.Logger;
  */
 public class GeoIp2CityDbUtil {
 
-	private static DatabaseReader databaseReader = null;
-	private static long lastModified = 0;
+	private static volatile Database database = null;
 	private static String dbPath = null;
+	private static volatile boolean watching = false;
+
+	/**
+	 * A reader of the database file together with the responses read from it,
+	 * they are replaced as a whole when the file is re-loaded.
+	 */
+	private static final class Database {
+
+		private final DatabaseReader reader;
+		private final long lastModified;
+
+		/**
+		 * The {@link CityResponse} of every IP address, or the
+		 * {@link GeoIp2Exception} thrown when the database does not have it.
+		 */
+		@SuppressWarnings("unchecked")
+		private final Map<String, Object> responses = Collections
+				.synchronizedMap(new LRUMap(Config.getIntProperty("GEOIP2_CITY_CACHE_SIZE", 10000)));
+
+		private Database(final DatabaseReader reader, final long lastModified) {
+			this.reader = reader;
+			this.lastModified = lastModified;
+		}
+	}
 
 	/**
 	 * Singleton holder based on the initialization-on-demand approach.
@@ -93,13 +129,46 @@ public class GeoIp2CityDbUtil {
 		dbPath = databasePath;
 		File database = new File(databasePath);
 		connectToDatabase(database);
+		watchDatabase(database);
+	}
+
+	/**
+	 * Registers the database file in the {@link FileWatcherAPI}, so it is
+	 * re-loaded as soon as it is modified. If the file cannot be watched, its
+	 * last modified date is checked on every lookup instead.
+	 * 
+	 * @param database
+	 *            - The {@link File} reference to the database file.
+	 */
+	private static void watchDatabase(final File database) {
+		try {
+			final FileWatcherAPI fileWatcherAPI = APILocator.getFileWatcherAPI();
+			if (fileWatcherAPI != null) {
+				fileWatcherAPI.watchFile(database, () -> {
+					synchronized (GeoIp2CityDbUtil.class) {
+						try {
+							Logger.info(GeoIp2CityDbUtil.class, "GeoIP2 database modified, re-loading it.");
+							connectToDatabase(database);
+						} catch (DotRuntimeException e) {
+							// the file might still be being written, keep the
+							// last lookups until the next change
+							Logger.warn(GeoIp2CityDbUtil.class, "GeoIP2 database could not be re-loaded: " + e.getMessage());
+						}
+					}
+				});
+				watching = true;
+			}
+		} catch (Exception e) {
+			Logger.warn(GeoIp2CityDbUtil.class,
+					"GeoIP2 database cannot be watched, checking its modification date instead: " + e.getMessage());
+		}
 	}
 
 	/**
 	 * Establishes the connection with the IP database. If a previous connection
-	 * has already been created, it will be closed. Such a scenario would mean
-	 * that the database file has been updated, so the database reader must be
-	 * re-built to load the new information.
+	 * has already been created, it will be replaced, with its cached responses.
+	 * Such a scenario would mean that the database file has been updated, so the
+	 * database reader must be re-built to load the new information.
 	 * 
 	 * @param database
 	 *            - The {@link File} reference to the database file.
@@ -109,11 +178,10 @@ public class GeoIp2CityDbUtil {
 	 */
 	private static void connectToDatabase(File database) {
 		try {
-			if (databaseReader != null) {
-				databaseReader.close();
-			}
-			databaseReader = new DatabaseReader.Builder(database).build();
-			lastModified = database.lastModified();
+			// the previous reader is not closed, lookups still running on it
+			// would fail, it is released once they are done and it is collected
+			GeoIp2CityDbUtil.database = new Database(new DatabaseReader.Builder(database).build(),
+					database.lastModified());
 		} catch (IOException e) {
 			Logger.error(GeoIp2CityDbUtil.class,
 					"Connection to the GeoIP2 database could not be established.");
@@ -127,27 +195,66 @@ public class GeoIp2CityDbUtil {
 	 * Returns the {@link DatabaseReader} object used to perform the queries to
 	 * the IP database.
 	 * <p>
-	 * When the class is initially instantiated, the modification date of the
-	 * database file is kept in memory. This method will read the last modified
-	 * date of the requested database file in order to determine whether it must
-	 * be re-loaded or not. If it has to, synchronization will be used to load
-	 * the new database file.
+	 * When the database file is not being watched, this method will read the
+	 * last modified date of the requested database file in order to determine
+	 * whether it must be re-loaded or not. If it has to, synchronization will be
+	 * used to load the new database file.
 	 * </p>
 	 * 
-	 * @return The {@link DatabaseReader} object with the latest content of the
-	 *         database.
+	 * @return The {@link Database} with the latest content of the database
+	 *         file.
 	 */
-	private static DatabaseReader getDatabaseReader() {
-		File database = new File(dbPath);
-		long fileLastModified = database.lastModified();
-		if (fileLastModified != lastModified) {
+	private static Database getDatabase() {
+		if (watching) {
+			return database;
+		}
+		File file = new File(dbPath);
+		long fileLastModified = file.lastModified();
+		if (fileLastModified != database.lastModified) {
 			synchronized (GeoIp2CityDbUtil.class) {
-				if (fileLastModified != lastModified) {
-					connectToDatabase(database);
+				if (fileLastModified != database.lastModified) {
+					connectToDatabase(file);
 				}
 			}
 		}
-		return databaseReader;
+		return database;
+	}
+
+	/**
+	 * Returns the response of the database for the specified IP address, which
+	 * holds all the geographic information available for it. Responses are
+	 * cached by IP address, and so are the addresses not found.
+	 * 
+	 * @param ipAddress
+	 *            - The IP address to get information from.
+	 * @return The {@link CityResponse} of the IP address.
+	 * @throws UnknownHostException
+	 *             If the IP address of a host could not be determined.
+	 * @throws IOException
+	 *             If the connection to the GeoIP2 service could not be
+	 *             established, or the result object could not be created.
+	 * @throws GeoIp2Exception
+	 *             If the IP address is not present in the service database.
+	 */
+	public CityResponse getCityResponse(String ipAddress)
+			throws UnknownHostException, IOException, GeoIp2Exception {
+		// the reader and the cache are read once, a re-load during the lookup
+		// leaves both behind
+		final Database current = getDatabase();
+		Object response = current.responses.get(ipAddress);
+		if (response == null) {
+			InetAddress inetAddress = InetAddress.getByName(ipAddress);
+			try {
+				response = current.reader.city(inetAddress);
+			} catch (GeoIp2Exception e) {
+				response = e;
+			}
+			current.responses.put(ipAddress, response);
+		}
+		if (response instanceof GeoIp2Exception) {
+			throw (GeoIp2Exception) response;
+		}
+		return (CityResponse) response;
 	}
 
 	/**
@@ -169,8 +276,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public String getSubdivisionIsoCode(String ipAddress)
 			throws UnknownHostException, IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
+		CityResponse city = getCityResponse(ipAddress);
 		Subdivision subdivision = city.getMostSpecificSubdivision();
 		return subdivision.getIsoCode();
 	}
@@ -193,8 +299,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public String getCountryIsoCode(String ipAddress)
 			throws UnknownHostException, IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
+		CityResponse city = getCityResponse(ipAddress);
 		Country country = city.getCountry();
 		return country.getIsoCode();
 	}
@@ -209,8 +314,7 @@ public class GeoIp2CityDbUtil {
      */
 	public Location getLocationByIp(String ipAddress)
 			throws IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
+		CityResponse city = getCityResponse(ipAddress);
 		com.dotcms.repackage.com.maxmind.geoip2.record.Location location = city.getLocation();
 		return new Location(location.getLatitude(), location.getLongitude());
 	}
@@ -231,8 +335,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public String getCityName(String ipAddress) throws UnknownHostException,
 			IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse cityResponse = getDatabaseReader().city(inetAddress);
+		CityResponse cityResponse = getCityResponse(ipAddress);
 		City city = cityResponse.getCity();
 		return city.getName();
 	}
@@ -255,8 +358,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public TimeZone getTimeZone(String ipAddress) throws UnknownHostException,
 			IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
+		CityResponse city = getCityResponse(ipAddress);
 		String zone = city.getLocation().getTimeZone();
 		return TimeZone.getTimeZone(zone);
 	}
@@ -35,6 +35,8 @@ public class HttpRequestDataUtil {
 
 	public static final String DEFAULT_REMOTE_ADDRESS = "0.0.0.0";
 
+	private static final Pattern NETMASK_PATTERN = Pattern.compile("^(?:[0-9]{1,3}\\.){3}[0-9]{1,3}$");
+
 	/**
 	 * Get the remote address, if the request is null will return 0.0.0.0.
 	 * @param request {@link HttpServletRequest}
@@ -124,25 +126,40 @@ public class HttpRequestDataUtil {
 	public static boolean isIpMatchingNetmask(String ipAddress, String netmask) {
 		boolean isMatching = false;
 		if (UtilMethods.isSet(ipAddress) && UtilMethods.isSet(netmask)) {
-			String[] netmaskParts = netmask.split("/");
-			if (netmaskParts != null && netmaskParts.length == 2) {
-				SubnetUtils subnetUtils = null;
-				Pattern pattern = Pattern
-						.compile("^(?:[0-9]{1,3}\\.){3}[0-9]{1,3}$");
-				Matcher matcher = pattern.matcher(netmaskParts[1]);
-				if (matcher.find()) {
-					subnetUtils = new SubnetUtils(netmaskParts[0],
-							netmaskParts[1]);
-				} else {
-					subnetUtils = new SubnetUtils(netmask);
-				}
-				SubnetInfo info = subnetUtils.getInfo();
+			SubnetInfo info = getSubnetInfo(netmask);
+			if (info != null) {
 				isMatching = info.isInRange(ipAddress);
 			}
 		}
 		return isMatching;
 	}
 
+	/**
+	 * Parses a netmask into the {@link SubnetInfo} used to match IP addresses
+	 * against it, so callers checking many addresses can parse it just once.
+	 * 
+	 * @param netmask
+	 *            - The netmask address. This can be either a classic netmask (
+	 *            {@code "192.168.1.2/255.255.255.0"}) or CIDR-notation netmask
+	 *            ({@code "192.168.1.2/24"}).
+	 * @return The {@link SubnetInfo} of the netmask, or {@code null} if it does
+	 *         not have the address and the mask.
+	 */
+	public static SubnetInfo getSubnetInfo(String netmask) {
+		String[] netmaskParts = netmask.split("/");
+		if (netmaskParts.length != 2) {
+			return null;
+		}
+		SubnetUtils subnetUtils = null;
+		Matcher matcher = NETMASK_PATTERN.matcher(netmaskParts[1]);
+		if (matcher.find()) {
+			subnetUtils = new SubnetUtils(netmaskParts[0], netmaskParts[1]);
+		} else {
+			subnetUtils = new SubnetUtils(netmask);
+		}
+		return subnetUtils.getInfo();
+	}
+
 	/**
 	 * Returns the decoded URI of the request.
 	 * 
@@ -3,6 +3,8 @@ package com.dotcms.visitor.domain;
 import com.dotcms.repackage.com.google.common.collect.HashMultiset;
 import com.dotcms.repackage.com.google.common.collect.Multiset;
 import com.dotcms.repackage.com.google.common.collect.Multisets;
+import com.dotcms.repackage.com.maxmind.geoip2.model.CityResponse;
+import com.dotcms.util.GeoIp2CityDbUtil;
 import eu.bitwalker.useragentutils.DeviceType;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.exception.DotDataException;
@@ -26,6 +28,8 @@ public class Visitor implements Serializable {
 
     private InetAddress ipAddress;
 
+    private transient CityResponse geoLocation;
+
     private Language selectedLanguage;
 
     private Locale locale;
@@ -62,6 +66,25 @@ public class Visitor implements Serializable {
 
     public void setIpAddress(InetAddress ipAddress) {
         this.ipAddress = ipAddress;
+        this.geoLocation = null;
+    }
+
+    /**
+     * Returns the geographic information of the IP address of the visitor, it is
+     * looked up once and kept for the rest of the visit.
+     *
+     * @return the {@link CityResponse}, null if the IP address cannot be located
+     */
+    public CityResponse getGeoLocation() {
+
+        if (geoLocation == null && ipAddress != null) {
+            try {
+                geoLocation = GeoIp2CityDbUtil.getInstance().getCityResponse(ipAddress.getHostAddress());
+            } catch (Exception e) {
+                Logger.debug(this, "Unable to locate IP address " + ipAddress + ": " + e.getMessage());
+            }
+        }
+        return geoLocation;
     }
 
     public Language getSelectedLanguage() {
@@ -6,9 +6,13 @@ import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.GZIPOutputStream;
 
 import org.quartz.Job;
@@ -28,6 +32,7 @@ import com.dotmarketing.business.IdentifierAPI;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.business.Permissionable;
 import com.dotmarketing.business.UserAPI;
+import com.dotmarketing.common.db.DotConnect;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
@@ -70,6 +75,7 @@ public class XMLSitemapJob implements Job, StatefulJob {
 
 	private int sitemapCounter = 1;
 	private int processedRegistries = 0;
+	private boolean writeFailed = false;
 	private Map<String, Integer> hostFilesCounter = null;
 
 	private static String XML_SITEMAPS_FOLDER;
@@ -85,6 +91,13 @@ public class XMLSitemapJob implements Job, StatefulJob {
 
 	private String structuresToIgnoreConfig = null;
 
+	/**
+	 * Last change found for every host when its sitemap was generated. Quartz
+	 * creates a new job instance on every run, so this has to be static.
+	 */
+	private static final Map<String, Date> lastHostChanges = new ConcurrentHashMap<String, Date>();
+	private static volatile long lastFullRebuild = 0;
+
 	public XMLSitemapJob () {
 		try {
 			systemUser = userAPI.getSystemUser();
@@ -160,13 +173,20 @@ public class XMLSitemapJob implements Job, StatefulJob {
 
 	/**
 	 * Generate the sitemap xml based on the show on menu pages, files, link and
-	 * folder
+	 * folder. Hosts whose content has not changed since their sitemap was last
+	 * generated are skipped, unless a full rebuild is due.
 	 */
 	@SuppressWarnings("unchecked")
 	public void generateSitemapPerHost() throws DotDataException, DotSecurityException {
 
 		List<Host> hostsList = hostAPI.findAll(systemUser, false);
-		List<ContentType> types = APILocator.getContentTypeAPI(APILocator.systemUser()).findAll() ;
+		List<SitemapContentType> sitemapTypes = findSitemapContentTypes();
+
+		final boolean fullRebuild = isFullRebuildDue();
+		if (fullRebuild) {
+			lastHostChanges.clear();
+			lastFullRebuild = System.currentTimeMillis();
+		}
 
 		for (Host host : hostsList) {
 
@@ -174,10 +194,18 @@ public class XMLSitemapJob implements Job, StatefulJob {
 				continue;
             }
 
+			final Date lastChange = findLastChange(host);
+			if (!fullRebuild && null != lastChange && lastChange.equals(lastHostChanges.get(host.getIdentifier()))) {
+				Logger.debug(this, "No changes found since last sitemap generation for host " + host.getHostname());
+				continue;
+			}
+
 			processedRegistries = 0;
 			currentHost = host;
 			sitemapCounter = 1;
+			writeFailed = false;
             String stringbuf;
+			boolean generated = false;
 
 			try {
 				/**
@@ -210,140 +238,12 @@ public class XMLSitemapJob implements Job, StatefulJob {
 				 * This part generate the detail pages sitemap links per
 				 * structure
 				 */
-				for (ContentType type : types) {
-					String stVelocityVarName = type.variable();
-					if (ignorableStructureIds.contains(stVelocityVarName.toLowerCase())) {
-						continue;
-					}
-
-					Structure st = new StructureTransformer(type).asStructure();
-
-                    //Continue only if have a detail
-                    if ( !InodeUtils.isSet( st.getPagedetail() ) ) {
-						continue;
-                    }
-
-					//Getting the detail page, that detail page could be a HTMLPageAsset or a legacy page
-					IHTMLPage page = null;
-						//First lets asume it is a HTMLPageAsset
-						Contentlet contentlet = APILocator.getContentletAPI().search( "+identifier:" + st.getPagedetail() + " +live:true", 0, 0, "moddate", systemUser, false ).get( 0 );
-						if ( contentlet != null ) {
-							page = APILocator.getHTMLPageAssetAPI().fromContentlet( contentlet );
-						}
-
-					if ( !UtilMethods.isSet( page ) || !UtilMethods.isSet( page.getIdentifier() ) ) {
-						Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
-						continue;
-					}
-
-					Identifier pageIdentifier = identAPI.find( page.getIdentifier() );
-					if ( !UtilMethods.isSet( pageIdentifier ) || !UtilMethods.isSet( pageIdentifier.getId() ) ) {
-						Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
+				for (SitemapContentType sitemapType : sitemapTypes) {
+					if (ignorableStructureIds.contains(sitemapType.structure.getVelocityVarName().toLowerCase())) {
 						continue;
 					}
 
-					Logger.debug( this, " Creating Site Map for Structure " + stVelocityVarName );
-
-					//Search for the content of this structure
-					String hostQuery = "+(conhost:" + host.getIdentifier() + " conhost:SYSTEM_HOST)";
-					String query = hostQuery + " +structureName:" + st.getVelocityVarName() + " +deleted:false +live:true";
-
-					List<Contentlet> hits = conAPI.search( query, -1, 0, "", systemUser, true );
-					String structureURLMap = st.getUrlMapPattern();
-
-					List<RegExMatch> matches = null;
-
-					if ( useStructureURLMap && UtilMethods.isSet( structureURLMap ) ) {
-						matches = RegEX.find( st.getUrlMapPattern(), "({[^{}]+})" );
-					}
-
-					for (Contentlet contenlet : hits) {
-						stringbuf = null;
-						try {
-							if (usePermalinks) {
-								stringbuf = "<url><loc>"
-										+ XMLUtils.xmlEscape("http://"
-												+ host.getHostname()
-												+ "/permalink/"
-												+ contenlet.getIdentifier()
-												+ "/" + st.getPagedetail()
-												+ "/")
-										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
-										+ "</lastmod><changefreq>daily</changefreq></url>\n";
-
-							} else if (useStructureURLMap && UtilMethods.isSet(structureURLMap) && (matches != null)) {
-
-								String uri = structureURLMap;
-								Logger.debug(this, " Found the URL String for validation [" + uri + "]");
-
-								for (RegExMatch match : matches) {
-									String urlMapField = match.getMatch();
-									String urlMapFieldValue = contenlet
-											.getStringProperty(urlMapField
-													.substring(1, (urlMapField
-															.length() - 1)));
-									urlMapField = urlMapField.replaceFirst(
-											"\\{", "\\\\{");
-									urlMapField = urlMapField.replaceFirst(
-											"\\}", "\\\\}");
-
-									if (urlMapFieldValue != null) {
-										uri = uri.replaceAll(urlMapField,
-												urlMapFieldValue);
-									}
-									Logger.debug(this,
-											"Performing Variable replacement - urlMapField ["
-													+ match.getMatch()
-													+ "], urlMapField [ "
-													+ urlMapField
-													+ "], urlMapFieldValue ["
-													+ urlMapFieldValue
-													+ "], uri [" + uri + "]");
-								}
-
-								if ( uri == null && UtilMethods.isSet( st.getDetailPage() ) ) {
-									if ( page != null && UtilMethods.isSet( page.getIdentifier() ) ) {
-										uri = page.getURI() + "?id=" + contenlet.getInode();
-									}
-								}
-								String urlReplacementText = getUrlPatternReplacementText( host, stVelocityVarName);
-
-								uri = uri.replaceAll(urlReplacementText, "");
-
-								Logger.debug(this,
-										"Performing URL replacement - urlRelacementText ["
-												+ urlReplacementText
-												+ "], uri [" + uri + "]");
-								if(StringUtils.isNotEmpty(uri)){
-									stringbuf = "<url><loc>"
-										+ XMLUtils.xmlEscape("http://"
-												+ host.getHostname() + uri)
-										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
-										+ "</lastmod><changefreq>daily</changefreq></url>\n";
-								}
-							} else {
-								stringbuf = "<url><loc>"
-										+ XMLUtils.xmlEscape("http://"
-												+ host.getHostname()
-												+ pageIdentifier.getURI()
-												+ "?id="
-												+ contenlet.getIdentifier())
-										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
-										+ "</lastmod><changefreq>daily</changefreq></url>\n";
-							}
-
-							if (stringbuf != null) {
-								writeFile(stringbuf);
-							}
-							addRegistryProcessed();
-
-						} catch (Exception e) {
-							Logger.error(this, e.getMessage(), e);
-						}
-					}
+					writeDetailPageUrls(host, sitemapType);
 				}
 
                 /*
@@ -381,12 +281,253 @@ public class XMLSitemapJob implements Job, StatefulJob {
 
 				}
 
+				generated = true;
 			} catch (Exception e) {
 				Logger.error(this, e.getMessage(), e);
 			}
 
 			if (UtilMethods.isSet(temporaryFile)) {
-				closeFileWriter();
+				generated = closeFileWriter() && generated;
+			}
+			generated = generated && !writeFailed;
+
+			// a host whose sitemap failed is generated again on the next run
+			if (generated && null != lastChange) {
+				lastHostChanges.put(host.getIdentifier(), lastChange);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if all the sitemaps must be generated again, no matter if
+	 * their hosts changed or not. Folder changes and deleted content are not
+	 * tracked, so a full rebuild is done every
+	 * org.dotcms.XMLSitemap.FULL_REBUILD_HOURS hours.
+	 */
+	private boolean isFullRebuildDue() {
+		if (!Config.getBooleanProperty("org.dotcms.XMLSitemap.INCREMENTAL", true)) {
+			return true;
+		}
+		final long fullRebuildMillis = Config.getIntProperty("org.dotcms.XMLSitemap.FULL_REBUILD_HOURS", 24) * 3600000L;
+		return System.currentTimeMillis() - lastFullRebuild > fullRebuildMillis;
+	}
+
+	/**
+	 * Finds the last time a content or link living in the specified host (or in
+	 * the System Host) was saved, published or unpublished. The files in the
+	 * sitemaps folder are ignored, as they are written by this job.
+	 *
+	 * @param host
+	 * @return the date of the last change or null if it cannot be determined
+	 */
+	private Date findLastChange(Host host) {
+		Date lastChange = null;
+		try {
+			for (String versionTable : new String[] { "contentlet_version_info", "link_version_info" }) {
+				DotConnect dc = new DotConnect();
+				dc.setSQL("select max(vi.version_ts) as last_change from " + versionTable + " vi, identifier i "
+						+ "where vi.identifier = i.id and i.host_inode in (?, ?) and i.parent_path <> ?");
+				dc.addParam(host.getIdentifier());
+				dc.addParam(Host.SYSTEM_HOST);
+				dc.addParam(XML_SITEMAPS_FOLDER);
+				List<Map<String, Object>> results = dc.loadObjectResults();
+				if (!results.isEmpty() && results.get(0).get("last_change") instanceof Date) {
+					Date tableChange = (Date) results.get(0).get("last_change");
+					if (null == lastChange || tableChange.after(lastChange)) {
+						lastChange = new Date(tableChange.getTime());
+					}
+				}
+			}
+		} catch (Exception e) {
+			Logger.warn(this, "Unable to find the last change for host " + host.getHostname() + ": " + e.getMessage());
+			return null;
+		}
+		return lastChange;
+	}
+
+	/**
+	 * Resolves, once per run, the content types having a detail page along
+	 * with that page and its URL map pattern.
+	 */
+	private List<SitemapContentType> findSitemapContentTypes() throws DotDataException, DotSecurityException {
+		List<SitemapContentType> sitemapTypes = new ArrayList<SitemapContentType>();
+		List<ContentType> types = APILocator.getContentTypeAPI(APILocator.systemUser()).findAll() ;
+
+		for (ContentType type : types) {
+			String stVelocityVarName = type.variable();
+			Structure st = new StructureTransformer(type).asStructure();
+
+            //Continue only if have a detail
+            if ( !InodeUtils.isSet( st.getPagedetail() ) ) {
+				continue;
+            }
+
+			//Getting the detail page, that detail page could be a HTMLPageAsset or a legacy page
+			IHTMLPage page = null;
+			//First lets asume it is a HTMLPageAsset
+			List<Contentlet> detailPages = APILocator.getContentletAPI().search( "+identifier:" + st.getPagedetail() + " +live:true", 0, 0, "moddate", systemUser, false );
+			if ( !detailPages.isEmpty() && detailPages.get( 0 ) != null ) {
+				page = APILocator.getHTMLPageAssetAPI().fromContentlet( detailPages.get( 0 ) );
+			}
+
+			if ( !UtilMethods.isSet( page ) || !UtilMethods.isSet( page.getIdentifier() ) ) {
+				Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
+				continue;
+			}
+
+			Identifier pageIdentifier = identAPI.find( page.getIdentifier() );
+			if ( !UtilMethods.isSet( pageIdentifier ) || !UtilMethods.isSet( pageIdentifier.getId() ) ) {
+				Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
+				continue;
+			}
+
+			List<RegExMatch> matches = null;
+			if ( useStructureURLMap && UtilMethods.isSet( st.getUrlMapPattern() ) ) {
+				matches = RegEX.find( st.getUrlMapPattern(), "({[^{}]+})" );
+			}
+
+			sitemapTypes.add(new SitemapContentType(st, page, pageIdentifier, matches));
+		}
+		return sitemapTypes;
+	}
+
+	/**
+	 * Writes the detail page URL of every live content of the specified type
+	 * living in the host. Content is read in pages of
+	 * org.dotcms.XMLSitemap.CONTENT_PAGE_SIZE items, so big content types are
+	 * never loaded at once. The pages are walked by identifier, every page
+	 * starts at the last identifier of the one before, so the cost of a page
+	 * doesn't grow with the depth and the content published meanwhile doesn't
+	 * shift the pages. The contents of the last identifier of a page (one per
+	 * language) are remembered, so none is written twice.
+	 */
+	private void writeDetailPageUrls(Host host, SitemapContentType sitemapType) throws DotDataException, DotSecurityException {
+		Structure st = sitemapType.structure;
+		String stVelocityVarName = st.getVelocityVarName();
+		IHTMLPage page = sitemapType.page;
+		Identifier pageIdentifier = sitemapType.pageIdentifier;
+		List<RegExMatch> matches = sitemapType.urlMapMatches;
+		String structureURLMap = st.getUrlMapPattern();
+		String stringbuf;
+
+		Logger.debug( this, " Creating Site Map for Structure " + stVelocityVarName );
+
+		//Search for the content of this structure
+		String hostQuery = "+(conhost:" + host.getIdentifier() + " conhost:SYSTEM_HOST)";
+		String query = hostQuery + " +structureName:" + st.getVelocityVarName() + " +deleted:false +live:true";
+		int pageSize = Config.getIntProperty("org.dotcms.XMLSitemap.CONTENT_PAGE_SIZE", 500);
+
+		String lastIdentifier = null;
+		Set<String> lastIdentifierInodes = new HashSet<>();
+		while (true) {
+			String pageQuery = (lastIdentifier == null) ? query : query + " +identifier:[" + lastIdentifier + " TO *]";
+			List<Contentlet> hits = conAPI.search( pageQuery, pageSize, 0, "identifier", systemUser, true );
+			int written = 0;
+
+			for (Contentlet contenlet : hits) {
+				if (contenlet.getIdentifier().equals(lastIdentifier)) {
+					if (!lastIdentifierInodes.add(contenlet.getInode())) {
+						continue;
+					}
+				} else {
+					lastIdentifier = contenlet.getIdentifier();
+					lastIdentifierInodes = new HashSet<>();
+					lastIdentifierInodes.add(contenlet.getInode());
+				}
+				written++;
+
+				stringbuf = null;
+				String contentModifiedDate = (null != contenlet.getModDate())
+						? UtilMethods.dateToHTMLDate(contenlet.getModDate(), "yyyy-MM-dd")
+						: modifiedDateStringValue;
+				try {
+					if (usePermalinks) {
+						stringbuf = "<url><loc>"
+								+ XMLUtils.xmlEscape("http://"
+										+ host.getHostname()
+										+ "/permalink/"
+										+ contenlet.getIdentifier()
+										+ "/" + st.getPagedetail()
+										+ "/")
+								+ "</loc><lastmod>"
+								+ contentModifiedDate
+								+ "</lastmod><changefreq>daily</changefreq></url>\n";
+
+					} else if (useStructureURLMap && UtilMethods.isSet(structureURLMap) && (matches != null)) {
+
+						String uri = structureURLMap;
+						Logger.debug(this, " Found the URL String for validation [" + uri + "]");
+
+						for (RegExMatch match : matches) {
+							String urlMapField = match.getMatch();
+							String urlMapFieldValue = contenlet
+									.getStringProperty(urlMapField
+											.substring(1, (urlMapField
+													.length() - 1)));
+							urlMapField = urlMapField.replaceFirst(
+									"\\{", "\\\\{");
+							urlMapField = urlMapField.replaceFirst(
+									"\\}", "\\\\}");
+
+							if (urlMapFieldValue != null) {
+								uri = uri.replaceAll(urlMapField,
+										urlMapFieldValue);
+							}
+							Logger.debug(this,
+									"Performing Variable replacement - urlMapField ["
+											+ match.getMatch()
+											+ "], urlMapField [ "
+											+ urlMapField
+											+ "], urlMapFieldValue ["
+											+ urlMapFieldValue
+											+ "], uri [" + uri + "]");
+						}
+
+						if ( uri == null && UtilMethods.isSet( st.getDetailPage() ) ) {
+							if ( page != null && UtilMethods.isSet( page.getIdentifier() ) ) {
+								uri = page.getURI() + "?id=" + contenlet.getInode();
+							}
+						}
+						String urlReplacementText = getUrlPatternReplacementText( host, stVelocityVarName);
+
+						uri = uri.replaceAll(urlReplacementText, "");
+
+						Logger.debug(this,
+								"Performing URL replacement - urlRelacementText ["
+										+ urlReplacementText
+										+ "], uri [" + uri + "]");
+						if(StringUtils.isNotEmpty(uri)){
+							stringbuf = "<url><loc>"
+								+ XMLUtils.xmlEscape("http://"
+										+ host.getHostname() + uri)
+								+ "</loc><lastmod>"
+								+ contentModifiedDate
+								+ "</lastmod><changefreq>daily</changefreq></url>\n";
+						}
+					} else {
+						stringbuf = "<url><loc>"
+								+ XMLUtils.xmlEscape("http://"
+										+ host.getHostname()
+										+ pageIdentifier.getURI()
+										+ "?id="
+										+ contenlet.getIdentifier())
+								+ "</loc><lastmod>"
+								+ contentModifiedDate
+								+ "</lastmod><changefreq>daily</changefreq></url>\n";
+					}
+
+					if (stringbuf != null) {
+						writeFile(stringbuf);
+					}
+					addRegistryProcessed();
+
+				} catch (Exception e) {
+					Logger.error(this, e.getMessage(), e);
+				}
+			}
+
+			if (hits.size() < pageSize || written == 0) {
+				break;
 			}
 		}
 	}
@@ -509,8 +650,10 @@ public class XMLSitemapJob implements Job, StatefulJob {
 	/**
 	 * Save in backend the new XMLSitemapGenerated.xml file and delete the
 	 * temporary file
+	 *
+	 * @return true if the file was saved
 	 */
-	private void closeFileWriter() {
+	private boolean closeFileWriter() {
 
 		int counter = hostFilesCounter.get(currentHost.getHostname());
 		try {
@@ -572,9 +715,10 @@ public class XMLSitemapJob implements Job, StatefulJob {
             }
 			APILocator.getVersionableAPI().setWorking(file);
 
-
+			return true;
 		} catch (Exception e) {
 			Logger.error(this, e.getMessage(), e);
+			return false;
 		} finally {
 			hostFilesCounter.put(currentHost.getHostname(), counter + 1);
 			temporaryFile.delete();
@@ -600,13 +744,16 @@ public class XMLSitemapJob implements Job, StatefulJob {
 			out.flush();
 
 			if (temporaryFile.length() > 9437184 || processedRegistries > 49999) {
-				closeFileWriter();
+				if (!closeFileWriter()) {
+					writeFailed = true;
+				}
 				sitemapCounter = sitemapCounter + 1;
 				processedRegistries = 0;
 				openFileWriter();
 			}
 
 		} catch (Exception e) {
+			writeFailed = true;
 			Logger.error(this, e.getMessage(), e);
 		}
 
@@ -683,4 +830,22 @@ public class XMLSitemapJob implements Job, StatefulJob {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Content type with a detail page, resolved once per job run
+	 */
+	private static class SitemapContentType {
+
+		private final Structure structure;
+		private final IHTMLPage page;
+		private final Identifier pageIdentifier;
+		private final List<RegExMatch> urlMapMatches;
+
+		SitemapContentType(Structure structure, IHTMLPage page, Identifier pageIdentifier, List<RegExMatch> urlMapMatches) {
+			this.structure = structure;
+			this.page = page;
+			this.pageIdentifier = pageIdentifier;
+			this.urlMapMatches = urlMapMatches;
+		}
+	}
+
+}
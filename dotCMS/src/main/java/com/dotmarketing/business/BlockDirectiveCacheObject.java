@@ -1,6 +1,9 @@
 package com.dotmarketing.business;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 public class BlockDirectiveCacheObject implements Serializable {
 
@@ -9,6 +12,7 @@ public class BlockDirectiveCacheObject implements Serializable {
 		String value;
 		long created = 0;
 		int ttl=0;
+		Set<String> dependencies = null;
 		public int getTtl() {
 			return ttl;
 		}
@@ -44,6 +48,18 @@ public class BlockDirectiveCacheObject implements Serializable {
 		public void setValue(String value) {
 			this.value = value;
 		}
+
+		/**
+		 * The assets recorded while rendering the value, see
+		 * {@link PageCacheDependencies}. Null if they were not recorded.
+		 */
+		public Set<String> getDependencies() {
+			return dependencies;
+		}
+
+		public void setDependencies(Collection<String> dependencies) {
+			this.dependencies = (dependencies != null) ? new HashSet<String>(dependencies) : null;
+		}
 		
 		
 		
@@ -1,5 +1,7 @@
 package com.dotmarketing.business;
 
+import java.util.Collection;
+
 import com.dotcms.repackage.org.apache.commons.lang.StringUtils;
 import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
 
@@ -96,6 +98,23 @@ public abstract class BlockPageCache implements Cachable {
 	abstract public void add(IHTMLPage page, String value,
 			PageCacheParameters pageChacheParams);
 
+	/**
+	 * Adds a new entry to the cache, along with the assets that were used to
+	 * render it (see {@link PageCacheDependencies}). The entry will be removed
+	 * as soon as any of them changes.
+	 * 
+	 * @param page
+	 *            - The {@link IHTMLPage} object.
+	 * @param value
+	 *            - The String representation of the page.
+	 * @param pageChacheParams
+	 *            - Values used to cache a specific page.
+	 * @param dependencies
+	 *            - The dependency keys recorded while rendering the page.
+	 */
+	abstract public void add(IHTMLPage page, String value,
+			PageCacheParameters pageChacheParams, Collection<String> dependencies);
+
 	/**
 	 * Retrieves a page from the cache.
 	 * 
@@ -108,6 +127,20 @@ public abstract class BlockPageCache implements Cachable {
 	abstract public String get(IHTMLPage page,
 			PageCacheParameters pageChacheParams);
 
+	/**
+	 * Retrieves the cached entry of a page without checking whether it has
+	 * expired, so callers can decide to serve a stale copy.
+	 * 
+	 * @param page
+	 *            - The {@link IHTMLPage} object.
+	 * @param pageChacheParams
+	 *            - Values used to retrieve a specific page from the cache.
+	 * @return The {@link BlockDirectiveCacheObject}, or <code>null</code> if
+	 *         the page is not cached.
+	 */
+	abstract public BlockDirectiveCacheObject getCacheObject(IHTMLPage page,
+			PageCacheParameters pageChacheParams);
+
 	/**
 	 * Removes a page from the cache, along with all of its versions.
 	 * 
@@ -116,4 +149,14 @@ public abstract class BlockPageCache implements Cachable {
 	 */
 	abstract public void remove(IHTMLPage page);
 
+	/**
+	 * Removes all the pages, along with all of their versions, that were
+	 * rendered using any of the given dependencies.
+	 * 
+	 * @param dependencies
+	 *            - The dependency keys of the assets that changed (see
+	 *            {@link PageCacheDependencies}).
+	 */
+	abstract public void removeDependents(Collection<String> dependencies);
+
 }
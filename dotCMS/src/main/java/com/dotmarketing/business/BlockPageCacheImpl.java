@@ -1,9 +1,10 @@
 package com.dotmarketing.business;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
@@ -32,6 +33,12 @@ import com.dotmarketing.util.Logger;
  * 		</ul>
  *  </li>
  * </ul>
+ * A second group keeps, for each asset recorded while rendering (see
+ * {@link PageCacheDependencies}), the main keys of the pages that used it, so
+ * they can be removed when the asset changes. As that group can be evicted, or
+ * flushed by another node, every cached version keeps its own dependencies
+ * too, and it is only served while the index still points to its page.
+ * Otherwise a change to the asset could not reach it anymore.
  * 
  * @author Jose Castro
  * @version 1.0
@@ -43,6 +50,7 @@ public class BlockPageCacheImpl extends BlockPageCache {
 	private boolean canCache = false;
 	private DotCacheAdministrator cache = null;
 	private static String primaryCacheGroup = "BlockDirectiveHTMLPageCache";
+	private static String dependencyCacheGroup = "BlockDirectiveHTMLPageDependencyCache";
 
 	/**
 	 * Default constructor. Initializes the internal caching structures.
@@ -59,115 +67,184 @@ public class BlockPageCacheImpl extends BlockPageCache {
 
 	@Override
 	public String[] getGroups() {
-		String[] groupNames = { primaryCacheGroup };
+		String[] groupNames = { primaryCacheGroup, dependencyCacheGroup };
 		return groupNames;
 	}
 
 	@Override
 	public void clearCache() {
 		cache.flushGroup(primaryCacheGroup);
+		cache.flushGroup(dependencyCacheGroup);
 	}
 
 	@Override
 	public void add(IHTMLPage page, String value,
 			PageCacheParameters pageChacheParams) {
-		if (page == null || pageChacheParams == null
-				|| pageChacheParams == null) {
+		add(page, value, pageChacheParams, null);
+	}
+
+	@Override
+	public void add(IHTMLPage page, String value,
+			PageCacheParameters pageChacheParams, Collection<String> dependencies) {
+		if (page == null || pageChacheParams == null) {
 			return;
 		}
-		StringBuilder key = new StringBuilder();
-		key.append(page.getInode());
-		key.append("_" + page.getModDate().getTime());
+		String key = getKey(page);
 		String subkey = pageChacheParams.getKey();
 		BlockDirectiveCacheObject cto = new BlockDirectiveCacheObject(value,
 				(int) page.getCacheTTL());
+		cto.setDependencies(dependencies);
 		synchronized (cache) {
-			try {
-				// Lookup the cached versions of a page
-				List<Map<String, Object>> cachedPages = (List<Map<String, Object>>) this.cache
-						.get(key.toString(), primaryCacheGroup);
-				if (cachedPages != null) {
-					boolean updatedEntry = false;
-					// Update version of page based on userid, language and
-					// urlmap
-					for (Map<String, Object> pageInfo : cachedPages) {
-						if (pageInfo.containsKey(subkey)) {
-							pageInfo.put(subkey, cto);
-							updatedEntry = true;
-							break;
-						}
-					}
-					// Or add a new one
-					if (!updatedEntry) {
-						Map<String, Object> pageInfo = new HashMap<String, Object>();
-						pageInfo.put(subkey, cto);
-						cachedPages.add(pageInfo);
+			// Lookup the cached versions of a page and add or update the one
+			// based on userid, language and urlmap
+			Map<String, BlockDirectiveCacheObject> versions = getVersions(key);
+			versions = (versions != null) ? new HashMap<String, BlockDirectiveCacheObject>(versions)
+					: new HashMap<String, BlockDirectiveCacheObject>();
+			versions.put(subkey, cto);
+			this.cache.put(key, versions, primaryCacheGroup);
+
+			// Keep track of the pages rendered with each dependency
+			if (dependencies != null) {
+				for (String dependency : dependencies) {
+					Set<String> dependents = getDependents(dependency);
+					if (dependents == null || !dependents.contains(key)) {
+						dependents = (dependents != null) ? new HashSet<String>(dependents) : new HashSet<String>();
+						dependents.add(key);
+						this.cache.put(dependency, dependents, dependencyCacheGroup);
 					}
 				}
-			} catch (DotCacheException e) {
-				// Key does not exist in cache, then add it
 			}
-			List<Map<String, Object>> versions = new ArrayList<Map<String, Object>>();
-			Map<String, Object> pageInfo = new HashMap<String, Object>();
-			pageInfo.put(subkey, cto);
-			versions.add(pageInfo);
-			this.cache.put(key.toString(), versions, primaryCacheGroup);
 		}
 	}
 
 	@Override
 	public String get(IHTMLPage page, PageCacheParameters pageChacheParams) {
-		if (!canCache || page == null || pageChacheParams == null
-				|| pageChacheParams == null) {
+		if (!canCache || page == null || pageChacheParams == null) {
 			return null;
 		}
-		StringBuilder key = new StringBuilder();
-		key.append(page.getInode());
-		key.append("_" + page.getModDate().getTime());
+		String key = getKey(page);
 		String subkey = pageChacheParams.getKey();
 		synchronized (cache) {
 			// Lookup the cached versions of the page based on inode and moddate
-			try {
-				List<Map<String, Object>> cachedPages = (List<Map<String, Object>>) this.cache
-						.get(key.toString(), primaryCacheGroup);
-				BlockDirectiveCacheObject cto = null;
-				if (cachedPages != null) {
-					for (Map<String, Object> pageInfo : cachedPages) {
-						// Lookup specific page with userid, language and urlmap
-						if (pageInfo.containsKey(subkey)) {
-							cto = (BlockDirectiveCacheObject) pageInfo
-									.get(subkey);
-							break;
-						}
-					}
-					if (cto != null
-							&& cto.getCreated()
-									+ ((int) page.getCacheTTL() * 1000) > System
-										.currentTimeMillis()) {
-						return cto.getValue();
-					} else {
-						// Remove page from cache if expired and get new version
-						remove(page);
-					}
+			Map<String, BlockDirectiveCacheObject> versions = getVersions(key);
+			if (versions != null) {
+				// Lookup specific page with userid, language and urlmap
+				BlockDirectiveCacheObject cto = versions.get(subkey);
+				if (cto != null && isIndexed(key, cto)
+						&& cto.getCreated()
+								+ ((int) page.getCacheTTL() * 1000) > System
+									.currentTimeMillis()) {
+					return cto.getValue();
+				} else {
+					// Remove page from cache if expired and get new version
+					remove(page);
 				}
-			} catch (DotCacheException e) {
-				Logger.error(this.getClass(), "cache entry :" + key.toString()
-						+ " not found");
 			}
 		}
 		return null;
 	}
 
+	@Override
+	public BlockDirectiveCacheObject getCacheObject(IHTMLPage page, PageCacheParameters pageChacheParams) {
+		if (!canCache || page == null || pageChacheParams == null) {
+			return null;
+		}
+		synchronized (cache) {
+			String key = getKey(page);
+			Map<String, BlockDirectiveCacheObject> versions = getVersions(key);
+			BlockDirectiveCacheObject cto = (versions != null) ? versions.get(pageChacheParams.getKey()) : null;
+			if (cto != null && !isIndexed(key, cto)) {
+				// A change to one of its dependencies would not remove it anymore
+				remove(page);
+				return null;
+			}
+			return cto;
+		}
+	}
+
 	@Override
 	public void remove(IHTMLPage page) {
 		try {
-			StringBuilder key = new StringBuilder();
-			key.append(page.getInode());
-			key.append("_" + page.getModDate().getTime());
-			this.cache.remove(key.toString(), primaryCacheGroup);
+			this.cache.remove(getKey(page), primaryCacheGroup);
 		} catch (Exception e) {
 			Logger.debug(this, "Cache not able to be removed", e);
 		}
 	}
 
+	@Override
+	public void removeDependents(Collection<String> dependencies) {
+		if (dependencies == null) {
+			return;
+		}
+		for (String dependency : dependencies) {
+			Set<String> dependents;
+			synchronized (cache) {
+				dependents = getDependents(dependency);
+				if (dependents == null) {
+					continue;
+				}
+				this.cache.remove(dependency, dependencyCacheGroup);
+			}
+			for (String key : dependents) {
+				try {
+					this.cache.remove(key, primaryCacheGroup);
+				} catch (Exception e) {
+					Logger.debug(this, "Cache not able to be removed", e);
+				}
+			}
+			Logger.debug(this, "Removed " + dependents.size() + " cached pages depending on " + dependency);
+		}
+	}
+
+	/**
+	 * Checks that every dependency of a cached version still lists its page in
+	 * the dependency group.
+	 */
+	private boolean isIndexed(String key, BlockDirectiveCacheObject cto) {
+		if (cto.getDependencies() == null) {
+			return true;
+		}
+		for (String dependency : cto.getDependencies()) {
+			Set<String> dependents = getDependents(dependency);
+			if (dependents == null || !dependents.contains(key)) {
+				Logger.debug(this, "The dependency " + dependency + " of the cached page " + key + " is gone");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The main key of a page: its inode and modification date.
+	 */
+	private String getKey(IHTMLPage page) {
+		StringBuilder key = new StringBuilder();
+		key.append(page.getInode());
+		key.append("_" + page.getModDate().getTime());
+		return key.toString();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, BlockDirectiveCacheObject> getVersions(String key) {
+		try {
+			Object versions = this.cache.get(key, primaryCacheGroup);
+			if (versions instanceof Map) {
+				return (Map<String, BlockDirectiveCacheObject>) versions;
+			}
+		} catch (DotCacheException e) {
+			Logger.debug(this.getClass(), "cache entry :" + key + " not found");
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Set<String> getDependents(String dependency) {
+		try {
+			return (Set<String>) this.cache.get(dependency, dependencyCacheGroup);
+		} catch (DotCacheException e) {
+			Logger.debug(this.getClass(), "cache entry :" + dependency + " not found");
+		}
+		return null;
+	}
+
 }
@@ -0,0 +1,256 @@
+package com.dotmarketing.business;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dotcms.enterprise.LicenseUtil;
+import com.dotmarketing.business.BlockPageCache.PageCacheParameters;
+import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Coordinates the requests looking up a page in the {@link BlockPageCache}, so
+ * a popular page that is not cached is rendered once instead of once per
+ * concurrent request:
+ * <ul>
+ * <li>The first request that misses a page variant renders it; the others wait
+ * for it, up to {@link #BLOCK_PAGE_CACHE_COALESCE_WAIT_MILLIS}, and are served
+ * with the result.</li>
+ * <li>When {@link #BLOCK_PAGE_CACHE_STALE_SECONDS} is set, a page that expired
+ * less than that many seconds ago is served right away, and the first request
+ * that gets it renders it again for the cache once its response is done. At
+ * most {@link #BLOCK_PAGE_CACHE_MAX_REVALIDATIONS} pages are rendered that way
+ * at the same time, past that the stale copy is just served.</li>
+ * </ul>
+ * The hits, misses, stale and coalesced requests are exposed through JMX.
+ */
+public class BlockPageCacheLoader implements BlockPageCacheLoaderMBean {
+
+    /**
+     * Max millis a request waits for another one rendering the same page, 0 disables the coalescing. 5000 by default.
+     */
+    public static final String BLOCK_PAGE_CACHE_COALESCE_WAIT_MILLIS = "BLOCK_PAGE_CACHE_COALESCE_WAIT_MILLIS";
+
+    /**
+     * Seconds an expired page can still be served while it is rendered again, 0 (default) disables it.
+     */
+    public static final String BLOCK_PAGE_CACHE_STALE_SECONDS        = "BLOCK_PAGE_CACHE_STALE_SECONDS";
+
+    /**
+     * Max number of expired pages rendered again at the same time, 4 by default.
+     */
+    public static final String BLOCK_PAGE_CACHE_MAX_REVALIDATIONS    = "BLOCK_PAGE_CACHE_MAX_REVALIDATIONS";
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=BlockPageCache";
+
+    private final ConcurrentMap<String, CountDownLatch> rendersInFlight = new ConcurrentHashMap<>();
+    private final Semaphore revalidationPermits =
+            new Semaphore(Config.getIntProperty(BLOCK_PAGE_CACHE_MAX_REVALIDATIONS, 4));
+
+    private final AtomicLong hits         = new AtomicLong();
+    private final AtomicLong misses       = new AtomicLong();
+    private final AtomicLong staleServed  = new AtomicLong();
+    private final AtomicLong coalesced    = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    private BlockPageCacheLoader() {
+        // singleton
+    }
+
+    private static class SingletonHolder {
+        private static final BlockPageCacheLoader INSTANCE = new BlockPageCacheLoader();
+    }
+
+    /**
+     * Get the instance.
+     * @return BlockPageCacheLoader
+     */
+    public static BlockPageCacheLoader getInstance() {
+
+        return BlockPageCacheLoader.SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Looks up the page variant in the cache, the result says what the request has to do:
+     * <ul>
+     * <li>{@link PageLookup#getValue()} not null: serve it, and if {@link PageLookup#isRevalidate()}
+     * render the page again for the cache once the response is done.</li>
+     * <li>{@link PageLookup#getValue()} null: render the page and cache it.</li>
+     * </ul>
+     * {@link PageLookup#release()} must always be called once the request is done with the page.
+     *
+     * @param page {@link IHTMLPage}
+     * @param pageCacheParams {@link PageCacheParameters}
+     * @return PageLookup
+     */
+    public PageLookup lookup(final IHTMLPage page, final PageCacheParameters pageCacheParams) {
+
+        if (LicenseUtil.getLevel() < 100 || page.getCacheTTL() <= 0) {
+
+            // the page is not going to be cached, nothing to wait for
+            this.misses.incrementAndGet();
+            return new PageLookup(null, false, null, null);
+        }
+
+        final BlockPageCache cache = CacheLocator.getBlockPageCache();
+        final String key = page.getInode() + "_" + page.getModDate().getTime() + "_" + pageCacheParams.getKey();
+        final long waitMillis = Config.getLongProperty(BLOCK_PAGE_CACHE_COALESCE_WAIT_MILLIS, 5000);
+        final long staleMillis = Config.getIntProperty(BLOCK_PAGE_CACHE_STALE_SECONDS, 0) * 1000L;
+        final long ttlMillis   = page.getCacheTTL() * 1000L;
+
+        BlockDirectiveCacheObject cached = cache.getCacheObject(page, pageCacheParams);
+        long age = (null != cached) ? System.currentTimeMillis() - cached.getCreated() : Long.MAX_VALUE;
+
+        if (null != cached && age < ttlMillis) {
+
+            this.hits.incrementAndGet();
+            return new PageLookup(cached.getValue(), false, null, null);
+        }
+
+        final boolean stale = null != cached && age < ttlMillis + staleMillis;
+        final CountDownLatch render   = new CountDownLatch(1);
+        final CountDownLatch inFlight = this.rendersInFlight.putIfAbsent(key, render);
+
+        if (stale) {
+
+            this.staleServed.incrementAndGet();
+            if (null == inFlight && this.revalidationPermits.tryAcquire()) {
+
+                this.revalidations.incrementAndGet();
+                return new PageLookup(cached.getValue(), true, key, render);
+            }
+
+            this.release(key, null == inFlight ? render : null);
+            return new PageLookup(cached.getValue(), false, null, null);
+        }
+
+        if (null == inFlight || waitMillis <= 0) {
+
+            this.misses.incrementAndGet();
+            return (null == inFlight) ? new PageLookup(null, false, key, render) : new PageLookup(null, false, null, null);
+        }
+
+        // somebody else is rendering it, wait for the result
+        this.coalesced.incrementAndGet();
+        try {
+
+            if (inFlight.await(waitMillis, TimeUnit.MILLISECONDS)) {
+
+                // the render may have failed or left the page out of the cache, leaving the expired copy there
+                cached = cache.getCacheObject(page, pageCacheParams);
+                if (null != cached && System.currentTimeMillis() - cached.getCreated() < ttlMillis) {
+
+                    return new PageLookup(cached.getValue(), false, null, null);
+                }
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        Logger.debug(this, "Page " + key + " was not cached in time by another request, rendering it");
+        this.misses.incrementAndGet();
+        return new PageLookup(null, false, null, null);
+    }
+
+    private void release(final String key, final CountDownLatch render) {
+
+        if (null != render) {
+
+            this.rendersInFlight.remove(key, render);
+            render.countDown();
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    @Override
+    public long getStaleServed() {
+        return this.staleServed.get();
+    }
+
+    @Override
+    public long getCoalesced() {
+        return this.coalesced.get();
+    }
+
+    @Override
+    public long getRevalidations() {
+        return this.revalidations.get();
+    }
+
+    @Override
+    public int getRendersInFlight() {
+        return this.rendersInFlight.size();
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    /**
+     * Result of {@link BlockPageCacheLoader#lookup(IHTMLPage, PageCacheParameters)}
+     */
+    public final class PageLookup {
+
+        private final String value;
+        private final boolean revalidate;
+        private final String key;
+        private final CountDownLatch render;
+        private boolean released = false;
+
+        private PageLookup(final String value, final boolean revalidate, final String key, final CountDownLatch render) {
+            this.value      = value;
+            this.revalidate = revalidate;
+            this.key        = key;
+            this.render     = render;
+        }
+
+        /**
+         * The cached page to serve, null if the page has to be rendered
+         * @return String
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * True if the value is stale and this request has to render the page again for the cache
+         * @return boolean
+         */
+        public boolean isRevalidate() {
+            return revalidate;
+        }
+
+        /**
+         * Lets the requests waiting for this one know the page has been rendered (or failed to)
+         */
+        public void release() {
+
+            if (!this.released) {
+
+                this.released = true;
+                if (this.revalidate) {
+
+                    BlockPageCacheLoader.this.revalidationPermits.release();
+                }
+                BlockPageCacheLoader.this.release(this.key, this.render);
+            }
+        }
+    }
+
+} // E:O:F:BlockPageCacheLoader.
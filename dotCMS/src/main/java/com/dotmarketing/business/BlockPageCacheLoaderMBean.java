@@ -0,0 +1,46 @@
+package com.dotmarketing.business;
+
+import com.dotcms.jmx.DotMBean;
+
+/**
+ * Encapsulates the MBean interface for the {@link BlockPageCacheLoader}
+ */
+public interface BlockPageCacheLoaderMBean extends DotMBean {
+
+    /**
+     * Requests served with a cached page that had not expired
+     * @return long
+     */
+    long getHits();
+
+    /**
+     * Requests that had to render the page because it was not cached
+     * @return long
+     */
+    long getMisses();
+
+    /**
+     * Requests served with an expired page while it was being rendered again
+     * @return long
+     */
+    long getStaleServed();
+
+    /**
+     * Requests that waited for another request rendering the same page
+     * @return long
+     */
+    long getCoalesced();
+
+    /**
+     * Expired pages rendered again after serving the stale copy
+     * @return long
+     */
+    long getRevalidations();
+
+    /**
+     * Pages being rendered right now
+     * @return int
+     */
+    int getRendersInFlight();
+
+} // E:O:F:BlockPageCacheLoaderMBean.
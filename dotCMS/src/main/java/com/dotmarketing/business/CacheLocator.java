@@ -69,6 +69,8 @@ import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.WebKeys;
 import com.dotmarketing.velocity.DotResourceCache;
+import com.dotmarketing.viewtools.content.util.ContentQueryCache;
+import com.dotmarketing.viewtools.content.util.ContentQueryCacheImpl;
 import com.dotmarketing.viewtools.navigation.NavToolCache;
 import com.dotmarketing.viewtools.navigation.NavToolCacheImpl;
 
@@ -279,6 +281,10 @@ public class CacheLocator extends Locator<CacheIndex>{
 	    return (NavToolCache)getInstance(CacheIndex.NavTool);
 	}
 
+	public static ContentQueryCache getContentQueryCache() {
+	    return (ContentQueryCache)getInstance(CacheIndex.ContentQuery);
+	}
+
 	public static PublishingEndPointCache getPublishingEndPointCache() {
 		return (PublishingEndPointCache)getInstance(CacheIndex.PublishingEndPoint);
 	}
@@ -393,6 +399,7 @@ enum CacheIndex
 	Block_Page("Block Page"),
 	Indicies("Indicies"),
 	NavTool("Navigation Tool"),
+	ContentQuery("Content Query Cache"),
 	PublishingEndPoint("PublishingEndPoint Cache"),
 	PushedAssets("PushedAssets Cache"),
 	CSSCache("Processed CSS Cache"),
@@ -435,6 +442,7 @@ enum CacheIndex
       	case VirtualLinkCache : return new VirtualLinkCacheImpl();
       	case Indicies: return new IndiciesCacheImpl();
       	case NavTool: return new NavToolCacheImpl();
+      	case ContentQuery: return new ContentQueryCacheImpl();
       	case PublishingEndPoint: return new PublishingEndPointCacheImpl();
       	case PushedAssets: return new PushedAssetsCacheImpl();
       	case CSSCache: return new CSSCacheImpl();
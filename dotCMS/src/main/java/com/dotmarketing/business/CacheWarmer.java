@@ -0,0 +1,519 @@
+package com.dotmarketing.business;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.dotcms.repackage.org.apache.commons.lang.StringUtils;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.ConfigUtils;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.VelocityUtil;
+import com.liferay.portal.model.User;
+
+/**
+ * Keeps the caches from starting cold after a restart.
+ * <ul>
+ * <li>While the node runs, a sample of the hits of the regions listed in {@link #CACHE_WARMUP_GROUPS} is counted, and
+ * every {@link #CACHE_WARMUP_SNAPSHOT_SECONDS} the hottest keys of each region are written to a snapshot file in the
+ * dynamic content path. The counts are halved after each snapshot so the old hits fade away.</li>
+ * <li>On boot the snapshot is read and the entries are loaded back into the caches in the background, region by
+ * region in the order of {@link #CACHE_WARMUP_GROUPS} and hottest first. Identifiers, version infos and contentlets
+ * are loaded in batches of {@link #BATCH_SIZE}. The InitServlet waits up to {@link #CACHE_WARMUP_MAX_WAIT_SECONDS}
+ * for the preload before flagging the node as started.</li>
+ * </ul>
+ * Everything is off unless {@link #CACHE_WARMUP_ENABLED} is set.
+ */
+public class CacheWarmer implements CacheWarmerMBean {
+
+    /**
+     * Turns the hot key tracking and the preload on boot on, false by default.
+     */
+    public static final String CACHE_WARMUP_ENABLED          = "CACHE_WARMUP_ENABLED";
+
+    /**
+     * Cache regions tracked and preloaded, in order of priority.
+     */
+    public static final String CACHE_WARMUP_GROUPS           = "CACHE_WARMUP_GROUPS";
+
+    /**
+     * Seconds between snapshots of the hot keys, 300 by default.
+     */
+    public static final String CACHE_WARMUP_SNAPSHOT_SECONDS = "CACHE_WARMUP_SNAPSHOT_SECONDS";
+
+    /**
+     * Keys per region kept in the snapshot, 5000 by default.
+     */
+    public static final String CACHE_WARMUP_KEYS_PER_GROUP   = "CACHE_WARMUP_KEYS_PER_GROUP";
+
+    /**
+     * One hit out of this many is counted, 16 by default.
+     */
+    public static final String CACHE_WARMUP_SAMPLE_RATE      = "CACHE_WARMUP_SAMPLE_RATE";
+
+    /**
+     * Max seconds the startup waits for the preload, 60 by default. The preload goes on in the background after that.
+     */
+    public static final String CACHE_WARMUP_MAX_WAIT_SECONDS = "CACHE_WARMUP_MAX_WAIT_SECONDS";
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=CacheWarmer";
+
+    private static final String DEFAULT_GROUPS =
+            "identifiercache,versioninfocache,contentletcache,templatecache,containercache,velocitycache";
+
+    private static final int BATCH_SIZE = 200;
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[a-z0-9\\-_]+");
+
+    private final boolean enabled      = Config.getBooleanProperty(CACHE_WARMUP_ENABLED, false);
+    private final int sampleRate       = Math.max(1, Config.getIntProperty(CACHE_WARMUP_SAMPLE_RATE, 16));
+    private final int keysPerGroup     = Config.getIntProperty(CACHE_WARMUP_KEYS_PER_GROUP, 5000);
+    private final List<String> groups  = new ArrayList<>();
+    private final Map<String, HotKeys> hotKeys = new HashMap<>();
+
+    private final CountDownLatch preloadDone = new CountDownLatch(1);
+    private final AtomicLong preloadedEntries = new AtomicLong();
+    private final AtomicLong preloadMillis    = new AtomicLong();
+    private final AtomicLong snapshots        = new AtomicLong();
+    private volatile long lastSnapshot = 0;
+    private ScheduledExecutorService snapshotter;
+
+    private CacheWarmer() {
+        for (String group : Config.getStringProperty(CACHE_WARMUP_GROUPS, DEFAULT_GROUPS).split(",")) {
+            group = group.trim().toLowerCase();
+            if (!group.isEmpty()) {
+                this.groups.add(group);
+                this.hotKeys.put(group, new HotKeys(keysPerGroup * 2));
+            }
+        }
+        if (!enabled) {
+            preloadDone.countDown();
+        }
+    }
+
+    private static class SingletonHolder {
+        private static final CacheWarmer INSTANCE = new CacheWarmer();
+    }
+
+    /**
+     * Get the instance.
+     * @return CacheWarmer
+     */
+    public static CacheWarmer getInstance() {
+
+        return CacheWarmer.SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Counts a hit of the cache, only a sample of the hits of the tracked regions is counted.
+     * Both key and group are expected already lower cased, as the {@link DotCacheAdministrator} stores them.
+     * @param key {@link String}
+     * @param group {@link String}
+     */
+    public void recordHit(final String key, final String group) {
+
+        if (!this.enabled) {
+            return;
+        }
+        final HotKeys keys = this.hotKeys.get(group);
+        if (null != keys && (this.sampleRate == 1 || ThreadLocalRandom.current().nextInt(this.sampleRate) == 0)) {
+            keys.hit(key);
+        }
+    }
+
+    /**
+     * Starts loading the last snapshot back into the caches in the background, and the periodic snapshots once
+     * that is done
+     */
+    public void start() {
+
+        if (!this.enabled) {
+            return;
+        }
+
+        final Thread preloader = new Thread(() -> {
+            try {
+                preload();
+            } finally {
+                this.preloadDone.countDown();
+                scheduleSnapshots();
+            }
+        }, "CacheWarmer");
+        preloader.setDaemon(true);
+        preloader.setPriority(Thread.MIN_PRIORITY + 1);
+        preloader.start();
+    }
+
+    /**
+     * Waits for the preload up to {@link #CACHE_WARMUP_MAX_WAIT_SECONDS}
+     * @return boolean true if the preload is done
+     */
+    public boolean awaitPreload() {
+
+        try {
+            return this.preloadDone.await(Config.getIntProperty(CACHE_WARMUP_MAX_WAIT_SECONDS, 60), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Writes the hottest keys of each tracked region to the snapshot file, then halves the counts
+     */
+    @Override
+    public synchronized void snapshot() {
+
+        if (!this.enabled) {
+            return;
+        }
+
+        final File file = getSnapshotFile();
+        final File tmp  = new File(file.getPath() + ".tmp");
+        file.getParentFile().mkdirs();
+
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                for (final String group : this.groups) {
+                    for (final String key : this.hotKeys.get(group).hottest(this.keysPerGroup)) {
+                        writer.write(group);
+                        writer.write('\t');
+                        writer.write(key);
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            for (final HotKeys keys : this.hotKeys.values()) {
+                keys.decay();
+            }
+            this.lastSnapshot = System.currentTimeMillis();
+            this.snapshots.incrementAndGet();
+        } catch (IOException e) {
+            Logger.warn(this, "Unable to write the cache snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void scheduleSnapshots() {
+
+        final long seconds = Config.getIntProperty(CACHE_WARMUP_SNAPSHOT_SECONDS, 300);
+        this.snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "CacheWarmer-Snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshotter.scheduleWithFixedDelay(this::snapshot, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the snapshots, taking a last one
+     */
+    public void shutdown() {
+
+        if (null != this.snapshotter) {
+            this.snapshotter.shutdownNow();
+            snapshot();
+        }
+    }
+
+    private void preload() {
+
+        final File file = getSnapshotFile();
+        if (!file.exists()) {
+            Logger.info(this, "No cache snapshot to preload from at " + file);
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        final Map<String, List<String>> keysByGroup = new LinkedHashMap<>();
+        for (final String group : this.groups) {
+            keysByGroup.put(group, new ArrayList<>());
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final int tab = line.indexOf('\t');
+                final List<String> keys = (tab > 0) ? keysByGroup.get(line.substring(0, tab)) : null;
+                if (null != keys) {
+                    keys.add(line.substring(tab + 1));
+                }
+            }
+        } catch (IOException e) {
+            Logger.warn(this, "Unable to read the cache snapshot " + file + ": " + e.getMessage());
+            return;
+        }
+
+        try {
+            for (final Map.Entry<String, List<String>> entry : keysByGroup.entrySet()) {
+                final String group = entry.getKey();
+                final List<String> keys = stripGroup(group, entry.getValue());
+                for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+                    try {
+                        preload(group, keys.subList(from, Math.min(from + BATCH_SIZE, keys.size())));
+                    } catch (Exception e) {
+                        Logger.debug(this, "Unable to preload " + group + ": " + e.getMessage(), e);
+                    } finally {
+                        closeSession();
+                    }
+                }
+                Logger.info(this, "Preloaded " + keys.size() + " hot entries of " + group);
+            }
+        } finally {
+            DbConnectionFactory.closeSilently();
+            this.preloadMillis.set(System.currentTimeMillis() - start);
+            Logger.info(this, "Cache preload done in " + this.preloadMillis.get() + "ms");
+        }
+    }
+
+    /**
+     * The regions that know how to find their entries again are preloaded, the keys of any other are ignored
+     */
+    @SuppressWarnings("unchecked")
+    private void preload(final String group, final List<String> keys) throws Exception {
+
+        final User system = APILocator.systemUser();
+
+        switch (group) {
+
+            case "identifiercache": {
+                final List<String> ids = new ArrayList<>();
+                for (final String key : keys) {
+                    final int uri = key.indexOf("-/");
+                    if (uri > 0) {
+                        // host-uri lookups
+                        APILocator.getIdentifierAPI().find(
+                                APILocator.getHostAPI().find(key.substring(0, uri), system, false), key.substring(uri + 1));
+                        this.preloadedEntries.incrementAndGet();
+                    } else if (ID_PATTERN.matcher(key).matches()) {
+                        ids.add(key);
+                    }
+                }
+                if (!ids.isEmpty()) {
+                    final HibernateUtil dh = new HibernateUtil(Identifier.class);
+                    dh.setQuery("from identifier in class com.dotmarketing.beans.Identifier where id in ('"
+                            + StringUtils.join(ids, "','") + "')");
+                    for (final Identifier identifier : (List<Identifier>) dh.list()) {
+                        CacheLocator.getIdentifierCache().addIdentifierToCache(identifier);
+                        this.preloadedEntries.incrementAndGet();
+                    }
+                }
+                break;
+            }
+
+            case "versioninfocache": {
+                final Map<String, List<Long>> langsById = new HashMap<>();
+                for (final String key : keys) {
+                    final int lang = key.indexOf("-lang:");
+                    if (lang > 0 && ID_PATTERN.matcher(key.substring(0, lang)).matches()) {
+                        langsById.computeIfAbsent(key.substring(0, lang), id -> new ArrayList<>())
+                                .add(Long.parseLong(key.substring(lang + "-lang:".length())));
+                    }
+                }
+                if (!langsById.isEmpty()) {
+                    final HibernateUtil dh = new HibernateUtil(ContentletVersionInfo.class);
+                    dh.setQuery("from " + ContentletVersionInfo.class.getName() + " where identifier in ('"
+                            + StringUtils.join(langsById.keySet(), "','") + "')");
+                    for (final ContentletVersionInfo info : (List<ContentletVersionInfo>) dh.list()) {
+                        final List<Long> langs = langsById.get(info.getIdentifier());
+                        if (null != langs && langs.contains(info.getLang())) {
+                            CacheLocator.getIdentifierCache().addContentletVersionInfoToCache(info);
+                            this.preloadedEntries.incrementAndGet();
+                        }
+                    }
+                }
+                break;
+            }
+
+            case "contentletcache": {
+                final List<String> inodes = new ArrayList<>();
+                for (final String key : keys) {
+                    if (ID_PATTERN.matcher(key).matches()) {
+                        inodes.add(key);
+                    }
+                }
+                this.preloadedEntries.addAndGet(APILocator.getContentletAPI().findContentlets(inodes).size());
+                break;
+            }
+
+            case "templatecache":
+                for (final String inode : keys) {
+                    APILocator.getTemplateAPI().find(inode, system, false);
+                    this.preloadedEntries.incrementAndGet();
+                }
+                break;
+
+            case "containercache":
+                for (final String inode : keys) {
+                    APILocator.getContainerAPI().find(inode, system, false);
+                    this.preloadedEntries.incrementAndGet();
+                }
+                break;
+
+            case "velocitycache":
+                for (final String resource : keys) {
+                    try {
+                        VelocityUtil.getEngine().getTemplate(resource);
+                        this.preloadedEntries.incrementAndGet();
+                    } catch (Exception e) {
+                        Logger.debug(this, "Unable to preload velocity resource " + resource + ": " + e.getMessage());
+                    }
+                }
+                break;
+
+            default:
+                Logger.debug(this, "Don't know how to preload the cache region " + group);
+        }
+    }
+
+    private void closeSession() {
+
+        try {
+            HibernateUtil.closeSession();
+        } catch (DotHibernateException e) {
+            Logger.debug(this, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The cache keys start with the name of their region, take it out
+     */
+    private static List<String> stripGroup(final String group, final List<String> keys) {
+
+        final List<String> stripped = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            stripped.add(key.startsWith(group) ? key.substring(group.length()) : key);
+        }
+        return stripped;
+    }
+
+    private static File getSnapshotFile() {
+        return new File(ConfigUtils.getDynamicContentPath() + File.separator + "cache_snapshot" + File.separator + "hot-keys.txt");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public List<String> getGroups() {
+        return Collections.unmodifiableList(this.groups);
+    }
+
+    @Override
+    public Map<String, Integer> getTrackedKeys() {
+
+        final Map<String, Integer> tracked = new LinkedHashMap<>();
+        for (final String group : this.groups) {
+            tracked.put(group, this.hotKeys.get(group).size());
+        }
+        return tracked;
+    }
+
+    @Override
+    public boolean isPreloadDone() {
+        return this.preloadDone.getCount() == 0;
+    }
+
+    @Override
+    public long getPreloadedEntries() {
+        return this.preloadedEntries.get();
+    }
+
+    @Override
+    public long getPreloadMillis() {
+        return this.preloadMillis.get();
+    }
+
+    @Override
+    public long getSnapshots() {
+        return this.snapshots.get();
+    }
+
+    @Override
+    public long getLastSnapshot() {
+        return this.lastSnapshot;
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    /**
+     * Hit counts of the keys of a region, bounded so a region with a huge key space can't eat the heap
+     */
+    static final class HotKeys {
+
+        private final ConcurrentMap<String, AtomicLong> counts = new ConcurrentHashMap<>();
+        private final int maxKeys;
+
+        HotKeys(final int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        void hit(final String key) {
+
+            AtomicLong count = this.counts.get(key);
+            if (null == count) {
+                if (this.counts.size() >= this.maxKeys || key.indexOf('\n') >= 0 || key.indexOf('\r') >= 0) {
+                    return;
+                }
+                count = this.counts.computeIfAbsent(key, k -> new AtomicLong());
+            }
+            count.incrementAndGet();
+        }
+
+        List<String> hottest(final int limit) {
+
+            final List<Map.Entry<String, Long>> entries = new ArrayList<>(this.counts.size());
+            for (final Map.Entry<String, AtomicLong> entry : this.counts.entrySet()) {
+                entries.add(new java.util.AbstractMap.SimpleEntry<>(entry.getKey(), entry.getValue().get()));
+            }
+            entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+
+            final List<String> keys = new ArrayList<>(Math.min(limit, entries.size()));
+            for (int i = 0; i < entries.size() && i < limit; i++) {
+                keys.add(entries.get(i).getKey());
+            }
+            return keys;
+        }
+
+        void decay() {
+
+            this.counts.values().forEach(count -> count.updateAndGet(value -> value / 2));
+            this.counts.values().removeIf(count -> count.get() == 0);
+        }
+
+        int size() {
+            return this.counts.size();
+        }
+    }
+
+} // E:O:F:CacheWarmer.
@@ -0,0 +1,66 @@
+package com.dotmarketing.business;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link CacheWarmer}
+ */
+public interface CacheWarmerMBean extends DotMBean {
+
+    /**
+     * True if the hot keys are tracked and preloaded on boot
+     * @return boolean
+     */
+    boolean isEnabled();
+
+    /**
+     * Cache regions tracked, in order of priority
+     * @return List
+     */
+    List<String> getGroups();
+
+    /**
+     * Keys being counted right now, by region
+     * @return Map
+     */
+    Map<String, Integer> getTrackedKeys();
+
+    /**
+     * True once the preload on boot is over
+     * @return boolean
+     */
+    boolean isPreloadDone();
+
+    /**
+     * Entries loaded back into the caches on boot
+     * @return long
+     */
+    long getPreloadedEntries();
+
+    /**
+     * Millis the preload on boot took
+     * @return long
+     */
+    long getPreloadMillis();
+
+    /**
+     * Snapshots written since the node started
+     * @return long
+     */
+    long getSnapshots();
+
+    /**
+     * Time in millis of the last snapshot, 0 if none was written yet
+     * @return long
+     */
+    long getLastSnapshot();
+
+    /**
+     * Writes a snapshot of the hot keys right now
+     */
+    void snapshot();
+
+} // E:O:F:CacheWarmerMBean.
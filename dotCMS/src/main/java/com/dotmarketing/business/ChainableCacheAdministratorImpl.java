@@ -9,6 +9,7 @@ import com.dotcms.cluster.bean.ServerPort;
 import com.dotcms.cluster.business.ServerAPI;
 import com.dotcms.enterprise.cache.provider.CacheProviderAPI;
 import com.dotcms.enterprise.cluster.ClusterFactory;
+import com.dotcms.metrics.MetricsRegistry;
 import com.dotcms.repackage.com.google.common.cache.RemovalListener;
 import com.dotcms.repackage.com.google.common.cache.RemovalNotification;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
@@ -21,6 +22,7 @@ import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.util.Config;
+import com.dotmarketing.util.ConfigProperty;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 import com.dotmarketing.util.WebKeys;
@@ -50,6 +52,12 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 	public static final String VALIDATE_CACHE_RESPONSE = "validateCacheInCluster-response-";
 	public static final String VALIDATE_SEPARATOR = "_";
 	public static final String DUMMY_TEXT_TO_SEND = "DUMMY MSG TO TEST SEND";
+	public static final String CACHE_HITS_METRIC = "dotcms_cache_hits_total";
+	public static final String CACHE_MISSES_METRIC = "dotcms_cache_misses_total";
+	public static final String CACHE_EVICTIONS_METRIC = "dotcms_cache_evictions_total";
+
+	private static final ConfigProperty<Boolean> CACHE_CLUSTER_THROUGH_DB =
+			Config.booleanProperty("CACHE_CLUSTER_THROUGH_DB", false);
 
 	public CacheTransport getTransport () {
 		return cacheTransport;
@@ -234,7 +242,7 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		flushAlLocalOnly(false);
 
 		try {
-			if (Config.getBooleanProperty("CACHE_CLUSTER_THROUGH_DB", false)) {
+			if (CACHE_CLUSTER_THROUGH_DB.get()) {
 				journalAPI.addCacheEntry("0", ROOT_GOUP);
 			} else if ( useTransportChannel ) {
 
@@ -273,7 +281,7 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		flushGroupLocalOnly(group, false);
 
 		try {
-			if (Config.getBooleanProperty("CACHE_CLUSTER_THROUGH_DB", false)) {
+			if (CACHE_CLUSTER_THROUGH_DB.get()) {
 				journalAPI.addCacheEntry("0", group);
 			} else if ( useTransportChannel ) {
 				if (! cacheProviderAPI.isGroupDistributed( group )) {
@@ -317,7 +325,16 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		group = group.toLowerCase();
 
 		//Find the Object for a given key in a given group
-		return cacheProviderAPI.get(group, key);
+		Object value = cacheProviderAPI.get(group, key);
+		if ( value != null ) {
+			CacheWarmer.getInstance().recordHit(key, group);
+			MetricsRegistry.getInstance().counter(CACHE_HITS_METRIC, "Cache lookups that found the object",
+					"region", group).inc();
+		} else {
+			MetricsRegistry.getInstance().counter(CACHE_MISSES_METRIC, "Cache lookups that didn't find the object",
+					"region", group).inc();
+		}
+		return value;
 	}
 
 	/*
@@ -360,7 +377,7 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 				removeLocalOnly(k, g, false);
 
 				try {
-					if (Config.getBooleanProperty("CACHE_CLUSTER_THROUGH_DB", false)) {
+					if (CACHE_CLUSTER_THROUGH_DB.get()) {
 						journalAPI.addCacheEntry(k, g);
 					} else if ( useTransportChannel ) {
 
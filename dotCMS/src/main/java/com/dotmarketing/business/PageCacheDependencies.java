@@ -0,0 +1,407 @@
+package com.dotmarketing.business;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.UtilMethods;
+
+/**
+ * Records the assets a page render depends on, so the {@link BlockPageCache} can
+ * evict only the pages that used an asset when it changes, instead of relying on
+ * short TTLs. The dependencies are kept as plain keys:
+ * <ul>
+ * <li><code>id:</code> followed by the identifier of a contentlet or container
+ * rendered by the page.</li>
+ * <li><code>type:</code> followed by the velocity var name or inode of a content
+ * type pulled by a query, or <code>type:*</code> when the query does not filter by
+ * type, which makes the page depend on any content.</li>
+ * <li><code>nav:</code> followed by the inode of a folder used to build a
+ * navigation.</li>
+ * </ul>
+ * Recording is bound to the current thread and only happens between
+ * {@link #startRecording()} and {@link #stopRecording()}, that is, while a page is
+ * being rendered to be cached. Recordings can be nested, in which case the
+ * dependencies are added to all of them.
+ */
+public final class PageCacheDependencies {
+
+	public static final String IDENTIFIER_PREFIX = "id:";
+	public static final String CONTENT_TYPE_PREFIX = "type:";
+	public static final String NAVIGATION_PREFIX = "nav:";
+	public static final String ANY_CONTENT = CONTENT_TYPE_PREFIX + "*";
+
+	private static final ThreadLocal<Deque<Set<String>>> recordings = new ThreadLocal<Deque<Set<String>>>() {
+		@Override
+		protected Deque<Set<String>> initialValue() {
+			return new ArrayDeque<Set<String>>();
+		}
+	};
+
+	private PageCacheDependencies() {
+
+	}
+
+	/**
+	 * Starts recording the dependencies of the render done by the current thread.
+	 * Every call must be followed by a call to {@link #stopRecording()}.
+	 */
+	public static void startRecording() {
+		recordings.get().push(new HashSet<String>());
+	}
+
+	/**
+	 * Stops the last recording started by the current thread.
+	 *
+	 * @return The dependencies recorded, empty if nothing was being recorded.
+	 */
+	public static Set<String> stopRecording() {
+		final Deque<Set<String>> stack = recordings.get();
+		final Set<String> dependencies = stack.poll();
+		if (stack.isEmpty()) {
+			recordings.remove();
+		}
+		return (dependencies != null) ? dependencies : Collections.<String>emptySet();
+	}
+
+	/**
+	 * Records a contentlet or container rendered by the page.
+	 *
+	 * @param identifier
+	 *            - The identifier of the asset.
+	 */
+	public static void recordIdentifier(final String identifier) {
+		if (UtilMethods.isSet(identifier)) {
+			record(IDENTIFIER_PREFIX + identifier);
+		}
+	}
+
+	/**
+	 * Records the content types a Lucene query pulls content from. If the query
+	 * does not filter by type, the page depends on any content.
+	 *
+	 * @param query
+	 *            - The Lucene query.
+	 */
+	public static void recordQuery(final String query) {
+		if (isRecording() && query != null) {
+			for (final String dependency : forQuery(query)) {
+				record(dependency);
+			}
+		}
+	}
+
+	/**
+	 * Returns the dependencies of a Lucene query: the content types it pulls
+	 * content from, or any content if it does not filter by type.
+	 * <p>
+	 * Only the type clauses every result has to match restrict the query: the
+	 * required ones (<code>+</code> or <code>AND</code>), or a group of
+	 * alternatives that are all type clauses, such as
+	 * <code>+(contentType:News contentType:Blog)</code>. The negated clauses
+	 * (<code>-</code>, <code>!</code> or <code>NOT</code>) and the optional type
+	 * clauses next to other optional clauses don't, so those queries depend on
+	 * any content.
+	 *
+	 * @param query
+	 *            - The Lucene query.
+	 * @return The dependency keys.
+	 */
+	public static Set<String> forQuery(final String query) {
+		final Set<String> types = new QueryTypes(query).parse();
+		final Set<String> dependencies = new HashSet<String>();
+		if (types == null || types.isEmpty()) {
+			dependencies.add(ANY_CONTENT);
+		} else {
+			for (final String type : types) {
+				dependencies.add(CONTENT_TYPE_PREFIX + type);
+			}
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Records a folder used to build a navigation.
+	 *
+	 * @param folderInode
+	 *            - The inode of the folder.
+	 */
+	public static void recordNavigation(final String folderInode) {
+		if (UtilMethods.isSet(folderInode)) {
+			record(NAVIGATION_PREFIX + folderInode);
+		}
+	}
+
+	/**
+	 * Returns the dependencies affected by a change on the given contentlet: its
+	 * identifier, its content type and any query without type.
+	 *
+	 * @param contentlet
+	 *            - The {@link Contentlet} that changed.
+	 * @return The dependency keys.
+	 */
+	public static List<String> forContentlet(final Contentlet contentlet) {
+		final List<String> dependencies = new ArrayList<String>();
+		dependencies.add(ANY_CONTENT);
+		if (UtilMethods.isSet(contentlet.getIdentifier())) {
+			dependencies.add(IDENTIFIER_PREFIX + contentlet.getIdentifier());
+		}
+		if (UtilMethods.isSet(contentlet.getStructureInode())) {
+			dependencies.add(CONTENT_TYPE_PREFIX + contentlet.getStructureInode().toLowerCase());
+			if (contentlet.getStructure() != null && UtilMethods.isSet(contentlet.getStructure().getVelocityVarName())) {
+				dependencies.add(CONTENT_TYPE_PREFIX + contentlet.getStructure().getVelocityVarName().toLowerCase());
+			}
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Records the dependencies of a part of the page rendered by another thread,
+	 * see {@link com.dotmarketing.velocity.directive.ParallelContainerRender}.
+	 *
+	 * @param dependencies
+	 *            The dependencies recorded by the other thread.
+	 */
+	public static void recordAll(final Collection<String> dependencies) {
+		for (final String dependency : dependencies) {
+			record(dependency);
+		}
+	}
+
+	private static boolean isRecording() {
+		if (recordings.get().isEmpty()) {
+			recordings.remove();
+			return false;
+		}
+		return true;
+	}
+
+	private static void record(final String dependency) {
+		final Deque<Set<String>> stack = recordings.get();
+		if (stack.isEmpty()) {
+			recordings.remove();
+			return;
+		}
+		for (final Set<String> dependencies : stack) {
+			dependencies.add(dependency);
+		}
+	}
+
+	/**
+	 * Works out the content types a Lucene query is restricted to. Every clause
+	 * is either restricted to a set of types or not restricted at all (null), and
+	 * a list of clauses is restricted if one of its required clauses is, or if
+	 * all of its optional clauses are and it has no required ones.
+	 */
+	private static final class QueryTypes {
+
+		private static final Set<String> TYPE_FIELDS = new HashSet<String>(
+				Arrays.asList("contenttype", "structurename", "structureinode", "stinode"));
+
+		private enum Occur { MUST, SHOULD, MUST_NOT }
+
+		private final String query;
+		private int position = 0;
+
+		QueryTypes(final String query) {
+			this.query = query;
+		}
+
+		Set<String> parse() {
+			return this.parseList(null);
+		}
+
+		/**
+		 * Parses clauses up to the closing parenthesis of the group, or the end
+		 * of the query.
+		 */
+		private Set<String> parseList(final String field) {
+			final List<Occur> occurs = new ArrayList<Occur>();
+			final List<Set<String>> restrictions = new ArrayList<Set<String>>();
+			Occur next = null;
+			boolean and = false;
+
+			while (true) {
+				this.skipSpaces();
+				if (this.position >= this.query.length()) {
+					break;
+				}
+
+				final char character = this.query.charAt(this.position);
+				if (character == ')') {
+					this.position++;
+					break;
+				} else if (character == '+') {
+					this.position++;
+					next = Occur.MUST;
+					continue;
+				} else if (character == '-' || character == '!') {
+					this.position++;
+					next = Occur.MUST_NOT;
+					continue;
+				} else if (this.startsWithOperator("AND") || this.startsWithOperator("&&")) {
+					and = true;
+					if (!occurs.isEmpty() && occurs.get(occurs.size() - 1) == Occur.SHOULD) {
+						occurs.set(occurs.size() - 1, Occur.MUST);
+					}
+					continue;
+				} else if (this.startsWithOperator("OR") || this.startsWithOperator("||")) {
+					continue;
+				} else if (this.startsWithOperator("NOT")) {
+					next = Occur.MUST_NOT;
+					continue;
+				}
+
+				final Set<String> restriction = this.parseClause(field);
+				Occur occur = (next != null) ? next : Occur.SHOULD;
+				if (and && occur == Occur.SHOULD) {
+					occur = Occur.MUST;
+				}
+				occurs.add(occur);
+				restrictions.add(restriction);
+				next = null;
+				and = false;
+			}
+
+			return restrictionOf(occurs, restrictions);
+		}
+
+		private static Set<String> restrictionOf(final List<Occur> occurs, final List<Set<String>> restrictions) {
+			Set<String> required = null;
+			Set<String> optional = new HashSet<String>();
+			boolean hasOptional = false;
+
+			for (int index = 0; index < occurs.size(); index++) {
+				final Set<String> restriction = restrictions.get(index);
+				if (occurs.get(index) == Occur.MUST) {
+					if (restriction != null) {
+						required = (required == null) ? new HashSet<String>() : required;
+						required.addAll(restriction);
+					}
+				} else if (occurs.get(index) == Occur.SHOULD) {
+					hasOptional = true;
+					optional = (optional != null && restriction != null) ? union(optional, restriction) : null;
+				}
+			}
+
+			if (required != null) {
+				return required;
+			}
+			final boolean hasRequired = occurs.contains(Occur.MUST);
+			return (!hasRequired && hasOptional) ? optional : null;
+		}
+
+		private static Set<String> union(final Set<String> set, final Set<String> other) {
+			set.addAll(other);
+			return set;
+		}
+
+		private Set<String> parseClause(final String field) {
+			if (this.query.charAt(this.position) == '(') {
+				this.position++;
+				return this.parseList(field);
+			}
+
+			final String term = this.readTerm();
+			final int colon = indexOfField(term);
+			if (colon < 0) {
+				return restrictionOf(field, term);
+			}
+
+			final String termField = term.substring(0, colon);
+			final String value = term.substring(colon + 1);
+			if (value.isEmpty() && this.position < this.query.length() && this.query.charAt(this.position) == '(') {
+				this.position++;
+				return this.parseList(termField);
+			}
+			return restrictionOf(termField, value);
+		}
+
+		private static Set<String> restrictionOf(final String field, final String value) {
+			if (field == null || !TYPE_FIELDS.contains(field.trim().toLowerCase())) {
+				return null;
+			}
+
+			String type = value;
+			final int boost = type.indexOf('^');
+			if (boost > 0) {
+				type = type.substring(0, boost);
+			}
+			type = type.replace("\"", "").replace("\\", "").trim().toLowerCase();
+			if (type.isEmpty() || type.contains("*") || type.contains("?") || type.contains("~")
+					|| type.startsWith("[") || type.startsWith("{")) {
+				return null;
+			}
+			return new HashSet<String>(Collections.singleton(type));
+		}
+
+		/**
+		 * Reads a term up to a space or a parenthesis outside quotes and ranges,
+		 * or up to the parenthesis right after the colon of a field group.
+		 */
+		private String readTerm() {
+			final int start = this.position;
+			boolean quoted = false;
+			int ranges = 0;
+
+			while (this.position < this.query.length()) {
+				final char character = this.query.charAt(this.position);
+				if (character == '\\') {
+					this.position += 2;
+					continue;
+				}
+				if (character == '"') {
+					quoted = !quoted;
+				} else if (!quoted && (character == '[' || character == '{')) {
+					ranges++;
+				} else if (!quoted && ranges > 0 && (character == ']' || character == '}')) {
+					ranges--;
+				} else if (!quoted && ranges == 0
+						&& (Character.isWhitespace(character) || character == '(' || character == ')')) {
+					break;
+				}
+				this.position++;
+			}
+			return this.query.substring(start, Math.min(this.position, this.query.length()));
+		}
+
+		private static int indexOfField(final String term) {
+			for (int index = 0; index < term.length(); index++) {
+				final char character = term.charAt(index);
+				if (character == '\\') {
+					index++;
+				} else if (character == '"') {
+					return -1;
+				} else if (character == ':') {
+					return index;
+				}
+			}
+			return -1;
+		}
+
+		private boolean startsWithOperator(final String operator) {
+			final int end = this.position + operator.length();
+			if (this.query.startsWith(operator, this.position)
+					&& (end == this.query.length() || Character.isWhitespace(this.query.charAt(end))
+					|| this.query.charAt(end) == '(')) {
+				this.position = end;
+				return true;
+			}
+			return false;
+		}
+
+		private void skipSpaces() {
+			while (this.position < this.query.length() && Character.isWhitespace(this.query.charAt(this.position))) {
+				this.position++;
+			}
+		}
+	}
+
+}
@@ -64,6 +64,7 @@ public class PermissionCacheImpl extends PermissionCache {
         // clear the cache
         cache.flushGroup(primaryGroup);
         cache.flushGroup(secondaryGroup);
+        CacheLocator.getContentQueryCache().removePermissions();
     }
 
     /* (non-Javadoc)
@@ -81,6 +82,8 @@ public class PermissionCacheImpl extends PermissionCache {
     	}catch (Exception e) {
 			Logger.debug(this,e.getMessage(), e);
 		} 
+    	// the cached $dotcontent results may not be the ones the roles can see anymore
+    	CacheLocator.getContentQueryCache().removePermissions();
     }
     public String[] getGroups() {
     	return groupNames;
@@ -1,6 +1,8 @@
 package com.dotmarketing.business.cache.provider;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -85,6 +87,27 @@ public abstract class CacheProvider implements Serializable {
      */
     public abstract Object get ( String group, String key );
 
+    /**
+     * Searches and return the contents in a given region for the given keys, providers able to
+     * read several keys in a single call should override it.
+     *
+     * @param group
+     * @param keys
+     * @return Map with the contents found by key, the keys not found are not included
+     */
+    public Map<String, Object> getAll ( String group, Set<String> keys ) {
+
+        Map<String, Object> contents = new HashMap<>();
+        for ( String key : keys ) {
+            Object content = get(group, key);
+            if ( content != null ) {
+                contents.put(key, content);
+            }
+        }
+
+        return contents;
+    }
+
     /**
      * Invalidates a given key for a given region
      *
@@ -9,6 +9,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.dotcms.enterprise.cache.provider.CacheProviderAPI;
+import com.dotcms.metrics.MetricsRegistry;
+import com.dotmarketing.business.ChainableCacheAdministratorImpl;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.business.cache.provider.CacheProvider;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
@@ -243,9 +245,17 @@ public class CaffineCache extends CacheProvider {
                                 "***\t Building Cache : " + cacheName + ", size:" + size
                                         + ",Concurrency:"
                                         + Config.getIntProperty("cache.concurrencylevel", 32));
+                        final String region = cacheName;
                         cache = Caffeine.newBuilder()
                                 .maximumSize(size)
                                 .recordStats()
+                                .removalListener((key, value, cause) -> {
+                                    if (cause.wasEvicted()) {
+                                        MetricsRegistry.getInstance().counter(
+                                                ChainableCacheAdministratorImpl.CACHE_EVICTIONS_METRIC,
+                                                "Objects evicted from the cache", "region", region).inc();
+                                    }
+                                })
                                 //.softValues()
                                 .build();
 
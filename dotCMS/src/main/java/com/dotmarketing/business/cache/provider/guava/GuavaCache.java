@@ -1,10 +1,12 @@
 package com.dotmarketing.business.cache.provider.guava;
 
 import com.dotcms.enterprise.cache.provider.CacheProviderAPI;
+import com.dotcms.metrics.MetricsRegistry;
 import com.dotcms.repackage.com.google.common.cache.Cache;
 import com.dotcms.repackage.com.google.common.cache.CacheBuilder;
 import com.dotcms.repackage.com.google.common.cache.CacheLoader;
 
+import com.dotmarketing.business.ChainableCacheAdministratorImpl;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.business.cache.provider.CacheProvider;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
@@ -265,10 +267,18 @@ public class GuavaCache extends CacheProvider {
                         }
 
                         Logger.info(this.getClass(), "***\t Building Cache : " + cacheName + ", size:" + size + ",Concurrency:" + Config.getIntProperty("cache.concurrencylevel", 32));
+                        final String region = cacheName;
                         CacheBuilder<Object, Object> cb = CacheBuilder
                                 .newBuilder()
                                 .maximumSize(size)
-                                .concurrencyLevel(Config.getIntProperty("cache.concurrencylevel", 32));
+                                .concurrencyLevel(Config.getIntProperty("cache.concurrencylevel", 32))
+                                .removalListener(notification -> {
+                                    if (notification.wasEvicted()) {
+                                        MetricsRegistry.getInstance().counter(
+                                                ChainableCacheAdministratorImpl.CACHE_EVICTIONS_METRIC,
+                                                "Objects evicted from the cache", "region", region).inc();
+                                    }
+                                });
 
 
                         cache = cb.build();
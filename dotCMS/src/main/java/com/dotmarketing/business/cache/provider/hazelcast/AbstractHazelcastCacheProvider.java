@@ -2,6 +2,7 @@ package com.dotmarketing.business.cache.provider.hazelcast;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import com.dotcms.cluster.business.HazelcastUtil;
@@ -12,6 +13,7 @@ import com.dotmarketing.business.cache.provider.CacheStats;
 import com.dotmarketing.util.Logger;
 import com.hazelcast.core.DistributedObject;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
 
 /**
  * Created by jasontesser on 3/14/17.
@@ -58,6 +60,13 @@ public abstract class AbstractHazelcastCacheProvider extends CacheProvider {
         return getHazelcastInstance().getMap(group).get(key);
     }
 
+    @Override
+    public Map<String, Object> getAll(String group, Set<String> keys) {
+        // a single call per partition owner instead of one per key, near cached entries are not fetched at all
+        IMap<String, Object> map = getHazelcastInstance().getMap(group);
+        return map.getAll(keys);
+    }
+
     @Override
     public void remove(String group, String key) {
         getHazelcastInstance().getMap(group).remove(key);
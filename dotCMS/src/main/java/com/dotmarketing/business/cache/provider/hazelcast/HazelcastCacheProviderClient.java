@@ -30,7 +30,7 @@ public class HazelcastCacheProviderClient extends AbstractHazelcastCacheProvider
 
         NumberFormat nf = DecimalFormat.getInstance();
 
-        long size = getHazelcastInstance().getMap(group).keySet().size();
+        long size = getHazelcastInstance().getMap(group).size();
 
         CacheStats result = new CacheStats();
         result.addStat(CacheStats.REGION, group);
@@ -35,7 +35,7 @@ public class HazelcastCacheProviderEmbedded extends AbstractHazelcastCacheProvid
     	LocalMapStats local = getHazelcastInstance().getMap(group).getLocalMapStats();
         NumberFormat nf = DecimalFormat.getInstance();
 
-        long size = getHazelcastInstance().getMap(group).keySet().size();
+        long size = getHazelcastInstance().getMap(group).size();
         long mem = local.getOwnedEntryMemoryCost();
         long perObject = (size==0) ? 0 : mem/size;
         String x = UtilMethods.prettyMemory(mem);
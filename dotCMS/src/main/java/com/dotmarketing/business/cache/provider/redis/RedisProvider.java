@@ -1,5 +1,6 @@
 package com.dotmarketing.business.cache.provider.redis;
 
+import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.repackage.org.apache.commons.collections.map.LRUMap;
 import com.dotmarketing.business.cache.provider.CacheProvider;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
@@ -9,13 +10,27 @@ import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 import com.dotmarketing.velocity.DotResourceCache;
 import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisDataException;
 
 import java.io.*;
+import java.security.MessageDigest;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Cache provider storing the records in Redis.
+ * <p/>
+ * Every group has a generation counter stored in Redis and its records are stored under the current
+ * generation (<strong>{group};generation;key</strong>), so flushing a group is a single increment of the
+ * counter, no matter how many records it has. The records of the previous generation are not read
+ * anymore, they are deleted in the background a page at a time, and the ones left behind expire after
+ * <strong>redis.entry.ttl.seconds</strong> (a day by default).
+ * <p/>
+ * The group is the hash tag of the counter and of the records, so with Redis Cluster a group lives in
+ * a single slot and its records can be read together with the counter.
+ *
  * @author Jonathan Gamba
  *         Date: 10/9/15
  */
@@ -23,6 +38,26 @@ public class RedisProvider extends CacheProvider {
 
     private static final long serialVersionUID = -855583393078878276L;
 
+    private static final String GENERATION_PREFIX = "_generation";
+    private static final int SCAN_COUNT = 1000;
+
+    /*
+    Reads the generation of the group (KEYS[1]) and, if it is the expected one (ARGV[1]), the given
+    records of that generation (the rest of KEYS). Returns the generation followed by the records,
+    or only the generation when it is not the expected one
+     */
+    private static final String READ_SCRIPT =
+            "local generation = redis.call('GET', KEYS[1]) or '0'\n" +
+            "local values = {generation}\n" +
+            "if generation ~= ARGV[1] then\n" +
+            "  return values\n" +
+            "end\n" +
+            "for i = 2, #KEYS do\n" +
+            "  values[i] = redis.call('GET', KEYS[i])\n" +
+            "end\n" +
+            "return values";
+    private static final byte[] READ_SCRIPT_SHA = sha1(READ_SCRIPT);
+
     private Boolean isInitialized = false;
 
     //Global Map of contents that could not be added to this cache
@@ -30,7 +65,11 @@ public class RedisProvider extends CacheProvider {
 
     private JedisPool writePool;//Master
     private JedisPool readPool;//Slave
+    //Last generation read of every group, the one the reads expect
+    private final Map<String, String> generations = new ConcurrentHashMap<>();
     private final char delimit = ';';
+    private int entryTTL;
+    private int statsSampleSize;
 
     @Override
     public String getName () {
@@ -65,6 +104,8 @@ public class RedisProvider extends CacheProvider {
         boolean testReturn = Config.getBooleanProperty("redis.pool.test.on.return", false);
         boolean blockExhausted = Config.getBooleanProperty("redis.pool.block.when.exhausted", false);
         String redisPass = Config.getStringProperty("redis.password");
+        entryTTL = Config.getIntProperty("redis.entry.ttl.seconds", 86400);
+        statsSampleSize = Config.getIntProperty("redis.stats.sample.size", 10000);
 
         //Set the read configuration
         JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
@@ -150,8 +191,13 @@ public class RedisProvider extends CacheProvider {
                 return;
             }
 
-            //Add the object to redis master
-            jedis.set(compoundKey.toString().getBytes(), data);
+            //Add the object to redis master, under the current generation of the group
+            byte[] entryKey = getEntryKey(group, getGeneration(jedis, group), key).getBytes();
+            if ( entryTTL > 0 ) {
+                jedis.setex(entryKey, entryTTL, data);
+            } else {
+                jedis.set(entryKey, data);
+            }
 
         } catch ( NotSerializableException ex ) {
             remove(group, key);
@@ -177,79 +223,50 @@ public class RedisProvider extends CacheProvider {
             return null;
         }
 
-        //Building the key
-        StringWriter compoundKey = new StringWriter();
-        compoundKey.append(group.toLowerCase());
-        compoundKey.append(delimit);
-        compoundKey.append(key.toLowerCase());
-
         //Reading the record from the Redis slave
-        byte[] data = null;
-        try ( Jedis jedis = readPool.getResource() ) {
-            data = jedis.get(compoundKey.toString().getBytes());
-        } catch ( Exception e ) {
-            Logger.error(this, "Error retrieving from Redis: group [" + group + "] - key [" + key + "].", e);
-        }
+        List<byte[]> data = read(group.toLowerCase(), Collections.singletonList(key.toLowerCase()));
+        return ( data.isEmpty() ) ? null : readObject(group, key, data.get(0));
+    }
 
-        if ( data == null ) {
-            return null;
+    @Override
+    public Map<String, Object> getAll ( String group, Set<String> keys ) {
+
+        Map<String, Object> contents = new HashMap<>();
+        if ( keys == null || keys.isEmpty() || group == null ) {
+            return contents;
         }
 
-        //Reconstructing the object to send it back
-        ObjectInputStream input = null;
-        InputStream bin = null;
-        InputStream is = null;
+        List<String> keyList = new ArrayList<>(keys);
+        List<String> lowerKeys = new ArrayList<>(keyList.size());
+        for ( String key : keyList ) {
+            lowerKeys.add(key.toLowerCase());
+        }
 
-        try {
-            is = new ByteArrayInputStream(data);
-            bin = new BufferedInputStream(is, 8192);
-            input = new ObjectInputStream(bin);
-            return input.readObject();
-        } catch ( Exception e ) {
-            Logger.error(this, "Error retrieving from Redis: group [" + group + "] - key [" + key + "].", e);
-        } finally {
-            try {
-                if ( input != null ) {
-                    input.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
-            try {
-                if ( bin != null ) {
-                    bin.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
-            try {
-                if ( is != null ) {
-                    is.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
+        //Reading all the records from the Redis slave in a single call
+        List<byte[]> data = read(group.toLowerCase(), lowerKeys);
+        for ( int i = 0; i < data.size(); i++ ) {
+            Object content = readObject(group, keyList.get(i), data.get(i));
+            if ( content != null ) {
+                contents.put(keyList.get(i), content);
             }
         }
 
-        return null;
+        return contents;
     }
 
     @Override
-    public void remove ( final String group, final String key ) {
+    public void remove ( String group, String key ) {
 
         if ( key == null || group == null ) {
             return;
         }
 
-        //Building the key
-        StringWriter compoundKey = new StringWriter();
-        compoundKey.append(group.toLowerCase());
-        compoundKey.append(delimit);
-        compoundKey.append(key.toLowerCase());
+        group = group.toLowerCase();
+        key = key.toLowerCase();
 
         //Deleting the record from the Redis master
         try ( Jedis jedis = writePool.getResource() ) {
-            jedis.del(compoundKey.toString());
+            jedis.del(getEntryKey(group, getGeneration(jedis, group), key));
         } catch ( Exception e ) {
             Logger.error(this, "Error removing from Redis: group [" + group + "] - key [" + key + "].", e);
         }
@@ -264,44 +281,54 @@ public class RedisProvider extends CacheProvider {
 
         group = group.toLowerCase();
 
-        //Getting all the keys for the given groups
-        Set<String> keys = getKeys(group);
-
-        Iterator<String> keysIterator = keys.iterator();
-
+        /*
+        Moving to the next generation of the group leaves all its current entries behind,
+        they will not be read anymore and are deleted in the background
+         */
         try ( Jedis jedis = writePool.getResource() ) {
+            long generation = jedis.incr(getGenerationKey(group));
+            purgeGeneration(group, String.valueOf(generation - 1));
+        } catch ( Exception e ) {
+            Logger.error(this, "Error removing from Redis: group [" + group + "].", e);
+        }
+    }
 
-            boolean go = keysIterator.hasNext();
-
-            //The list of keys we want to remove
-            List<String> keysToDelete = new ArrayList<>();
+    /**
+     * Deletes the records a flush of the group left behind under the given generation. It runs in the
+     * background, scanning and deleting a page of keys at a time, so the flush doesn't wait for it and
+     * Redis is never blocked for long. The records it misses expire after the entry TTL.
+     *
+     * @param group
+     * @param generation
+     */
+    private void purgeGeneration ( final String group, final String generation ) {
 
-            while ( go ) {
+        DotConcurrentFactory.getInstance().getSubmitter().execute(() -> {
 
-                while ( keysIterator.hasNext() ) {
+            String prefix = getEntryKey(group, generation, "");
+            ScanParams params = new ScanParams().match(prefix + "*").count(SCAN_COUNT);
+            long purged = 0;
 
-                    keysToDelete.add(keysIterator.next());
+            try ( Jedis jedis = writePool.getResource() ) {
 
-                    //Deleting groups of 100
-                    if ( keysToDelete.size() > 100 ) {
-                        jedis.del(keysToDelete.toArray(new String[keysToDelete.size()]));
-                        keysToDelete = new ArrayList<>();
-                        break;
+                String cursor = ScanParams.SCAN_POINTER_START;
+                do {
+                    ScanResult<String> result = jedis.scan(cursor, params);
+                    List<String> keys = result.getResult();
+                    if ( !keys.isEmpty() ) {
+                        //The keys share the hash tag of the group, so they are in the same slot
+                        purged += jedis.del(keys.toArray(new String[keys.size()]));
                     }
-
-                }
-
-                if ( keysToDelete.size() > 0 ) {
-                    String[] groupKeys = keysToDelete.toArray(new String[keysToDelete.size()]);
-                    //If something missing to be delete it
-                    jedis.del(groupKeys);
-                }
-                break;
+                    cursor = result.getStringCursor();
+                } while ( !ScanParams.SCAN_POINTER_START.equals(cursor) );
+            } catch ( Exception e ) {
+                Logger.warn(this, "Error purging the generation [" + generation + "] of the Redis group ["
+                        + group + "], its records will expire: " + e.getMessage());
             }
 
-        } catch ( Exception e ) {
-            Logger.error(this, "Error removing from Redis: group [" + group + "].", e);
-        }
+            Logger.debug(this, "Purged " + purged + " records of the generation [" + generation
+                    + "] of the Redis group [" + group + "].");
+        });
     }
 
     @Override
@@ -315,6 +342,7 @@ public class RedisProvider extends CacheProvider {
 
         //Reset the list of objects that cannot be in the Cache
         resetCannotCacheCache();
+        generations.clear();
     }
 
     @Override
@@ -324,43 +352,36 @@ public class RedisProvider extends CacheProvider {
             return null;
         }
 
+        group = group.toLowerCase();
+
+        Set<String> keys = new HashSet<>();
+
         //Reading the keys from the redis slave
         try ( Jedis jedis = readPool.getResource() ) {
 
-            //Building the key
-            StringWriter compoundKey = new StringWriter();
-            compoundKey.append(group.toLowerCase());
-            compoundKey.append(delimit);
-            compoundKey.append("*");
+            //Only the keys of the current generation belong to the group
+            String prefix = getEntryKey(group, getGeneration(jedis, group), "");
+            ScanParams params = new ScanParams().match(prefix + "*").count(SCAN_COUNT);
+
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                ScanResult<String> result = jedis.scan(cursor, params);
+                for ( String key : result.getResult() ) {
+                    keys.add(key.substring(prefix.length()));
+                }
+                cursor = result.getStringCursor();
+            } while ( !ScanParams.SCAN_POINTER_START.equals(cursor) );
 
-            return jedis.keys(compoundKey.toString());
         } catch ( Exception e ) {
             Logger.error(this, "Error retrieving Redis keys", e);
         }
 
-        return new HashSet<String>();
+        return keys;
     }
 
     @Override
     public Set<String> getGroups () {
-
-        Set<String> currentGroups = new HashSet<>();
-
-        try ( Jedis jedis = readPool.getResource() ) {
-
-            //Get the complete list of keys
-            Set<String> keys = jedis.keys("*");
-            for ( String key : keys ) {
-
-                //Read each key in order to get the groups
-                currentGroups.add(key.split(String.valueOf(delimit))[0]);
-            }
-
-        } catch ( Exception e ) {
-            Logger.error(this, "Error retrieving Redis groups list", e);
-        }
-
-        return currentGroups;
+        return sampleGroups().keySet();
     }
 
     @Override
@@ -381,13 +402,14 @@ public class RedisProvider extends CacheProvider {
                 memoryUsage = Integer.valueOf(memoryUsageString);
             }
             NumberFormat nf = DecimalFormat.getInstance();
-            //Getting the list of groups
-            Set<String> currentGroups = getGroups();
 
-            for ( String group : currentGroups ) {
+            //Getting the list of groups and their sizes, estimated from a sample of the keys
+            Map<String, Long> currentGroups = sampleGroups();
+
+            for ( Map.Entry<String, Long> group : currentGroups.entrySet() ) {
                 CacheStats stats = new CacheStats();
-                stats.addStat(CacheStats.REGION, group);
-                stats.addStat(CacheStats.REGION_SIZE, nf.format(getKeys(group).size()));
+                stats.addStat(CacheStats.REGION, group.getKey());
+                stats.addStat(CacheStats.REGION_SIZE, nf.format(group.getValue()));
                 stats.addStat(CacheStats.REGION_CONFIGURED_SIZE, nf.format(memoryUsage));
                 /*
                 Show the complete memory usage just one time,
@@ -447,6 +469,233 @@ public class RedisProvider extends CacheProvider {
         return value;
     }
 
+    /**
+     * Key of the counter holding the current generation of the given group
+     *
+     * @param group
+     * @return
+     */
+    private String getGenerationKey ( String group ) {
+        return GENERATION_PREFIX + delimit + '{' + group + '}';
+    }
+
+    /**
+     * Key an entry of the given group is stored with for the given generation
+     *
+     * @param group
+     * @param generation
+     * @param key
+     * @return
+     */
+    private String getEntryKey ( String group, String generation, String key ) {
+
+        StringWriter compoundKey = new StringWriter();
+        compoundKey.append('{').append(group).append('}');
+        compoundKey.append(delimit);
+        compoundKey.append(generation);
+        compoundKey.append(delimit);
+        compoundKey.append(key);
+
+        return compoundKey.toString();
+    }
+
+    private String getGeneration ( Jedis jedis, String group ) {
+
+        String generation = jedis.get(getGenerationKey(group));
+        generation = ( generation == null ) ? "0" : generation;
+        generations.put(group, generation);
+        return generation;
+    }
+
+    /**
+     * Reads the given keys of the current generation of a group from the Redis slave. The records are
+     * read for the last generation seen of the group, and a script checks it is still the current one
+     * in the same call, so the keys it reads are all passed as keys. Only when the group was flushed
+     * in the meantime the records are read again for the new generation.
+     *
+     * @param group
+     * @param keys
+     * @return The records in the same order of the keys, null for the ones not found
+     */
+    @SuppressWarnings ( "unchecked" )
+    private List<byte[]> read ( String group, List<String> keys ) {
+
+        try ( Jedis jedis = readPool.getResource() ) {
+
+            String generation = generations.get(group);
+            if ( generation == null ) {
+                generation = getGeneration(jedis, group);
+            }
+
+            for ( int attempt = 0; attempt < 3; attempt++ ) {
+
+                List<byte[]> scriptKeys = new ArrayList<>(keys.size() + 1);
+                scriptKeys.add(getGenerationKey(group).getBytes());
+                for ( String key : keys ) {
+                    scriptKeys.add(getEntryKey(group, generation, key).getBytes());
+                }
+                List<byte[]> scriptArgs = Collections.singletonList(generation.getBytes());
+
+                Object result;
+                try {
+                    result = jedis.evalsha(READ_SCRIPT_SHA, scriptKeys, scriptArgs);
+                } catch ( JedisDataException e ) {
+                    if ( e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT") ) {
+                        throw e;
+                    }
+                    //The script is not loaded in this server yet, eval will load it
+                    result = jedis.eval(READ_SCRIPT.getBytes(), scriptKeys, scriptArgs);
+                }
+
+                List<byte[]> values = ( result != null ) ? (List<byte[]>) result : Collections.<byte[]>emptyList();
+                if ( values.isEmpty() ) {
+                    return values;
+                }
+
+                String current = new String(values.get(0));
+                if ( current.equals(generation) ) {
+                    return values.subList(1, values.size());
+                }
+
+                //The group was flushed, read the records of the new generation
+                generations.put(group, current);
+                generation = current;
+            }
+        } catch ( Exception e ) {
+            Logger.error(this, "Error retrieving from Redis: group [" + group + "] - keys " + keys + ".", e);
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Reconstructs the object stored in a Redis record
+     *
+     * @param group
+     * @param key
+     * @param data
+     * @return
+     */
+    private Object readObject ( String group, String key, byte[] data ) {
+
+        if ( data == null ) {
+            return null;
+        }
+
+        //Reconstructing the object to send it back
+        ObjectInputStream input = null;
+        InputStream bin = null;
+        InputStream is = null;
+
+        try {
+            is = new ByteArrayInputStream(data);
+            bin = new BufferedInputStream(is, 8192);
+            input = new ObjectInputStream(bin);
+            return input.readObject();
+        } catch ( Exception e ) {
+            Logger.error(this, "Error retrieving from Redis: group [" + group + "] - key [" + key + "].", e);
+        } finally {
+            try {
+                if ( input != null ) {
+                    input.close();
+                }
+            } catch ( Exception e ) {
+                Logger.error(this, "Error trying to close Stream.", e);
+            }
+            try {
+                if ( bin != null ) {
+                    bin.close();
+                }
+            } catch ( Exception e ) {
+                Logger.error(this, "Error trying to close Stream.", e);
+            }
+            try {
+                if ( is != null ) {
+                    is.close();
+                }
+            } catch ( Exception e ) {
+                Logger.error(this, "Error trying to close Stream.", e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Scans a sample of the keyspace, up to <strong>redis.stats.sample.size</strong> keys, counting the
+     * entries of the current generation of each group found. When the keyspace is bigger than the sample
+     * the counts are scaled to the size of the keyspace, so they are estimates.
+     *
+     * @return Map with the estimated number of entries by group
+     */
+    private Map<String, Long> sampleGroups () {
+
+        Map<String, Long> groups = new HashMap<>();
+
+        try ( Jedis jedis = readPool.getResource() ) {
+
+            Map<String, String> groupGenerations = new HashMap<>();
+            ScanParams params = new ScanParams().count(SCAN_COUNT);
+            long sampled = 0;
+
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                ScanResult<String> result = jedis.scan(cursor, params);
+                for ( String key : result.getResult() ) {
+
+                    sampled++;
+                    String[] parts = key.split(String.valueOf(delimit), 3);
+                    if ( parts.length < 3 || !parts[0].startsWith("{") || !parts[0].endsWith("}") ) {
+                        continue;
+                    }
+
+                    String group = parts[0].substring(1, parts[0].length() - 1);
+                    String generation = groupGenerations.get(group);
+                    if ( generation == null ) {
+                        generation = getGeneration(jedis, group);
+                        groupGenerations.put(group, generation);
+                    }
+
+                    Long count = groups.get(group);
+                    groups.put(group, ( count == null ? 0 : count ) + ( generation.equals(parts[1]) ? 1 : 0 ));
+                }
+                cursor = result.getStringCursor();
+            } while ( !ScanParams.SCAN_POINTER_START.equals(cursor) && sampled < statsSampleSize );
+
+            long total = jedis.dbSize();
+            if ( sampled > 0 && total > sampled ) {
+                for ( Map.Entry<String, Long> group : groups.entrySet() ) {
+                    group.setValue(group.getValue() * total / sampled);
+                }
+            }
+
+        } catch ( Exception e ) {
+            Logger.error(this, "Error retrieving Redis groups list", e);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Hex SHA1 of the given script, the id Redis keeps it with
+     *
+     * @param script
+     * @return
+     */
+    private static byte[] sha1 ( String script ) {
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for ( byte b : digest ) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString().getBytes();
+        } catch ( Exception e ) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Resets the Map of cache records that could be added to this cache
      */
@@ -1,7 +1,14 @@
 package com.dotmarketing.cache;
 
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.dotcms.contenttype.model.type.ContentType;
 import com.dotcms.contenttype.transform.field.FieldVariableTransformer;
 import com.dotcms.contenttype.transform.field.LegacyFieldTransformer;
 import com.dotmarketing.business.APILocator;
@@ -19,6 +26,8 @@ import com.dotmarketing.util.Logger;
  */
 public class FieldsCache {
 
+    private static final Map<String, FieldIndex> fieldIndexes = new ConcurrentHashMap<String, FieldIndex>();
+
     public static void addFields(Structure st, List<Field> fields){
         Logger.warn(FieldsCache.class, "addFields no longer implemented");
 	}
@@ -33,6 +42,34 @@ public class FieldsCache {
         }
 	}
 
+    /**
+     * Returns the fields of the structure keyed by their velocity variable
+     * name, in the same order {@link #getFieldsByStructureInode(String)}
+     * returns them.
+     * 
+     * The table is built once per version of the structure and shared by all
+     * the callers, it is built again when the mod date of the structure
+     * changes, which happens on every change of its fields.
+     * 
+     * @param inode inode of the structure
+     * @return an unmodifiable map of the fields by velocity variable name
+     */
+    public static Map<String, Field> getFieldsByVariableName(String inode){
+        final ContentType type;
+        try {
+            type = APILocator.getContentTypeAPI(APILocator.systemUser()).find(inode);
+        } catch (DotStateException | DotDataException | DotSecurityException e) {
+            throw new DotStateException(e);
+        }
+
+        FieldIndex index = fieldIndexes.get(inode);
+        if (index == null || !Objects.equals(index.modDate, type.modDate())) {
+            index = new FieldIndex(type);
+            fieldIndexes.put(inode, index);
+        }
+        return index.fields;
+    }
+
     /*public static List<Field> getFieldsByStructureInode(String inode) 
     {
         return getFieldsByStructureInode(Long.parseLong(inode));
@@ -91,11 +128,11 @@ public class FieldsCache {
     }*/
     
     public static void removeFields(Structure st){
-
+        fieldIndexes.remove(st.getInode());
     }
 
 	public static void clearCache(){
-
+		fieldIndexes.clear();
 	}
     
 	public static String[] getGroups() {
@@ -146,4 +183,19 @@ public class FieldsCache {
     }
     
     
+
+    private static final class FieldIndex {
+
+        private final Date modDate;
+        private final Map<String, Field> fields;
+
+        private FieldIndex(ContentType type) {
+            Map<String, Field> byVariableName = new LinkedHashMap<String, Field>();
+            for (Field field : new LegacyFieldTransformer(type.fields()).asOldFieldList()) {
+                byVariableName.put(field.getVelocityVarName(), field);
+            }
+            this.modDate = type.modDate();
+            this.fields = Collections.unmodifiableMap(byVariableName);
+        }
+    }
 }
@@ -64,6 +64,11 @@ import com.liferay.portal.model.User;
  */
 public class URLMapFilter implements Filter {
 
+	private static final ConfigProperty<Boolean> DEFAULT_CONTENT_TO_DEFAULT_LANGUAGE =
+			Config.booleanProperty("DEFAULT_CONTENT_TO_DEFAULT_LANGUAGE", false);
+	private static final ConfigProperty<Boolean> ACCRUE_TAGS_IN_URLMAPS =
+			Config.booleanProperty("ACCRUE_TAGS_IN_URLMAPS", true);
+
 	private List<PatternCache> patternsCache = new ArrayList<>();
 	private ContentletAPI conAPI;
 	private UserWebAPI wuserAPI;
@@ -225,7 +230,7 @@ public class URLMapFilter implements Filter {
 					    long defaultLang=APILocator.getLanguageAPI().getDefaultLanguage().getId();
 					    boolean checkIndex=false;
 					  
-                        if(request.getParameter("language_id")==null && Config.getBooleanProperty("DEFAULT_CONTENT_TO_DEFAULT_LANGUAGE",false)) {
+                        if(request.getParameter("language_id")==null && DEFAULT_CONTENT_TO_DEFAULT_LANGUAGE.get()) {
                             // consider default language. respecting language_id in parameters
                             query.append(" +(languageId:").append(defaultLang).append(" languageId:").append(sessionLang).append(") ");
                             checkIndex=true;
@@ -260,7 +265,7 @@ public class URLMapFilter implements Filter {
 						}
 
 						//Check if we want to accrue the tags of URL maps
-						if ( Config.getBooleanProperty("ACCRUE_TAGS_IN_URLMAPS", true) ) {
+						if ( ACCRUE_TAGS_IN_URLMAPS.get() ) {
 
 							//Search for the tags asocciated to this contentlet inode
 							List<Tag> contentletFoundTags = APILocator.getTagAPI().getTagsByInode(c.getInode());
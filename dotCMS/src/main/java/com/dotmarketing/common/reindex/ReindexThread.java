@@ -4,6 +4,7 @@ import com.dotcms.api.system.event.Visibility;
 import com.dotcms.content.elasticsearch.business.ContentletIndexAPI;
 import com.dotcms.content.elasticsearch.util.ESClient;
 import com.dotcms.content.elasticsearch.util.ESReindexationProcessStatus;
+import com.dotcms.metrics.MetricsRegistry;
 import com.dotcms.notifications.bean.NotificationLevel;
 import com.dotcms.notifications.bean.NotificationType;
 import com.dotcms.notifications.business.NotificationAPI;
@@ -21,6 +22,7 @@ import com.dotmarketing.exception.DotHibernateException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.util.Config;
+import com.dotmarketing.util.ConfigProperty;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 import com.liferay.portal.language.LanguageException;
@@ -82,6 +84,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class ReindexThread extends Thread {
 
 	private static final ContentletIndexAPI indexAPI = APILocator.getContentletIndexAPI();
+	private static final String REINDEX_QUEUE_METRIC = "dotcms_reindex_queue_size";
+	private static final String REINDEX_BULK_METRIC = "dotcms_reindex_bulk_seconds";
+	private static final String REINDEX_DOCUMENTS_METRIC = "dotcms_reindex_documents_total";
     private final LinkedList<IndexJournal<String>> remoteQ = new LinkedList<IndexJournal<String>>();
     private final LinkedList<IndexJournal<String>> remoteDelQ = new LinkedList<IndexJournal<String>>();
     private final CopyOnWriteArrayList<String> notifiedFailingRecords = new CopyOnWriteArrayList<String>();
@@ -90,16 +95,29 @@ public class ReindexThread extends Thread {
 	private final RoleAPI roleAPI;
 	private final UserAPI userAPI;
 
-	private static ReindexThread instance;
+	private static volatile ReindexThread instance;
+
+	/**
+	 * The sleep and delay a thread is created with, read once in {@link #createThread()}. They are
+	 * replaced by the ones passed to {@link #startThread(int, int)} when it starts processing
+	 */
+	private static final ConfigProperty<Integer> SLEEP = Config.intProperty("reindex.thread.sleep", 100);
+	private static final ConfigProperty<Integer> DELAY = Config.intProperty("reindex.thread.delay", 7500);
+
+	/**
+	 * The reindex.thread.* properties read every time they are used, so they can change while the thread is running
+	 */
+	private static final ConfigProperty<Integer> DELAY_ON_ERROR = Config.intProperty("reindex.thread.delayonerror", 500);
+	private static final ConfigProperty<Integer> SLEEP_DURING_INDEX_TIME = Config.intProperty("REINDEX_SLEEP_DURING_INDEX", 0);
+	private static final ConfigProperty<Boolean> SLEEP_DURING_INDEX = Config.booleanProperty("reindex.thread.reindexsleepduringindex", false);
 
 	private boolean start = false;
 	private boolean work = false;
 	private int sleep = 100;
 	private int delay = 7500;
-	private int delayOnError = 500;
 	private int failedAttemptsCount = 0;
-	private boolean reindexSleepDuringIndex = false;
-	private int reindexSleepDuringIndexTime = 0;
+	private volatile Boolean reindexSleepDuringIndex = null;
+	private volatile Integer reindexSleepDuringIndexTime = null;
 
 	public ReindexThread() {
 
@@ -320,7 +338,7 @@ public class ReindexThread extends Thread {
 								}
 
 								try {
-									Thread.sleep(delayOnError);
+									Thread.sleep(DELAY_ON_ERROR.get());
 								} catch ( InterruptedException ie ) {
 									Logger.error(this, ie.getMessage(), ie);
 								}
@@ -335,7 +353,7 @@ public class ReindexThread extends Thread {
 							recordsToDelete.add(idx);
 
 							//If the REINDEX_SLEEP_DURING_INDEX was set
-							if ( reindexSleepDuringIndex ) {
+							if ( isReindexSleepDuringIndex() ) {
 								try {
 									int sleepTime = getReindexSleepDuringIndexTime();
 									Thread.sleep(sleepTime);
@@ -348,6 +366,7 @@ public class ReindexThread extends Thread {
 
 						HibernateUtil.closeSession();
 				        if(bulk.numberOfActions()>0) {
+				            final long bulkStart = System.nanoTime();
 				            bulk.execute(new ActionListener<BulkResponse>() {
 
 								void handleRecords (List<IndexJournal<String>> failedRecords) {
@@ -370,6 +389,8 @@ public class ReindexThread extends Thread {
 
 								public void onResponse ( BulkResponse resp ) {
 
+									recordBulk(resp, bulkStart);
+
 									//Handle failures on the re-index process if any
 									List<IndexJournal<String>> failedRecords = failureHandler(resp);
 
@@ -449,7 +470,7 @@ public class ReindexThread extends Thread {
 											Logger.error(this, "Reindex thread will try to re-index [" + String.valueOf(failedRecords.size()) + "] failed records.");
 
 											try {
-												Thread.sleep(delayOnError);
+												Thread.sleep(DELAY_ON_ERROR.get());
 											} catch ( InterruptedException e ) {
 												Logger.error(this, e.getMessage(), e);
 											}
@@ -612,20 +633,50 @@ public class ReindexThread extends Thread {
 	 */
 	public synchronized static void createThread() {
 		if (instance == null) {
-			instance = new ReindexThread();
-			instance.sleep = Config.getIntProperty("reindex.thread.sleep", 100);
-			instance.delay = Config.getIntProperty("reindex.thread.delay", 7500);
-			instance.delayOnError = Config.getIntProperty("reindex.thread.delayonerror", 500);
-			instance.reindexSleepDuringIndex = Config.getBooleanProperty("reindex.thread.reindexsleepduringindex", false);
+			final ReindexThread thread = new ReindexThread();
+			thread.sleep = SLEEP.get();
+			thread.delay = DELAY.get();
+			instance = thread;
 			instance.start();
-			int i = Config.getIntProperty("REINDEX_SLEEP_DURING_INDEX", 0);
-			if(i>0){
-				instance.setReindexSleepDuringIndex(true);
-				instance.setReindexSleepDuringIndexTime(i);
+			MetricsRegistry.getInstance().gauge(REINDEX_QUEUE_METRIC, "Records of the reindex queue left to index by this server",
+					ReindexThread::recordsLeftToIndex);
+		}
+
+	}
+
+	/**
+	 * Records the time the bulk request took and the documents it indexed
+	 * @param resp {@link BulkResponse}
+	 * @param start long nano time the request was sent
+	 */
+	private static void recordBulk(final BulkResponse resp, final long start) {
+
+		final MetricsRegistry metrics = MetricsRegistry.getInstance();
+		metrics.histogram(REINDEX_BULK_METRIC, "Time of the bulk index requests of the reindex thread").recordSince(start);
+
+		long indexed = 0;
+		for (final BulkItemResponse item : resp.getItems()) {
+			if (!item.isFailed()) {
+				indexed++;
 			}
 		}
+		metrics.counter(REINDEX_DOCUMENTS_METRIC, "Documents indexed by the reindex thread").add(indexed);
+	}
 
+	/**
+	 * Read by the thread that scrapes the metrics, on a connection of its own so it doesn't close the connection or
+	 * the transaction of any code running on that thread
+	 */
+	private static double recordsLeftToIndex() {
+
+		try (Connection conn = DbConnectionFactory.getDataSource().getConnection()) {
+			return APILocator.getDistributedJournalAPI().recordsLeftToIndexForServer(conn);
+		} catch (DotDataException | SQLException e) {
+			Logger.debug(ReindexThread.class, e.getMessage(), e);
+			return Double.NaN;
+		}
 	}
+
 	
     /**
      * Tells the thread to finish what it's down and stop
@@ -757,10 +808,12 @@ public class ReindexThread extends Thread {
 	}
 
 	/**
-	 * @return the reindexSleepDuringIndex
+	 * @return the reindexSleepDuringIndex, read from the configuration unless it was set
 	 */
 	public boolean isReindexSleepDuringIndex() {
-		return reindexSleepDuringIndex;
+		final Boolean sleepDuringIndex = reindexSleepDuringIndex;
+		return (null != sleepDuringIndex) ? sleepDuringIndex
+				: SLEEP_DURING_INDEX_TIME.get() > 0 || SLEEP_DURING_INDEX.get();
 	}
 
 	/**
@@ -771,10 +824,11 @@ public class ReindexThread extends Thread {
 	}
 
 	/**
-	 * @return the reindexSleepDuringIndexTime
+	 * @return the reindexSleepDuringIndexTime, read from the configuration unless it was set
 	 */
 	public int getReindexSleepDuringIndexTime() {
-		return reindexSleepDuringIndexTime;
+		final Integer sleepDuringIndexTime = reindexSleepDuringIndexTime;
+		return (null != sleepDuringIndexTime) ? sleepDuringIndexTime : SLEEP_DURING_INDEX_TIME.get();
 	}
 
 	/**
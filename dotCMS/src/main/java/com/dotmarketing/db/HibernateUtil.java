@@ -930,6 +930,28 @@ public class HibernateUtil {
 
 	}
 
+	/**
+	 * @return Set the tags of the commit listeners added so far, to roll back to a savepoint with
+	 * {@link #rollbackSavepoint(Savepoint, Set)}
+	 */
+	public static Set<String> getCommitListenerTags() {
+		return new HashSet<String>(commitListeners.get().keySet());
+	}
+
+	/**
+	 * Rolls the transaction back to the savepoint and forgets what was done since it was set: the objects of the
+	 * session and the commit listeners whose tags are not in the given ones. The session must be flushed before
+	 * setting the savepoint, so the transaction can go on with what was done before it.
+	 * @param savepoint Savepoint to roll back to
+	 * @param commitListenerTags tags returned by {@link #getCommitListenerTags()} when the savepoint was set
+	 */
+	public static void rollbackSavepoint(Savepoint savepoint, Set<String> commitListenerTags) throws DotHibernateException {
+
+		rollbackSavepoint(savepoint);
+		getSession().clear();
+		commitListeners.get().keySet().retainAll(commitListenerTags);
+	}
+
 	public static void saveWithPrimaryKey(Object obj, Serializable id)  throws DotHibernateException{
 		try{
 			Session session = getSession();
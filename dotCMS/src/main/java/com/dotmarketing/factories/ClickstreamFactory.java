@@ -25,6 +25,8 @@ import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotHibernateException;
 import com.dotmarketing.listeners.ClickstreamListener;
+import com.dotmarketing.loggers.AsyncClickstreamLogger;
+import com.dotmarketing.loggers.ClickstreamLogger;
 import com.dotmarketing.loggers.DatabaseClickstreamLogger;
 import com.dotmarketing.util.BotChecker;
 import com.dotmarketing.util.Config;
@@ -190,7 +192,9 @@ public class ClickstreamFactory {
 	}
 
 	/**
-	 * This method forces a clickstream save
+	 * This method forces a clickstream save. Unless CLICKSTREAM_ASYNC_WRITES is
+	 * false, the clickstream is queued and written in the background by the
+	 * {@link AsyncClickstreamLogger}.
 	 *
 	 * @param stream
 	 */
@@ -199,7 +203,8 @@ public class ClickstreamFactory {
 			
 			int minToLog = Config.getIntProperty("MIN_CLICKSTREAM_REQUESTS_TO_SAVE", 2);
 			
-			DatabaseClickstreamLogger dblogger = new DatabaseClickstreamLogger();
+			ClickstreamLogger dblogger = Config.getBooleanProperty("CLICKSTREAM_ASYNC_WRITES", true)
+					? AsyncClickstreamLogger.getInstance() : new DatabaseClickstreamLogger();
 			try {
 				if (stream != null 
 						&& stream.getClickstreamRequests() != null 
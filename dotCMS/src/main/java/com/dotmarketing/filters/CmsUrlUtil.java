@@ -13,6 +13,7 @@ import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
 import com.dotmarketing.portlets.languagesmanager.model.Language;
 import com.dotmarketing.portlets.structure.model.Structure;
 import com.dotmarketing.util.Config;
+import com.dotmarketing.util.ConfigProperty;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 import com.liferay.portal.model.User;
@@ -20,6 +21,8 @@ import com.liferay.portal.model.User;
 import java.util.List;
 
 public class CmsUrlUtil {
+	private static final ConfigProperty<Boolean> DEFAULT_FILE_TO_DEFAULT_LANGUAGE =
+			Config.booleanProperty("DEFAULT_FILE_TO_DEFAULT_LANGUAGE", false);
 	private static CmsUrlUtil urlUtil;
 
 	public static CmsUrlUtil getInstance() {
@@ -127,7 +130,7 @@ public class CmsUrlUtil {
             try {
                 ContentletVersionInfo cinfo = APILocator.getVersionableAPI().getContentletVersionInfo(id.getId(), languageId);
 
-                if ( (cinfo == null || cinfo.getWorkingInode().equals( "NOTFOUND" )) && Config.getBooleanProperty("DEFAULT_FILE_TO_DEFAULT_LANGUAGE", false)) {
+                if ( (cinfo == null || cinfo.getWorkingInode().equals( "NOTFOUND" )) && DEFAULT_FILE_TO_DEFAULT_LANGUAGE.get()) {
                     //Get the Default Language
                     Language defaultLang = APILocator.getLanguageAPI().getDefaultLanguage();
                     //If the fallback to Default Language is set to true, let's see if the requested file is stored with Default Language
@@ -22,6 +22,7 @@ import com.dotmarketing.beans.Host;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.util.Config;
+import com.dotmarketing.util.ConfigProperty;
 import com.dotmarketing.util.ConfigUtils;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.WebKeys;
@@ -55,6 +56,9 @@ public class TimeMachineFilter implements Filter {
 
     private static final String ERROR_404 = "/html/portlet/ext/timemachine/timemachine_404.jsp";
 
+    private static final ConfigProperty<Boolean> DEFAULT_PAGE_TO_DEFAULT_LANGUAGE =
+            Config.booleanProperty("DEFAULT_PAGE_TO_DEFAULT_LANGUAGE", true);
+
     CmsUrlUtil urlUtil = CmsUrlUtil.getInstance();
 
     @Override
@@ -113,7 +117,7 @@ public class TimeMachineFilter implements Filter {
 				sendFile(file, request, response);
 			} else {
 				// File not found for the selected language
-				boolean useDefaultLanguage = Config.getBooleanProperty("DEFAULT_PAGE_TO_DEFAULT_LANGUAGE", true);
+				boolean useDefaultLanguage = DEFAULT_PAGE_TO_DEFAULT_LANGUAGE.get();
 				if (!useDefaultLanguage) {
 					// Send page in default language is false, so send an error
 					sendError(request, response, ERROR_404, host.getHostname() + uri, HttpServletResponse.SC_BAD_REQUEST);
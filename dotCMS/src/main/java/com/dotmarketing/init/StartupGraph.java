@@ -0,0 +1,213 @@
+package com.dotmarketing.init;
+
+import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.util.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the {@link StartupTask}s of the startup as a dependency graph: every task is handed to the executor as soon
+ * as the tasks it depends on are done, so the tasks that don't depend on each other run at the same time. The time
+ * every task takes is kept in the {@link StartupProfile}.
+ * <pre>
+ * final StartupGraph graph = new StartupGraph()
+ *         .add(task("index",     () -> indexAPI.checkAndInitialiazeIndex()).fatal())
+ *         .add(task("scheduler", DotInitScheduler::start).after("index").fatal())
+ *         .add(task("geoip",     this::initGeoIp));
+ * graph.start(executor);
+ * graph.awaitReady();
+ * </pre>
+ * Every task closes the database connection and the hibernate session of its thread when it ends.
+ */
+public final class StartupGraph {
+
+    private final Map<String, StartupTask> tasks = new LinkedHashMap<>();
+    private final Map<String, CompletableFuture<StartupProfile.Status>> futures = new HashMap<>();
+    private final StartupProfile profile;
+    private volatile Exception fatalError;
+
+    public StartupGraph() {
+        this(StartupProfile.getInstance());
+    }
+
+    StartupGraph(final StartupProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Adds a task to the graph
+     * @param task {@link StartupTask}
+     * @return StartupGraph
+     */
+    public StartupGraph add(final StartupTask task) {
+
+        if (null != this.tasks.putIfAbsent(task.getName(), task)) {
+            throw new IllegalArgumentException("The startup task " + task.getName() + " was already added");
+        }
+        return this;
+    }
+
+    /**
+     * Hands the tasks to the executor, each one once its dependencies are done
+     * @param executor {@link Executor} a pool to run the tasks in parallel, or the calling thread to run them one
+     *                 after the other
+     */
+    public void start(final Executor executor) {
+
+        final List<StartupTask> sorted = this.sort();
+        this.profile.begin();
+
+        for (final StartupTask task : sorted) {
+
+            final List<CompletableFuture<StartupProfile.Status>> dependencies = new ArrayList<>();
+            for (final String dependency : task.getDependencies()) {
+                dependencies.add(this.futures.get(dependency));
+            }
+
+            this.futures.put(task.getName(), CompletableFuture
+                    .allOf(dependencies.toArray(new CompletableFuture[dependencies.size()]))
+                    .thenApplyAsync(ignored -> this.run(task, this.mustSkip(task)), executor));
+        }
+    }
+
+    /**
+     * Waits for the blocking tasks, once they are done the node can take traffic
+     * @throws DotStateException if a fatal task failed
+     */
+    public void awaitReady() {
+
+        try {
+            for (final StartupTask task : this.tasks.values()) {
+                if (task.isBlocking()) {
+                    this.futures.get(task.getName()).get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DotStateException("Interrupted while waiting for the startup tasks", e);
+        } catch (ExecutionException e) {
+            throw new DotStateException("A startup task broke: " + e.getCause().getMessage(), e);
+        }
+
+        if (null != this.fatalError) {
+            throw new DotStateException("Unable to start: " + this.fatalError.getMessage(), this.fatalError);
+        }
+        this.profile.ready();
+    }
+
+    /**
+     * @return CompletableFuture done once every task is
+     */
+    public CompletableFuture<Void> whenDone() {
+
+        return CompletableFuture.allOf(this.futures.values().toArray(new CompletableFuture[this.futures.size()]))
+                .whenComplete((ignored, error) -> this.profile.done());
+    }
+
+    /**
+     * @return boolean true if a fatal task failed, the node must not go on as if it started
+     */
+    public boolean hasFailed() {
+        return null != this.fatalError;
+    }
+
+    private boolean mustSkip(final StartupTask task) {
+
+        for (final String dependency : task.getDependencies()) {
+
+            final StartupProfile.Status status = this.futures.get(dependency).join();
+            if (status == StartupProfile.Status.SKIPPED
+                    || (status == StartupProfile.Status.FAILED && this.tasks.get(dependency).isFatal())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private StartupProfile.Status run(final StartupTask task, final boolean skip) {
+
+        final StartupProfile.Entry entry = this.profile.start(task);
+        if (skip) {
+
+            Logger.warn(this, "Skipping the startup task " + task.getName() + ", a fatal task it depends on failed");
+            this.profile.end(entry, StartupProfile.Status.SKIPPED, null);
+            return StartupProfile.Status.SKIPPED;
+        }
+
+        try {
+
+            Logger.debug(this, "Running the startup task " + task.getName());
+            task.getAction().run();
+            this.profile.end(entry, StartupProfile.Status.DONE, null);
+            return StartupProfile.Status.DONE;
+        } catch (Exception e) {
+
+            this.profile.end(entry, StartupProfile.Status.FAILED, e);
+            if (task.isFatal()) {
+                Logger.fatal(this, "The startup task " + task.getName() + " failed: " + e.getMessage(), e);
+                this.fatalError = e;
+            } else {
+                Logger.error(this, "The startup task " + task.getName() + " failed: " + e.getMessage(), e);
+            }
+            return StartupProfile.Status.FAILED;
+        } finally {
+            DbConnectionFactory.closeSilently();
+        }
+    }
+
+    /**
+     * Sorts the tasks so every task comes after its dependencies
+     * @return List
+     */
+    private List<StartupTask> sort() {
+
+        final Map<String, Integer> pending = new HashMap<>();
+        final Map<String, List<StartupTask>> dependents = new HashMap<>();
+        final Deque<StartupTask> free = new ArrayDeque<>();
+
+        for (final StartupTask task : this.tasks.values()) {
+
+            for (final String dependency : task.getDependencies()) {
+
+                if (!this.tasks.containsKey(dependency)) {
+                    throw new IllegalArgumentException("The startup task " + task.getName()
+                            + " depends on the unknown task " + dependency);
+                }
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(task);
+            }
+
+            pending.put(task.getName(), task.getDependencies().size());
+            if (task.getDependencies().isEmpty()) {
+                free.add(task);
+            }
+        }
+
+        final List<StartupTask> sorted = new ArrayList<>(this.tasks.size());
+        while (!free.isEmpty()) {
+
+            final StartupTask task = free.poll();
+            sorted.add(task);
+            for (final StartupTask dependent : dependents.getOrDefault(task.getName(), new ArrayList<>())) {
+                if (pending.merge(dependent.getName(), -1, Integer::sum) == 0) {
+                    free.add(dependent);
+                }
+            }
+        }
+
+        if (sorted.size() < this.tasks.size()) {
+            pending.values().removeIf(count -> count == 0);
+            throw new IllegalArgumentException("The startup tasks have a cycle: " + pending.keySet());
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,217 @@
+package com.dotmarketing.init;
+
+import com.dotcms.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps how long every {@link StartupTask} of the last startup took, on which thread, and when the node got ready,
+ * to find out what makes the node slow to start. The profile is logged once the node is ready and again when the
+ * background tasks are done, it can be read through the /api/v1/startup end-point, and the durations are exposed as
+ * metrics by the {@link MetricsRegistry}.
+ */
+public final class StartupProfile {
+
+    /**
+     * The outcome of a task
+     */
+    public enum Status {
+        RUNNING, DONE, FAILED, SKIPPED
+    }
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+    private volatile long startNanos = System.nanoTime();
+    private volatile long readyMillis = -1;
+    private volatile long doneMillis = -1;
+
+    private StartupProfile() {
+        // singleton
+    }
+
+    private static class SingletonHolder {
+        private static final StartupProfile INSTANCE = new StartupProfile();
+    }
+
+    /**
+     * Get the instance.
+     * @return StartupProfile
+     */
+    public static StartupProfile getInstance() {
+
+        return StartupProfile.SingletonHolder.INSTANCE;
+    }
+
+    void begin() {
+
+        this.entries.clear();
+        this.startNanos  = System.nanoTime();
+        this.readyMillis = -1;
+        this.doneMillis  = -1;
+    }
+
+    Entry start(final StartupTask task) {
+
+        final Entry entry = new Entry(task, Thread.currentThread().getName(), this.elapsedMillis());
+        this.entries.add(entry);
+        MetricsRegistry.getInstance().gauge("dotcms_startup_task_seconds", "Time the startup tasks took",
+                "task", task.getName(), () -> (entry.durationMillis < 0) ? Double.NaN : entry.durationMillis / 1000d);
+        return entry;
+    }
+
+    void end(final Entry entry, final Status status, final Throwable error) {
+
+        entry.durationMillis = this.elapsedMillis() - entry.startMillis;
+        entry.error          = (null != error) ? error.toString() : null;
+        entry.status         = status;
+    }
+
+    void ready() {
+        this.readyMillis = this.elapsedMillis();
+    }
+
+    void done() {
+        this.doneMillis = this.elapsedMillis();
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - this.startNanos) / 1_000_000;
+    }
+
+    /**
+     * @return List the tasks, in the order they started
+     */
+    public List<Entry> getEntries() {
+
+        final List<Entry> sorted = new ArrayList<>(this.entries);
+        sorted.sort(Comparator.comparingLong(Entry::getStartMillis));
+        return sorted;
+    }
+
+    /**
+     * @return long milliseconds the blocking tasks took, -1 while they run
+     */
+    public long getReadyMillis() {
+        return readyMillis;
+    }
+
+    /**
+     * @return long milliseconds all the tasks took, -1 while they run
+     */
+    public long getDoneMillis() {
+        return doneMillis;
+    }
+
+    /**
+     * The profile as the REST end-point returns it
+     * @return Map
+     */
+    public Map<String, Object> toMap() {
+
+        final Map<String, Object> profile = new LinkedHashMap<>();
+        final List<Map<String, Object>> tasks = new ArrayList<>();
+
+        for (final Entry entry : this.getEntries()) {
+
+            final Map<String, Object> task = new LinkedHashMap<>();
+            task.put("name",           entry.getName());
+            task.put("status",         entry.getStatus().name());
+            task.put("blocking",       entry.isBlocking());
+            task.put("dependencies",   entry.getDependencies());
+            task.put("thread",         entry.getThread());
+            task.put("startMillis",    entry.getStartMillis());
+            task.put("durationMillis", entry.getDurationMillis());
+            if (null != entry.getError()) {
+                task.put("error", entry.getError());
+            }
+            tasks.add(task);
+        }
+
+        profile.put("readyMillis", this.readyMillis);
+        profile.put("doneMillis",  this.doneMillis);
+        profile.put("tasks",       tasks);
+        return profile;
+    }
+
+    /**
+     * The profile as a table, for the log
+     * @return String
+     */
+    public String format() {
+
+        final StringBuilder table = new StringBuilder();
+        table.append(String.format("%-24s %-8s %-8s %8s %8s  %s%n", "task", "status", "blocks", "start", "millis", "thread"));
+        for (final Entry entry : this.getEntries()) {
+            table.append(String.format("%-24s %-8s %-8s %8d %8d  %s%n", entry.getName(), entry.getStatus(),
+                    entry.isBlocking() ? "yes" : "no", entry.getStartMillis(), entry.getDurationMillis(), entry.getThread()));
+        }
+        table.append("ready in ").append(this.readyMillis).append(" ms");
+        if (this.doneMillis >= 0) {
+            table.append(", done in ").append(this.doneMillis).append(" ms");
+        }
+        return table.toString();
+    }
+
+    /**
+     * A task of the profile
+     */
+    public static final class Entry {
+
+        private final String name;
+        private final boolean blocking;
+        private final List<String> dependencies;
+        private final String thread;
+        private final long startMillis;
+        private volatile long durationMillis = -1;
+        private volatile Status status = Status.RUNNING;
+        private volatile String error;
+
+        private Entry(final StartupTask task, final String thread, final long startMillis) {
+
+            this.name         = task.getName();
+            this.blocking     = task.isBlocking();
+            this.dependencies = new ArrayList<>(task.getDependencies());
+            this.thread       = thread;
+            this.startMillis  = startMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isBlocking() {
+            return blocking;
+        }
+
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        /**
+         * @return long milliseconds since the startup began
+         */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
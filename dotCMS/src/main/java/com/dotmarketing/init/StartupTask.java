@@ -0,0 +1,111 @@
+package com.dotmarketing.init;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A step of the startup of dotCMS, such as loading the plugins or starting the scheduler. The {@link StartupGraph}
+ * runs it as soon as the tasks it comes {@link #after(String...)} are done.
+ * <p>
+ * By default a task runs in the background: the node takes traffic without waiting for it, and if it fails the
+ * error is logged and the startup goes on, as the tasks that depend on it. A {@link #blocking()} task is one the
+ * first request needs, so the node is not ready until it is done. A {@link #fatal()} task is a blocking one the
+ * node can not run without: if it fails the startup fails, and the tasks that depend on it are skipped.
+ */
+public final class StartupTask {
+
+    /**
+     * The work of the task
+     */
+    @FunctionalInterface
+    public interface Action {
+
+        void run() throws Exception;
+    }
+
+    private final String name;
+    private final Action action;
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    private boolean blocking = false;
+    private boolean fatal = false;
+
+    private StartupTask(final String name, final Action action) {
+
+        this.name   = name;
+        this.action = action;
+    }
+
+    /**
+     * Creates a background task
+     * @param name {@link String} unique name of the task, shown in the startup profile
+     * @param action {@link Action} the work of the task
+     * @return StartupTask
+     */
+    public static StartupTask task(final String name, final Action action) {
+        return new StartupTask(name, action);
+    }
+
+    /**
+     * Runs the task once the given tasks are done
+     * @param names {@link String} names of the tasks
+     * @return StartupTask
+     */
+    public StartupTask after(final String... names) {
+
+        this.dependencies.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    /**
+     * The node is not ready until the task is done
+     * @return StartupTask
+     */
+    public StartupTask blocking() {
+
+        this.blocking = true;
+        return this;
+    }
+
+    /**
+     * The node is not ready until the task is done, and it can not start if the task fails
+     * @return StartupTask
+     */
+    public StartupTask fatal() {
+
+        this.blocking = true;
+        this.fatal    = true;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    Action getAction() {
+        return action;
+    }
+
+    public Set<String> getDependencies() {
+        return Collections.unmodifiableSet(dependencies);
+    }
+
+    public boolean isBlocking() {
+        return blocking;
+    }
+
+    public boolean isFatal() {
+        return fatal;
+    }
+
+    @Override
+    public String toString() {
+        return "StartupTask{" +
+                "name='" + name + '\'' +
+                ", dependencies=" + dependencies +
+                ", blocking=" + blocking +
+                ", fatal=" + fatal +
+                '}';
+    }
+}
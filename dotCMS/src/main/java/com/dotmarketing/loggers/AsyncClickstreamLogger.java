@@ -0,0 +1,362 @@
+package com.dotmarketing.loggers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dotmarketing.beans.Clickstream;
+import com.dotmarketing.beans.Clickstream404;
+import com.dotmarketing.beans.ClickstreamRequest;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+/**
+ * A {@link ClickstreamLogger} that does not write on the thread logging the
+ * clickstream. The clickstreams are appended to a bounded queue, and a
+ * background thread drains it and writes them in batches, in one transaction
+ * per batch:
+ * <ul>
+ * <li>The clickstreams are saved through Hibernate, as their ids are needed by
+ * their requests.</li>
+ * <li>Their requests and 404s are inserted with JDBC batches.</li>
+ * </ul>
+ * When the queue is full the clickstream is dropped, or the oldest one is, or
+ * the caller waits a bit for room, depending on
+ * {@link #CLICKSTREAM_QUEUE_FULL_POLICY}. The queue depth and the number of
+ * clickstreams written and dropped are exposed through JMX.
+ */
+public class AsyncClickstreamLogger implements ClickstreamLogger, AsyncClickstreamLoggerMBean {
+
+    /**
+     * Max number of clickstreams waiting to be written, 10000 by default.
+     */
+    public static final String CLICKSTREAM_QUEUE_SIZE        = "CLICKSTREAM_QUEUE_SIZE";
+
+    /**
+     * What to do when the queue is full: DROP_NEWEST (default), DROP_OLDEST or BLOCK.
+     */
+    public static final String CLICKSTREAM_QUEUE_FULL_POLICY = "CLICKSTREAM_QUEUE_FULL_POLICY";
+
+    /**
+     * Max millis a caller waits for room in the queue with the BLOCK policy, 100 by default.
+     */
+    public static final String CLICKSTREAM_QUEUE_BLOCK_MILLIS = "CLICKSTREAM_QUEUE_BLOCK_MILLIS";
+
+    /**
+     * Max number of clickstreams written in one transaction, 100 by default.
+     */
+    public static final String CLICKSTREAM_BATCH_SIZE        = "CLICKSTREAM_BATCH_SIZE";
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=ClickstreamLogger";
+
+    private static final String INSERT_REQUEST_COLUMNS =
+            "clickstream_id, server_name, protocol, server_port, request_uri, request_order, query_string, "
+            + "language_id, timestampper, host_id, associated_identifier";
+
+    private static final String INSERT_404_COLUMNS =
+            "referer_uri, query_string, request_uri, user_id, host_id, timestampper";
+
+    private enum FullPolicy { DROP_NEWEST, DROP_OLDEST, BLOCK }
+
+    private final BlockingQueue<Clickstream> queue =
+            new ArrayBlockingQueue<>(Config.getIntProperty(CLICKSTREAM_QUEUE_SIZE, 10000));
+    private final DatabaseClickstreamLogger databaseLogger = new DatabaseClickstreamLogger();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped  = new AtomicLong();
+    private final AtomicLong written  = new AtomicLong();
+    private final AtomicLong failed   = new AtomicLong();
+    private final AtomicLong batches  = new AtomicLong();
+
+    private volatile Thread writer;
+
+    private AsyncClickstreamLogger() {
+        // singleton
+    }
+
+    private static class SingletonHolder {
+        private static final AsyncClickstreamLogger INSTANCE = new AsyncClickstreamLogger();
+    }
+
+    /**
+     * Get the instance.
+     * @return AsyncClickstreamLogger
+     */
+    public static AsyncClickstreamLogger getInstance() {
+
+        return AsyncClickstreamLogger.SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Appends the clickstream to the queue of the writer, never waiting on the database.
+     * @param clickstream {@link Clickstream}
+     */
+    @Override
+    public void log(final Clickstream clickstream) {
+
+        if (null == clickstream) {
+            return;
+        }
+
+        this.startWriter();
+        if (this.offer(clickstream)) {
+            this.enqueued.incrementAndGet();
+        } else {
+            this.dropped.incrementAndGet();
+            Logger.debug(this, "The clickstream queue is full, dropping clickstream of session with cookie "
+                    + clickstream.getCookieId());
+        }
+    }
+
+    private boolean offer(final Clickstream clickstream) {
+
+        FullPolicy policy;
+        try {
+            policy = FullPolicy.valueOf(Config.getStringProperty(CLICKSTREAM_QUEUE_FULL_POLICY,
+                    FullPolicy.DROP_NEWEST.name()).trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            policy = FullPolicy.DROP_NEWEST;
+        }
+
+        switch (policy) {
+
+            case DROP_OLDEST:
+                while (!this.queue.offer(clickstream)) {
+                    if (null != this.queue.poll()) {
+                        this.dropped.incrementAndGet();
+                    }
+                }
+                return true;
+            case BLOCK:
+                try {
+                    return this.queue.offer(clickstream,
+                            Config.getLongProperty(CLICKSTREAM_QUEUE_BLOCK_MILLIS, 100), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            default:
+                return this.queue.offer(clickstream);
+        }
+    }
+
+    private void startWriter() {
+
+        if (null == this.writer) {
+            synchronized (this) {
+                if (null == this.writer) {
+                    final Thread thread = new Thread(this::drain, "ClickstreamWriter");
+                    thread.setDaemon(true);
+                    thread.start();
+                    this.writer = thread;
+                }
+            }
+        }
+    }
+
+    private void drain() {
+
+        final List<Clickstream> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch, Math.max(Config.getIntProperty(CLICKSTREAM_BATCH_SIZE, 100), 1) - 1);
+                this.write(batch);
+            } catch (InterruptedException e) {
+                Logger.info(this, "Clickstream writer interrupted, " + this.queue.size() + " clickstreams were not written");
+                return;
+            } catch (Throwable e) {
+                // never let the writer die
+                Logger.error(this, "Unexpected error writing clickstreams: " + e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(final List<Clickstream> batch) {
+
+        try {
+
+            HibernateUtil.startTransaction();
+            for (final Clickstream clickstream : batch) {
+                this.databaseLogger.resolveRemoteHostname(clickstream);
+                clickstream.setLastSaved(new Date());
+                HibernateUtil.saveOrUpdate(clickstream);
+            }
+            // the clickstream ids are assigned by now
+            HibernateUtil.flush();
+
+            final Connection conn = DbConnectionFactory.getConnection();
+            this.insertRequests(conn, batch);
+            this.insert404s(conn, batch);
+
+            for (final Clickstream clickstream : batch) {
+                this.databaseLogger.updateUsersByCookie(clickstream);
+            }
+
+            HibernateUtil.commitTransaction();
+            this.written.addAndGet(batch.size());
+            this.batches.incrementAndGet();
+        } catch (Exception e) {
+
+            this.failed.addAndGet(batch.size());
+            Logger.error(this, "Unable to write " + batch.size() + " clickstreams: " + e.getMessage(), e);
+            try {
+                HibernateUtil.rollbackTransaction();
+            } catch (DotHibernateException e1) {
+                Logger.warn(this, e1.getMessage(), e1);
+            }
+        } finally {
+            try {
+                HibernateUtil.closeSession();
+            } catch (DotHibernateException e) {
+                Logger.warn(this, e.getMessage(), e);
+            } finally {
+                DbConnectionFactory.closeConnection();
+            }
+        }
+    }
+
+    private void insertRequests(final Connection conn, final List<Clickstream> batch) throws SQLException {
+
+        final String sql = (DbConnectionFactory.isOracle())?
+                "insert into clickstream_request (clickstream_request_id, " + INSERT_REQUEST_COLUMNS
+                        + ") values (clickstream_request_seq.NEXTVAL, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)":
+                (DbConnectionFactory.isPostgres())?
+                "insert into clickstream_request (clickstream_request_id, " + INSERT_REQUEST_COLUMNS
+                        + ") values (nextval('clickstream_request_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)":
+                "insert into clickstream_request (" + INSERT_REQUEST_COLUMNS
+                        + ") values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+
+            for (final Clickstream clickstream : batch) {
+                for (final ClickstreamRequest request : new ArrayList<>(clickstream.getClickstreamRequests())) {
+
+                    if (request.getClickstreamRequestId() != 0) {
+                        continue; // already written
+                    }
+                    request.setClickstreamId(clickstream.getClickstreamId());
+                    statement.setLong(1, request.getClickstreamId());
+                    setString(statement, 2, request.getServerName());
+                    setString(statement, 3, request.getProtocol());
+                    statement.setInt(4, request.getServerPort());
+                    setString(statement, 5, request.getRequestURI());
+                    statement.setInt(6, request.getRequestOrder());
+                    setString(statement, 7, request.getQueryString());
+                    statement.setLong(8, request.getLanguageId());
+                    setTimestamp(statement, 9, request.getTimestamp());
+                    setString(statement, 10, request.getHostId());
+                    setString(statement, 11, request.getAssociatedIdentifier());
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insert404s(final Connection conn, final List<Clickstream> batch) throws SQLException {
+
+        final String sql = (DbConnectionFactory.isOracle())?
+                "insert into clickstream_404 (clickstream_404_id, " + INSERT_404_COLUMNS
+                        + ") values (clickstream_404_seq.NEXTVAL, ?, ?, ?, ?, ?, ?)":
+                (DbConnectionFactory.isPostgres())?
+                "insert into clickstream_404 (clickstream_404_id, " + INSERT_404_COLUMNS
+                        + ") values (nextval('clickstream_404_seq'), ?, ?, ?, ?, ?, ?)":
+                "insert into clickstream_404 (" + INSERT_404_COLUMNS + ") values (?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+
+            for (final Clickstream clickstream : batch) {
+                for (final Clickstream404 clickstream404 : new ArrayList<>(clickstream.getClickstream404s())) {
+
+                    if (clickstream404.getClickstream404Id() != 0) {
+                        continue; // already written
+                    }
+                    setString(statement, 1, clickstream404.getRefererURI());
+                    setString(statement, 2, clickstream404.getQueryString());
+                    setString(statement, 3, clickstream404.getRequestURI());
+                    setString(statement, 4, clickstream404.getUserId());
+                    setString(statement, 5, clickstream404.getHostId());
+                    setTimestamp(statement, 6, clickstream404.getTimestamp());
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void setString(final PreparedStatement statement, final int index, final String value)
+            throws SQLException {
+
+        if (null == value) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private static void setTimestamp(final PreparedStatement statement, final int index, final Date value)
+            throws SQLException {
+
+        if (null == value) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, new Timestamp(value.getTime()));
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return this.queue.size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return this.queue.size() + this.queue.remainingCapacity();
+    }
+
+    @Override
+    public long getEnqueued() {
+        return this.enqueued.get();
+    }
+
+    @Override
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    @Override
+    public long getWritten() {
+        return this.written.get();
+    }
+
+    @Override
+    public long getFailed() {
+        return this.failed.get();
+    }
+
+    @Override
+    public long getBatches() {
+        return this.batches.get();
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+} // E:O:F:AsyncClickstreamLogger.
@@ -0,0 +1,52 @@
+package com.dotmarketing.loggers;
+
+import com.dotcms.jmx.DotMBean;
+
+/**
+ * Encapsulates the MBean interface for the {@link AsyncClickstreamLogger}
+ */
+public interface AsyncClickstreamLoggerMBean extends DotMBean {
+
+    /**
+     * Clickstreams waiting to be written
+     * @return int
+     */
+    int getQueueDepth();
+
+    /**
+     * Max number of clickstreams that can wait to be written
+     * @return int
+     */
+    int getQueueCapacity();
+
+    /**
+     * Clickstreams appended to the queue
+     * @return long
+     */
+    long getEnqueued();
+
+    /**
+     * Clickstreams dropped because the queue was full
+     * @return long
+     */
+    long getDropped();
+
+    /**
+     * Clickstreams written to the database
+     * @return long
+     */
+    long getWritten();
+
+    /**
+     * Clickstreams that could not be written because their batch failed
+     * @return long
+     */
+    long getFailed();
+
+    /**
+     * Batches written to the database
+     * @return long
+     */
+    long getBatches();
+
+} // E:O:F:AsyncClickstreamLoggerMBean.
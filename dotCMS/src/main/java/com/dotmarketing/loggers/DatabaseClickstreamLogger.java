@@ -27,24 +27,8 @@ public class DatabaseClickstreamLogger implements ClickstreamLogger {
 		if (clickstream == null)
 			return;
 
-		
-		// try to build a reverse lookup
-		if(!UtilMethods.isSet(clickstream.getRemoteHostname()) && UtilMethods.isSet(clickstream.getRemoteAddress())){
-			String x = clickstream.getRemoteAddress();
-			try{
-				x = DNSUtil.reverseDns(clickstream.getRemoteAddress());
-			}
-			catch(Exception e){
-				
-			}
-			if(!clickstream.getRemoteAddress().equals(x)){
-				clickstream.setRemoteHostname(x);
-			}
-		}
-		
-		
-		
-		
+		resolveRemoteHostname(clickstream);
+
 		/*
 		 * Save current clickstream
 		 */
@@ -69,6 +53,30 @@ public class DatabaseClickstreamLogger implements ClickstreamLogger {
 			}
 		}
 
+		updateUsersByCookie(clickstream);
+	}
+
+	/**
+	 * Sets the remote hostname of the clickstream from a reverse lookup of its
+	 * remote address, if it does not have it yet.
+	 */
+	void resolveRemoteHostname(Clickstream clickstream) {
+		// try to build a reverse lookup
+		if(!UtilMethods.isSet(clickstream.getRemoteHostname()) && UtilMethods.isSet(clickstream.getRemoteAddress())){
+			String x = clickstream.getRemoteAddress();
+			try{
+				x = DNSUtil.reverseDns(clickstream.getRemoteAddress());
+			}
+			catch(Exception e){
+				
+			}
+			if(!clickstream.getRemoteAddress().equals(x)){
+				clickstream.setRemoteHostname(x);
+			}
+		}
+	}
+
+	void updateUsersByCookie(Clickstream clickstream) {
 		/*
 		 * Loop over old clickstreams (by long lived cookie) that don't have any user
 		 * information and update them to our known information
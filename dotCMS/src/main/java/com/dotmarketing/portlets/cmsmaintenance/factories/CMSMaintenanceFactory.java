@@ -6,7 +6,6 @@ import com.dotmarketing.common.db.DotConnect;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotHibernateException;
 import com.dotmarketing.portlets.cmsmaintenance.action.ViewCMSMaintenanceAction;
-import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
@@ -28,6 +27,18 @@ public class CMSMaintenanceFactory {
 		int counter = 0;
 		int auxCount = 0;
 
+		/*
+		 * The contentlets are pruned outside of the transactions below, the
+		 * pruner deletes and commits them in small batches on its own
+		 */
+		try {
+			Logger.info(CMSMaintenanceFactory.class, "Removing Contentlets");
+			counter = APILocator.getContentletAPI().deleteOldContent(assetsOlderThan);
+			Logger.info(CMSMaintenanceFactory.class, "Removed "+ counter+ " Contentlets");
+		} catch (Exception ex) {
+			Logger.warn(CMSMaintenanceFactory.class,"There  was a problem deleting old contentlet versions",ex);
+			return -1;
+		}
 
 
 		/*
@@ -61,13 +72,6 @@ public class CMSMaintenanceFactory {
 				HibernateUtil.startTransaction();
 				Logger.info(CMSMaintenanceFactory.class, "Starting deleteOldAssetVersions for date: "+ UtilMethods.dateToHTMLDate(runDate.getTime(),"yyyy-MM-dd"));
 	
-				ContentletAPI conAPI = APILocator.getContentletAPI();
-	
-				Logger.info(CMSMaintenanceFactory.class, "Removing Contentlets");
-				auxCount = conAPI.deleteOldContent(runDate.getTime());
-				counter  += auxCount;
-				Logger.info(CMSMaintenanceFactory.class, "Removed "+ auxCount+ " Contentlets");
-	
 				Logger.info(CMSMaintenanceFactory.class, "Removing Containers");
 				auxCount = APILocator.getContainerAPI().deleteOldVersions(runDate.getTime());
 				counter += auxCount;
@@ -840,6 +840,14 @@ public class ContentletAjax {
 
 		List<String> expiredInodes=new ArrayList<String>();
 
+		// Workflow actions of the whole page, resolved with a single step query
+		Map<String, List<WorkflowAction>> wfActionsByInode = new HashMap<String, List<WorkflowAction>>();
+		try {
+			wfActionsByInode = APILocator.getWorkflowAPI().findAvailableActions(hits.subList(0, Math.min(perPage, hits.size())), currentUser);
+		} catch ( Exception e ) {
+			Logger.warn( this, "Could not load workflow actions of the results, loading them one by one : " + e.getMessage() );
+		}
+
 		//Adding the query results
 		Contentlet con;
 		for (int i = 0; ((i < perPage) && (i < hits.size())); ++i) {
@@ -992,7 +1000,8 @@ public class ContentletAjax {
 			List<WorkflowAction> wfActions = new ArrayList<WorkflowAction>();
 
 			try {
-				wfActions = APILocator.getWorkflowAPI().findAvailableActions( con, currentUser );
+				wfActions = wfActionsByInode.containsKey(con.getInode()) ? wfActionsByInode.get(con.getInode())
+						: APILocator.getWorkflowAPI().findAvailableActions( con, currentUser );
 			} catch ( Exception e ) {
                 Logger.error( this, "Could not load workflow actions : ", e );
             }
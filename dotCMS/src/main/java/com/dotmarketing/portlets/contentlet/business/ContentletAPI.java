@@ -18,6 +18,7 @@ import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletCheckin;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.links.model.Link;
 import com.dotmarketing.portlets.structure.model.ContentletRelationships;
@@ -1080,6 +1081,22 @@ public interface ContentletAPI {
 	 * @throws DotContentletValidationException If content is not valid
 	 */
 	public Contentlet checkinWithoutVersioning(Contentlet contentlet, Map<Relationship, List<Contentlet>> contentRelationships, List<Category> cats ,List<Permission> permissions, User user,boolean respectFrontendRoles) throws DotDataException,DotSecurityException, DotContentletStateException, DotContentletValidationException;
+
+	/**
+	 * Will check in a batch of contentlets in a single transaction, so their index requests are sent together
+	 * once it commits instead of one by one. The contentlets are validated first and the ones that are not valid
+	 * are left out. Each of the rest is checked in after a savepoint: if it fails, the transaction is rolled back to
+	 * the savepoint, the contentlet is left out, and the batch goes on with the next one, so no contentlet is checked
+	 * in twice. The caches a failing checkin touched are cleared, but the workflow actions and system events it
+	 * fired before failing are not undone, as with a single checkin that fails. If the transaction can't be
+	 * committed, every contentlet checked in gets the error. The outcome of each contentlet is set on its
+	 * {@link ContentletCheckin}.
+	 * @param batch - Contentlets to check in, with their relationships and categories
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @throws DotDataException If the transactions can't be handled
+	 */
+	public void checkin(List<ContentletCheckin> batch, User user, boolean respectFrontendRoles) throws DotDataException;
 	
 	/**
 	 * Will make the passed in contentlet the working copy. 
@@ -18,6 +18,7 @@ import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletCheckin;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.links.model.Link;
 import com.dotmarketing.portlets.structure.model.ContentletRelationships;
@@ -265,6 +266,21 @@ public class ContentletAPIInterceptor implements ContentletAPI, Interceptor {
 		return c;
 	}
 
+	@Override
+	public void checkin(List<ContentletCheckin> batch, User user, boolean respectFrontendRoles) throws DotDataException {
+		for(ContentletAPIPreHook pre : preHooks){
+			boolean preResult = pre.checkin(batch, user, respectFrontendRoles);
+			if(!preResult){
+				Logger.error(this, "The following prehook failed " + pre.getClass().getName());
+				throw new DotRuntimeException("The following prehook failed " + pre.getClass().getName());
+			}
+		}
+		conAPI.checkin(batch, user, respectFrontendRoles);
+		for(ContentletAPIPostHook post : postHooks){
+			post.checkin(batch, user, respectFrontendRoles);
+		}
+	}
+
 	@Override
 	public Contentlet checkout(String contentletInode, User user,	boolean respectFrontendRoles) throws DotDataException,DotSecurityException, DotContentletStateException {
 		for(ContentletAPIPreHook pre : preHooks){
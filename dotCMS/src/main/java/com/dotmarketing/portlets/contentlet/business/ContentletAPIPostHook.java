@@ -17,6 +17,7 @@ import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletCheckin;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.links.model.Link;
 import com.dotmarketing.portlets.structure.model.ContentletRelationships;
@@ -786,6 +787,16 @@ public interface ContentletAPIPostHook {
 	 * @param returnValue - value returned by primary API Method 
 	 */
 	public default void checkinWithoutVersioning(Contentlet contentlet, Map<Relationship, List<Contentlet>> contentRelationships, List<Category> cats ,List<Permission> permissions, User user,boolean respectFrontendRoles,Contentlet returnValue){}
+
+	/**
+	 * Will check in a batch of contentlets in a single transaction, with a savepoint per contentlet: a contentlet that fails
+	 * is rolled back alone and gets the error, the workflow actions and system events it fired are not undone. If the
+	 * transaction can't be committed, every contentlet checked in gets the error.
+	 * @param batch - Contentlets to check in, with the outcome of each of them
+	 * @param user
+	 * @param respectFrontendRoles
+	 */
+	public default void checkin(List<ContentletCheckin> batch, User user, boolean respectFrontendRoles){}
 	
 	/**
 	 * Will make the passed in contentlet the working copy. 
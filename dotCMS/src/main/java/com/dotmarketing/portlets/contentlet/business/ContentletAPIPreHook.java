@@ -15,6 +15,7 @@ import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletCheckin;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.structure.model.ContentletRelationships;
 import com.dotmarketing.portlets.structure.model.ContentletRelationships.ContentletRelationshipRecords;
@@ -920,6 +921,18 @@ public interface ContentletAPIPreHook {
 	public default boolean checkinWithoutVersioning(Contentlet contentlet, Map<Relationship, List<Contentlet>> contentRelationships, List<Category> cats ,List<Permission> permissions, User user,boolean respectFrontendRoles){
       return true;
     }
+
+	/**
+	 * Will check in a batch of contentlets in a single transaction, with a savepoint per contentlet: a contentlet that fails
+	 * is rolled back alone and gets the error, the workflow actions and system events it fired are not undone. If the
+	 * transaction can't be committed, every contentlet checked in gets the error.
+	 * @param batch - Contentlets to check in, with their relationships and categories
+	 * @param user
+	 * @param respectFrontendRoles
+	 */
+	public default boolean checkin(List<ContentletCheckin> batch, User user, boolean respectFrontendRoles){
+      return true;
+    }
 	
 	/**
 	 * Will make the passed in contentlet the working copy. 
@@ -0,0 +1,93 @@
+package com.dotmarketing.portlets.contentlet.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dotmarketing.portlets.categories.model.Category;
+import com.dotmarketing.portlets.structure.model.Relationship;
+
+/**
+ * One contentlet of a batch checked in by
+ * {@link com.dotmarketing.portlets.contentlet.business.ContentletAPI#checkin(List, com.liferay.portal.model.User, boolean)},
+ * with its relationships and categories, and the outcome of its checkin once the batch is done: the contentlet
+ * checked in or the exception that left it out of the batch.
+ */
+public class ContentletCheckin {
+
+	private final Contentlet contentlet;
+	private final Map<Relationship, List<Contentlet>> relationships;
+	private final List<Category> categories;
+	private final boolean publish;
+
+	private Contentlet checkedIn;
+	private Exception error;
+
+	/**
+	 * @param contentlet Contentlet to check in
+	 * @param relationships Relationships of the contentlet, may be null
+	 * @param categories Categories of the contentlet, may be null
+	 * @param publish true to publish the contentlet once it is checked in
+	 */
+	public ContentletCheckin(Contentlet contentlet, Map<Relationship, List<Contentlet>> relationships,
+			List<Category> categories, boolean publish) {
+		this.contentlet = contentlet;
+		this.relationships = relationships;
+		this.categories = categories;
+		this.publish = publish;
+	}
+
+	/**
+	 * Returns a copy of the contentlet to check in, so a checkin that is rolled back doesn't leave its inode or
+	 * identifier on the contentlet given
+	 * @return Contentlet
+	 */
+	public Contentlet newContentlet() {
+		return new Contentlet(new HashMap<String, Object>(contentlet.getMap()));
+	}
+
+	public Contentlet getContentlet() {
+		return contentlet;
+	}
+
+	public Map<Relationship, List<Contentlet>> getRelationships() {
+		return relationships;
+	}
+
+	public List<Category> getCategories() {
+		return categories;
+	}
+
+	public boolean isPublish() {
+		return publish;
+	}
+
+	/**
+	 * @return Contentlet checked in, null if it wasn't
+	 */
+	public Contentlet getCheckedIn() {
+		return checkedIn;
+	}
+
+	public void setCheckedIn(Contentlet checkedIn) {
+		this.checkedIn = checkedIn;
+		this.error = null;
+	}
+
+	/**
+	 * @return Exception that left the contentlet out of the batch, null if it was checked in
+	 */
+	public Exception getError() {
+		return error;
+	}
+
+	public void setError(Exception error) {
+		this.error = error;
+		this.checkedIn = null;
+	}
+
+	public boolean isCheckedIn() {
+		return checkedIn != null;
+	}
+
+}
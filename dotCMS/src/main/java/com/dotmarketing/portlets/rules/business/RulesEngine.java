@@ -1,6 +1,7 @@
 package com.dotmarketing.portlets.rules.business;
 
 import com.dotcms.enterprise.LicenseUtil;
+import com.dotcms.metrics.MetricsRegistry;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.Ruleable;
@@ -10,7 +11,6 @@ import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.exception.InvalidLicenseException;
 import com.dotmarketing.portlets.rules.exception.RuleEngineException;
 import com.dotmarketing.portlets.rules.model.Rule;
-import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 import com.dotmarketing.util.WebKeys;
@@ -40,8 +40,6 @@ import javax.servlet.http.HttpSession;
  */
 public final class RulesEngine {
 	
-	private static int SLOW_RULE_LOG_MIN=Config.getIntProperty("SLOW_RULE_LOG_MIN", 100);
-	
 	private static final String SKIP_RULES_EXECUTION = "skip"; 
 
 	/**
@@ -109,9 +107,9 @@ public final class RulesEngine {
 			Set<Rule> rules = APILocator.getRulesAPI().getRulesByParentFireOn(parent.getIdentifier(), systemUser, false,
 					fireOn);
             for (Rule rule : rules) {
+                long before = System.nanoTime();
                 try {
-                	long before = System.currentTimeMillis();
-                    rule.checkValid(); // @todo ggranum: this should actually be done on writing to the DB, or at worst reading from.
+                    // the rule is validated once, when its evaluation plan is built
                     boolean evaled = rule.evaluate(req, res);
 
                     if(res.isCommitted()) {
@@ -130,13 +128,13 @@ public final class RulesEngine {
 						
 						trackFiredRule(rCopy, req);
 					}
-                    long after = System.currentTimeMillis();
-        			if((after - before) > SLOW_RULE_LOG_MIN) {
-						Logger.warn(RulesEngine.class, "Rule ID: " + rule.getId()
-								+ " is running too slow. The rule is fired on: " + rule.getFireOn().name());
-        			}
                 } catch (RuleEngineException e) {
                     Logger.error(RulesEngine.class, "Rule could not be evaluated. Rule ID: " + rule.getId(), e);
+                } finally {
+                    final long elapsed = System.nanoTime() - before;
+                    RulesEngineStats.getInstance().record(rule, elapsed);
+                    MetricsRegistry.getInstance().histogram("dotcms_rule_evaluation_seconds",
+                            "Time to evaluate a rule", "fire_on", fireOn.name()).record(elapsed);
                 }
             }
 
@@ -0,0 +1,171 @@
+package com.dotmarketing.portlets.rules.business;
+
+import com.dotmarketing.portlets.rules.model.Rule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps a histogram of the time each rule takes to be evaluated by the {@link RulesEngine}, so the slow rules
+ * can be found through JMX.
+ */
+public class RulesEngineStats implements RulesEngineStatsMBean {
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=RulesEngine";
+
+    /**
+     * Upper bounds, in millis, of the buckets of the histograms. The last bucket takes everything slower.
+     */
+    private static final long[] BUCKETS = {1, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private final ConcurrentMap<String, RuleTimer> timers = new ConcurrentHashMap<>();
+    private final AtomicLong evaluations = new AtomicLong();
+
+    private RulesEngineStats() {
+        // singleton
+    }
+
+    private static class SingletonHolder {
+        private static final RulesEngineStats INSTANCE = new RulesEngineStats();
+    }
+
+    /**
+     * Get the instance.
+     * @return RulesEngineStats
+     */
+    public static RulesEngineStats getInstance() {
+
+        return RulesEngineStats.SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Records an evaluation of the rule
+     * @param rule {@link Rule}
+     * @param nanos long time the evaluation took
+     */
+    public void record(final Rule rule, final long nanos) {
+
+        this.evaluations.incrementAndGet();
+        this.timers.computeIfAbsent(rule.getId(), id -> new RuleTimer(rule.getName(), rule.getFireOn()))
+                .record(nanos);
+    }
+
+    @Override
+    public long getEvaluations() {
+        return this.evaluations.get();
+    }
+
+    @Override
+    public Map<String, String> getRuleTimings() {
+
+        final Map<String, String> timings = new TreeMap<>();
+        for (final Map.Entry<String, RuleTimer> entry : this.timers.entrySet()) {
+
+            final RuleTimer timer = entry.getValue();
+            timings.put(entry.getKey(), String.format("%s (%s): count=%d, avg=%.2fms, max=%.2fms, p50<=%s, p90<=%s, p99<=%s",
+                    timer.name, timer.fireOn, timer.count.get(), timer.averageMillis(), toMillis(timer.max.get()),
+                    timer.percentile(0.5), timer.percentile(0.9), timer.percentile(0.99)));
+        }
+        return timings;
+    }
+
+    @Override
+    public Map<String, Object> getStats(final String ruleId) {
+
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        final RuleTimer timer = this.timers.get(ruleId);
+        if (null != timer) {
+
+            stats.put("name", timer.name);
+            stats.put("fireOn", String.valueOf(timer.fireOn));
+            stats.put("count", timer.count.get());
+            stats.put("averageMillis", timer.averageMillis());
+            stats.put("maxMillis", toMillis(timer.max.get()));
+
+            final Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < timer.buckets.length(); i++) {
+                histogram.put(bucketLabel(i), timer.buckets.get(i));
+            }
+            stats.put("histogram", histogram);
+        }
+        return stats;
+    }
+
+    @Override
+    public void reset() {
+
+        this.timers.clear();
+        this.evaluations.set(0);
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String bucketLabel(final int bucket) {
+        return (bucket < BUCKETS.length) ? BUCKETS[bucket] + "ms" : "+Inf";
+    }
+
+    private static final class RuleTimer {
+
+        private final String name;
+        private final Rule.FireOn fireOn;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max   = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+
+        private RuleTimer(final String name, final Rule.FireOn fireOn) {
+            this.name   = name;
+            this.fireOn = fireOn;
+        }
+
+        private void record(final long nanos) {
+
+            this.count.incrementAndGet();
+            this.total.addAndGet(nanos);
+            this.max.accumulateAndGet(nanos, Math::max);
+
+            final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKETS.length && millis >= BUCKETS[bucket]) {
+                bucket++;
+            }
+            this.buckets.incrementAndGet(bucket);
+        }
+
+        private double averageMillis() {
+
+            final long evaluations = this.count.get();
+            return (evaluations == 0) ? 0 : toMillis(this.total.get()) / evaluations;
+        }
+
+        /**
+         * Upper bound of the bucket the given fraction of the evaluations falls into
+         */
+        private String percentile(final double fraction) {
+
+            final long target = (long) Math.ceil(this.count.get() * fraction);
+            long seen = 0;
+            for (int i = 0; i < this.buckets.length(); i++) {
+                seen += this.buckets.get(i);
+                if (seen >= target) {
+                    return bucketLabel(i);
+                }
+            }
+            return bucketLabel(BUCKETS.length);
+        }
+    }
+
+} // E:O:F:RulesEngineStats.
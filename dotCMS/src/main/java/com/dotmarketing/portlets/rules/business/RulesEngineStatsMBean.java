@@ -0,0 +1,37 @@
+package com.dotmarketing.portlets.rules.business;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link RulesEngineStats}
+ */
+public interface RulesEngineStatsMBean extends DotMBean {
+
+    /**
+     * Rules evaluated since the stats were reset
+     * @return long
+     */
+    long getEvaluations();
+
+    /**
+     * Summary of the timings of each rule evaluated, by rule id: evaluations, average and max millis and the
+     * 50th, 90th and 99th percentile upper bounds
+     * @return Map
+     */
+    Map<String, String> getRuleTimings();
+
+    /**
+     * Gets the timings of a particular rule, including the count of evaluations in each bucket of the histogram
+     * @param ruleId {@link String}
+     * @return Map
+     */
+    Map<String, Object> getStats(String ruleId);
+
+    /**
+     * Forgets all the timings collected so far
+     */
+    void reset();
+
+} // E:O:F:RulesEngineStatsMBean.
@@ -8,7 +8,31 @@ public abstract class Conditionlet<T extends RuleComponentInstance> extends Rule
 
     public static final String COMPARISON_KEY = "comparison";
 
+    /**
+     * Cost of a condition that only reads the request.
+     */
+    public static final int REQUEST_COST = 1;
+
+    /**
+     * Cost of a condition that reads the visitor or the session data.
+     */
+    public static final int VISITOR_COST = 10;
+
+    /**
+     * Cost of a condition that looks up the location of the visitor in the GeoIP database.
+     */
+    public static final int GEOLOCATION_COST = 100;
+
     protected Conditionlet(String i18nKey, ParameterDefinition... parameterDefinitions) {
         super(i18nKey, parameterDefinitions);
     }
+
+    /**
+     * Relative cost of evaluating this conditionlet. The conditions of a rule that are and'ed together
+     * are evaluated cheapest first, so the expensive ones are skipped when a cheap one already fails.
+     * @return int
+     */
+    public int getEvaluationCost() {
+        return REQUEST_COST;
+    }
 }
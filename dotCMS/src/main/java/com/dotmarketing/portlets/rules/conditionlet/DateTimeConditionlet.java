@@ -78,6 +78,11 @@ public class DateTimeConditionlet extends Conditionlet<DateTimeConditionlet.Inst
         this.geoIp2Util = geoIp2Util;
     }
 
+    @Override
+    public int getEvaluationCost() {
+        return GEOLOCATION_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         LocalDateTime usersDateTime = lookupDateTime(request);
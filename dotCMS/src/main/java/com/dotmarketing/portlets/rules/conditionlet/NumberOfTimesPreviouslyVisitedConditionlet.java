@@ -35,6 +35,11 @@ public class NumberOfTimesPreviouslyVisitedConditionlet extends Conditionlet<Num
     }
 
 
+	@Override
+	public int getEvaluationCost() {
+		return VISITOR_COST;
+	}
+
 	@Override
 	public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
 		int siteVisits = NumberOfTimeVisitedCounter.getNumberSiteVisits( request );
@@ -33,6 +33,11 @@ public class PagesViewedConditionlet extends Conditionlet<PagesViewedConditionle
         super(PAGES_VIEWED_KEY, new ComparisonParameterDefinition(2, NUMERIC_COMPARISONS), NUMBER_PAGES_VIEWED);
     }
 
+	@Override
+	public int getEvaluationCost() {
+		return VISITOR_COST;
+	}
+
 	@Override
 	public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
 
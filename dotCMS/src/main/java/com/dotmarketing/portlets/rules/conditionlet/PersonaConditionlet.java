@@ -68,6 +68,11 @@ public class PersonaConditionlet extends Conditionlet<PersonaConditionlet.Instan
         this.visitorAPI = visitorAPI;
     }
     
+    @Override
+    public int getEvaluationCost() {
+        return VISITOR_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         boolean result;
@@ -2,8 +2,12 @@ package com.dotmarketing.portlets.rules.conditionlet;
 
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
+import com.dotcms.repackage.com.maxmind.geoip2.model.CityResponse;
 import com.dotcms.util.GeoIp2CityDbUtil;
 import com.dotcms.util.HttpRequestDataUtil;
+import com.dotcms.visitor.business.VisitorAPI;
+import com.dotcms.visitor.domain.Visitor;
+import com.dotmarketing.business.APILocator;
 import com.dotmarketing.portlets.rules.RuleComponentInstance;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotPresentException;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
@@ -18,6 +22,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Map;
+import java.util.Optional;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -48,6 +53,7 @@ public class UsersCountryConditionlet extends Conditionlet<UsersCountryCondition
     public static final String COUNTRY_KEY = "country";
 
     private final GeoIp2CityDbUtil geoIp2Util;
+    private final VisitorAPI visitorAPI;
 
     private static final DropdownInput countries = new DropdownInput()
         .allowAdditions()
@@ -291,15 +297,24 @@ public class UsersCountryConditionlet extends Conditionlet<UsersCountryCondition
 
 
     public UsersCountryConditionlet() {
-        this(GeoIp2CityDbUtil.getInstance());
+        this(GeoIp2CityDbUtil.getInstance(), APILocator.getVisitorAPI());
     }
 
     @VisibleForTesting
-    UsersCountryConditionlet(GeoIp2CityDbUtil geoIp2Util) {
+    UsersCountryConditionlet(GeoIp2CityDbUtil geoIp2Util, VisitorAPI visitorAPI) {
         super("api.system.ruleengine.conditionlet.VisitorCountry",
               new ComparisonParameterDefinition(2, IS, IS_NOT),
               country);
         this.geoIp2Util = geoIp2Util;
+        this.visitorAPI = visitorAPI;
+    }
+
+    /**
+     * Locating the IP address of the visitor reads the GeoIP2 database.
+     */
+    @Override
+    public int getEvaluationCost() {
+        return GEOLOCATION_COST;
     }
 
     /**
@@ -313,6 +328,17 @@ public class UsersCountryConditionlet extends Conditionlet<UsersCountryCondition
 
     private String lookupCountry(HttpServletRequest request) {
         String country = "unknown";
+
+        // the visitor keeps the location of its IP address for the rest of the visit
+        Optional<Visitor> visitor = visitorAPI.getVisitor(request, false);
+        if (visitor.isPresent()) {
+            CityResponse geoLocation = visitor.get().getGeoLocation();
+            if (geoLocation != null && geoLocation.getCountry().getIsoCode() != null) {
+                country = geoLocation.getCountry().getIsoCode();
+            }
+            return country;
+        }
+
         InetAddress address;
         try {
             address = HttpRequestDataUtil.getIpAddress(request);
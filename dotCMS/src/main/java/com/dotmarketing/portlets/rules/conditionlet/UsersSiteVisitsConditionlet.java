@@ -39,6 +39,11 @@ public class UsersSiteVisitsConditionlet extends Conditionlet<UsersSiteVisitsCon
     }
 
 
+	@Override
+	public int getEvaluationCost() {
+		return VISITOR_COST;
+	}
+
 	@Override
 	public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
 
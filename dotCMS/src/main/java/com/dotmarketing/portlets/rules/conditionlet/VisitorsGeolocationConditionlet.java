@@ -2,8 +2,12 @@ package com.dotmarketing.portlets.rules.conditionlet;
 
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
+import com.dotcms.repackage.com.maxmind.geoip2.model.CityResponse;
 import com.dotcms.util.GeoIp2CityDbUtil;
 import com.dotcms.util.HttpRequestDataUtil;
+import com.dotcms.visitor.business.VisitorAPI;
+import com.dotcms.visitor.domain.Visitor;
+import com.dotmarketing.business.APILocator;
 import com.dotmarketing.portlets.rules.RuleComponentInstance;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotPresentException;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
@@ -24,6 +28,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.dotcms.repackage.com.google.common.base.Preconditions.checkState;
 import static com.dotmarketing.portlets.rules.parameter.comparison.Comparison.*;
@@ -67,6 +72,7 @@ public class VisitorsGeolocationConditionlet extends Conditionlet<VisitorsGeoloc
     public static final String LONGITUDE_KEY = "longitude";
 
     private final GeoIp2CityDbUtil geoIp2Util;
+    private final VisitorAPI visitorAPI;
 
     private static final ParameterDefinition<NumericType> distance = new ParameterDefinition<>(
         3, RADIUS_KEY, new NumericInput<>(new NumericType().required().minValue(10).maxValue(40000*1000).defaultValue(100*1000)));
@@ -88,17 +94,23 @@ public class VisitorsGeolocationConditionlet extends Conditionlet<VisitorsGeoloc
             6, LONGITUDE_KEY, new TextInput<>(new TextType().required().defaultValue("-77.0365")));
 
     public VisitorsGeolocationConditionlet() {
-        this(GeoIp2CityDbUtil.getInstance());
+        this(GeoIp2CityDbUtil.getInstance(), APILocator.getVisitorAPI());
     }
 
     @VisibleForTesting
-    VisitorsGeolocationConditionlet(GeoIp2CityDbUtil geoIp2Util) {
+    VisitorsGeolocationConditionlet(GeoIp2CityDbUtil geoIp2Util, VisitorAPI visitorAPI) {
         super("api.ruleengine.system.conditionlet.VisitorsLocation",
               new ComparisonParameterDefinition(2, WITHIN_DISTANCE, NOT_WITHIN_DISTANCE),
                 distance, unitOfDistance, latitude, longitude);
         this.geoIp2Util = geoIp2Util;
+        this.visitorAPI = visitorAPI;
     }
     
+    @Override
+    public int getEvaluationCost() {
+        return GEOLOCATION_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         Location visitorsLocation = lookupLocation(request);
@@ -108,6 +120,17 @@ public class VisitorsGeolocationConditionlet extends Conditionlet<VisitorsGeoloc
     }
 
     private Location lookupLocation(HttpServletRequest request) {
+
+        // the visitor keeps the location of its IP address for the rest of the visit
+        Optional<Visitor> visitor = visitorAPI.getVisitor(request, false);
+        if (visitor.isPresent()) {
+            CityResponse geoLocation = visitor.get().getGeoLocation();
+            if (geoLocation == null) {
+                throw new RuleEvaluationFailedException("Unable to get Location from IP. ");
+            }
+            return new Location(geoLocation.getLocation().getLatitude(), geoLocation.getLocation().getLongitude());
+        }
+
         try {
             InetAddress address = HttpRequestDataUtil.getIpAddress(request);
             String ipAddress = address.getHostAddress();
@@ -70,6 +70,7 @@ public class Rule implements Permissionable, Serializable {
     private List<ConditionGroup> groups;
     private List<RuleAction> ruleActions;
     private Permissionable parentPermissionable;
+    private transient volatile RuleEvaluationPlan evaluationPlan;
 
     public Rule(){
 
@@ -188,6 +189,7 @@ public class Rule implements Permissionable, Serializable {
 
     public void setGroups(List<ConditionGroup> groups) {
         this.groups = groups;
+        this.evaluationPlan = null;
     }
 
     public List<RuleAction> getRuleActions() {
@@ -200,6 +202,11 @@ public class Rule implements Permissionable, Serializable {
         }
         return ruleActions;
     }
+
+    public void setRuleActions(List<RuleAction> ruleActions) {
+        this.ruleActions = ruleActions;
+        this.evaluationPlan = null;
+    }
     // Beginning Permissionable methods
     public String getPermissionId() {
         return this.getId();
@@ -260,6 +267,30 @@ public class Rule implements Permissionable, Serializable {
         }
     }
 
+    /**
+     * Returns the {@link RuleEvaluationPlan} of this rule, validating the rule and building the
+     * plan the first time it is called on this instance. Rules are kept in the cache once loaded,
+     * so they are validated once instead of on every request firing them.
+     *
+     * @return the evaluation plan
+     * @throws RuleEngineException if the rule is not valid
+     */
+    @JsonIgnore
+    public RuleEvaluationPlan getEvaluationPlan() {
+        RuleEvaluationPlan plan = evaluationPlan;
+        if(plan == null) {
+            synchronized (this) {
+                plan = evaluationPlan;
+                if(plan == null) {
+                    checkValid();
+                    plan = new RuleEvaluationPlan(this);
+                    evaluationPlan = plan;
+                }
+            }
+        }
+        return plan;
+    }
+
 	/**
 	 * Evaluates the set of conditions that make up this rule based on the
 	 * issued HTTP request. If the final result of such an evaluation is true,
@@ -274,8 +305,9 @@ public class Rule implements Permissionable, Serializable {
 	 *         <code>true</code>. Otherwise, returns <code>false</code>.
 	 */
     public boolean evaluate(HttpServletRequest req, HttpServletResponse res) {
-        if(this.evaluateConditions(req, res, getGroups())) {
-            this.evaluateActions(req, res, getRuleActions());
+        RuleEvaluationPlan plan = getEvaluationPlan();
+        if(plan.evaluateConditions(req, res)) {
+            this.evaluateActions(req, res, plan.getActions());
             return true;
         }
         return false;
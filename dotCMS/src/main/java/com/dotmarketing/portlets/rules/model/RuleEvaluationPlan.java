@@ -0,0 +1,135 @@
+package com.dotmarketing.portlets.rules.model;
+
+import com.dotmarketing.portlets.rules.util.LogicalCondition;
+import com.dotmarketing.portlets.rules.util.LogicalStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Immutable form of a {@link Rule} ready to be evaluated. It is built once per cached rule by
+ * {@link Rule#getEvaluationPlan()}, after the rule was validated, so the requests firing the rule
+ * do not validate it again nor go back to its groups and conditions.
+ * <p>
+ * The conditions (and groups) and'ed together are evaluated cheapest first, according to
+ * {@link com.dotmarketing.portlets.rules.conditionlet.Conditionlet#getEvaluationCost()}. As 'and'
+ * takes precedence over 'or', reordering them inside a run of 'and' terms does not change the
+ * result of the rule, and the expensive conditions are skipped as soon as a cheap one fails.
+ */
+public final class RuleEvaluationPlan {
+
+    private final List<Step<GroupPlan>> groups;
+    private final List<RuleAction> actions;
+
+    RuleEvaluationPlan(Rule rule) {
+        List<GroupPlan> groupPlans = new ArrayList<>();
+        for (ConditionGroup group : rule.getGroups()) {
+            groupPlans.add(new GroupPlan(group));
+        }
+        this.groups = cheapestFirst(groupPlans, plan -> plan.operator, plan -> plan.cost);
+
+        List<RuleAction> ruleActions = rule.getRuleActions();
+        this.actions = ruleActions == null ? Collections.emptyList()
+                                           : Collections.unmodifiableList(new ArrayList<>(ruleActions));
+    }
+
+    /**
+     * Evaluates the conditions of the rule, in the same way {@link Rule#evaluateConditions} does.
+     */
+    public boolean evaluateConditions(HttpServletRequest req, HttpServletResponse res) {
+        LogicalStatement statement = new LogicalStatement();
+        for (Step<GroupPlan> step : groups) {
+            GroupPlan group = step.term;
+            add(statement, step.operator, () -> group.evaluate(req, res));
+        }
+        return statement.evaluate();
+    }
+
+    public List<RuleAction> getActions() {
+        return actions;
+    }
+
+    private static void add(LogicalStatement statement, LogicalOperator operator, LogicalCondition condition) {
+        if(operator == LogicalOperator.AND) {
+            statement.and(condition);
+        } else {
+            statement.or(condition);
+        }
+    }
+
+    /**
+     * Sorts the terms by cost inside each run of terms and'ed together, keeping the original order
+     * for the terms with the same cost. The operator of a term joins it with the previous one, the
+     * first term of each run keeps the operator the run had.
+     */
+    static <T> List<Step<T>> cheapestFirst(List<T> terms, Function<T, LogicalOperator> operator, ToIntFunction<T> cost) {
+        List<Step<T>> steps = new ArrayList<>(terms.size());
+        List<Step<T>> run = new ArrayList<>();
+        LogicalOperator runOperator = null;
+        for (T term : terms) {
+            LogicalOperator op = operator.apply(term);
+            if(!run.isEmpty() && op != LogicalOperator.AND) {
+                addRun(steps, run, runOperator);
+                run.clear();
+            }
+            if(run.isEmpty()) {
+                runOperator = op;
+            }
+            run.add(new Step<>(term, op, cost.applyAsInt(term)));
+        }
+        addRun(steps, run, runOperator);
+        return Collections.unmodifiableList(steps);
+    }
+
+    private static <T> void addRun(List<Step<T>> steps, List<Step<T>> run, LogicalOperator runOperator) {
+        run.sort((a, b) -> Integer.compare(a.cost, b.cost));
+        for (int i = 0; i < run.size(); i++) {
+            Step<T> step = run.get(i);
+            steps.add(new Step<>(step.term, i == 0 ? runOperator : LogicalOperator.AND, step.cost));
+        }
+    }
+
+    static final class Step<T> {
+
+        final T term;
+        final LogicalOperator operator;
+        final int cost;
+
+        Step(T term, LogicalOperator operator, int cost) {
+            this.term = term;
+            this.operator = operator;
+            this.cost = cost;
+        }
+    }
+
+    private static final class GroupPlan {
+
+        private final LogicalOperator operator;
+        private final List<Step<Condition>> conditions;
+        private final int cost;
+
+        private GroupPlan(ConditionGroup group) {
+            this.operator = group.getOperator();
+            this.conditions = cheapestFirst(group.getConditions(), Condition::getOperator,
+                                            condition -> condition.getConditionlet().getEvaluationCost());
+            int total = 0;
+            for (Step<Condition> step : conditions) {
+                total += step.cost;
+            }
+            this.cost = total;
+        }
+
+        private boolean evaluate(HttpServletRequest req, HttpServletResponse res) {
+            LogicalStatement statement = new LogicalStatement();
+            for (Step<Condition> step : conditions) {
+                Condition condition = step.term;
+                add(statement, step.operator, () -> condition.evaluate(req, res));
+            }
+            return statement.evaluate();
+        }
+    }
+}
@@ -1,19 +1,42 @@
 package com.dotmarketing.portlets.rules.parameter.comparison;
 
+import com.dotcms.repackage.com.google.common.cache.Cache;
+import com.dotcms.repackage.com.google.common.cache.CacheBuilder;
+import com.dotcms.repackage.org.apache.commons.net.util.SubnetUtils.SubnetInfo;
 import com.dotcms.util.HttpRequestDataUtil;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.UtilMethods;
 
 /**
  * @author Geoff M. Granum
  */
 public class NetmaskComparison extends Comparison<String> {
 
+    /**
+     * The netmasks of the rules are parsed once and kept here, keyed by the netmask.
+     */
+    private static final Cache<String, SubnetInfo> subnets = CacheBuilder.newBuilder()
+        .maximumSize(Config.getIntProperty("RULES_NETMASK_CACHE_SIZE", 1000))
+        .build();
+
     public NetmaskComparison() {
         super("netmask");
     }
 
     @Override
     public boolean perform(String ipAddress, String netmask) {
-        return HttpRequestDataUtil.isIpMatchingNetmask(ipAddress, netmask);
+        if(!UtilMethods.isSet(ipAddress) || !UtilMethods.isSet(netmask)) {
+            return false;
+        }
+        SubnetInfo info = subnets.getIfPresent(netmask);
+        if(info == null) {
+            info = HttpRequestDataUtil.getSubnetInfo(netmask);
+            if(info == null) {
+                return false;
+            }
+            subnets.put(netmask, info);
+        }
+        return info.isInRange(ipAddress);
     }
 }
  
@@ -1,5 +1,8 @@
 package com.dotmarketing.portlets.rules.parameter.comparison;
 
+import com.dotcms.repackage.com.google.common.cache.Cache;
+import com.dotcms.repackage.com.google.common.cache.CacheBuilder;
+import com.dotmarketing.util.Config;
 import java.util.regex.Pattern;
 
 /**
@@ -7,13 +10,25 @@ import java.util.regex.Pattern;
  */
 public class RegexComparison extends Comparison<String> {
 
+    /**
+     * The patterns of the rules are compiled once and kept here, keyed by the regex.
+     */
+    private static final Cache<String, Pattern> patterns = CacheBuilder.newBuilder()
+        .maximumSize(Config.getIntProperty("RULES_REGEX_CACHE_SIZE", 1000))
+        .build();
+
     public RegexComparison() {
         super("regex");
     }
 
     @Override
     public boolean perform(String argA, String argB) {
-        return Pattern.matches(argB, argA);
+        Pattern pattern = patterns.getIfPresent(argB);
+        if(pattern == null) {
+            pattern = Pattern.compile(argB);
+            patterns.put(argB, pattern);
+        }
+        return pattern.matcher(argA).matches();
     }
 }
  
@@ -3,7 +3,6 @@ package com.dotmarketing.portlets.rules.util;
 import com.dotcms.repackage.com.google.common.collect.Lists;
 import com.dotmarketing.portlets.rules.model.LogicalOperator;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * @author Geoff M. Granum
@@ -33,40 +32,29 @@ public class LogicalStatement implements LogicalCondition {
         terms.add(new Term(condition));
     }
 
+    /**
+     * As 'and' takes precedence over 'or', the terms and'ed together form a group and the statement is
+     * true as soon as one of its groups is. A false term skips the rest of its group, not the groups
+     * that follow the next 'or'.
+     */
     @Override
     public boolean evaluate() {
-        Stack<Term> stack = new Stack<>();
-        for (int i = terms.size() - 1; i >= 0; i--) {
-            Term term = terms.get(i);
-            stack.push(term);
+        if(terms.isEmpty()) {
+            return true;
         }
-
-        Boolean result = null;
-        while (!stack.empty()) {
-            Term left = stack.pop();
-            result = left.evaluate();
-            if(stack.empty() || left.op.isShortCircuitedBy(result)) {
-                break;
-            }
-            Term right = stack.pop();
-            if(right.op == null) {
-                result = left.op.evaluate(result, right.condition);
-                break;
+        boolean group = true;
+        for (Term term : terms) {
+            if(group) {
+                group = term.evaluate();
             }
-            if(right.op.precedence > left.op.precedence) {
-                Term c = stack.pop();
-                LogicalStatement s = new LogicalStatement();
-                s.and(right.condition).and(c.condition);
-                Term temp = new Term(s);
-                temp.op = c.op;
-                stack.push(temp);
-                stack.push(left);
-            } else {
-                result = left.op.evaluate(result, right.condition);
-                stack.push(new BooleanTerm(new BooleanCondition(result), right.op));
+            if(term.op != LogicalOperator.AND) {
+                if(group) {
+                    return true;
+                }
+                group = true;
             }
         }
-        return result == null ? true : result;
+        return false;
     }
 
     private static class Term {
@@ -100,13 +88,5 @@ public class LogicalStatement implements LogicalCondition {
             return value;
         }
     }
-
-    private static class BooleanTerm extends Term {
-
-        public BooleanTerm(LogicalCondition condition, LogicalOperator op) {
-            super(condition);
-            super.op = op;
-        }
-    }
 }
  
@@ -29,6 +29,14 @@ public interface WorkFlowFactory {
 
 	public WorkflowTask findTaskByContentlet(Contentlet contentlet) throws DotDataException;
 
+	/**
+	 * Finds the workflow tasks of the given contentlets, loading the ones that are not cached yet with a single query.
+	 * @param contentlets List of contentlets
+	 * @return Map of contentlet identifier to task, contentlets without a task are not included
+	 * @throws DotDataException
+	 */
+	public Map<String, WorkflowTask> findTasksByContentlets(List<Contentlet> contentlets) throws DotDataException;
+
 	public WorkflowTask findWorkFlowTaskById(String id) throws DotDataException;
 
 	public List<WorkflowTask> searchTasks(WorkflowSearcher searcher) throws DotDataException;
@@ -49,6 +57,15 @@ public interface WorkFlowFactory {
 
 	public WorkflowStep findStepByContentlet(Contentlet contentlet) throws DotDataException;
 
+	/**
+	 * Finds the current workflow step of the given contentlets, loading the ones that are not cached yet with a
+	 * single query. Contentlets without a task are on the first step of the scheme of their structure.
+	 * @param contentlets List of contentlets
+	 * @return Map of contentlet identifier to step
+	 * @throws DotDataException
+	 */
+	public Map<String, WorkflowStep> findStepsByContentlets(List<Contentlet> contentlets) throws DotDataException;
+
 	public void saveComment(WorkflowComment comment) throws DotDataException;
 
 	public void saveWorkflowHistory(WorkflowHistory history) throws DotDataException;
@@ -38,6 +38,26 @@ public interface WorkflowAPI {
 
 	public WorkflowStep findStepByContentlet(Contentlet contentlet) throws DotDataException;
 
+	/**
+	 * Finds the workflow tasks of a list of contentlets with a single query for the ones
+	 * that are not cached yet. Meant for indexing and listings.
+	 *
+	 * @param contentlets
+	 * @return Map of contentlet identifier to task, contentlets without a task are not included
+	 * @throws DotDataException
+	 */
+	public Map<String, WorkflowTask> findTasksByContentlets(List<Contentlet> contentlets) throws DotDataException;
+
+	/**
+	 * Finds the current workflow step of a list of contentlets with a single query for the
+	 * ones that are not cached yet. Meant for indexing and listings.
+	 *
+	 * @param contentlets
+	 * @return Map of contentlet identifier to step
+	 * @throws DotDataException
+	 */
+	public Map<String, WorkflowStep> findStepsByContentlets(List<Contentlet> contentlets) throws DotDataException;
+
 	/**
 	 * Finds a workflow by id
 	 *
@@ -173,6 +193,19 @@ public interface WorkflowAPI {
 	public List<WorkflowAction> findAvailableActions(Contentlet contentlet, User user) throws DotDataException,
 	DotSecurityException ;
 
+	/**
+	 * Same as {@link #findAvailableActions(Contentlet, User)} for a list of contentlets, the steps
+	 * are resolved with a single query and the actions of each step are filtered by permissions once.
+	 *
+	 * @param contentlets
+	 * @param user
+	 * @return Map of contentlet inode to the actions available on it
+	 * @throws DotDataException
+	 * @throws DotSecurityException
+	 */
+	public Map<String, List<WorkflowAction>> findAvailableActions(List<Contentlet> contentlets, User user) throws DotDataException,
+	DotSecurityException ;
+
 	public List<WorkflowAction> findActions(WorkflowStep step, User user) throws DotDataException,
 			DotSecurityException;
 
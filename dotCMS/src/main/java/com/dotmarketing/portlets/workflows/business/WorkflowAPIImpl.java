@@ -3,6 +3,7 @@ package com.dotmarketing.portlets.workflows.business;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -159,6 +160,14 @@ public class WorkflowAPIImpl implements WorkflowAPI, WorkflowAPIOsgiService {
 		return wfac.findStepByContentlet(contentlet);
 	}
 
+	public Map<String, WorkflowTask> findTasksByContentlets(List<Contentlet> contentlets) throws DotDataException {
+		return wfac.findTasksByContentlets(contentlets);
+	}
+
+	public Map<String, WorkflowStep> findStepsByContentlets(List<Contentlet> contentlets) throws DotDataException {
+		return wfac.findStepsByContentlets(contentlets);
+	}
+
 	public WorkflowTask findTaskById(String id) throws DotDataException {
 		return wfac.findWorkFlowTaskById(id);
 	}
@@ -443,10 +452,55 @@ public class WorkflowAPIImpl implements WorkflowAPI, WorkflowAPIOsgiService {
 		if(contentlet == null || contentlet.getStructure() ==null){
 			throw new DotStateException("content is null");
 		}
-		List<WorkflowAction> actions= new ArrayList<WorkflowAction>();
 		if("Host".equals(contentlet.getStructure().getVelocityVarName())){
-			return actions;
+			return new ArrayList<WorkflowAction>();
+		}
+
+		WorkflowStep step= findStepByContentlet(contentlet);
+
+		return filterAvailableActions(contentlet, user, findActions(step, user));
+	}
+
+	public Map<String, List<WorkflowAction>> findAvailableActions(List<Contentlet> contentlets, User user) throws DotDataException,
+	DotSecurityException {
+		final Map<String, List<WorkflowAction>> availableActions = new LinkedHashMap<String, List<WorkflowAction>>();
+		final List<Contentlet> withWorkflow = new ArrayList<Contentlet>();
+		for(Contentlet contentlet : contentlets){
+			if(contentlet == null || contentlet.getStructure() ==null){
+				throw new DotStateException("content is null");
+			}
+			if("Host".equals(contentlet.getStructure().getVelocityVarName())){
+				availableActions.put(contentlet.getInode(), new ArrayList<WorkflowAction>());
+			}
+			else{
+				withWorkflow.add(contentlet);
+			}
 		}
+
+		final Map<String, WorkflowStep> steps = findStepsByContentlets(withWorkflow);
+		// the permissions on the actions of a step are the same for all the contentlets on it
+		final Map<String, List<WorkflowAction>> actionsByStep = new HashMap<String, List<WorkflowAction>>();
+		for(Contentlet contentlet : withWorkflow){
+			WorkflowStep step = steps.get(contentlet.getIdentifier());
+			if(step == null){
+				step = findStepByContentlet(contentlet);
+			}
+			List<WorkflowAction> unfilteredActions = actionsByStep.get(step.getId());
+			if(unfilteredActions == null){
+				unfilteredActions = findActions(step, user);
+				actionsByStep.put(step.getId(), unfilteredActions);
+			}
+			availableActions.put(contentlet.getInode(), filterAvailableActions(contentlet, user, unfilteredActions));
+		}
+
+		return availableActions;
+	}
+
+	/**
+	 * Filters the actions of the step the contentlet is in based on how and who has the content locked
+	 */
+	private List<WorkflowAction> filterAvailableActions(Contentlet contentlet, User user, List<WorkflowAction> unfilteredActions) {
+		List<WorkflowAction> actions= new ArrayList<WorkflowAction>();
 		boolean isNew  = !UtilMethods.isSet(contentlet.getInode());
 		//boolean isLocked = contentlet.isLocked();
 		boolean canLock = false;
@@ -461,14 +515,8 @@ public class WorkflowAPIImpl implements WorkflowAPI, WorkflowAPIOsgiService {
 
 		boolean hasLock = user.getUserId().equals(lockedUserId);
 
-
-
-		WorkflowStep step= findStepByContentlet(contentlet);
-
-
-		List<WorkflowAction> unfilteredActions = findActions(step, user);
 		if(hasLock || isNew){
-			return unfilteredActions;
+			return new ArrayList<WorkflowAction>(unfilteredActions);
 		}
 		else if(canLock){
 			for(WorkflowAction a : unfilteredActions){
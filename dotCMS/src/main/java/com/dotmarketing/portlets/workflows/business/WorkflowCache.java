@@ -18,6 +18,7 @@ public abstract class WorkflowCache implements Cachable{
 	protected static String TASK_GROUP = "WorkflowTaskCache";
 	protected static String STEP_GROUP = "WorkflowStepCache";
 	protected static String ACTION_GROUP = "WorkflowActionCache";
+	protected static String SCHEME_GRAPH_GROUP = "WorkflowSchemeGraphCache";
 	abstract protected WorkflowScheme add(WorkflowScheme scheme);
 
 	public abstract WorkflowScheme getScheme(String key);
@@ -31,6 +32,9 @@ public abstract class WorkflowCache implements Cachable{
 	abstract protected WorkflowStep add(WorkflowStep step);
 	abstract protected List<WorkflowAction> addActions(WorkflowStep step, List<WorkflowAction> actions);
 	abstract protected List<WorkflowAction> getActions(WorkflowStep step);
+	abstract protected WorkflowSchemeGraph getSchemeGraph(String schemeId);
+	abstract protected WorkflowSchemeGraph addSchemeGraph(WorkflowSchemeGraph graph);
+	abstract protected void removeSchemeGraph(String schemeId);
 	
 	abstract public void clearCache();
 	abstract protected void remove(Contentlet contentlet);
@@ -47,6 +51,10 @@ public abstract class WorkflowCache implements Cachable{
 	protected void flushTasks(){
 		CacheLocator.getCacheAdministrator().flushGroup(TASK_GROUP);
 	}
+	protected void flushActions(){
+		CacheLocator.getCacheAdministrator().flushGroup(ACTION_GROUP);
+		CacheLocator.getCacheAdministrator().flushGroup(SCHEME_GRAPH_GROUP);
+	}
 	abstract protected void clearStepsCache() ;
 	public abstract WorkflowScheme getDefaultScheme();
 	abstract protected WorkflowScheme addDefaultScheme(WorkflowScheme scheme);
@@ -56,7 +64,7 @@ public abstract class WorkflowCache implements Cachable{
 	}
 
 	public String[] getGroups() {
-		return new String[]{PRIMARY_GROUP, TASK_GROUP, STEP_GROUP};
+		return new String[]{PRIMARY_GROUP, TASK_GROUP, STEP_GROUP, ACTION_GROUP, SCHEME_GRAPH_GROUP};
 	}
 
 	abstract protected void add404Task(Contentlet contentlet) ;
@@ -83,17 +83,21 @@ public class WorkflowCacheImpl extends WorkflowCache {
 	public void remove(WorkflowScheme scheme) {
 		if (scheme != null && UtilMethods.isSet(scheme)) {
 			cache.remove(scheme.getId(), getPrimaryGroup());
+			removeSchemeGraph(scheme.getId());
 		}
 	}
 
 	public void remove(WorkflowStep step) {
 		cache.remove(step.getId(), STEP_GROUP);
 		cache.remove(step.getId(), ACTION_GROUP);
+		removeSchemeGraph(step.getSchemeId());
 	}
 	
 	protected void removeActions(WorkflowStep step) {
-		if(step != null)
+		if(step != null){
 			cache.remove(step.getId(), ACTION_GROUP);
+			removeSchemeGraph(step.getSchemeId());
+		}
 	}
 	
 	protected void remove(WorkflowTask task) {
@@ -244,6 +248,31 @@ public class WorkflowCacheImpl extends WorkflowCache {
 		
 	}
 
+	@Override
+	protected WorkflowSchemeGraph getSchemeGraph(String schemeId) {
+		if(!UtilMethods.isSet(schemeId)) return null;
+		try {
+			return (WorkflowSchemeGraph) cache.get(schemeId, SCHEME_GRAPH_GROUP);
+		} catch (DotCacheException e) {
+			Logger.debug(WorkflowCacheImpl.class,e.getMessage(),e);
+		}
+		return null;
+	}
+
+	@Override
+	protected WorkflowSchemeGraph addSchemeGraph(WorkflowSchemeGraph graph) {
+		if(graph == null || !UtilMethods.isSet(graph.getSchemeId())) return null;
+		cache.put(graph.getSchemeId(), graph, SCHEME_GRAPH_GROUP);
+		return graph;
+	}
+
+	@Override
+	protected void removeSchemeGraph(String schemeId) {
+		if(UtilMethods.isSet(schemeId)){
+			cache.remove(schemeId, SCHEME_GRAPH_GROUP);
+		}
+	}
+
 	@Override
 	protected List<WorkflowAction> getActions(WorkflowStep step) {
 		if(step == null ) return null;
@@ -3,6 +3,7 @@ package com.dotmarketing.portlets.workflows.business;
 import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -41,6 +42,11 @@ import com.liferay.portal.model.User;
 
 public class WorkflowFactoryImpl implements WorkFlowFactory {
 
+	/**
+	 * Max number of contentlets looked up by a single batch query, keeps the in clause under the Oracle limit
+	 */
+	private static final int BATCH_QUERY_SIZE = 500;
+
 	private static WorkflowCache cache = null;
 	private static WorkflowSQL sql = null;
 
@@ -371,6 +377,13 @@ public class WorkflowFactoryImpl implements WorkFlowFactory {
 
 	public List<WorkflowAction> findActions(WorkflowStep step) throws DotDataException {
 
+		if(UtilMethods.isSet(step.getSchemeId())){
+			final List<WorkflowAction> actions = this.findSchemeGraph(step.getSchemeId()).getActions(step.getId());
+			if(actions != null){
+				return new ArrayList<WorkflowAction>(actions);
+			}
+		}
+
 		List<WorkflowAction> actions = cache.getActions(step);
 		if(actions ==null){
 			final DotConnect db = new DotConnect();
@@ -521,12 +534,85 @@ public class WorkflowFactoryImpl implements WorkFlowFactory {
 		return step;
 	}
 
+	public Map<String, WorkflowStep> findStepsByContentlets(List<Contentlet> contentlets) throws DotDataException {
+
+		final Map<String, WorkflowStep> steps = new HashMap<String, WorkflowStep>();
+		final Map<String, Contentlet> toLoad = new LinkedHashMap<String, Contentlet>();
+
+		for (final Contentlet contentlet : contentlets) {
+			if (contentlet == null || !UtilMethods.isSet(contentlet.getIdentifier())
+					|| steps.containsKey(contentlet.getIdentifier()) || toLoad.containsKey(contentlet.getIdentifier())) {
+				continue;
+			}
+			final WorkflowStep step = cache.getStep(contentlet);
+			final WorkflowScheme scheme = this.findSchemeForStruct(contentlet.getStructureInode());
+			if (step != null && step.getSchemeId().equals(scheme.getId())) {
+				steps.put(contentlet.getIdentifier(), step);
+			} else {
+				toLoad.put(contentlet.getIdentifier(), contentlet);
+			}
+		}
+
+		final List<String> identifiers = new ArrayList<String>(toLoad.keySet());
+		for (int i = 0; i < identifiers.size(); i += BATCH_QUERY_SIZE) {
+			final List<String> batch = identifiers.subList(i, Math.min(i + BATCH_QUERY_SIZE, identifiers.size()));
+			final DotConnect db = new DotConnect();
+			db.setSQL(sql.SELECT_STEPS_BY_CONTENTLETS + this.inClause(batch.size()));
+			for (final String identifier : batch) {
+				db.addParam(identifier);
+			}
+
+			for (final Map<String, Object> row : db.loadObjectResults()) {
+				final String identifier = (String) row.get("contentlet_identifier");
+				final WorkflowStep step = (WorkflowStep) this.convertListToObjects(Collections.singletonList(row), WorkflowStep.class).get(0);
+				final Contentlet contentlet = toLoad.get(identifier);
+				if (contentlet != null && step.getSchemeId().equals(this.findSchemeForStruct(contentlet.getStructureInode()).getId())) {
+					cache.addStep(contentlet, step);
+					steps.put(identifier, step);
+					toLoad.remove(identifier);
+				}
+			}
+		}
+
+		// what is left has no task yet, or a task on a step of another scheme that has to be moved
+		for (final Contentlet contentlet : toLoad.values()) {
+			steps.put(contentlet.getIdentifier(), this.findStepByContentlet(contentlet));
+		}
+
+		return steps;
+	}
+
 	public List<WorkflowStep> findSteps(WorkflowScheme scheme) throws DotDataException {
-		final DotConnect db = new DotConnect();
-		db.setSQL(sql.SELECT_STEPS_BY_SCHEME);
-		db.addParam(scheme.getId());
-		return this.convertListToObjects(db.loadObjectResults(), WorkflowStep.class);
+		return new ArrayList<WorkflowStep>(this.findSchemeGraph(scheme.getId()).getSteps());
+	}
 
+	/**
+	 * Returns the steps and actions of the scheme, loading them with a query per table if they are not cached
+	 */
+	private WorkflowSchemeGraph findSchemeGraph(String schemeId) throws DotDataException {
+		WorkflowSchemeGraph graph = cache.getSchemeGraph(schemeId);
+		if (graph == null) {
+			DotConnect db = new DotConnect();
+			db.setSQL(sql.SELECT_STEPS_BY_SCHEME);
+			db.addParam(schemeId);
+			final List<WorkflowStep> steps = this.convertListToObjects(db.loadObjectResults(), WorkflowStep.class);
+
+			db = new DotConnect();
+			db.setSQL(sql.SELECT_ACTIONS_BY_SCHEME);
+			db.addParam(schemeId);
+			final List<WorkflowAction> actions = this.convertListToObjects(db.loadObjectResults(), WorkflowAction.class);
+
+			graph = cache.addSchemeGraph(new WorkflowSchemeGraph(schemeId, steps, actions));
+		}
+		return graph;
+	}
+
+	private String inClause(int size) {
+		final StringBuilder in = new StringBuilder("(");
+		for (int i = 0; i < size; i++) {
+			in.append(i == 0 ? "?" : ",?");
+		}
+		return in.append(")").toString();
 	}
 
 	public WorkflowTask findTaskByContentlet(Contentlet contentlet) throws DotDataException {
@@ -549,6 +635,66 @@ public class WorkflowFactoryImpl implements WorkFlowFactory {
 		return task;
 	}
 
+	public Map<String, WorkflowTask> findTasksByContentlets(List<Contentlet> contentlets) throws DotDataException {
+
+		final Map<String, WorkflowTask> tasks = new HashMap<String, WorkflowTask>();
+		final Map<String, Contentlet> toLoad = new LinkedHashMap<String, Contentlet>();
+
+		for (final Contentlet contentlet : contentlets) {
+			if (contentlet == null || !UtilMethods.isSet(contentlet.getIdentifier())
+					|| tasks.containsKey(contentlet.getIdentifier()) || cache.is404(contentlet)) {
+				continue;
+			}
+			final WorkflowTask task = cache.getTask(contentlet);
+			if (task != null) {
+				tasks.put(contentlet.getIdentifier(), task);
+			} else {
+				toLoad.put(contentlet.getIdentifier(), contentlet);
+			}
+		}
+
+		final List<String> identifiers = new ArrayList<String>(toLoad.keySet());
+		for (int i = 0; i < identifiers.size(); i += BATCH_QUERY_SIZE) {
+			final List<String> batch = identifiers.subList(i, Math.min(i + BATCH_QUERY_SIZE, identifiers.size()));
+			final DotConnect db = new DotConnect();
+			db.setSQL(sql.SELECT_TASKS_BY_CONTENTLETS + this.inClause(batch.size()));
+			for (final String identifier : batch) {
+				db.addParam(identifier);
+			}
+
+			for (final Map<String, Object> row : db.loadObjectResults()) {
+				final WorkflowTask task = this.convertTask(row);
+				final Contentlet contentlet = toLoad.remove(task.getWebasset());
+				if (contentlet != null) {
+					cache.addTask(contentlet, task);
+					tasks.put(task.getWebasset(), task);
+				}
+			}
+		}
+
+		for (final Contentlet contentlet : toLoad.values()) {
+			cache.add404Task(contentlet);
+		}
+
+		return tasks;
+	}
+
+	private WorkflowTask convertTask(Map<String, Object> row) {
+		final WorkflowTask task = new WorkflowTask();
+		task.setId((String) row.get("id"));
+		task.setCreationDate((Date) row.get("creation_date"));
+		task.setModDate((Date) row.get("mod_date"));
+		task.setDueDate((Date) row.get("due_date"));
+		task.setCreatedBy((String) row.get("created_by"));
+		task.setAssignedTo((String) row.get("assigned_to"));
+		task.setBelongsTo((String) row.get("belongs_to"));
+		task.setTitle((String) row.get("title"));
+		task.setDescription((String) row.get("description"));
+		task.setStatus((String) row.get("status"));
+		task.setWebasset((String) row.get("webasset"));
+		return task;
+	}
+
 	public WorkflowComment findWorkFlowCommentById(String id) throws DotDataException {
 		final HibernateUtil hu = new HibernateUtil(WorkflowComment.class);
 		hu.setQuery("from workflow_comment in class com.dotmarketing.portlets.workflows.model.WorkflowComment where id = ?");
@@ -1295,6 +1441,7 @@ public class WorkflowFactoryImpl implements WorkFlowFactory {
 			dc.addParam(replacementUserRoleId);
 			dc.addParam(userRoleId);
 			dc.loadResult();
+			cache.flushActions();
 
 			for(HashMap<String, String> val : tasks){
 				String id = val.get("id");
@@ -51,6 +51,7 @@ abstract class WorkflowSQL {
 
 	protected static String SELECT_STEPS_BY_SCHEME= "select * from workflow_step where scheme_id = ? order by  my_order";
 	protected static String SELECT_ACTIONS_BY_STEP= "select * from workflow_action where step_id = ? order by  my_order";
+	protected static String SELECT_ACTIONS_BY_SCHEME= "select workflow_action.* from workflow_action join workflow_step on workflow_action.step_id = workflow_step.id where workflow_step.scheme_id = ? order by workflow_action.my_order";
 	protected static String SELECT_ACTION= "select * from workflow_action where id = ? ";
 	protected static String INSERT_ACTION= "insert into workflow_action (id, step_id, name, condition_to_progress, next_step_id, next_assign, my_order, assignable, commentable, icon, use_role_hierarchy_assign, requires_checkout) values (?, ?, ?, ?, ?, ?, ?,?, ?, ?,?,?)";
 	protected static String UPDATE_ACTION= "update  workflow_action set step_id=?, name=?,  condition_to_progress=?, next_step_id=?, next_assign=?, my_order=?, assignable=?, commentable=?, icon=?, use_role_hierarchy_assign=?,requires_checkout=? where id=?";
@@ -61,6 +62,8 @@ abstract class WorkflowSQL {
 	protected static String UPDATE_STEP= "update workflow_step set name=?, scheme_id=?, my_order=?, resolved = ?, escalation_enable = ?, escalation_action=?, escalation_time = ? where id = ?";
 	protected static String DELETE_STEP= "delete from workflow_step where id = ?";
 	protected static String SELECT_STEP_BY_CONTENTLET= "select workflow_step.* from workflow_step join workflow_task on workflow_task.status = workflow_step.id where workflow_task.webasset= ?";
+	protected static String SELECT_STEPS_BY_CONTENTLETS= "select workflow_task.webasset as contentlet_identifier, workflow_step.* from workflow_step join workflow_task on workflow_task.status = workflow_step.id where workflow_task.webasset in ";
+	protected static String SELECT_TASKS_BY_CONTENTLETS= "select * from workflow_task where webasset in ";
 	protected static String RESET_CONTENTLET_STEPS= "update workflow_task set status = ? where webasset= ?";
 	protected static String SELECT_COUNT_CONTENTLES_BY_STEP= "select count(workflow_task.id) as count from workflow_task join workflow_step on workflow_task.status=workflow_step.id where workflow_step.id=?";
 
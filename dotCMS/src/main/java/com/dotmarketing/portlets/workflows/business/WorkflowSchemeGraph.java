@@ -0,0 +1,75 @@
+package com.dotmarketing.portlets.workflows.business;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dotmarketing.portlets.workflows.model.WorkflowAction;
+import com.dotmarketing.portlets.workflows.model.WorkflowStep;
+
+/**
+ * The steps of a workflow scheme and the actions of each one of them, loaded with a
+ * single query per table. It is kept by the {@link WorkflowCache} per scheme and
+ * discarded as soon as the scheme, any of its steps or actions change, so the step and
+ * action lookups done while listing or indexing content never hit the database once the
+ * scheme has been loaded.
+ *
+ * The lists of the graph can't be changed, but the steps and actions in them are the
+ * cached instances, like the ones of the other workflow cache entries: callers get them
+ * in lists of their own and must not change them.
+ */
+final class WorkflowSchemeGraph implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String schemeId;
+	private final List<WorkflowStep> steps;
+	private final Map<String, List<WorkflowAction>> actionsByStep;
+
+	WorkflowSchemeGraph(final String schemeId, final List<WorkflowStep> steps, final List<WorkflowAction> actions) {
+
+		final Map<String, List<WorkflowAction>> actionsByStep = new HashMap<String, List<WorkflowAction>>();
+
+		for (final WorkflowStep step : steps) {
+			actionsByStep.put(step.getId(), new ArrayList<WorkflowAction>());
+		}
+
+		// actions come sorted by order, so each step keeps them sorted
+		for (final WorkflowAction action : actions) {
+			final List<WorkflowAction> stepActions = actionsByStep.get(action.getStepId());
+			if (stepActions != null) {
+				stepActions.add(action);
+			}
+		}
+
+		for (final Map.Entry<String, List<WorkflowAction>> entry : actionsByStep.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+
+		this.schemeId = schemeId;
+		this.steps = Collections.unmodifiableList(new ArrayList<WorkflowStep>(steps));
+		this.actionsByStep = Collections.unmodifiableMap(actionsByStep);
+	}
+
+	String getSchemeId() {
+		return schemeId;
+	}
+
+	/**
+	 * Steps of the scheme, sorted by order
+	 */
+	List<WorkflowStep> getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Actions of the given step sorted by order, or null if the step does not belong to the scheme
+	 */
+	List<WorkflowAction> getActions(final String stepId) {
+		return actionsByStep.get(stepId);
+	}
+
+}
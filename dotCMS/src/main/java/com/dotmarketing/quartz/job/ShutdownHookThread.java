@@ -1,5 +1,6 @@
 package com.dotmarketing.quartz.job;
 
+import com.dotmarketing.business.CacheWarmer;
 import com.dotmarketing.common.reindex.ReindexThread;
 import com.dotmarketing.util.Logger;
 
@@ -15,6 +16,7 @@ public class ShutdownHookThread extends Thread {
         } catch (Exception e) {
             Logger.error(this, "A error ocurred trying to close the lucene writer, maybe be the lucene index would be corrupted at the next startup.");
         }
+        CacheWarmer.getInstance().shutdown();
 	}
 
 
@@ -6,6 +6,7 @@ import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.velocity.runtime.resource.ResourceManager;
@@ -15,6 +16,7 @@ import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.business.PageCacheDependencies;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.portlets.containers.model.Container;
 import com.dotmarketing.util.Config;
@@ -312,6 +314,10 @@ public class ContainerServices {
 
     public static void invalidate(Container container, Identifier identifier, boolean EDIT_MODE) {
     	removeContainerFile(container, identifier, EDIT_MODE);
+    	if (!EDIT_MODE) {
+    	    CacheLocator.getBlockPageCache().removeDependents(
+    	            Collections.singletonList(PageCacheDependencies.IDENTIFIER_PREFIX + identifier.getId()));
+    	}
     }
 
     public static void unpublishContainerFile(Container container) throws DotStateException, DotDataException {
@@ -328,11 +334,8 @@ public class ContainerServices {
 
     public static void removeContainerFile (Container container, Identifier identifier, boolean EDIT_MODE) {
         String folderPath = (!EDIT_MODE) ? "live" + java.io.File.separator: "working" + java.io.File.separator;
-        String velocityRootPath = VelocityUtil.getVelocityRootPath();
-        velocityRootPath += java.io.File.separator;
         String filePath = folderPath + identifier.getInode() + "." + Config.getStringProperty("VELOCITY_CONTAINER_EXTENSION");
-        java.io.File f  = new java.io.File(velocityRootPath + filePath);
-        f.delete();
+        VelocityUtil.removeVelocityFile(filePath);
         DotResourceCache vc = CacheLocator.getVeloctyResourceCache();
         vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
     }
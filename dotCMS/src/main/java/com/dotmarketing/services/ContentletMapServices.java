@@ -1,7 +1,6 @@
 package com.dotmarketing.services;
 
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -461,12 +460,8 @@ public class ContentletMapServices {
 	private static void removeContentletMapFile(Contentlet asset, Identifier identifier, boolean EDIT_MODE) {
 		String folderPath=(!EDIT_MODE) ? "live/" : "working/";
 
-		String velocityRootPath = VelocityUtil.getVelocityRootPath();
-		String velocityRoot = velocityRootPath + File.separator + folderPath;
-	
 		String filePath=  folderPath + identifier.getInode() + "_" + asset.getLanguageId() + "." + Config.getStringProperty("VELOCITY_CONTENT_MAP_EXTENSION");
-		java.io.File f=new java.io.File (velocityRoot + filePath);
-		f.delete();
+		VelocityUtil.removeVelocityFile(filePath);
 		DotResourceCache vc=CacheLocator.getVeloctyResourceCache();
         vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
 		
@@ -4,6 +4,7 @@ import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.business.PageCacheDependencies;
 import com.dotmarketing.cache.FieldsCache;
 import com.dotmarketing.comparators.ContentComparator;
 import com.dotmarketing.comparators.WebAssetSortOrderComparator;
@@ -73,6 +74,9 @@ public class ContentletServices {
 
 		// Writes the contentlet object to a file
 		ContentletMapServices.invalidateAll(contentlet);
+
+		CacheLocator.getBlockPageCache().removeDependents(PageCacheDependencies.forContentlet(contentlet));
+		CacheLocator.getContentQueryCache().removeContentlet(contentlet);
 	}
 
     /**
@@ -121,6 +125,9 @@ public class ContentletServices {
 
         // Writes the contentlet object to a file
         ContentletMapServices.invalidateLive(contentlet);
+
+        CacheLocator.getBlockPageCache().removeDependents(PageCacheDependencies.forContentlet(contentlet));
+        CacheLocator.getContentQueryCache().removeContentlet(contentlet);
     }
 
 	/**
@@ -155,6 +162,8 @@ public class ContentletServices {
 
         // Writes the contentlet object to a file
         ContentletMapServices.invalidateWorking(contentlet);
+
+        CacheLocator.getContentQueryCache().removeContentlet(contentlet);
     }
 
 	private static void invalidate(Contentlet content, Identifier identifier, boolean EDIT_MODE) throws DotDataException, DotSecurityException {
@@ -547,9 +556,6 @@ public class ContentletServices {
 	    CacheLocator.getContentletCache().remove(asset.getInode());
 
 		String folderPath= (!EDIT_MODE) ? "live" + java.io.File.separator : "working" + java.io.File.separator;
-		String velocityRootPath = VelocityUtil.getVelocityRootPath();
-		velocityRootPath += java.io.File.separator;
-
 		Set<Long> langs = new HashSet<Long>();
 		langs.add(asset.getLanguageId());
 		if(LanguageWebAPI.canApplyToAllLanguages(asset)) {
@@ -559,8 +565,7 @@ public class ContentletServices {
 		}
 		for(Long langId : langs) {
     		String filePath= folderPath + identifier.getInode() + "_" + langId + "." + Config.getStringProperty("VELOCITY_CONTENT_EXTENSION");
-    		java.io.File f= new java.io.File(velocityRootPath + filePath);
-    		f.delete();
+    		VelocityUtil.removeVelocityFile(filePath);
     		DotResourceCache vc= CacheLocator.getVeloctyResourceCache();
             vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
 		}
@@ -94,12 +94,9 @@ public class FieldServices {
 	}
 	
 	public static void removeFieldFile (String fieldInode, String contentInode, boolean EDIT_MODE) {
-        String velocityRootPath = VelocityUtil.getVelocityRootPath();
-        velocityRootPath += java.io.File.separator;
         String folderPath = (!EDIT_MODE) ? "live" + java.io.File.separator: "working" + java.io.File.separator;
         String filePath=folderPath + contentInode + "_" + fieldInode + "." + Config.getStringProperty("VELOCITY_FIELD_EXTENSION");
-        java.io.File f  = new java.io.File(velocityRootPath + filePath);
-        f.delete();
+        VelocityUtil.removeVelocityFile(filePath);
         DotResourceCache vc = CacheLocator.getVeloctyResourceCache();
         vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
     }
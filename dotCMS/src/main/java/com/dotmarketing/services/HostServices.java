@@ -109,11 +109,8 @@ public class HostServices {
 
 	public static void removeHostFile (Host host, boolean EDIT_MODE) {
 		String folderPath = (!EDIT_MODE) ? "live" + java.io.File.separator: "working" + java.io.File.separator;
-		String velocityRootPath = VelocityUtil.getVelocityRootPath();
 		String filePath = folderPath + host.getIdentifier() + "." + Config.getStringProperty("VELOCITY_HOST_EXTENSION");
-		velocityRootPath += java.io.File.separator;
-		java.io.File f  = new java.io.File(velocityRootPath + filePath);
-		f.delete();
+		VelocityUtil.removeVelocityFile(filePath);
 		DotResourceCache vc = CacheLocator.getVeloctyResourceCache();
 		vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
 	}
@@ -383,12 +383,9 @@ public class PageServices {
 
 	public static void removePageFile (IHTMLPage htmlPage, Identifier identifier, boolean EDIT_MODE) {
 		String folderPath = (!EDIT_MODE) ? "live" + java.io.File.separator: "working" + java.io.File.separator;
-		String velocityRootPath = VelocityUtil.getVelocityRootPath();
 		String languageStr = htmlPage.isContent() ? "_" + ((Contentlet)htmlPage).getLanguageId():"";
 		String filePath = folderPath + identifier.getInode() + languageStr + "." + Config.getStringProperty("VELOCITY_HTMLPAGE_EXTENSION","dotpage");
-		velocityRootPath += java.io.File.separator;
-		java.io.File f  = new java.io.File(velocityRootPath + filePath);
-		f.delete();
+		VelocityUtil.removeVelocityFile(filePath);
 		DotResourceCache vc = CacheLocator.getVeloctyResourceCache();
 		vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
 	}
@@ -1,7 +1,6 @@
 package com.dotmarketing.services;
 
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
@@ -179,10 +178,7 @@ public class StructureServices {
 		String folderPath = "working/";
 		String filePath=folderPath + structure.getInode() + "." + Config.getStringProperty("VELOCITY_STRUCTURE_EXTENSION");
 
-		String velocityRootPath = VelocityUtil.getVelocityRootPath();
-		String absolutPath = velocityRootPath + File.separator + filePath;
-		java.io.File f = new java.io.File(absolutPath);
-		f.delete();
+		VelocityUtil.removeVelocityFile(filePath);
 		DotResourceCache vc = CacheLocator.getVeloctyResourceCache();
         vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
 	}
@@ -107,13 +107,9 @@ public class TemplateServices {
     }
     
     public static void removeTemplateFile (Template asset, Identifier identifier, boolean EDIT_MODE) {
-        String velocityRootPath = VelocityUtil.getVelocityRootPath();
-        velocityRootPath += java.io.File.separator;
-
         String folderPath = (!EDIT_MODE) ? "live" + java.io.File.separator: "working" + java.io.File.separator;
         String filePath=folderPath + identifier.getInode() + "." + Config.getStringProperty("VELOCITY_TEMPLATE_EXTENSION");
-        java.io.File f  = new java.io.File(velocityRootPath + filePath);
-        f.delete(); // todo: check if the file exists before remove?
+        VelocityUtil.removeVelocityFile(filePath);
         DotResourceCache vc = CacheLocator.getVeloctyResourceCache();
         vc.remove(ResourceManager.RESOURCE_TEMPLATE + filePath );
     }    
@@ -1,6 +1,8 @@
 package com.dotmarketing.servlets;
 
 import com.dotcms.cluster.business.HazelcastUtil;
+import com.dotcms.concurrent.DotConcurrentFactory;
+import com.dotcms.concurrent.DotSubmitter;
 import com.dotcms.content.elasticsearch.util.ESClient;
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
@@ -12,7 +14,9 @@ import com.dotcms.util.GeoIp2CityDbUtil;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.CacheWarmer;
 import com.dotmarketing.business.ChainableCacheAdministratorImpl;
+import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.cache.VirtualLinksCache;
 import com.dotmarketing.cms.factories.PublicCompanyFactory;
@@ -21,8 +25,9 @@ import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotHibernateException;
 import com.dotmarketing.exception.DotRuntimeException;
-import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.init.DotInitScheduler;
+import com.dotmarketing.init.StartupGraph;
+import com.dotmarketing.init.StartupProfile;
 import com.dotmarketing.loggers.mbeans.Log4jConfig;
 import com.dotmarketing.menubuilders.RefreshMenus;
 import com.dotmarketing.plugin.PluginLoader;
@@ -35,8 +40,6 @@ import com.dotmarketing.util.*;
 import com.liferay.portal.model.Company;
 import com.liferay.portal.util.ReleaseInfo;
 
-import org.quartz.SchedulerException;
-
 import javax.management.*;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -52,10 +55,16 @@ import java.net.URLEncoder;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.dotmarketing.init.StartupTask.task;
 
 public class InitServlet extends HttpServlet {
     private static final long serialVersionUID = 1L;
 
+    public static final String STARTUP_SUBMITTER = "startup";
+
     PermissionAPI             permissionAPI    = APILocator.getPermissionAPI();
 	private LanguageAPI langAPI = APILocator.getLanguageAPI();
 
@@ -114,67 +123,132 @@ public class InitServlet extends HttpServlet {
         Logger.info(this, "   Company Name  : " + _companyId);
 
         if(Config.getBooleanProperty("DIST_INDEXATION_ENABLED", false)){
-
         	Logger.info(this, "   Clustering    : Enabled");
-
-            //Get the current license level
-            int licenseLevel = LicenseUtil.getLevel();
-            if ( licenseLevel > 100 ) {
-                //		Logger.info(this, "   Server        :" + Config.getIntProperty("DIST_INDEXATION_SERVER_ID", 0)  + " of cluster " + Config.getStringProperty("DIST_INDEXATION_SERVERS_IDS", "...unknown"));
-                try {
-                    /*
-                     Without a license this testCluster call will fail as the LicenseManager calls the ClusterFactory.removeNodeFromCluster()
-                     if a license is not found.
-                     */
-                    ((ChainableCacheAdministratorImpl) CacheLocator.getCacheAdministrator().getImplementationObject()).testCluster();
-                    Logger.info( this, "     Ping Sent" );
-                } catch ( Exception e ) {
-                    Logger.error( this, "   Ping Error: " + e.getMessage() );
-                }
-            }
         }
         else{
         	Logger.info(this, "   Clustering    : Disabled");
         }
-
-
-        Logger.info(this, "");
-
-        //Check and start the ES Content Store
-        APILocator.getContentletIndexAPI().checkAndInitialiazeIndex();
         Logger.info(this, "");
 
-		Logger.info(this, "");
-
-        String classPath = config.getServletContext().getRealPath("/WEB-INF/lib");
+        int mc = Config.getIntProperty("lucene_max_clause_count", 4096);
+        BooleanQuery.setMaxClauseCount(mc);
 
-    	new PluginLoader().loadPlugins(config.getServletContext().getRealPath("/"),classPath);
+        // set the application context for use all over the site
+        Logger.debug(this, "");
+        Logger.debug(this, "InitServlet: Setting Application Context!!!!!!");
 
+        final String rootPath  = config.getServletContext().getRealPath("/");
+        final String classPath = config.getServletContext().getRealPath("/WEB-INF/lib");
 
+        /*
+         * The startup runs as a graph of tasks, the ones that don't depend on each other run at the same time.
+         * Only the blocking ones have to be done before we take traffic, the rest go on in the background.
+         */
+        final StartupGraph startup = new StartupGraph()
+                .add(task("clusterPing",      this::pingCluster))
+                .add(task("index",            () -> APILocator.getContentletIndexAPI().checkAndInitialiazeIndex()).fatal())
+                .add(task("plugins",          () -> new PluginLoader().loadPlugins(rootPath, classPath)).blocking())
+                .add(task("importAudit",      ImportAuditUtil::voidValidateAuditTableOnStartup).after("index"))
+                .add(task("velocityFolders",  this::createVelocityFolders).blocking())
+                .add(task("virtualLinks",     VirtualLinksCache::mapAllVirtualLinks).blocking())
+                .add(task("defaultLanguage",  this::createDefaultLanguage).fatal())
+                .add(task("scheduler",        DotInitScheduler::start).after("index", "plugins").fatal())
+                // blocking, so it is done before the node takes the uploads that keep their parts in the temp dir
+                .add(task("tempFiles",        () -> deleteFiles(new File(SystemUtils.JAVA_IO_TMPDIR))).after("index", "plugins", "scheduler").blocking())
+                .add(task("systemHost",       () -> APILocator.getHostAPI().findSystemHost(APILocator.getUserAPI().getSystemUser(), false))
+                        .after("index", "defaultLanguage").fatal())
+                .add(task("systemFolder",     () -> APILocator.getFolderAPI().findSystemFolder()).after("systemHost").fatal())
+                .add(task("cacheWarmup",      this::warmUpCaches).after("systemFolder").blocking())
+                .add(task("geoIp",            this::initGeoIp))
+                .add(task("velocityEngine",   VelocityUtil::getEngine).after("plugins", "velocityFolders").blocking());
+
+        final boolean parallel = Config.getBooleanProperty("STARTUP_PARALLEL", true);
+        final DotSubmitter submitter = parallel ? DotConcurrentFactory.getInstance().getSubmitter(STARTUP_SUBMITTER) : null;
+        startup.start(parallel ? submitter : Runnable::run);
+
+        final CompletableFuture<Void> startupDone = startup.whenDone().whenComplete((ignored, error) -> {
+            Logger.info(InitServlet.class, "Startup tasks done:\n" + StartupProfile.getInstance().format());
+            if (null != submitter) {
+                submitter.shutdown();
+            }
+        });
 
+        //Adding the shutdown hook
+        Runtime.getRuntime().addShutdownHook(new ShutdownHookThread());
 
+        // runs the InitThread once the startup is over
+        InitThread it = new InitThread(startup, startupDone);
+        it.start();
 
+			try {
+				MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+				ObjectName name = new ObjectName("org.dotcms:type=Log4J");
+				Log4jConfig mbean = new Log4jConfig();
+				mbs.registerMBean(mbean, name);
+			} catch (MalformedObjectNameException e) {
+				Logger.debug(InitServlet.class,"MalformedObjectNameException: " + e.getMessage(),e);
+			} catch (InstanceAlreadyExistsException e) {
+				Logger.debug(InitServlet.class,"InstanceAlreadyExistsException: " + e.getMessage(),e);
+			} catch (MBeanRegistrationException e) {
+				Logger.debug(InitServlet.class,"MBeanRegistrationException: " + e.getMessage(),e);
+			} catch (NotCompliantMBeanException e) {
+				Logger.debug(InitServlet.class,"NotCompliantMBeanException: " + e.getMessage(),e);
+			} catch (NullPointerException e) {
+				Logger.debug(InitServlet.class,"NullPointerException: " + e.getMessage(),e);
+			}
 
+			//Wait for the tasks the first request needs
+			try {
+				startup.awaitReady();
+			} catch (DotStateException e) {
+				Logger.fatal(InitServlet.class, e.getMessage(), e);
+				throw new ServletException(e.getMessage(), e);
+			}
+			Logger.info(this, "Startup tasks ready:\n" + StartupProfile.getInstance().format());
+
+	        /*
+	         * SHOULD BE LAST THING THAT HAPPENS
+	         */
+	        try {
+				HibernateUtil.closeSession();
+			} catch (DotHibernateException e1) {
+				Logger.error(InitServlet.class, e1.getMessage(), e1);
+			}
 
+			// Tell the world we are started up
+			System.setProperty(WebKeys.DOTCMS_STARTED_UP, "true");
+			
+			// Record how long it took to start us up.
+			try{
 
+				long startupTime = ManagementFactory.getRuntimeMXBean().getUptime();
 
-        int mc = Config.getIntProperty("lucene_max_clause_count", 4096);
-        BooleanQuery.setMaxClauseCount(mc);
+				System.setProperty(WebKeys.DOTCMS_STARTUP_TIME, String.valueOf(startupTime));
 
-        ImportAuditUtil.voidValidateAuditTableOnStartup();
+			}
+			catch(Exception e){
+				Logger.warn(this.getClass(), "Unable to record startup time :" + e);
+			}
 
-        // Set up the database
-//        try {
-//            DotCMSInitDb.InitializeDb();
-//        } catch (DotDataException e1) {
-//            throw new ServletException(e1);
-//        }
+    }
 
+    /**
+     * Sends a test message to the other nodes of the cluster. Without a license this testCluster call will fail as
+     * the LicenseManager calls the ClusterFactory.removeNodeFromCluster() if a license is not found.
+     */
+    private void pingCluster() {
 
+        if(Config.getBooleanProperty("DIST_INDEXATION_ENABLED", false) && LicenseUtil.getLevel() > 100) {
+            try {
+                ((ChainableCacheAdministratorImpl) CacheLocator.getCacheAdministrator().getImplementationObject()).testCluster();
+                Logger.info( this, "     Ping Sent" );
+            } catch ( Exception e ) {
+                Logger.error( this, "   Ping Error: " + e.getMessage() );
+            }
+        }
+    }
 
-        // set the application context for use all over the site
-        Logger.debug(this, "");
-        Logger.debug(this, "InitServlet: Setting Application Context!!!!!!");
+    private void createVelocityFolders() {
 
         // creates the velocity folders to make sure they are there
         new java.io.File(ConfigUtils.getDynamicVelocityPath() + File.separator + "live").mkdirs();
@@ -194,10 +268,9 @@ public class InitServlet extends HttpServlet {
             RefreshMenus.deleteMenus();
         	CacheLocator.getCacheAdministrator().flushGroupLocalOnly("navCache", false);
         }
+    }
 
-
-        // maps all virtual links in memory
-        VirtualLinksCache.mapAllVirtualLinks();
+    private void createDefaultLanguage() {
 
         Language language = langAPI.getDefaultLanguage();
 
@@ -205,54 +278,29 @@ public class InitServlet extends HttpServlet {
             Logger.debug(this, "Creating Default Language");
             langAPI.createDefaultLanguage();
         }
+    }
 
-        try {
-			DotInitScheduler.start();
-		} catch (SchedulerException e2) {
-			Logger.fatal(InitServlet.class, e2.getMessage(), e2);
-			throw new ServletException(e2.getMessage(), e2);
-		}
-
-        //Adding the shutdown hook
-        Runtime.getRuntime().addShutdownHook(new ShutdownHookThread());
-
-        /*
-         * Delete the files out of the temp dir (this gets huge)
-         */
-
-        deleteFiles(new File(SystemUtils.JAVA_IO_TMPDIR));
-
-
-
-        // runs the InitThread
-
-        InitThread it = new InitThread();
-        it.start();
+    /**
+     * Loads the hot entries of the last run back into the caches, we don't take traffic with cold caches,
+     * up to CACHE_WARMUP_MAX_WAIT_SECONDS
+     */
+    private void warmUpCaches() {
 
-        //Ensure the system host is in the system
-        try {
-			APILocator.getHostAPI().findSystemHost(APILocator.getUserAPI().getSystemUser(), false);
-		} catch (DotDataException e1) {
-			Logger.fatal(InitServlet.class, e1.getMessage(), e1);
-			throw new ServletException("Unable to initialize system host", e1);
-		} catch (DotSecurityException e) {
-			Logger.fatal(InitServlet.class, e.getMessage(), e);
-			throw new ServletException("Unable to initialize system host", e);
-		}
+        CacheWarmer.getInstance().start();
+        if (!CacheWarmer.getInstance().awaitPreload()) {
+            Logger.info(this, "Cache preload still running, starting up anyway");
+        }
+    }
 
-		try {
-			APILocator.getFolderAPI().findSystemFolder();
-		} catch (DotDataException e1) {
-			Logger.error(InitServlet.class, e1.getMessage(), e1);
-			throw new ServletException("Unable to initialize system folder", e1);
-		}
+    /**
+     * Create the GeoIP2 database reader on startup since it takes around 2 seconds to load the file. If the prop is
+     * not set, just move on
+     */
+    private void initGeoIp() {
 
-		// Create the GeoIP2 database reader on startup since it takes around 2
-		// seconds to load the file. If the prop is not set, just move on
 		if (UtilMethods.isSet(Config.getStringProperty(
 				"GEOIP2_CITY_DATABASE_PATH", ""))) {
 			try {
-				Logger.info(this, "");
 				GeoIp2CityDbUtil geoIp2Util = GeoIp2CityDbUtil.getInstance();
 				// Validation query to initialize the GeoIP DB
 				String state = geoIp2Util
@@ -263,55 +311,7 @@ public class InitServlet extends HttpServlet {
 				Logger.info(this,
 						"Could not read from GeoIP2 DB: " + e.getMessage());
 			}
-			Logger.info(this, "");
-		}
-		
-        /*
-         * SHOULD BE LAST THING THAT HAPPENS
-         */
-        try {
-			HibernateUtil.closeSession();
-		} catch (DotHibernateException e1) {
-			Logger.error(InitServlet.class, e1.getMessage(), e1);
 		}
-
-
-			try {
-				MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-				ObjectName name = new ObjectName("org.dotcms:type=Log4J");
-				Log4jConfig mbean = new Log4jConfig();
-				mbs.registerMBean(mbean, name);
-			} catch (MalformedObjectNameException e) {
-				Logger.debug(InitServlet.class,"MalformedObjectNameException: " + e.getMessage(),e);
-			} catch (InstanceAlreadyExistsException e) {
-				Logger.debug(InitServlet.class,"InstanceAlreadyExistsException: " + e.getMessage(),e);
-			} catch (MBeanRegistrationException e) {
-				Logger.debug(InitServlet.class,"MBeanRegistrationException: " + e.getMessage(),e);
-			} catch (NotCompliantMBeanException e) {
-				Logger.debug(InitServlet.class,"NotCompliantMBeanException: " + e.getMessage(),e);
-			} catch (NullPointerException e) {
-				Logger.debug(InitServlet.class,"NullPointerException: " + e.getMessage(),e);
-			}
-
-
-			//Just get the Engine to make sure it gets inited on time before the first request
-			VelocityUtil.getEngine();
-
-			// Tell the world we are started up
-			System.setProperty(WebKeys.DOTCMS_STARTED_UP, "true");
-			
-			// Record how long it took to start us up.
-			try{
-
-				long startupTime = ManagementFactory.getRuntimeMXBean().getUptime();
-
-				System.setProperty(WebKeys.DOTCMS_STARTUP_TIME, String.valueOf(startupTime));
-
-			}
-			catch(Exception e){
-				Logger.warn(this.getClass(), "Unable to record startup time :" + e);
-			}
-
     }
 
     protected void deleteFiles(java.io.File directory) {
@@ -333,20 +333,36 @@ public class InitServlet extends HttpServlet {
  * @author will
  * This thread will fire and send host ids to dotcms.com for internal
  * corporate information (we are dying to know who is using dotCMS!).
+ * It waits for the startup tasks to be done instead of competing with them.
  * This can be turned off by setting RUN_INIT_THREAD=0 in the config
  *
  */
 
     private class InitThread extends Thread {
 
+        private final StartupGraph startup;
+        private final CompletableFuture<Void> startupDone;
+
+        private InitThread(final StartupGraph startup, final CompletableFuture<Void> startupDone) {
+            this.startup     = startup;
+            this.startupDone = startupDone;
+        }
+
         public void run() {
         	try {
         		long runInitThread = Config.getIntProperty("RUN_INIT_THREAD", 6000);
         		if(runInitThread<1){return;}
         		
-                Thread.sleep(runInitThread);
+                startupDone.get();
             } catch (InterruptedException e) {
                 Logger.debug(this,e.getMessage(),e);
+                return;
+            } catch (ExecutionException e) {
+                Logger.debug(this,e.getMessage(),e);
+            }
+            if (startup.hasFailed()) {
+                Logger.warn(this, "A fatal startup task failed, the InitThread won't run");
+                return;
             }
             String address = null;
             String hostname = "unknown";
@@ -16,13 +16,23 @@ import java.io.*;
 import java.net.URL;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class provides access to the system configuration parameters that are
  * set through the {@code dotmarketing-config.properties}, and the
  * {@code dotcms-config-cluster.properties} files.
+ * <p>
+ * The files are loaded into a new configuration that is published as a whole,
+ * as an immutable {@link ConfigSnapshot}, once it is completely loaded, so a
+ * reload never shows a partially read configuration. The code that reads a
+ * property on every request should take a {@link ConfigProperty} handle once,
+ * through {@link #booleanProperty(String, boolean)} and the like, instead of
+ * looking the property up on every call, and the components that need to know
+ * when the properties change can register a {@link ConfigListener}.
  * 
  * @author root
  * @version 1.0
@@ -65,7 +75,9 @@ public class Config {
 	//Config internal properties
 	private static int refreshInterval = 5; //In minutes, Default 5 can be overridden in the config file as config.refreshinterval int property
 	private static Date lastRefreshTime = new Date ();
-	private static PropertiesConfiguration props = null;
+	private static volatile PropertiesConfiguration props = null;
+	private static volatile ConfigSnapshot snapshot = null;
+	private static final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
 	private static ClassLoader classLoader = null;
     protected static URL dotmarketingPropertiesUrl = null;
     protected static URL clusterPropertiesUrl = null;
@@ -73,6 +85,8 @@ public class Config {
     private static FileWatcherAPI fileWatcherAPI = null;
 
     private static final String syncMe = "esSync";
+    private static final Object notifyMe = new Object();
+    private static ConfigSnapshot notified = null;
 
 	/**
 	 * Config internal methods
@@ -167,13 +181,12 @@ public class Config {
 		File clusterFile = new File(clusterURL.getPath());
 		Date lastClusterModified = new Date(clusterFile.lastModified());
 
+		ConfigSnapshot current  = null;
+
 		if (props == null) {
 			synchronized (syncMe) {
 				if (props == null) {
-					readProperties(dotmarketingFile,
-							"dotmarketing-config.properties");
-					readProperties(clusterFile,
-							"dotcms-config-cluster.properties");
+					current  = readProperties(dotmarketingFile, clusterFile);
 				}
 			}
 		} else {
@@ -184,24 +197,22 @@ public class Config {
 				synchronized (syncMe) {
 					if (lastDotmarketingModified.after(lastRefreshTime)
 							|| lastClusterModified.after(lastRefreshTime)) {
-						try {
-							props = new PropertiesConfiguration();
-							// Cleanup and read the properties for both files
-							readProperties(dotmarketingFile,
-									"dotmarketing-config.properties");
-							readProperties(clusterFile,
-									"dotcms-config-cluster.properties");
-						} catch (Exception e) {
-							Logger.fatal(
-									Config.class,
-									"Exception loading property files [dotmarketing-config.properties, dotcms-config-cluster.properties]",
-									e);
-							props = null;
-						}
+						current  = readProperties(dotmarketingFile, clusterFile);
 					}
 				}
 			}
 		}
+
+		if (null == props) {
+			return;
+		}
+
+		if (null != current) {
+			// check if the configuration for the watcher has changed.
+			watch(dotmarketingFile, clusterFile);
+			notifyListeners();
+		}
+
 		String type = "";
 		try {
 			refreshInterval = props.getInt("config.refreshinterval");
@@ -222,12 +233,39 @@ public class Config {
 	}
 
     /**
-     * Reads a given property file and appends its content to the current read properties
+     * Reads both property files into a new configuration and publishes it once
+     * it is completely read. If any of the files can't be read the properties
+     * read before are kept.
+     *
+     * @param dotmarketingFile
+     * @param clusterFile
+     * @return the {@link ConfigSnapshot} published, null if none was
+     */
+    private static ConfigSnapshot readProperties ( File dotmarketingFile, File clusterFile ) {
+
+        final PropertiesConfiguration loaded = new PropertiesConfiguration();
+        if ( readProperties( loaded, dotmarketingFile, "dotmarketing-config.properties" )
+                && readProperties( loaded, clusterFile, "dotcms-config-cluster.properties" ) ) {
+
+            try {
+                return publish( postProperties( loaded ) );
+            } catch ( Exception e ) {
+                Logger.fatal( Config.class,
+                        "Exception loading property files [dotmarketing-config.properties, dotcms-config-cluster.properties]", e );
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a given property file and appends its content to the given properties
      *
+     * @param loaded
      * @param fileToRead
      * @param fileName
+     * @return true if the file was read
      */
-    private static void readProperties ( File fileToRead, String fileName ) {
+    private static boolean readProperties ( PropertiesConfiguration loaded, File fileToRead, String fileName ) {
 
 		InputStream propsInputStream = null;
 
@@ -235,55 +273,156 @@ public class Config {
 
             Logger.info( Config.class, "Loading dotCMS [" + fileName + "] Properties..." );
 
-            if ( props == null ) {
-                props = new PropertiesConfiguration();
-            }
-
             propsInputStream = new FileInputStream( fileToRead );
-            props.load( new InputStreamReader( propsInputStream ) );
+            loaded.load( new InputStreamReader( propsInputStream ) );
             Logger.info( Config.class, "dotCMS Properties [" + fileName + "] Loaded" );
-            postProperties();
-            // check if the configuration for the watcher has changed.
-			useWatcherMode.set(getBooleanProperty(DOTCMS_USEWATCHERMODE, true));
-			if (useWatcherMode.get()) {
-
-				registerWatcher (fileToRead);
-			} else if (isWatching.get()) {
-				unregisterWatcher (fileToRead);
-				isWatching.set(false);
-			}
+            return true;
         } catch ( Exception e ) {
             Logger.fatal( Config.class, "Exception loading properties for file [" + fileName + "]", e );
-            props = null;
+            return false;
         } finally {
 
 			IOUtils.closeQuietly(propsInputStream);
 		}
 	}
 
+    /**
+     * Registers or unregisters the watcher of the files, depending on the
+     * properties just published
+     */
+    private static void watch ( File... filesToWatch ) {
+
+        useWatcherMode.set(getBooleanProperty(DOTCMS_USEWATCHERMODE, true));
+        for ( File fileToWatch : filesToWatch ) {
+
+            if (useWatcherMode.get()) {
 
+                registerWatcher (fileToWatch);
+            } else if (isWatching.get()) {
+                unregisterWatcher (fileToWatch);
+            }
+        }
+
+        if (!useWatcherMode.get()) {
+            isWatching.set(false);
+        }
+    }
 
 	/**
 	 * Does the post process properties based on the interpolator
+	 *
+	 * @param loaded properties just read
+	 * @return the properties to publish
 	 */
-    protected static void postProperties () {
+    protected static PropertiesConfiguration postProperties ( PropertiesConfiguration loaded ) {
 
-    	final String customConfigurationInterpolator       = getStringProperty(DOTCMS_CUSTOM_INTERPOLATOR, null);
+    	final String[] customConfigurationInterpolators    = loaded.getStringArray(DOTCMS_CUSTOM_INTERPOLATOR);
+    	final String customConfigurationInterpolator       = (customConfigurationInterpolators.length > 0)?
+				StringUtils.join(customConfigurationInterpolators, ','):null;
     	final ConfigurationInterpolator customInterpolator = UtilMethods.isSet(customConfigurationInterpolator)?
 				(ConfigurationInterpolator) ReflectionUtils.newInstance(customConfigurationInterpolator) :null;
 		final ConfigurationInterpolator interpolator       = (null != customInterpolator)?
 				customInterpolator:SystemEnvironmentConfigurationInterpolator.INSTANCE;
-		final Configuration configuration = interpolator.interpolate(props);
+		final Configuration configuration = interpolator.interpolate(loaded);
 
-		props = (configuration instanceof PropertiesConfiguration)?(PropertiesConfiguration)configuration: props;
+		return (configuration instanceof PropertiesConfiguration)?(PropertiesConfiguration)configuration: loaded;
 	}
 
+    /**
+     * Publishes the properties, replacing the ones read so far. Must be
+     * called holding the lock.
+     */
+    private static ConfigSnapshot publish ( PropertiesConfiguration configuration ) {
+
+        final ConfigSnapshot previous = snapshot;
+        final ConfigSnapshot current  = new ConfigSnapshot(configuration,
+                (null != previous)? previous.getVersion() + 1: 1);
+
+        props    = configuration;
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * Notifies the listeners of the snapshot published last. The snapshots are
+     * published under the lock but notified out of it, so two threads that
+     * publish one after the other may get here in any order: the listeners are
+     * only notified of a snapshot newer than the one they were notified of,
+     * so they never go back to an older one.
+     */
+    private static void notifyListeners () {
+
+        synchronized (notifyMe) {
+
+            final ConfigSnapshot current  = snapshot;
+            final ConfigSnapshot previous = notified;
+            if ( null == current || (null != previous && previous.getVersion() >= current.getVersion()) ) {
+                return;
+            }
+
+            notified = current;
+            for ( ConfigListener listener : listeners ) {
+                try {
+                    listener.onChange(previous, current);
+                } catch ( Exception e ) {
+                    Logger.error( Config.class, "Error notifying the configuration change to " + listener + ": " + e.getMessage(), e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the properties as they are now. The snapshot never changes, read
+     * it again to see the changes made after it was taken.
+     *
+     * @return the current {@link ConfigSnapshot}, null if the properties couldn't be loaded
+     */
+    public static ConfigSnapshot getSnapshot () {
+        return currentSnapshot();
+    }
+
+    static ConfigSnapshot currentSnapshot () {
+        _refreshProperties();
+        return snapshot;
+    }
+
+    /**
+     * Registers a listener to be notified every time the properties change
+     *
+     * @param listener
+     */
+    public static void addListener ( ConfigListener listener ) {
+        if ( !listeners.contains(listener) ) {
+            listeners.add(listener);
+        }
+    }
+
+    public static void removeListener ( ConfigListener listener ) {
+        listeners.remove(listener);
+    }
+
+    public static ConfigProperty<String> stringProperty ( String name, String defaultValue ) {
+        return new ConfigProperty<>(name, defaultValue, current -> current.getString(name, defaultValue));
+    }
+
+    public static ConfigProperty<Integer> intProperty ( String name, int defaultValue ) {
+        return new ConfigProperty<>(name, defaultValue, current -> current.getInt(name, defaultValue));
+    }
+
+    public static ConfigProperty<Long> longProperty ( String name, long defaultValue ) {
+        return new ConfigProperty<>(name, defaultValue, current -> current.getLong(name, defaultValue));
+    }
+
+    public static ConfigProperty<Boolean> booleanProperty ( String name, boolean defaultValue ) {
+        return new ConfigProperty<>(name, defaultValue, current -> current.getBoolean(name, defaultValue));
+    }
+
     /**
      * 
      */
 	private static void _refreshProperties () {
 
-		if ((props == null) || // if props is null go ahead.
+		if ((snapshot == null) || // if props is null go ahead.
 				(
 						(!useWatcherMode.get()) && // if we are using watcher mode, do not need to check this
 						(System.currentTimeMillis() > lastRefreshTime.getTime() + (refreshInterval * 60 * 1000))
@@ -312,16 +451,14 @@ public class Config {
 	 * element).
 	 */
 	public static String getStringProperty(String name, String defValue, boolean forceDefaultToString) {
-		_refreshProperties();
+		final ConfigSnapshot current = currentSnapshot();
 		String result = defValue;
 
-		if(props != null) {
-			String[] propsArr = props.getStringArray(name);
-			StringBuilder property = new StringBuilder();
+		if(current != null) {
+			final String property = current.getString(name);
 
-			if(propsArr != null && propsArr.length > 0) {
-				buildProperty(propsArr, property);
-				result = property.toString();
+			if(property != null) {
+				result = property;
 			} else if(forceDefaultToString) {
 				result = String.valueOf(defValue);
 			}
@@ -369,14 +506,12 @@ public class Config {
 	 * @return The value of the specified property, or its default value.
 	 */
 	public static String getAsString(String name, Supplier<String> defValue, boolean forceDefaultToString) {
-		_refreshProperties();
+		final ConfigSnapshot current = currentSnapshot();
 		String result = StringUtils.EMPTY;
-		if (props != null) {
-			String[] propsArr = props.getStringArray(name);
-			StringBuilder property = new StringBuilder();
-			if (propsArr != null && propsArr.length > 0) {
-				buildProperty(propsArr, property);
-				result = property.toString();
+		if (current != null) {
+			final String property = current.getString(name);
+			if (property != null) {
+				result = property;
 			} else if (forceDefaultToString) {
 				result = (defValue != null) ? defValue.get() : "";
 			}
@@ -388,41 +523,14 @@ public class Config {
 		return result;
 	}
 
-	/**
-	 * 
-	 * @param propsArr
-	 * @param property
-	 */
-	private static void buildProperty(String[] propsArr, StringBuilder property) {
-
-		int i = 0;
-
-		for (String propItem : propsArr) {
-            if(i > 0) {
-                property.append(",");
-            }
-            property.append(propItem);
-            i++;
-        }
-	}
-
 	/**
 	 * @deprecated  Use getStringProperty(String name, String default) and
 	 * set an intelligent default
 	 */
 	@Deprecated
     public static String getStringProperty (String name) {
-        _refreshProperties ();
-        String[] propsArr = props.getStringArray(name);
-        String property = new String ();
-        int i = 0;
-        for (String propItem : propsArr) {
-            if (i > 0)
-                property += ",";
-            property += propItem;
-            i++;
-        }
-        return property;
+        final String property = currentSnapshot().getString(name);
+        return (property != null) ? property : "";
     }
 
 	/**
@@ -446,11 +554,11 @@ public class Config {
 	}
 
 	public static long getLongProperty (String name, final long defaultVal) {
-		_refreshProperties ();
-		if ( props == null ) {
+		final ConfigSnapshot current = currentSnapshot();
+		if ( current == null ) {
 			return defaultVal;
 		}
-		return props.getLong(name, defaultVal);
+		return current.getLong(name, defaultVal);
 	}
 
 	/**
@@ -460,11 +568,11 @@ public class Config {
 	 * @return
 	 */
 	public static int getIntProperty (String name, int defaultVal) {
-	    _refreshProperties ();
-        if ( props == null ) {
+        final ConfigSnapshot current = currentSnapshot();
+        if ( current == null ) {
             return defaultVal;
         }
-        return props.getInt(name, defaultVal);
+        return current.getInt(name, defaultVal);
 	}
 
 	/**
@@ -484,11 +592,11 @@ public class Config {
 	 * @return
 	 */
 	public static float getFloatProperty (String name, float defaultVal) {
-	    _refreshProperties ();
-        if ( props == null ) {
+        final ConfigSnapshot current = currentSnapshot();
+        if ( current == null ) {
             return defaultVal;
         }
-        return props.getFloat(name, defaultVal);
+        return current.getFloat(name, defaultVal);
 	}
 
 	/**
@@ -508,21 +616,33 @@ public class Config {
 	 * @return
 	 */
 	public static boolean getBooleanProperty (String name, boolean defaultVal) {
-	    _refreshProperties ();
-        if ( props == null ) {
+        final ConfigSnapshot current = currentSnapshot();
+        if ( current == null ) {
             return defaultVal;
         }
-        return props.getBoolean(name, defaultVal);
+        return current.getBoolean(name, defaultVal);
 	}
 
 	/**
-	 * 
+	 * Sets the property until the properties files are reloaded, publishing
+	 * a new {@link ConfigSnapshot} with it
+	 *
 	 * @param key
 	 * @param value
 	 */
 	public static void setProperty(String key, Object value) {
-		if(props!=null) {
-			props.setProperty(key, value);
+		ConfigSnapshot current  = null;
+
+		synchronized (syncMe) {
+			if(props!=null) {
+				final PropertiesConfiguration changed = ConfigSnapshot.copyOf(props);
+				changed.setProperty(key, value);
+				current  = publish(changed);
+			}
+		}
+
+		if (null != current) {
+			notifyListeners();
 		}
 	}
 
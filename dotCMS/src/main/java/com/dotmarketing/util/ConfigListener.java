@@ -0,0 +1,24 @@
+package com.dotmarketing.util;
+
+/**
+ * Gets notified every time {@link Config} publishes a new {@link ConfigSnapshot}, because the properties files
+ * were reloaded or a property was set, so a component can pick up the new values instead of reading them over and
+ * over.
+ *
+ * The listeners are called by the thread that published the snapshot, once it is published, so they must be quick.
+ * They are called one at a time and always with a newer snapshot than the last one they got: when two snapshots are
+ * published at the same time the listeners may only get the newest one.
+ *
+ * @see Config#addListener(ConfigListener)
+ */
+@FunctionalInterface
+public interface ConfigListener {
+
+    /**
+     * Called once the snapshot is published
+     * @param previous {@link ConfigSnapshot} the listeners were notified of last, null when the properties are
+     *                 loaded for the first time
+     * @param current {@link ConfigSnapshot} published
+     */
+    void onChange(ConfigSnapshot previous, ConfigSnapshot current);
+} // E:O:F:ConfigListener.
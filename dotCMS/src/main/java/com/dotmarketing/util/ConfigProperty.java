@@ -0,0 +1,77 @@
+package com.dotmarketing.util;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A typed handle on a property of the {@link Config}, to be taken once, usually as a constant, and read as many
+ * times as needed:
+ *
+ * <pre>
+ * private static final ConfigProperty&lt;Boolean&gt; CLUSTER_THROUGH_DB =
+ *         Config.booleanProperty("CACHE_CLUSTER_THROUGH_DB", false);
+ * ...
+ * if (CLUSTER_THROUGH_DB.get()) {
+ * </pre>
+ *
+ * The value is worked out once per {@link ConfigSnapshot}, so reading it is a matter of checking that the current
+ * snapshot is the one the value was worked out from. Taking the handle doesn't read the configuration, so it is safe
+ * to take it before the configuration is loaded.
+ *
+ * @param <T> Type of the property
+ */
+public final class ConfigProperty<T> implements Supplier<T> {
+
+    private final String name;
+    private final T defaultValue;
+    private final Function<ConfigSnapshot, T> reader;
+    private volatile Value<T> value = null;
+
+    ConfigProperty(final String name, final T defaultValue, final Function<ConfigSnapshot, T> reader) {
+
+        this.name         = name;
+        this.defaultValue = defaultValue;
+        this.reader       = reader;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return T value of the property in the current snapshot, or the default value if it is not set
+     */
+    @Override
+    public T get() {
+
+        final ConfigSnapshot snapshot = Config.currentSnapshot();
+        if (null == snapshot) {
+            return this.defaultValue;
+        }
+
+        Value<T> value = this.value;
+        if (null == value || value.snapshot != snapshot) {
+
+            value = new Value<>(snapshot, this.reader.apply(snapshot));
+            this.value = value;
+        }
+        return value.value;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + "=" + this.get();
+    }
+
+    private static final class Value<T> {
+
+        private final ConfigSnapshot snapshot;
+        private final T value;
+
+        private Value(final ConfigSnapshot snapshot, final T value) {
+
+            this.snapshot = snapshot;
+            this.value    = value;
+        }
+    }
+} // E:O:F:ConfigProperty.
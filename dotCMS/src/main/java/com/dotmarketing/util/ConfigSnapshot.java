@@ -0,0 +1,192 @@
+package com.dotmarketing.util;
+
+import com.dotcms.repackage.org.apache.commons.configuration.PropertiesConfiguration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The properties of the {@code dotmarketing-config.properties} and the {@code dotcms-config-cluster.properties} files
+ * as they were loaded at some point. A snapshot never changes: every reload of the files, and every
+ * {@link Config#setProperty(String, Object)}, publishes a new one, so a snapshot can be read by any number of threads
+ * without locking and the code that reads several properties out of the same snapshot sees them consistent with
+ * each other.
+ *
+ * The string values are joined once, when the snapshot is taken, instead of on every read, and the numbers and
+ * booleans are converted the first time they are read.
+ *
+ * @see Config#getSnapshot()
+ * @see ConfigProperty
+ */
+public final class ConfigSnapshot {
+
+    private final PropertiesConfiguration configuration;
+    private final Map<String, String> values;
+    private final Map<String, Optional<Integer>> ints     = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Long>> longs       = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Float>> floats     = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Boolean>> booleans = new ConcurrentHashMap<>();
+    private final long version;
+
+    ConfigSnapshot(final PropertiesConfiguration configuration, final long version) {
+
+        this.configuration = configuration;
+        this.values        = Collections.unmodifiableMap(join(configuration));
+        this.version       = version;
+    }
+
+    private static Map<String, String> join(final PropertiesConfiguration configuration) {
+
+        final Map<String, String> values = new HashMap<>();
+        final Iterator<String> keys = configuration.getKeys();
+        while (keys.hasNext()) {
+
+            final String key = keys.next();
+            try {
+
+                final String[] array = configuration.getStringArray(key);
+                if (null != array && array.length > 0) {
+                    values.put(key, String.join(",", array));
+                }
+            } catch (Exception e) {
+
+                // not a string, getString reads it from the configuration
+                Logger.debug(ConfigSnapshot.class, "Unable to join the values of " + key + ": " + e.getMessage());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Copies the properties of the configuration as they are, without splitting or interpolating them again, so the
+     * copy can be changed without changing a configuration that was already published
+     * @param configuration {@link PropertiesConfiguration}
+     * @return PropertiesConfiguration
+     */
+    @SuppressWarnings("unchecked")
+    static PropertiesConfiguration copyOf(final PropertiesConfiguration configuration) {
+
+        final PropertiesConfiguration copy = new PropertiesConfiguration();
+        copy.setDelimiterParsingDisabled(true);
+        final Iterator<String> keys = configuration.getKeys();
+        while (keys.hasNext()) {
+
+            final String key = keys.next();
+            copy.setProperty(key, configuration.getProperty(key));
+        }
+        copy.setDelimiterParsingDisabled(configuration.isDelimiterParsingDisabled());
+        return copy;
+    }
+
+    /**
+     * @return long that grows with each snapshot published, so two snapshots can be told apart
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean containsKey(final String name) {
+        return this.values.containsKey(name) || this.configuration.containsKey(name);
+    }
+
+    /**
+     * Returns the value of the property, the values of a property found more than once are joined with a comma
+     * @param name Name of the property
+     * @return String or null if the property is not set
+     */
+    public String getString(final String name) {
+
+        final String value = this.values.get(name);
+        if (null == value && this.configuration.containsKey(name)) {
+
+            final String[] array = this.configuration.getStringArray(name);
+            return (array.length > 0) ? String.join(",", array) : null;
+        }
+        return value;
+    }
+
+    public String getString(final String name, final String defaultValue) {
+
+        final String value = this.getString(name);
+        return (null != value) ? value : defaultValue;
+    }
+
+    public String[] getStringArray(final String name) {
+        return this.configuration.getStringArray(name);
+    }
+
+    public int getInt(final String name, final int defaultValue) {
+        return this.convert(this.ints, name, this.configuration::getInt).orElse(defaultValue);
+    }
+
+    public long getLong(final String name, final long defaultValue) {
+        return this.convert(this.longs, name, this.configuration::getLong).orElse(defaultValue);
+    }
+
+    public float getFloat(final String name, final float defaultValue) {
+        return this.convert(this.floats, name, this.configuration::getFloat).orElse(defaultValue);
+    }
+
+    public boolean getBoolean(final String name, final boolean defaultValue) {
+        return this.convert(this.booleans, name, this.configuration::getBoolean).orElse(defaultValue);
+    }
+
+    /**
+     * Converts the property the first time it is read and keeps it for the next reads. A property that can't be
+     * converted is not kept, so it keeps throwing the conversion exception like the configuration does.
+     */
+    private <T> Optional<T> convert(final Map<String, Optional<T>> converted, final String name,
+                                    final Function<String, T> converter) {
+
+        Optional<T> value = converted.get(name);
+        if (null == value) {
+
+            value = this.configuration.containsKey(name) ? Optional.of(converter.apply(name)) : Optional.empty();
+            converted.put(name, value);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Iterator<String> getKeys() {
+        return this.configuration.getKeys();
+    }
+
+    /**
+     * Returns the names of the properties set, removed or changed since the previous snapshot
+     * @param previous {@link ConfigSnapshot}, may be null
+     * @return Set of property names
+     */
+    public Set<String> changedKeys(final ConfigSnapshot previous) {
+
+        final Set<String> changed = new HashSet<>();
+        final Map<String, String> previousValues = (null != previous) ? previous.values : Collections.emptyMap();
+
+        for (final Map.Entry<String, String> entry : this.values.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previousValues.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (final String key : previousValues.keySet()) {
+            if (!this.values.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * The configuration read by this snapshot, it must not be changed
+     */
+    PropertiesConfiguration getConfiguration() {
+        return configuration;
+    }
+} // E:O:F:ConfigSnapshot.
@@ -611,4 +611,29 @@ public class VelocityUtil {
 		return velocityRootPath;
 	}
 
+	/**
+	 * True when the generated VTL of the CMS resources is kept in the VelocitySourceCache region, so a parsed
+	 * resource dropped from the VelocityCache is parsed again from memory instead of built from the database
+	 * and nothing is deleted from the velocity root on invalidation
+	 *
+	 * @return boolean
+	 */
+	public static boolean isInMemoryVTL() {
+		return Config.getBooleanProperty("VELOCITY_IN_MEMORY_VTL", false);
+	}
+
+	/**
+	 * Deletes a generated velocity file from the velocity root. The files are only written when
+	 * SHOW_VELOCITYFILES is on, so in the in-memory mode there is nothing to delete otherwise.
+	 *
+	 * @param filePath the path of the file relative to the velocity root, e.g. live/[identifier].container
+	 */
+	public static void removeVelocityFile(String filePath) {
+		if (isInMemoryVTL() && !Config.getBooleanProperty("SHOW_VELOCITYFILES", false)) {
+			return;
+		}
+
+		new File(getVelocityRootPath() + File.separator + filePath).delete();
+	}
+
 }
@@ -40,8 +40,10 @@ public class DotResourceCache implements ResourceCache,Cachable {
 	
 	private String primaryGroup = "VelocityCache";
     private String macroCacheGroup = "VelocityMacroCache";
+    // generated VTL of the CMS resources, see VELOCITY_IN_MEMORY_VTL
+    private String sourceCacheGroup = "VelocitySourceCache";
     // region's name for the cache
-    private String[] groupNames = {primaryGroup, macroCacheGroup};
+    private String[] groupNames = {primaryGroup, macroCacheGroup, sourceCacheGroup};
     private static final String MACRO_PREFIX ="MACRO_PREFIX";
     private final Set<String> ignoreGlobalVM;
     
@@ -145,12 +147,40 @@ public class DotResourceCache implements ResourceCache,Cachable {
 
     	try{
 	       cache.remove(key,group);
+	       cache.remove(sourceCacheGroup + cleanedResourceKey, sourceCacheGroup);
 		} catch ( Exception e ) {
 			Logger.debug(this, e.getMessage(), e);
 		} 
     	return null;	
 	}
 	
+	/**
+	 * Returns the VTL generated for a CMS resource, so it can be parsed again without building it from the
+	 * database. The generated VTL is removed along with the parsed resource.
+	 * @param resourceKey the resource path, e.g. live/[identifier].container
+	 * @return byte[] the generated VTL or null if it is not cached
+	 */
+	public byte[] getSource(Object resourceKey) {
+
+		byte[] source = null;
+		try {
+			source = (byte[]) cache.get(sourceCacheGroup + cleanKey(resourceKey.toString()), sourceCacheGroup);
+		} catch ( DotCacheException e ) {
+			Logger.debug(this, "Cache Entry not found", e);
+		}
+		return source;
+	}
+
+	/**
+	 * Keeps the VTL generated for a CMS resource
+	 * @param resourceKey the resource path, e.g. live/[identifier].container
+	 * @param source byte[] the generated VTL
+	 */
+	public void putSource(Object resourceKey, byte[] source) {
+
+		cache.put(sourceCacheGroup + cleanKey(resourceKey.toString()), source, sourceCacheGroup);
+	}
+
 	public void clearCache() {
 	  for(String group : groupNames){
         cache.flushGroup(group);
@@ -7,6 +7,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 import com.dotcms.contenttype.business.ContentTypeAPI;
 import com.dotcms.contenttype.model.type.ContentType;
@@ -14,6 +18,7 @@ import com.dotcms.contenttype.transform.contenttype.StructureTransformer;
 import com.dotcms.repackage.org.apache.commons.collections.ExtendedProperties;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.apache.velocity.runtime.resource.Resource;
 import org.apache.velocity.runtime.resource.loader.ResourceLoader;
@@ -45,6 +50,7 @@ import com.dotmarketing.util.ConfigUtils;
 import com.dotmarketing.util.InodeUtils;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
+import com.dotmarketing.util.VelocityUtil;
 import com.dotmarketing.viewtools.LanguageWebAPI;
 import com.liferay.portal.model.User;
 import com.liferay.util.FileUtil;
@@ -80,6 +86,13 @@ public class DotResourceLoader extends ResourceLoader {
     private static String assetRealCanoncalPath;
     private static DotResourceLoader instance;
 
+    /**
+     * Builds of CMS resources in progress, the threads asking for a resource being built wait for that build
+     * instead of starting their own
+     */
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> buildsInFlight = new ConcurrentHashMap<>();
+    private final DotResourceLoaderStats stats = DotResourceLoaderStats.getInstance();
+
     /* (non-Javadoc)
      * @see org.apache.velocity.runtime.resource.loader.FileResourceLoader#init(com.dotcms.repackage.org.apache.commons.collections.ExtendedProperties)
      */
@@ -146,6 +159,7 @@ public class DotResourceLoader extends ResourceLoader {
 
     public DotResourceLoader() {
         super();
+        stats.setBuildsInFlight(buildsInFlight::size);
     }
 
     private boolean isACMSVelocityFile(String arg0) {
@@ -165,67 +179,65 @@ public class DotResourceLoader extends ResourceLoader {
         long timer = System.currentTimeMillis();
         InputStream result = null;
 
-        synchronized (arg0.intern()) {
-	        try {
-	            if(!UtilMethods.isSet(arg0)) {
-	               throw new ResourceNotFoundException("cannot find resource");
-	            }
+        try {
+            if(!UtilMethods.isSet(arg0)) {
+               throw new ResourceNotFoundException("cannot find resource");
+            }
 
-	            Logger.debug(this, "Thread " + Thread.currentThread().getId() + ":" + Thread.currentThread().getName() + " VelocityKey " + arg0 + " Time " + timer);
-
-	            if (isACMSVelocityFile(arg0)) {
-	            	result = new BufferedInputStream(generateStream(arg0));
-	            }else{
-	            	boolean serveFile = false;
-	            	Logger.debug(this, "Not a CMS Velocity File : " + arg0);
-
-	            	java.io.File f=null;
-	            	String lookingFor="";
-	            	if (arg0.startsWith("dynamic")) {
-	            		lookingFor =ConfigUtils.getDynamicContentPath() + File.separator +  "velocity" + File.separator+arg0;
-
-	            	} else {
-	            		lookingFor = VELOCITY_ROOT + arg0;
-	            	}
-	            	f = new java.io.File(lookingFor);
-	                if(!f.exists()){
-	                    f = new java.io.File(arg0);
-	                }
-	                if(!f.exists()){
-	                	throw new ResourceNotFoundException("cannot find resource");
-	                }
-	            	String canon = f.getCanonicalPath();
-	            	File dynamicContent=new File(ConfigUtils.getDynamicContentPath());
-
-	                if(assetRealCanoncalPath != null && canon.startsWith(assetRealCanoncalPath)){
-	                    serveFile = true;
-	                }
-	                else if(velocityCanoncalPath != null && canon.startsWith(velocityCanoncalPath)){
-	                    serveFile = true;
-	                }
-	                else if (assetCanoncalPath != null && canon.startsWith(assetCanoncalPath)){
-	                    serveFile = true;
-	                }
-	                else if (canon.startsWith(dynamicContent.getCanonicalPath())) {
-	                	serveFile =true;
-	                }
-	                if(!serveFile){
-	                    Logger.warn(this, "POSSIBLE HACK ATTACK DotResourceLoader: " + lookingFor);
-	                    throw new ResourceNotFoundException("cannot find resource");
-	                }
-	                result = new BufferedInputStream(new FileInputStream(f));
-	            }
-	        }catch (Exception e) {
-	            Logger.warn(this,"Error ocurred finding resource '" + arg0 + "' exception: " + e.toString());
-	            if(e instanceof ResourceNotFoundException){
-	            	throw (ResourceNotFoundException)e;
-	            }
-	            try {
-					result = new ByteArrayInputStream("".getBytes("UTF-8"));
-				} catch (UnsupportedEncodingException e1) {
-					Logger.error(DotResourceLoader.class,e1.getMessage(),e1);
-				}
-	        }
+            Logger.debug(this, "Thread " + Thread.currentThread().getId() + ":" + Thread.currentThread().getName() + " VelocityKey " + arg0 + " Time " + timer);
+
+            if (isACMSVelocityFile(arg0)) {
+            	result = new ByteArrayInputStream(build(arg0));
+            }else{
+            	boolean serveFile = false;
+            	Logger.debug(this, "Not a CMS Velocity File : " + arg0);
+
+            	java.io.File f=null;
+            	String lookingFor="";
+            	if (arg0.startsWith("dynamic")) {
+            		lookingFor =ConfigUtils.getDynamicContentPath() + File.separator +  "velocity" + File.separator+arg0;
+
+            	} else {
+            		lookingFor = VELOCITY_ROOT + arg0;
+            	}
+            	f = new java.io.File(lookingFor);
+                if(!f.exists()){
+                    f = new java.io.File(arg0);
+                }
+                if(!f.exists()){
+                	throw new ResourceNotFoundException("cannot find resource");
+                }
+            	String canon = f.getCanonicalPath();
+            	File dynamicContent=new File(ConfigUtils.getDynamicContentPath());
+
+                if(assetRealCanoncalPath != null && canon.startsWith(assetRealCanoncalPath)){
+                    serveFile = true;
+                }
+                else if(velocityCanoncalPath != null && canon.startsWith(velocityCanoncalPath)){
+                    serveFile = true;
+                }
+                else if (assetCanoncalPath != null && canon.startsWith(assetCanoncalPath)){
+                    serveFile = true;
+                }
+                else if (canon.startsWith(dynamicContent.getCanonicalPath())) {
+                	serveFile =true;
+                }
+                if(!serveFile){
+                    Logger.warn(this, "POSSIBLE HACK ATTACK DotResourceLoader: " + lookingFor);
+                    throw new ResourceNotFoundException("cannot find resource");
+                }
+                result = new BufferedInputStream(new FileInputStream(f));
+            }
+        }catch (Exception e) {
+            Logger.warn(this,"Error ocurred finding resource '" + arg0 + "' exception: " + e.toString());
+            if(e instanceof ResourceNotFoundException){
+            	throw (ResourceNotFoundException)e;
+            }
+            try {
+				result = new ByteArrayInputStream("".getBytes("UTF-8"));
+			} catch (UnsupportedEncodingException e1) {
+				Logger.error(DotResourceLoader.class,e1.getMessage(),e1);
+			}
         }
         if(result == null){
         	try {
@@ -239,6 +251,61 @@ public class DotResourceLoader extends ResourceLoader {
         return result;
     }
 
+    /**
+     * Builds the CMS resource, or waits for the build another thread already started for it. The build is
+     * forgotten once it is done, so a failed build is tried again by the next request. In the in-memory mode
+     * the VTL built before is reused until the resource is invalidated.
+     */
+    private byte[] build(String arg0) throws Exception {
+        final String type = arg0.substring(arg0.lastIndexOf('.') + 1);
+        final boolean inMemory = VelocityUtil.isInMemoryVTL();
+        if (inMemory) {
+            final byte[] source = resourceCache.getSource(arg0);
+            if (source != null) {
+                stats.recordSourceHit();
+                return source;
+            }
+        }
+
+        final CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        final CompletableFuture<byte[]> running = buildsInFlight.putIfAbsent(arg0, mine);
+
+        if (running != null) {
+            final long start = System.nanoTime();
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            } finally {
+                stats.recordWait(type, System.nanoTime() - start);
+            }
+        }
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try (InputStream stream = generateStream(arg0)) {
+            final byte[] bytes = (stream != null) ? IOUtils.toByteArray(stream) : new byte[0];
+            if (inMemory) {
+                resourceCache.putSource(arg0, bytes);
+            }
+            mine.complete(bytes);
+            failed = false;
+            return bytes;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            buildsInFlight.remove(arg0, mine);
+            stats.recordBuild(type, System.nanoTime() - start, failed);
+        }
+    }
+
     @SuppressWarnings("resource")
     private InputStream generateStream(String arg0) throws Exception {
     	User user=APILocator.getUserAPI().getSystemUser();
@@ -0,0 +1,153 @@
+package com.dotmarketing.velocity;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Keeps the time the {@link DotResourceLoader} spends building each type of velocity resource, and the time the
+ * requests spend waiting for a build of the same resource started by another thread, so they can be followed
+ * through JMX.
+ */
+public class DotResourceLoaderStats implements DotResourceLoaderStatsMBean {
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=VelocityResourceLoader";
+
+    private final ConcurrentMap<String, Timer> builds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> waits  = new ConcurrentHashMap<>();
+    private final AtomicLong sourceHits = new AtomicLong();
+    private volatile IntSupplier buildsInFlight = () -> 0;
+
+    private DotResourceLoaderStats() {
+        // singleton
+    }
+
+    private static class SingletonHolder {
+        private static final DotResourceLoaderStats INSTANCE = new DotResourceLoaderStats();
+    }
+
+    /**
+     * Get the instance.
+     * @return DotResourceLoaderStats
+     */
+    public static DotResourceLoaderStats getInstance() {
+
+        return DotResourceLoaderStats.SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Records a build of a resource
+     * @param type {@link String} extension of the resource
+     * @param nanos long time the build took
+     * @param failed boolean true if the build threw an exception
+     */
+    public void recordBuild(final String type, final long nanos, final boolean failed) {
+
+        final Timer timer = this.builds.computeIfAbsent(type, key -> new Timer());
+        timer.record(nanos);
+        if (failed) {
+            timer.failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a wait for a build started by another thread
+     * @param type {@link String} extension of the resource
+     * @param nanos long time waited
+     */
+    public void recordWait(final String type, final long nanos) {
+
+        this.waits.computeIfAbsent(type, key -> new Timer()).record(nanos);
+    }
+
+    /**
+     * Records a resource parsed again from the VTL kept in memory instead of built
+     */
+    public void recordSourceHit() {
+
+        this.sourceHits.incrementAndGet();
+    }
+
+    void setBuildsInFlight(final IntSupplier buildsInFlight) {
+        this.buildsInFlight = buildsInFlight;
+    }
+
+    @Override
+    public Map<String, String> getBuildTimings() {
+
+        final Map<String, String> timings = new TreeMap<>();
+        for (final Map.Entry<String, Timer> entry : this.builds.entrySet()) {
+
+            final Timer timer = entry.getValue();
+            timings.put(entry.getKey(), String.format("builds=%d, failures=%d, avg=%.2fms, max=%.2fms",
+                    timer.count.get(), timer.failures.get(), timer.averageMillis(), toMillis(timer.max.get())));
+        }
+        return timings;
+    }
+
+    @Override
+    public Map<String, String> getWaitTimings() {
+
+        final Map<String, String> timings = new TreeMap<>();
+        for (final Map.Entry<String, Timer> entry : this.waits.entrySet()) {
+
+            final Timer timer = entry.getValue();
+            timings.put(entry.getKey(), String.format("waits=%d, avg=%.2fms, max=%.2fms",
+                    timer.count.get(), timer.averageMillis(), toMillis(timer.max.get())));
+        }
+        return timings;
+    }
+
+    @Override
+    public int getBuildsInFlight() {
+        return this.buildsInFlight.getAsInt();
+    }
+
+    @Override
+    public long getSourceHits() {
+        return this.sourceHits.get();
+    }
+
+    @Override
+    public void reset() {
+
+        this.builds.clear();
+        this.waits.clear();
+        this.sourceHits.set(0);
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class Timer {
+
+        private final AtomicLong count    = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong total    = new AtomicLong();
+        private final AtomicLong max      = new AtomicLong();
+
+        private void record(final long nanos) {
+
+            this.count.incrementAndGet();
+            this.total.addAndGet(nanos);
+            this.max.accumulateAndGet(nanos, Math::max);
+        }
+
+        private double averageMillis() {
+
+            final long times = this.count.get();
+            return (times == 0) ? 0 : toMillis(this.total.get()) / times;
+        }
+    }
+
+} // E:O:F:DotResourceLoaderStats.
@@ -0,0 +1,42 @@
+package com.dotmarketing.velocity;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link DotResourceLoaderStats}
+ */
+public interface DotResourceLoaderStatsMBean extends DotMBean {
+
+    /**
+     * Summary of the builds of each type of resource, by extension: builds, failures, average and max millis
+     * @return Map
+     */
+    Map<String, String> getBuildTimings();
+
+    /**
+     * Summary of the waits of each type of resource, by extension: requests that waited for another thread
+     * building the same resource, average and max millis waited
+     * @return Map
+     */
+    Map<String, String> getWaitTimings();
+
+    /**
+     * Resources being built right now
+     * @return int
+     */
+    int getBuildsInFlight();
+
+    /**
+     * Resources served from the VTL kept in memory instead of built, see VELOCITY_IN_MEMORY_VTL
+     * @return long
+     */
+    long getSourceHits();
+
+    /**
+     * Forgets all the timings collected so far
+     */
+    void reset();
+
+} // E:O:F:DotResourceLoaderStatsMBean.
@@ -40,6 +40,7 @@ import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.tools.view.context.ChainedContext;
 
 import com.dotcms.enterprise.LicenseUtil;
+import com.dotcms.metrics.MetricsRegistry;
 import com.dotcms.publisher.endpoint.bean.PublishingEndPoint;
 import com.dotcms.publisher.endpoint.business.PublishingEndPointAPI;
 import com.dotmarketing.beans.ContainerStructure;
@@ -49,7 +50,9 @@ import com.dotmarketing.beans.UserProxy;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.BlockPageCache;
 import com.dotmarketing.business.BlockPageCache.PageCacheParameters;
+import com.dotmarketing.business.BlockPageCacheLoader;
 import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.PageCacheDependencies;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.business.portal.PortletAPI;
 import com.dotmarketing.business.web.HostWebAPI;
@@ -69,6 +72,7 @@ import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
 import com.dotmarketing.portlets.structure.model.Field;
 import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.velocity.directive.ParallelContainerRender;
 import com.dotmarketing.viewtools.DotTemplateTool;
 import com.dotmarketing.viewtools.RequestWrapper;
 import com.dotmarketing.viewtools.content.ContentMap;
@@ -83,6 +87,8 @@ public abstract class VelocityServlet extends HttpServlet {
 
 	private static final long serialVersionUID = 1L;
 
+	private static final String PAGE_RENDER_METRIC = "dotcms_page_render_seconds";
+
 	private ContentletAPI conAPI = APILocator.getContentletAPI();
 
 	private static PermissionAPI permissionAPI = APILocator.getPermissionAPI();
@@ -218,12 +224,15 @@ public abstract class VelocityServlet extends HttpServlet {
 			}
 			
 			
+			final long renderStart = System.nanoTime();
+			final String renderMode;
 			if (PREVIEW_MODE && ADMIN_MODE) {
 				// preview mode has the left hand menu and edit buttons on the
 				// working page
 
 				Logger.debug(VelocityServlet.class, "VELOCITY SERVLET I'M ON PREVIEW MODE!!!");
 
+				renderMode = "preview";
 				doPreviewMode(request, response);
 			} else if (EDIT_MODE && ADMIN_MODE) {
 				// edit mode has the left hand menu and edit buttons on the
@@ -231,20 +240,26 @@ public abstract class VelocityServlet extends HttpServlet {
 
 				Logger.debug(VelocityServlet.class, "VELOCITY SERVLET I'M ON EDIT MODE!!!");
 
+				renderMode = "edit";
 				doEditMode(request, response);
 			} else if (ADMIN_MODE) {
 				// admin mode has the left hand menu and shows the live page in
 				// the frame
 				Logger.debug(VelocityServlet.class, "VELOCITY SERVLET I'M ON ADMIN MODE!!!");
 
+				renderMode = "admin";
 				doAdminMode(request, response);
 			} else {
 				// live mode has no frame and shows the live page
 				Logger.debug(VelocityServlet.class, "VELOCITY SERVLET I'M ON LIVE MODE!!!");
 
+				renderMode = "live";
 				doLiveMode(request, response);
 			}
 
+			MetricsRegistry.getInstance().histogram(PAGE_RENDER_METRIC, "Time to render a page", "mode", renderMode)
+					.recordSince(renderStart);
+
 		} catch (ResourceNotFoundException rnfe) {
 
 			response.sendError(404);
@@ -384,6 +399,7 @@ public abstract class VelocityServlet extends HttpServlet {
 	 */
 	public void doLiveMode(HttpServletRequest request, HttpServletResponse response) throws Exception {
 	    LicenseUtil.startLiveMode();
+	    BlockPageCacheLoader.PageLookup pageLookup = null;
 	    try {
 			String uri = URLDecoder.decode(request.getRequestURI(), UtilMethods.getCharsetConfiguration());
     		Host host;
@@ -560,18 +576,32 @@ public abstract class VelocityServlet extends HttpServlet {
 			PageCacheParameters cacheParameters = new BlockPageCache.PageCacheParameters(userId, language, urlMap, queryString, persona);
 
     		boolean buildCache = false;
+    		// true when a stale page has been sent and it is rendered again just for the cache
+    		boolean revalidate = false;
     		String key = VelocityUtil.getPageCacheKey(request, response);
     		if (key != null) {
-    			String cachedPage = CacheLocator.getBlockPageCache().get(page, cacheParameters);
-    			if (cachedPage == null || "refresh".equals(request.getParameter("dotcache"))
+    			if ("refresh".equals(request.getParameter("dotcache"))
     					|| "refresh".equals(request.getAttribute("dotcache"))
     					|| (request.getSession(false) !=null && "refresh".equals(request.getSession(true).getAttribute("dotcache")))) {
     				// build cached response
     				buildCache = true;
     			} else {
-    				// have cached response and are not refreshing, send it
-    				response.getWriter().write(cachedPage);
-    				return;
+    				// only one request renders a missing page, the others wait for it or get the stale copy
+    				pageLookup = BlockPageCacheLoader.getInstance().lookup(page, cacheParameters);
+    				if (pageLookup.getValue() == null) {
+    					// build cached response
+    					buildCache = true;
+    				} else if (pageLookup.isRevalidate()) {
+    					// send the stale response and build a new one for the cache
+    					response.getWriter().write(pageLookup.getValue());
+    					response.getWriter().close();
+    					buildCache = true;
+    					revalidate = true;
+    				} else {
+    					// have cached response and are not refreshing, send it
+    					response.getWriter().write(pageLookup.getValue());
+    					return;
+    				}
     			}
     		}
     
@@ -581,33 +611,65 @@ public abstract class VelocityServlet extends HttpServlet {
     		request.setAttribute("velocityContext", context);
     		Logger.debug(VelocityServlet.class, "HTMLPage Identifier:" + ident.getInode());
 
+    		// record what the page uses, so the cached page is removed when any of it changes
+    		Set<String> dependencies = null;
+    		if (buildCache) {
+    			PageCacheDependencies.startRecording();
+    		}
+    		// the containers are rendered by other threads and spliced into the page once it is merged
+    		final ParallelContainerRender parallel = (ParallelContainerRender.isEnabled())
+    				? ParallelContainerRender.start(request, response) : null;
+    		final Writer pageOut = (parallel != null) ? parallel.getWriter() : out;
+    		boolean complete = true;
     		try {
 
 				if ( page.isContent() ) {
 					VelocityUtil.getEngine().getTemplate("/live/" + ident.getInode() + "_" + page.getLanguageId()
-							+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, out);
+							+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, pageOut);
 				} else {
 					VelocityUtil.getEngine().getTemplate("/live/" + ident.getInode()
-							+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, out);
+							+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, pageOut);
 				}
 
 			} catch (Throwable e) {
     			Logger.warn(this, "can't do live mode merge", e);
+    		} finally {
+    			if (parallel != null) {
+    				try {
+    					complete = parallel.finish(out);
+    				} catch (IOException e) {
+    					complete = false;
+    					Logger.warn(this, "can't write the live mode merge", e);
+    				}
+    			}
+    			if (buildCache) {
+    				dependencies = PageCacheDependencies.stopRecording();
+    			}
     		}
     		session = request.getSession(false);
     		if (buildCache) {
     			String trimmedPage = out.toString().trim();
-    			response.getWriter().write(trimmedPage);
-    			response.getWriter().close();
-    			synchronized (key.intern()) {
-    				//CacheLocator.getHTMLPageCache().remove(page);
-    				CacheLocator.getBlockPageCache().add(page, trimmedPage, cacheParameters);
+    			if (!revalidate) {
+    				response.getWriter().write(trimmedPage);
+    				response.getWriter().close();
+    			}
+    			if (complete) {
+    				synchronized (key.intern()) {
+    					//CacheLocator.getHTMLPageCache().remove(page);
+    					CacheLocator.getBlockPageCache().add(page, trimmedPage, cacheParameters, dependencies);
+    				}
+    			} else {
+    				// some containers were left out, the next request renders the page again
+    				Logger.warn(this, "Not caching " + request.getRequestURI() + ", some of its containers were not rendered");
     			}
     		} else {
     			out.close();
     		}
 	    }
 	    finally {
+	        if (pageLookup != null) {
+	            pageLookup.release();
+	        }
 	        LicenseUtil.stopLiveMode();
 	    }
 
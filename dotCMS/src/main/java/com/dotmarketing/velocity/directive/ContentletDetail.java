@@ -3,6 +3,7 @@ package com.dotmarketing.velocity.directive;
 import com.dotcms.contenttype.model.type.BaseContentType;
 import com.dotcms.contenttype.model.type.ContentType;
 import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.PageCacheDependencies;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
 import com.dotmarketing.util.Config;
@@ -30,6 +31,8 @@ public class ContentletDetail extends DotDirective {
   @Override
   String resolveTemplatePath(final Context context, final Writer writer, final RenderParams params, final String argument) {
 
+    PageCacheDependencies.recordIdentifier(argument);
+
     ContentletVersionInfo cv;
 
     try {
@@ -78,6 +78,9 @@ abstract class DotDirective extends InputBase {
     try{
       String templatePath = this.resolveTemplatePath(context, writer, params, argument);
       Template t = loadTemplate(context, templatePath);
+      if (this.deferRender(context, writer, params, t, templatePath)) {
+        return true;
+      }
       return this.renderTemplate(context, writer, t, templatePath);
     }
     catch(ResourceNotFoundException | ParseErrorException rnfe){
@@ -89,6 +92,16 @@ abstract class DotDirective extends InputBase {
 
 
 
+  /**
+   * Lets a directive hand the render of the template to someone else, the template is rendered in place when it
+   * returns false
+   */
+  boolean deferRender(InternalContextAdapter context, Writer writer, RenderParams params, Template t, String templatePath) {
+    return false;
+  }
+
+
+
   final boolean renderTemplate(InternalContextAdapter context, final Writer writer, final Template t, final String templatePath)
       throws IOException, ResourceNotFoundException, ParseErrorException, MethodInvocationException {
 
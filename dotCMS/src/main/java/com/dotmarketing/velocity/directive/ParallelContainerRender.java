@@ -0,0 +1,408 @@
+package com.dotmarketing.velocity.directive;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.AbstractContext;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.tools.view.context.ChainedContext;
+
+import com.dotcms.api.web.HttpServletRequestThreadLocal;
+import com.dotcms.concurrent.DotConcurrentFactory;
+import com.dotcms.concurrent.DotSubmitter;
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotcms.repackage.com.google.common.collect.Maps;
+import com.dotmarketing.business.PageCacheDependencies;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.VelocityUtil;
+import com.dotmarketing.velocity.VelocityServlet;
+import com.dotmarketing.viewtools.RequestWrapper;
+
+/**
+ * Renders the containers of a live page concurrently. When the page template reaches a <code>#parseContainer</code>
+ * the container is rendered by another thread, into its own buffer and with a copy of the velocity context taken at
+ * that point, while the page template goes on, so the containers that follow start right away. Once the page is
+ * merged {@link #finish(Writer)} writes the page out, splicing the buffers of the containers back where their
+ * <code>#parseContainer</code> was.
+ * <p>
+ * As the containers don't share the context, a container can't see the variables set by the containers before it
+ * and the page can't see the ones set by its containers, that is why this mode is only turned on with
+ * VELOCITY_PARALLEL_CONTAINERS. The containers rendered inside a macro or whose output is captured by another
+ * directive are rendered in place, as usual. At most VELOCITY_PARALLEL_CONTAINERS_PER_PAGE containers of a page
+ * are rendered at the same time, the ones over that are rendered in place too, and the page waits at most
+ * VELOCITY_PARALLEL_CONTAINERS_TIMEOUT_MILLIS for them, leaving out the containers that are not done by then.
+ * Such a page is incomplete, {@link #finish(Writer)} says so and it must not be cached. The containers left out
+ * are cancelled, and the request and response they were given stop working once the page is written out, so a
+ * container that is still running can't touch them.
+ * <p>
+ * The threads are taken from the {@value #SUBMITTER_NAME} submitter of the {@link DotConcurrentFactory}.
+ */
+public final class ParallelContainerRender {
+
+    public static final String SUBMITTER_NAME = "velocitycontainers";
+
+    private static final String REQUEST_ATTRIBUTE = "com.dotcms.directive.parallelcontainers";
+
+    private final HttpServletRequest request;
+    private final HttpServletRequest containerRequest;
+    private final HttpServletResponse containerResponse;
+    private final DotSubmitter submitter;
+    private final SplicedWriter writer = new SplicedWriter();
+    private final Semaphore permits;
+    private final long deadline;
+    private volatile boolean finished = false;
+    private volatile boolean detached = false;
+
+    private ParallelContainerRender(final HttpServletRequest request, final HttpServletResponse response) {
+
+        this(request, response, DotConcurrentFactory.getInstance().getSubmitter(SUBMITTER_NAME),
+                Config.getIntProperty("VELOCITY_PARALLEL_CONTAINERS_PER_PAGE", 4),
+                Config.getLongProperty("VELOCITY_PARALLEL_CONTAINERS_TIMEOUT_MILLIS", 10000));
+    }
+
+    @VisibleForTesting
+    ParallelContainerRender(final HttpServletRequest request, final HttpServletResponse response,
+                            final DotSubmitter submitter, final int permits, final long timeoutMillis) {
+
+        this.request = request;
+        this.containerRequest = this.detachable(HttpServletRequest.class, request);
+        this.containerResponse = this.detachable(HttpServletResponse.class, response);
+        this.submitter = submitter;
+        this.permits = new Semaphore(Math.max(1, permits));
+        this.deadline = System.currentTimeMillis() + timeoutMillis;
+    }
+
+    /**
+     * @return true if the containers of the live pages are rendered concurrently
+     */
+    public static boolean isEnabled() {
+
+        return Config.getBooleanProperty("VELOCITY_PARALLEL_CONTAINERS", false);
+    }
+
+    /**
+     * Starts the render of a page, the page must be merged into {@link #getWriter()} and then {@link #finish(Writer)}
+     * must be called to write it out
+     * @param request {@link HttpServletRequest}
+     * @param response {@link HttpServletResponse}
+     * @return ParallelContainerRender
+     */
+    public static ParallelContainerRender start(final HttpServletRequest request, final HttpServletResponse response) {
+
+        final ParallelContainerRender render = new ParallelContainerRender(request, response);
+        request.setAttribute(REQUEST_ATTRIBUTE, render);
+        return render;
+    }
+
+    /**
+     * Returns the render of the page of the request, if the containers are rendered concurrently
+     * @param request {@link HttpServletRequest}
+     * @return ParallelContainerRender or null
+     */
+    static ParallelContainerRender get(final HttpServletRequest request) {
+
+        return (request != null) ? (ParallelContainerRender) request.getAttribute(REQUEST_ATTRIBUTE) : null;
+    }
+
+    /**
+     * @return Writer the page must be merged into
+     */
+    public Writer getWriter() {
+
+        return this.writer;
+    }
+
+    /**
+     * Hands the render of the container to another thread, if it can be rendered on its own
+     * @return boolean false if the container must be rendered in place
+     */
+    boolean submit(final DotDirective directive, final InternalContextAdapter context, final Writer out,
+                   final Template template, final String templatePath) {
+
+        if (this.finished || out != this.writer || !(context instanceof InternalContextAdapterImpl)
+                || !this.permits.tryAcquire()) {
+            return false;
+        }
+
+        final ChainedContext fork = this.fork(context.getInternalUserContext());
+        if (!this.splice(() -> this.render(directive, fork, template, templatePath))) {
+
+            Logger.debug(this, "No thread available to render " + templatePath + ", rendering it in place");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hands the task to the submitter and splices it into the page, the permit taken by the caller is released
+     * once the task ends
+     * @return boolean false if there is no thread to run it
+     */
+    @VisibleForTesting
+    boolean splice(final Callable<Rendered> task) {
+
+        try {
+
+            this.writer.splice(this.submitter.submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    this.permits.release();
+                }
+            }));
+            return true;
+        } catch (RejectedExecutionException e) {
+
+            this.permits.release();
+            return false;
+        }
+    }
+
+    /**
+     * Writes the page out, waiting for the containers still being rendered until the deadline. The containers that
+     * are not done by then, or that failed, are left out and the ones still running are cancelled.
+     * @param out {@link Writer} where the page goes
+     * @return boolean true if every container made it into the page, an incomplete page must not be cached
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public boolean finish(final Writer out) throws IOException {
+
+        this.finished = true;
+        this.request.removeAttribute(REQUEST_ATTRIBUTE);
+
+        boolean complete = true;
+        try {
+
+            for (final Object segment : this.writer.segments) {
+
+                if (segment instanceof Future) {
+
+                    final Rendered rendered = this.waitFor((Future<Rendered>) segment);
+                    if (rendered != null) {
+                        out.write(rendered.output);
+                        PageCacheDependencies.recordAll(rendered.dependencies);
+                    } else {
+                        complete = false;
+                    }
+                } else {
+
+                    out.write(segment.toString());
+                }
+            }
+        } finally {
+
+            this.detached = true;
+            for (final Object segment : this.writer.segments) {
+                if (segment instanceof Future) {
+                    ((Future<Rendered>) segment).cancel(true);
+                }
+            }
+        }
+        return complete;
+    }
+
+    private Rendered waitFor(final Future<Rendered> future) {
+
+        try {
+
+            return future.get(Math.max(0, this.deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+
+            future.cancel(true);
+            Logger.warn(this, "A container of " + this.request.getRequestURI() + " was not rendered in time, leaving it out");
+        } catch (ExecutionException e) {
+
+            Logger.warn(this, "Unable to render a container of " + this.request.getRequestURI() + ": " + e.getCause(), e.getCause());
+        } catch (InterruptedException e) {
+
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * @return HttpServletRequest the containers are rendered with, it stops working once the page is written out
+     */
+    @VisibleForTesting
+    HttpServletRequest getContainerRequest() {
+
+        return this.containerRequest;
+    }
+
+    /**
+     * Wraps the request or the response given to the containers, so a container still running once the page is
+     * written out fails instead of touching a request that may already be serving another page
+     */
+    private <T> T detachable(final Class<T> type, final T target) {
+
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, arguments) -> {
+
+            if (this.detached && method.getDeclaringClass() != Object.class) {
+                throw new IllegalStateException("The page of the container was already written out");
+            }
+            try {
+                return method.invoke(target, arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+
+    private Rendered render(final DotDirective directive, final ChainedContext fork, final Template template,
+                            final String templatePath) throws IOException {
+
+        final StringWriter buffer = new StringWriter(4096);
+        Set<String> dependencies = null;
+
+        HttpServletRequestThreadLocal.INSTANCE.setRequest(this.containerRequest);
+        VelocityServlet.velocityCtx.set(fork);
+        PageCacheDependencies.startRecording();
+        try {
+
+            directive.renderTemplate(new InternalContextAdapterImpl(fork), buffer, template, templatePath);
+        } finally {
+
+            dependencies = PageCacheDependencies.stopRecording();
+            VelocityServlet.velocityCtx.remove();
+            HttpServletRequestThreadLocal.INSTANCE.setRequest(null);
+            this.closeSession();
+            DbConnectionFactory.closeSilently();
+        }
+
+        return new Rendered(buffer.toString(), dependencies);
+    }
+
+    /**
+     * Copies the variables of the page context at this point into a new context with its own tools, so the
+     * container can be rendered while the page goes on
+     */
+    private ChainedContext fork(final Context context) {
+
+        final Map<String, Object> variables = Maps.newHashMap();
+        copy(context, variables);
+
+        final ChainedContext fork = new ChainedContext(new VelocityContext(variables), VelocityUtil.getEngine(),
+                new RequestWrapper(this.containerRequest), this.containerResponse, Config.CONTEXT);
+        fork.setToolbox(VelocityUtil.getToolboxManager().getToolboxContext(fork));
+        fork.put("context", fork);
+        fork.put("velocityContext", fork);
+        return fork;
+    }
+
+    /**
+     * Copies the variables of the chained contexts first, so the ones set on the outer contexts win
+     */
+    private static void copy(final Context context, final Map<String, Object> variables) {
+
+        if (context instanceof AbstractContext) {
+
+            final Context chained = ((AbstractContext) context).getChainedContext();
+            if (chained != null) {
+                copy(chained, variables);
+            }
+        }
+
+        for (final Object key : context.getKeys()) {
+
+            final Object value = context.get(key.toString());
+            if (value != null) {
+                variables.put(key.toString(), value);
+            }
+        }
+    }
+
+    private void closeSession() {
+
+        try {
+            HibernateUtil.closeSession();
+        } catch (DotHibernateException e) {
+            Logger.debug(this, e.getMessage(), e);
+        }
+    }
+
+    @VisibleForTesting
+    static final class Rendered {
+
+        private final String output;
+        private final Set<String> dependencies;
+
+        Rendered(final String output, final Set<String> dependencies) {
+            this.output = output;
+            this.dependencies = dependencies;
+        }
+    }
+
+    /**
+     * Keeps the page as the text merged by the page template, with the containers rendered by other threads in
+     * between
+     */
+    private static final class SplicedWriter extends Writer {
+
+        private final List<Object> segments = new ArrayList<>();
+        private StringBuilder current = new StringBuilder(4096);
+
+        private SplicedWriter() {
+            this.segments.add(this.current);
+        }
+
+        private void splice(final Future<Rendered> container) {
+
+            this.segments.add(container);
+            this.current = new StringBuilder(1024);
+            this.segments.add(this.current);
+        }
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) {
+            this.current.append(buffer, offset, length);
+        }
+
+        @Override
+        public void write(final String text) {
+            this.current.append(text);
+        }
+
+        @Override
+        public void write(final int character) {
+            this.current.append((char) character);
+        }
+
+        @Override
+        public void flush() {
+            // written out by finish
+        }
+
+        @Override
+        public void close() {
+            // written out by finish
+        }
+    }
+
+}
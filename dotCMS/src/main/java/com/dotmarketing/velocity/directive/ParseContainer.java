@@ -2,12 +2,16 @@ package com.dotmarketing.velocity.directive;
 
 import java.io.Writer;
 
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.velocity.Template;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.context.InternalContextAdapter;
 import org.apache.velocity.exception.TemplateInitException;
 import org.apache.velocity.runtime.RuntimeServices;
 import org.apache.velocity.runtime.parser.node.Node;
 
+import com.dotmarketing.business.PageCacheDependencies;
 import com.dotmarketing.util.Config;
 
 public class ParseContainer extends DotDirective {
@@ -35,6 +39,8 @@ public class ParseContainer extends DotDirective {
   @Override
   String resolveTemplatePath(final Context context, final Writer writer, final RenderParams params, final String argument) {
 
+    PageCacheDependencies.recordIdentifier(argument);
+
     return (params.live) 
         ? "/live/" + argument + "." + EXTENSION
         : "/working/" + argument + "." + EXTENSION;
@@ -43,5 +49,18 @@ public class ParseContainer extends DotDirective {
 
   }
 
+
+  @Override
+  boolean deferRender(final InternalContextAdapter context, final Writer writer, final RenderParams params,
+      final Template t, final String templatePath) {
+
+    if (!params.live || params.editMode) {
+      return false;
+    }
+
+    final ParallelContainerRender parallel = ParallelContainerRender.get((HttpServletRequest) context.get("request"));
+    return parallel != null && parallel.submit(this, context, writer, t, templatePath);
+  }
+
 }
 
@@ -18,6 +18,8 @@ import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.cache.FieldsCache;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
 
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
@@ -50,10 +52,14 @@ import com.liferay.portal.model.User;
  */
 public class ContentMap {
 
+	/**
+	 * Key the host of the content is remembered under, it can't clash with a velocity variable name
+	 */
+	static final String HOST_KEY = ":host";
+
 	private Contentlet content;
 	private ContentletAPI conAPI;
 	private PermissionAPI perAPI;
-	private List<Field> fields;
 	private Map<String,Field> fieldMap;
 	private Map<String, Object> fieldValueMap;
 	private User user;
@@ -62,12 +68,12 @@ public class ContentMap {
 	private Structure structure;
 	private String title;
 	private Context context;
+	ContentMapBatch batch;
 
 	public ContentMap(Contentlet content, User user, boolean EDIT_OR_PREVIEW_MODE, Host host, Context context) {
 		this.content = content;
 		this.conAPI = APILocator.getContentletAPI();
 		this.perAPI = APILocator.getPermissionAPI();
-		this.fields = FieldsCache.getFieldsByStructureInode(content.getStructureInode());
 		this.user = user;
 		this.EDIT_OR_PREVIEW_MODE = EDIT_OR_PREVIEW_MODE;
 		this.host = host;
@@ -96,6 +102,10 @@ public class ContentMap {
 	 * MULTI SELECT FIELDS : Returns MultiSelectMap which provides you Lists for the Options Values and Labels as well as a List of the Selected Values for this Content<br/>
 	 * SELECT FIELDS : Returns SelectMap which provides you Lists for the Options Values and Labels as well as the Selected Value for this Content<br/>
 	 * RADIO FIELDS : Returns RadioMap which provides you Lists for the Options Values and Labels as well as the Selected Value for this Content<br/>
+	 * <br/>
+	 * All of the above are resolved once per ContentMap and remembered, so calling $mycon.myimage several times in a template
+	 * doesn't hit the APIs again. When the ContentMap comes from a pull the files, images and hosts of the whole list are
+	 * loaded together the first time one of them is asked for, see {@link ContentMapBatch}.<br/>
 	 * @param fieldVariableName The velocity Variable name from the structure.
 	 * @return
 	 */
@@ -117,16 +127,14 @@ public class ContentMap {
 	
 	private Object get(String fieldVariableName, Boolean parseVelocity) {
 		try {
-			Object ret = null;
+			Object ret = retriveFieldValue(fieldVariableName);
+			if(ret != null){
+				return ret;
+			}
 			Field f = retriveField(fieldVariableName);
 			if(f==null){
 				if("host".equalsIgnoreCase(fieldVariableName)){
-					try{
-						return new ContentMap(conAPI.findContentletByIdentifier( content.getHost() ,!EDIT_OR_PREVIEW_MODE, APILocator.getLanguageAPI().getDefaultLanguage().getId(), user, true ),user,EDIT_OR_PREVIEW_MODE,host,context);
-					}catch (IndexOutOfBoundsException e) {
-						Logger.debug(this, "Unable to get host on content");
-						return null;
-					}
+					return getHostMap();
 				}else if("title".equalsIgnoreCase(fieldVariableName)){
 					ret =  getContentletsTitle();
 				}else if("structure".equalsIgnoreCase(fieldVariableName) || "contenttype".equalsIgnoreCase(fieldVariableName)){
@@ -143,7 +151,7 @@ public class ContentMap {
 						Identifier i = APILocator.getIdentifierAPI().find(fid);
 
 						if(i!=null && InodeUtils.isSet(i.getId()) && i.getAssetType().equals("contentlet")){
-							return i.getPath();
+							return addFieldValue(fieldVariableName, i.getPath());
 						}
 					}
 					return null;
@@ -153,12 +161,15 @@ public class ContentMap {
 				}
 			}
 			if(f != null && f.getFieldType().equals(Field.FieldType.CATEGORY.toString())){
-				return perAPI.filterCollection(new ArrayList<Category>((Set<Category>)conAPI.getFieldValue(content, f)), PermissionAPI.PERMISSION_USE, true, user);
+				return addFieldValue(fieldVariableName, perAPI.filterCollection(new ArrayList<Category>((Set<Category>)conAPI.getFieldValue(content, f)), PermissionAPI.PERMISSION_USE, true, user));
 			}else if(f != null && (f.getFieldType().equals(Field.FieldType.FILE.toString()) || f.getFieldType().equals(Field.FieldType.IMAGE.toString()))){
-                // Check if image or file is in fieldValueMap hashmap
-                Object fieldvalue = retriveFieldValue(f);
-                if (fieldvalue != null) {
-                    return fieldvalue;
+                // Load this field for the whole pull at once, it lands in fieldValueMap
+                if (batch != null) {
+                    batch.prefetchFiles(f);
+                    Object fieldvalue = retriveFieldValue(fieldVariableName);
+                    if (fieldvalue != null) {
+                        return fieldvalue;
+                    }
                 }
 			    
 			    final String fid = (String)conAPI.getFieldValue(content, f);
@@ -171,35 +182,20 @@ public class ContentMap {
 				Contentlet fileAsset  =  APILocator.getContentletAPI().find(inode, user!=null?user:APILocator.getUserAPI().getAnonymousUser(), true);
 					
 				if(fileAsset != null && UtilMethods.isSet(fileAsset.getInode())){
-	                FileAssetMap fam = FileAssetMap.of(fileAsset);
                     // Store file asset map into fieldValueMap
-                    addFieldValue(f, fam);
-                    return fam;
+                    return addFieldValue(fieldVariableName, FileAssetMap.of(fileAsset));
 				  }
 					
 				
 			}else if(f != null && f.getFieldType().equals(Field.FieldType.BINARY.toString())){
-                // Check if fileAsset or binaryMap is in fieldValueMap hashmap
-                Object fieldvalue = retriveFieldValue(f);
-                if (fieldvalue != null) {
-                    return fieldvalue;
-                }
-
-                // Field value is not present in fieldValueMap hashmap
                 if (content.getStructure().getStructureType() == Structure.STRUCTURE_TYPE_FILEASSET
                         && "fileasset".equalsIgnoreCase(f.getVelocityVarName())) {
                     // http://jira.dotmarketing.net/browse/DOTCMS-7406
-                    FileAssetMap fam = FileAssetMap.of(content);
-
                     // Store file asset into fieldValueMap
-                    addFieldValue(f, fam);
-                    return fam;
+                    return addFieldValue(fieldVariableName, FileAssetMap.of(content));
                 } else {
-                    BinaryMap bm = new BinaryMap(content, f);
-
-                    // Store file asset into fieldValueMap
-                    addFieldValue(f, bm);
-                    return bm;
+                    // Store binary map into fieldValueMap
+                    return addFieldValue(fieldVariableName, new BinaryMap(content, f));
                 }
 			//if the property being served is URL and the structure is a page show URL using the identifier information
 			}else if("url".equalsIgnoreCase(fieldVariableName) && content.getStructure().getStructureType() == Structure.STRUCTURE_TYPE_HTMLPAGE){
@@ -231,26 +227,21 @@ public class ContentMap {
 					}
 				}
 
-				return new TagList(tags.toString());
+				return addFieldValue(fieldVariableName, new TagList(tags.toString()));
 			}else if(f != null && f.getFieldType().equals(Field.FieldType.HOST_OR_FOLDER.toString())){
 				if(FolderAPI.SYSTEM_FOLDER.equals(content.getFolder())){
-					try{
-						return new ContentMap(conAPI.findContentletByIdentifier( content.getHost() ,!EDIT_OR_PREVIEW_MODE, APILocator.getLanguageAPI().getDefaultLanguage().getId(), user, true ),user,EDIT_OR_PREVIEW_MODE,host,context);
-					}catch (IndexOutOfBoundsException e) {
-						Logger.debug(this, "Unable to get host on content");
-						return null;
-					}
+					return getHostMap();
 				}else{
-					return APILocator.getFolderAPI().find(content.getFolder(), user, true);
+					return addFieldValue(fieldVariableName, APILocator.getFolderAPI().find(content.getFolder(), user, true));
 				}
 			}else if(f != null && f.getFieldType().equals(Field.FieldType.SELECT.toString())){
-				return new SelectMap(f, content);
+				return addFieldValue(fieldVariableName, new SelectMap(f, content));
 			}else if(f != null && f.getFieldType().equals(Field.FieldType.RADIO.toString())){
-				return new RadioMap(f, content);
+				return addFieldValue(fieldVariableName, new RadioMap(f, content));
 			}else if(f != null && f.getFieldType().equals(Field.FieldType.MULTI_SELECT.toString())){
-				return new MultiSelectMap(f, content);
+				return addFieldValue(fieldVariableName, new MultiSelectMap(f, content));
 			}else if(f != null && f.getFieldType().equals(Field.FieldType.CHECKBOX.toString())){
-				return new CheckboxMap(f, content);
+				return addFieldValue(fieldVariableName, new CheckboxMap(f, content));
 			}else if(f != null && f.getFieldType().equals(Field.FieldType.KEY_VALUE.toString())){
 			    final String jsonData=(String)conAPI.getFieldValue(content, f);
 				Map<String,Object> keyValueMap = KeyValueFieldUtil.JSONValueToHashMap(jsonData);
@@ -266,7 +257,7 @@ public class ContentMap {
 				}
 				retMap.put("keys", retMap.keySet());
 				retMap.put("map", keyValueMap);
-				return retMap;
+				return addFieldValue(fieldVariableName, retMap);
 			}
 
 			//ret could have been set by title
@@ -348,7 +339,7 @@ public class ContentMap {
     }
 
     private String getFileField() throws IOException{
-        for (Field f : FieldsCache.getFieldsByStructureInode(content.getStructureInode())) {
+        for (Field f : FieldsCache.getFieldsByVariableName(content.getStructureInode()).values()) {
             if ("binary".equals(f.getFieldType())) {
                 return f.getVelocityVarName();
             }
@@ -375,37 +366,79 @@ public class ContentMap {
 
 	private Field retriveField(String fieldVariableName) throws Exception{
 		if(fieldMap == null){
-			fieldMap = UtilMethods.convertListToHashMap(fields, "getVelocityVarName", String.class);
+			fieldMap = FieldsCache.getFieldsByVariableName(content.getStructureInode());
 		}
 		return fieldMap.get(fieldVariableName);
 	}
 
     /**
-     * Returns the value object using the velocity var name stored in the Field
-     * object
+     * Returns the value already resolved for the velocity var name, if any.
+     * Only the values that don't depend on the velocity context are remembered.
      * 
-     * @param field
-     * @returns field value object (FileAssetMap or BinaryMap)
+     * @param fieldVariableName
+     * @returns field value object (FileAssetMap, BinaryMap, TagList, ...) or null
      */
-    private Object retriveFieldValue(Field field) {
-        if (fieldValueMap == null) {
-            // Lazy init
-            fieldValueMap = new HashMap<String, Object>();
-        }
-        return fieldValueMap.get(field.getVelocityVarName());
+    private Object retriveFieldValue(String fieldVariableName) {
+        return (fieldValueMap == null) ? null : fieldValueMap.get(fieldVariableName);
     }
 
     /**
      * Add field value object to the map
-     * @param field
+     * @param fieldVariableName
      * @param value
+     * @return the value
      */
-    private void addFieldValue(Field field, Object value) {
+    <T> T addFieldValue(String fieldVariableName, T value) {
         if (fieldValueMap == null) {
             // Lazy init
             fieldValueMap = new HashMap<String, Object>();
         }
-        fieldValueMap.put(field.getVelocityVarName(), value);
+        if (value != null) {
+            fieldValueMap.put(fieldVariableName, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the ContentMap of the host of the content, loading it for the whole pull the first time
+     * @return
+     * @throws DotDataException
+     * @throws DotSecurityException
+     */
+    private ContentMap getHostMap() throws DotDataException, DotSecurityException {
+        ContentMap hostMap = (ContentMap) retriveFieldValue(HOST_KEY);
+        if (hostMap == null && batch != null) {
+            batch.prefetchHosts();
+            hostMap = (ContentMap) retriveFieldValue(HOST_KEY);
+        }
+        if (hostMap == null) {
+            Contentlet hostContent = loadHost(content.getHost());
+            if (hostContent != null) {
+                hostMap = addFieldValue(HOST_KEY, newHostMap(hostContent));
+            }
+        }
+        return hostMap;
+    }
+
+    Contentlet loadHost(String hostId) throws DotDataException, DotSecurityException {
+        try{
+            return conAPI.findContentletByIdentifier(hostId, !EDIT_OR_PREVIEW_MODE, APILocator.getLanguageAPI().getDefaultLanguage().getId(), user, true);
+        }catch (IndexOutOfBoundsException e) {
+            Logger.debug(this, "Unable to get host on content");
+            return null;
+        }
+    }
+
+    ContentMap newHostMap(Contentlet hostContent) {
+        return new ContentMap(hostContent, user, EDIT_OR_PREVIEW_MODE, host, context);
+    }
+
+    User getUser() {
+        return user;
+    }
+
+    boolean isEditOrPreviewMode() {
+        return EDIT_OR_PREVIEW_MODE;
     }
 
 	public Structure getStructure() {
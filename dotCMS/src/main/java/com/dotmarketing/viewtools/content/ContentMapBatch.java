@@ -0,0 +1,158 @@
+package com.dotmarketing.viewtools.content;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.PermissionAPI;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.util.InodeUtils;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UtilMethods;
+import com.liferay.portal.model.User;
+
+/**
+ * Ties together the {@link ContentMap}s returned by a single pull of the {@link ContentTool} so the
+ * references they have in common are loaded once for the whole list instead of once per content.
+ *
+ * The first time a template asks one of the contents for a file/image field, that field is resolved for
+ * every content of the pull with a single load of the file assets. The same goes for the host of the
+ * contents, each distinct host is loaded once and shared by all the contents living on it. Whatever
+ * can't be resolved here is left for the {@link ContentMap} to resolve on its own, as it always did.
+ *
+ * Like the ContentMap, a batch is used by the single thread rendering the template.
+ */
+class ContentMapBatch {
+
+    private final List<ContentMap> members;
+    private final Set<String> prefetchedFields = new HashSet<String>();
+    private boolean hostsPrefetched = false;
+
+    private ContentMapBatch(List<ContentMap> members) {
+        this.members = members;
+    }
+
+    /**
+     * Links the contents of a pull in the same batch, a single content doesn't need one
+     * @param contents
+     */
+    static void link(List<ContentMap> contents) {
+        if (contents == null || contents.size() < 2) {
+            return;
+        }
+        ContentMapBatch batch = new ContentMapBatch(new ArrayList<ContentMap>(contents));
+        for (ContentMap contentMap : contents) {
+            contentMap.batch = batch;
+        }
+    }
+
+    /**
+     * Resolves the file/image field for all the contents of the batch, only the first call per field does something
+     * @param field
+     */
+    void prefetchFiles(Field field) {
+        if (!prefetchedFields.add(field.getVelocityVarName())) {
+            return;
+        }
+
+        try {
+            ContentMap first = members.get(0);
+            Map<String, List<ContentMap>> byInode = new LinkedHashMap<String, List<ContentMap>>();
+            for (ContentMap member : members) {
+                String inode = fileInode(member, field);
+                if (inode == null) {
+                    continue;
+                }
+                List<ContentMap> referencing = byInode.get(inode);
+                if (referencing == null) {
+                    referencing = new ArrayList<ContentMap>();
+                    byInode.put(inode, referencing);
+                }
+                referencing.add(member);
+            }
+            if (byInode.isEmpty()) {
+                return;
+            }
+
+            User user = first.getUser() != null ? first.getUser() : APILocator.getUserAPI().getAnonymousUser();
+            List<Contentlet> files = APILocator.getContentletAPI().findContentlets(new ArrayList<String>(byInode.keySet()));
+            files = APILocator.getPermissionAPI().filterCollection(files, PermissionAPI.PERMISSION_READ, true, user);
+
+            for (Contentlet file : files) {
+                List<ContentMap> referencing = byInode.get(file.getInode());
+                if (referencing == null || !UtilMethods.isSet(file.getInode())) {
+                    continue;
+                }
+                FileAssetMap fam = FileAssetMap.of(file);
+                for (ContentMap member : referencing) {
+                    member.addFieldValue(field.getVelocityVarName(), fam);
+                }
+            }
+        } catch (Exception e) {
+            // the contents will load the field one by one
+            Logger.warn(this, "Unable to load field " + field.getVelocityVarName() + " for the whole pull: " + e.getMessage());
+            Logger.debug(this, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Resolves the host of all the contents of the batch, loading each distinct host once
+     */
+    void prefetchHosts() {
+        if (hostsPrefetched) {
+            return;
+        }
+        hostsPrefetched = true;
+
+        Map<String, Contentlet> hosts = new HashMap<String, Contentlet>();
+        for (ContentMap member : members) {
+            String hostId = member.getContentObject().getHost();
+            if (!UtilMethods.isSet(hostId)) {
+                continue;
+            }
+            try {
+                if (!hosts.containsKey(hostId)) {
+                    hosts.put(hostId, member.loadHost(hostId));
+                }
+                Contentlet hostContent = hosts.get(hostId);
+                if (hostContent != null) {
+                    member.addFieldValue(ContentMap.HOST_KEY, member.newHostMap(hostContent));
+                }
+            } catch (Exception e) {
+                // the content will load its host on its own
+                hosts.put(hostId, null);
+                Logger.debug(this, "Unable to load host " + hostId + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Inode of the version of the file referenced by the field the content should show, or null
+     */
+    private String fileInode(ContentMap member, Field field) throws Exception {
+        Contentlet content = member.getContentObject();
+        String fid = (String) APILocator.getContentletAPI().getFieldValue(content, field);
+        if (!UtilMethods.isSet(fid)) {
+            return null;
+        }
+        Identifier identifier = APILocator.getIdentifierAPI().find(fid);
+        if (identifier == null || !InodeUtils.isSet(identifier.getId())) {
+            return null;
+        }
+        ContentletVersionInfo cvi = APILocator.getVersionableAPI().getContentletVersionInfo(identifier.getId(), content.getLanguageId());
+        if (cvi == null) {
+            return null;
+        }
+        String inode = member.isEditOrPreviewMode() ? cvi.getWorkingInode() : cvi.getLiveInode();
+        return UtilMethods.isSet(inode) ? inode : null;
+    }
+
+}
@@ -17,6 +17,7 @@ import com.dotcms.visitor.domain.Visitor;
 import com.dotcms.visitor.domain.Visitor.AccruedTag;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.PageCacheDependencies;
 import com.dotmarketing.business.web.UserWebAPI;
 import com.dotmarketing.business.web.WebAPILocator;
 import com.dotmarketing.common.model.ContentletSearch;
@@ -115,6 +116,7 @@ public class ContentTool implements ViewTool {
     		if(c== null || !InodeUtils.isSet(c.getInode())){
     			return null;
     		}
+    		PageCacheDependencies.recordIdentifier(c.getIdentifier());
     		return new ContentMap(c, user, EDIT_OR_PREVIEW_MODE,currentHost,context);
 	    }
 	    catch(Throwable ex) {
@@ -169,11 +171,13 @@ public class ContentTool implements ViewTool {
 	public PaginatedArrayList<ContentMap> pull(String query, int offset,int limit, String sort){
 	    try {
     	    PaginatedArrayList<ContentMap> ret = new PaginatedArrayList<ContentMap>();
+    	    PageCacheDependencies.recordQuery(query);
     	    
     	    PaginatedArrayList<Contentlet> cons = ContentUtils.pull(addDefaultsToQuery(query), offset, limit, sort, user, tmDate);
     	    for(Contentlet cc : cons) {
     	    	ret.add(new ContentMap(cc,user,EDIT_OR_PREVIEW_MODE,currentHost,context));
     	    }
+    	    ContentMapBatch.link(ret);
     	    ret.setQuery(cons.getQuery());
     		return ret;
 	    }
@@ -240,10 +244,12 @@ public class ContentTool implements ViewTool {
 	public PaginatedContentList<ContentMap> pullPerPage(String query, int currentPage, int contentsPerPage, String sort){
 		PaginatedContentList<ContentMap> ret = new PaginatedContentList<ContentMap>();
 		try {
+    	    PageCacheDependencies.recordQuery(query);
     	    PaginatedArrayList<Contentlet> cons = ContentUtils.pullPerPage(addDefaultsToQuery(query), currentPage, contentsPerPage, sort, user, tmDate);
     	    for(Contentlet cc : cons) {
     	    	ret.add(new ContentMap(cc,user,EDIT_OR_PREVIEW_MODE,currentHost,context));
     	    }
+    	    ContentMapBatch.link(ret);
     
     	    if(cons != null && cons.size() > 0){
     			long minIndex = (currentPage - 1) * contentsPerPage;
@@ -295,7 +301,8 @@ public class ContentTool implements ViewTool {
 	 */
 	public List<ContentletSearch> query(String query, int limit, String sort){
 	    try {
-	        return ContentUtils.query(addDefaultsToQuery(query), limit, user, sort);
+	        PageCacheDependencies.recordQuery(query);
+	        return ContentUtils.query(addDefaultsToQuery(query), limit, sort, user, tmDate);
 	    }
 	    catch(Throwable ex) {
             if(Config.getBooleanProperty("ENABLE_FRONTEND_STACKTRACE", false)) {
@@ -312,6 +319,7 @@ public class ContentTool implements ViewTool {
 	 */
 	public long count(String query) {
 	    try {
+	        PageCacheDependencies.recordQuery(query);
 	        return ContentUtils.count(query, user, tmDate);
 	    }
 	    catch(Throwable ex) {
@@ -397,11 +405,14 @@ public class ContentTool implements ViewTool {
 	public List<ContentMap> pullRelated(String relationshipName, String contentletIdentifier, String condition, boolean pullParents, int limit, String sort) {	
 		try {
     		PaginatedArrayList<ContentMap> ret = new PaginatedArrayList<ContentMap>();
+    		PageCacheDependencies.recordIdentifier(contentletIdentifier);
     		List<Contentlet> cons = ContentUtils.pullRelated(relationshipName, contentletIdentifier, addDefaultsToQuery(condition), pullParents, limit, sort, user, tmDate);
     
     		for(Contentlet cc : cons) {
+    			PageCacheDependencies.recordIdentifier(cc.getIdentifier());
     			ret.add(new ContentMap(cc,user,EDIT_OR_PREVIEW_MODE,currentHost,context));
     		}
+    		ContentMapBatch.link(ret);
     		return ret;
 		}
 		catch(Throwable ex) {
@@ -0,0 +1,50 @@
+package com.dotmarketing.viewtools.content.util;
+
+import com.dotmarketing.business.Cachable;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.liferay.portal.model.User;
+
+/**
+ * Caches the results of the queries run by the {@link ContentUtils} on behalf of
+ * the <code>$dotcontent</code> viewtool. Every content type has a generation that
+ * is part of the key of the queries pulling from it, so publishing, unpublishing
+ * or deleting a contentlet only has to move the generation of its type (and the
+ * one of the queries without type) to leave their cached results behind. The
+ * permissions have a generation of their own, part of the key of every query,
+ * that moves whenever a permission changes.
+ */
+public interface ContentQueryCache extends Cachable {
+
+	/**
+	 * Returns the key of a query for the given user, made of the query, the sort,
+	 * the offset, the limit, the roles of the user and the current generation of
+	 * the permissions and of the content types the query pulls from. The language and live/working mode
+	 * are part of the query by the time it gets here.
+	 * <p>
+	 * The key has to be taken before running the query, so a result found while
+	 * a contentlet changes ends up under a generation nobody reads anymore.
+	 *
+	 * @return the key, null if the query can not be cached
+	 */
+	String getKey(String method, String query, String sort, int offset, int limit, User user);
+
+	/**
+	 * @return the result cached under the key, null if there is none or it expired
+	 */
+	ContentQueryResult get(String key);
+
+	void put(String key, ContentQueryResult result);
+
+	/**
+	 * Moves the generation of the content type of the contentlet, and of the
+	 * queries without type, so their cached results are not used anymore.
+	 */
+	void removeContentlet(Contentlet contentlet);
+
+	/**
+	 * Moves the generation of the permissions, so no cached result is used
+	 * anymore, as a permission change can give or take any content from a role.
+	 */
+	void removePermissions();
+
+}
@@ -0,0 +1,207 @@
+package com.dotmarketing.viewtools.content.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.DotCacheAdministrator;
+import com.dotmarketing.business.DotCacheException;
+import com.dotmarketing.business.PageCacheDependencies;
+import com.dotmarketing.business.Role;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UUIDGenerator;
+import com.dotmarketing.util.UtilMethods;
+import com.liferay.portal.model.User;
+
+public class ContentQueryCacheImpl implements ContentQueryCache {
+
+	/**
+	 * Caches the $dotcontent queries, true by default.
+	 */
+	public static final String CONTENT_QUERY_CACHE_ENABLED = "CONTENT_QUERY_CACHE_ENABLED";
+
+	/**
+	 * Seconds a cached query is used, even if no content of its types changed,
+	 * to pick up index changes that do not go through a publish. 300 by default.
+	 */
+	public static final String CONTENT_QUERY_CACHE_SECONDS = "CONTENT_QUERY_CACHE_SECONDS";
+
+	/**
+	 * Millis after a generation moves during which the queries are not cached,
+	 * giving the index time to refresh with the change. 2000 by default.
+	 */
+	public static final String CONTENT_QUERY_CACHE_SETTLE_MILLIS = "CONTENT_QUERY_CACHE_SETTLE_MILLIS";
+
+	/**
+	 * Queries returning more results than this are not cached, 500 by default.
+	 */
+	public static final String CONTENT_QUERY_CACHE_MAX_RESULTS = "CONTENT_QUERY_CACHE_MAX_RESULTS";
+
+	private static final String GROUP = "ContentQueryCache";
+	private static final String GENERATION_GROUP = "ContentQueryGenerationCache";
+
+	/**
+	 * Generation of the permissions, part of the key of every query.
+	 */
+	private static final String PERMISSIONS_GENERATION = "permissions";
+
+	private final DotCacheAdministrator cache;
+
+	public ContentQueryCacheImpl() {
+		this(CacheLocator.getCacheAdministrator());
+	}
+
+	@VisibleForTesting
+	ContentQueryCacheImpl(final DotCacheAdministrator cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public String getPrimaryGroup() {
+		return GROUP;
+	}
+
+	@Override
+	public String[] getGroups() {
+		return new String[] { GROUP, GENERATION_GROUP };
+	}
+
+	@Override
+	public void clearCache() {
+		cache.flushGroup(GROUP);
+		cache.flushGroup(GENERATION_GROUP);
+	}
+
+	@Override
+	public String getKey(String method, String query, String sort, int offset, int limit, User user) {
+		if (!Config.getBooleanProperty(CONTENT_QUERY_CACHE_ENABLED, true) || query == null
+				|| (sort != null && sort.trim().equals("random"))) {
+			return null;
+		}
+
+		final String roles = roleKey(user);
+		if (roles == null) {
+			return null;
+		}
+
+		final StringBuilder key = new StringBuilder(method).append('|')
+				.append(query.trim().replaceAll("\\s+", " ")).append('|')
+				.append(UtilMethods.isSet(sort) ? sort.trim() : "").append('|')
+				.append(offset).append('|').append(limit).append('|')
+				.append(roles);
+
+		final long settleMillis = Config.getLongProperty(CONTENT_QUERY_CACHE_SETTLE_MILLIS, 2000);
+		final TreeSet<String> generations = new TreeSet<String>(PageCacheDependencies.forQuery(query));
+		generations.add(PERMISSIONS_GENERATION);
+		for (final String dependency : generations) {
+			final String generation = getGeneration(dependency);
+			if (System.currentTimeMillis() - generationCreated(generation) < settleMillis) {
+				// the index may not have the change yet
+				return null;
+			}
+			key.append('|').append(generation);
+		}
+		return key.toString();
+	}
+
+	@Override
+	public ContentQueryResult get(String key) {
+		if (key == null) {
+			return null;
+		}
+		try {
+			final ContentQueryResult result = (ContentQueryResult) cache.get(key, GROUP);
+			if (result != null && System.currentTimeMillis() - result.getCreated()
+					> Config.getIntProperty(CONTENT_QUERY_CACHE_SECONDS, 300) * 1000L) {
+				cache.remove(key, GROUP);
+				return null;
+			}
+			return result;
+		} catch (DotCacheException e) {
+			Logger.debug(this, "Cache Entry not found", e);
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String key, ContentQueryResult result) {
+		if (key != null && result != null
+				&& result.getInodes().size() <= Config.getIntProperty(CONTENT_QUERY_CACHE_MAX_RESULTS, 500)) {
+			cache.put(key, result, GROUP);
+		}
+	}
+
+	@Override
+	public void removeContentlet(Contentlet contentlet) {
+		for (final String dependency : PageCacheDependencies.forContentlet(contentlet)) {
+			if (dependency.startsWith(PageCacheDependencies.CONTENT_TYPE_PREFIX)) {
+				// the next query takes a new generation
+				cache.remove(dependency, GENERATION_GROUP);
+			}
+		}
+	}
+
+	@Override
+	public void removePermissions() {
+		try {
+			// once moved the generation is only taken again by the next query,
+			// so a permission change touching many assets removes it once
+			if (cache.get(PERMISSIONS_GENERATION, GENERATION_GROUP) != null) {
+				cache.remove(PERMISSIONS_GENERATION, GENERATION_GROUP);
+			}
+		} catch (DotCacheException e) {
+			Logger.debug(this, "Cache Entry not found", e);
+		}
+	}
+
+	private String getGeneration(final String dependency) {
+		String generation = null;
+		try {
+			generation = (String) cache.get(dependency, GENERATION_GROUP);
+		} catch (DotCacheException e) {
+			Logger.debug(this, "Cache Entry not found", e);
+		}
+		if (generation == null) {
+			generation = System.currentTimeMillis() + "-" + UUIDGenerator.generateUuid();
+			cache.put(dependency, generation, GENERATION_GROUP);
+		}
+		return generation;
+	}
+
+	private long generationCreated(final String generation) {
+		try {
+			return Long.parseLong(generation.substring(0, generation.indexOf('-')));
+		} catch (RuntimeException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * The content a user gets depends on the roles they have, so users with the
+	 * same roles share the results.
+	 */
+	private String roleKey(final User user) {
+		if (user == null || !UtilMethods.isSet(user.getUserId())) {
+			return "anonymous";
+		}
+		try {
+			final List<String> roleIds = new ArrayList<String>();
+			for (final Role role : APILocator.getRoleAPI().loadRolesForUser(user.getUserId(), true)) {
+				roleIds.add(role.getId());
+			}
+			Collections.sort(roleIds);
+			return String.join(",", roleIds);
+		} catch (DotDataException e) {
+			Logger.warn(this, "Unable to load the roles of user " + user.getUserId() + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+}
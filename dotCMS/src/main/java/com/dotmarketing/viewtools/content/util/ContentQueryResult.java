@@ -0,0 +1,89 @@
+package com.dotmarketing.viewtools.content.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.dotmarketing.common.model.ContentletSearch;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+
+/**
+ * Result of a content query kept by the {@link ContentQueryCache}: the inodes
+ * and identifiers of the contentlets found, in the order they were returned, and
+ * the total number of results. The contentlets themselves are loaded from the
+ * contentlet cache when the result is used.
+ */
+public class ContentQueryResult implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<String> inodes;
+	private final List<String> identifiers;
+	private final long totalResults;
+	private final long created;
+
+	private ContentQueryResult(final List<String> inodes, final List<String> identifiers, final long totalResults) {
+		this.inodes = Collections.unmodifiableList(inodes);
+		this.identifiers = Collections.unmodifiableList(identifiers);
+		this.totalResults = totalResults;
+		this.created = System.currentTimeMillis();
+	}
+
+	public static ContentQueryResult fromContentlets(final List<Contentlet> contentlets, final long totalResults) {
+		final List<String> inodes = new ArrayList<String>(contentlets.size());
+		final List<String> identifiers = new ArrayList<String>(contentlets.size());
+		for (final Contentlet contentlet : contentlets) {
+			inodes.add(contentlet.getInode());
+			identifiers.add(contentlet.getIdentifier());
+		}
+		return new ContentQueryResult(inodes, identifiers, totalResults);
+	}
+
+	public static ContentQueryResult fromSearch(final List<ContentletSearch> results) {
+		final List<String> inodes = new ArrayList<String>(results.size());
+		final List<String> identifiers = new ArrayList<String>(results.size());
+		for (final ContentletSearch result : results) {
+			inodes.add(result.getInode());
+			identifiers.add(result.getIdentifier());
+		}
+		return new ContentQueryResult(inodes, identifiers, results.size());
+	}
+
+	/**
+	 * Inodes of the contentlets found, in order
+	 */
+	public List<String> getInodes() {
+		return inodes;
+	}
+
+	/**
+	 * Identifiers of the contentlets found, in the same order as the inodes
+	 */
+	public List<String> getIdentifiers() {
+		return identifiers;
+	}
+
+	public long getTotalResults() {
+		return totalResults;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	/**
+	 * Rebuilds the {@link ContentletSearch} list the result was made from
+	 */
+	public List<ContentletSearch> toSearch() {
+		final List<ContentletSearch> results = new ArrayList<ContentletSearch>(inodes.size());
+		for (int i = 0; i < inodes.size(); i++) {
+			final ContentletSearch result = new ContentletSearch();
+			result.setInode(inodes.get(i));
+			result.setIdentifier(identifiers.get(i));
+			results.add(result);
+		}
+		return results;
+	}
+
+}
@@ -11,6 +11,7 @@ import com.dotcms.content.elasticsearch.business.ESMappingAPIImpl;
 import com.dotcms.repackage.edu.emory.mathcs.backport.java.util.Collections;
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.FactoryLocator;
 import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.exception.DotDataException;
@@ -230,11 +231,21 @@ public class ContentUtils {
 		                contentlets=contentlets.subList(0, limit);
 			    }
 			    else {
-			        // normal query
-			        PaginatedArrayList<Contentlet> conts=(PaginatedArrayList<Contentlet>)conAPI.search(query, limit, offset, sort, user, true);
-			        ret.setTotalResults(conts.getTotalResults());
+			        // normal query, unless the same one has been run for users with the same roles
+			        final ContentQueryCache queryCache = CacheLocator.getContentQueryCache();
+			        final String cacheKey = queryCache.getKey("pull", query, sort, offset, limit, user);
+			        final ContentQueryResult cached = queryCache.get(cacheKey);
+			        contentlets = (cached != null) ? findContentlets(cached.getInodes(), user) : null;
+			        if(contentlets != null) {
+			            ret.setTotalResults(cached.getTotalResults());
+			        }
+			        else {
+			            PaginatedArrayList<Contentlet> conts=(PaginatedArrayList<Contentlet>)conAPI.search(query, limit, offset, sort, user, true);
+			            ret.setTotalResults(conts.getTotalResults());
+			            queryCache.put(cacheKey, ContentQueryResult.fromContentlets(conts, conts.getTotalResults()));
+			            contentlets=conts;
+			        }
 			        ret.setQuery(query);
-			        contentlets=conts;
 			    }
 				for(Contentlet c : contentlets)
 					ret.add(c);
@@ -249,6 +260,28 @@ public class ContentUtils {
 			
 			return ret;
 		}
+
+		/**
+		 * Loads the contentlets of a cached query from the contentlet cache, in order.
+		 * @return null if any of them is gone or the user can't read it anymore, so the query is run again
+		 */
+		private static List<Contentlet> findContentlets(List<String> inodes, User user) {
+		    List<Contentlet> contentlets = new ArrayList<Contentlet>(inodes.size());
+		    try {
+		        for(String inode : inodes) {
+		            Contentlet contentlet = conAPI.find(inode, user, true);
+		            if(contentlet == null || !UtilMethods.isSet(contentlet.getInode())) {
+		                return null;
+		            }
+		            contentlets.add(contentlet);
+		        }
+		    }
+		    catch(DotDataException | DotSecurityException e) {
+		        Logger.debug(ContentUtils.class, "cached query result not usable: " + e.getMessage());
+		        return null;
+		    }
+		    return contentlets;
+		}
 		
 		/**
 		 * Will return a ContentMap object which can be used on dotCMS front end. 
@@ -366,8 +399,17 @@ public class ContentUtils {
 	                }   
 	            }
 	            else {
-	                // normal query
-	                ret = conAPI.searchIndex(query, limit, -1, sort, user, true);
+	                // normal query, unless the same one has been run for users with the same roles
+	                final ContentQueryCache queryCache = CacheLocator.getContentQueryCache();
+	                final String cacheKey = queryCache.getKey("query", query, sort, -1, limit, user);
+	                final ContentQueryResult cached = queryCache.get(cacheKey);
+	                if(cached != null) {
+	                    ret = cached.toSearch();
+	                }
+	                else {
+	                    ret = conAPI.searchIndex(query, limit, -1, sort, user, true);
+	                    queryCache.put(cacheKey, ContentQueryResult.fromSearch(ret));
+	                }
 	            }
 			} catch (Exception e) {
 				Logger.error(ContentUtils.class,e.getMessage(),e);
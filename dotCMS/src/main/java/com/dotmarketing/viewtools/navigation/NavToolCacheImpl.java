@@ -1,5 +1,6 @@
 package com.dotmarketing.viewtools.navigation;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -8,6 +9,7 @@ import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotCacheAdministrator;
 import com.dotmarketing.business.DotCacheException;
+import com.dotmarketing.business.PageCacheDependencies;
 import com.dotmarketing.portlets.folders.business.FolderAPI;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.languagesmanager.model.Language;
@@ -71,6 +73,9 @@ public class NavToolCacheImpl implements NavToolCache {
     @Override
     public void removeNav(String hostid, String folderInode, long languageId) {
         Folder folder;
+        // pages rendered with this navigation
+        CacheLocator.getBlockPageCache().removeDependents(
+                Collections.singletonList(PageCacheDependencies.NAVIGATION_PREFIX + folderInode));
         try {
             if(!folderInode.equals(FolderAPI.SYSTEM_FOLDER)) {
                 try {
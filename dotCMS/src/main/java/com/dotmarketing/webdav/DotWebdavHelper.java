@@ -13,7 +13,10 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -21,10 +24,13 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.velocity.runtime.resource.ResourceManager;
 
 import com.dotcms.repackage.com.bradmcevoy.http.CollectionResource;
+import com.dotcms.repackage.com.google.common.cache.Cache;
+import com.dotcms.repackage.com.google.common.cache.CacheBuilder;
 import com.dotcms.repackage.com.bradmcevoy.http.HttpManager;
 import com.dotcms.repackage.com.bradmcevoy.http.LockInfo;
 import com.dotcms.repackage.com.bradmcevoy.http.LockResult;
@@ -106,6 +112,13 @@ public class DotWebdavHelper {
 	private static MessageDigest md5Helper;
 
 
+	/**
+	 * Recently authenticated users, keyed by the digest of their credentials.
+	 * Desktop clients send the credentials on every request.
+	 */
+	private static final Cache<String, User> authenticatedPrincipals = createPrincipalCache();
+	private static final byte[] principalSalt = createPrincipalSalt();
+
 	private Hashtable<String, com.dotcms.repackage.com.bradmcevoy.http.LockInfo> resourceLocks = new Hashtable<String, com.dotcms.repackage.com.bradmcevoy.http.LockInfo>();
 
 	static {
@@ -156,7 +169,60 @@ public class DotWebdavHelper {
 		}
 	}
 
+	/**
+	 * Authenticates the user, reusing the result of a previous successful
+	 * authentication with the same credentials for
+	 * WEBDAV_PRINCIPAL_CACHE_SECONDS seconds. The cache is keyed by a salted
+	 * SHA-256 digest of the credentials, so passwords are never kept in memory.
+	 */
 	public User authorizePrincipal(String username, String passwd)	throws DotSecurityException, NoSuchUserException, DotDataException {
+		if (null == authenticatedPrincipals || null == username || null == passwd) {
+			return doAuthorizePrincipal(username, passwd);
+		}
+
+		final String credentialsDigest = getCredentialsDigest(username, passwd);
+		User user = authenticatedPrincipals.getIfPresent(credentialsDigest);
+		if (null == user) {
+			user = doAuthorizePrincipal(username, passwd);
+			authenticatedPrincipals.put(credentialsDigest, user);
+		}
+		return user;
+	}
+
+	private static Cache<String, User> createPrincipalCache() {
+		final int principalCacheSeconds = Config.getIntProperty("WEBDAV_PRINCIPAL_CACHE_SECONDS", 60);
+		return (principalCacheSeconds > 0)?
+				CacheBuilder.newBuilder()
+						.maximumSize(Config.getIntProperty("WEBDAV_PRINCIPAL_CACHE_SIZE", 1000))
+						.expireAfterWrite(principalCacheSeconds, TimeUnit.SECONDS)
+						.<String, User>build():
+				null;
+	}
+
+	/**
+	 * Random salt of the credential digests. nextBytes draws from the seeded generator, so unlike
+	 * generateSeed it doesn't block the class init on hosts short of entropy.
+	 */
+	private static byte[] createPrincipalSalt() {
+		final byte[] salt = new byte[16];
+		new SecureRandom().nextBytes(salt);
+		return salt;
+	}
+
+	private static String getCredentialsDigest(final String username, final String passwd) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(principalSalt);
+			digest.update(username.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(passwd.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new DotRuntimeException("No SHA-256", e);
+		}
+	}
+
+	private User doAuthorizePrincipal(String username, String passwd)	throws DotSecurityException, NoSuchUserException, DotDataException {
 		User _user;
 
 		boolean useEmailAsLogin = true;
@@ -213,7 +279,7 @@ public class DotWebdavHelper {
 			Logger.debug(this, "Method isFolder: the hostname is " + hostName);
 			Host host;
 			try {
-				host = hostAPI.findByName(hostName, user, false);
+				host = findHost(hostName, user);
 			} catch (DotDataException e) {
 				Logger.error(DotWebdavHelper.class, e.getMessage(), e);
 				throw new IOException(e.getMessage());
@@ -234,7 +300,7 @@ public class DotWebdavHelper {
 					}
 					Folder folder = new Folder();
 					try {
-						folder = folderAPI.findFolderByPath(path, host,user,false);
+						folder = findFolder(path, host, user);
 					} catch (Exception e) {
 						Logger.debug(this, "unable to find folder " + path );
 						//throw new IOException(e.getMessage());
@@ -254,13 +320,26 @@ public class DotWebdavHelper {
 		if (uri.endsWith("/")) {
 			return false;
 		}
+
+		final String strippedUri = uri;
+		try {
+			return WebdavRequestContext.get("isResource:" + getUserKey(user) + ":" + defaultLang + ":" + strippedUri,
+					() -> this.resolveIsResource(strippedUri, user));
+		} catch (IOException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	private Boolean resolveIsResource(String uri, User user) throws IOException {
 		boolean returnValue = false;
 		// Host
 		String hostName = getHostname(uri);
 
 		Host host;
 		try {
-			host = hostAPI.findByName(hostName, user, false);
+			host = findHost(hostName, user);
 		} catch (DotDataException e) {
 			Logger.error(DotWebdavHelper.class, e.getMessage(), e);
 			throw new IOException(e.getMessage());
@@ -279,7 +358,7 @@ public class DotWebdavHelper {
 		String folderName = getFolderName(path);
 		Folder folder;
 		try {
-			folder = folderAPI.findFolderByPath(folderName, host, user,false);
+			folder = findFolder(folderName, host, user);
 		} catch (Exception e) {
 			Logger.error(DotWebdavHelper.class, e.getMessage(), e);
 			throw new IOException(e.getMessage());
@@ -308,7 +387,7 @@ public class DotWebdavHelper {
 
 		Host host;
 		try {
-			host = hostAPI.findByName(hostName, user, false);
+			host = findHost(hostName, user);
 		} catch (DotDataException e) {
 			Logger.error(DotWebdavHelper.class, e.getMessage(), e);
 			throw new IOException(e.getMessage());
@@ -342,8 +421,8 @@ public class DotWebdavHelper {
 		Host host;
 		Folder folder;
 		try {
-			host = hostAPI.findByName(hostName, user, false);
-			folder = folderAPI.findFolderByPath(url, host,user, false);
+			host = findHost(hostName, user);
+			folder = findFolder(url, host, user);
 		} catch (DotDataException e) {
 			Logger.error(DotWebdavHelper.class, e.getMessage(), e);
 			throw new IOException(e.getMessage());
@@ -377,6 +456,23 @@ public class DotWebdavHelper {
      */
     public List<Resource> getChildrenOfFolder ( Folder parentFolder, User user, boolean isAutoPub, long lang ) throws IOException {
 
+        // the language of the new paths is used by the other methods, it must be set whether the children are cached or not
+        if ( !legacyPath ) {
+            defaultLang = lang;
+        }
+
+        try {
+            return WebdavRequestContext.get( "children:" + getUserKey( user ) + ":" + parentFolder.getInode() + ":" + isAutoPub + ":" + lang,
+                    () -> this.findChildrenOfFolder( parentFolder, user, isAutoPub, lang ) );
+        } catch ( IOException | RuntimeException e ) {
+            throw e;
+        } catch ( Exception e ) {
+            throw new IOException( e.getMessage(), e );
+        }
+    }
+
+    private List<Resource> findChildrenOfFolder ( Folder parentFolder, User user, boolean isAutoPub, long lang ) throws IOException {
+
         String prePath = "/webdav/";
         if(legacyPath){
         	if ( isAutoPub ) {
@@ -390,8 +486,7 @@ public class DotWebdavHelper {
         	} else {
             	prePath += "working/";
         	}
-        	defaultLang = lang;
-        	prePath += defaultLang;
+        	prePath += lang;
         	prePath += "/";
         }
 
@@ -428,20 +523,29 @@ public class DotWebdavHelper {
                     }
                 }
             }
+            // The identifiers of all the sub-folders are loaded with a single query
+            String parentPath = idapi.find( parentFolder ).getPath();
+            Map<String, Identifier> childIdentifiers = new HashMap<String, Identifier>();
+            if ( !folderListSubChildren.isEmpty() ) {
+                for ( Identifier childIdentifier : idapi.findByParentPath( folderHost.getIdentifier(), parentPath ) ) {
+                    childIdentifiers.put( childIdentifier.getId(), childIdentifier );
+                }
+            }
             for ( Folder folder : folderListSubChildren ) {
                 if ( !folder.isArchived() ) {
-                    String path = idapi.find( folder ).getPath();
+                    Identifier folderIdentifier = childIdentifiers.get( folder.getIdentifier() );
+                    String path = ( null != folderIdentifier ) ? folderIdentifier.getPath() : idapi.find( folder ).getPath();
 
                     FolderResourceImpl resource = new FolderResourceImpl( folder, prePath + folderHost.getHostname() + "/" + (path.startsWith( "/" ) ? path.substring( 1 ) : path) );
                     result.add( resource );
                 }
             }
 
-            String p = APILocator.getIdentifierAPI().find( parentFolder ).getPath();
+            String p = parentPath;
             if ( p.contains( "/" ) )
                 p.replace( "/", File.separator );
             File tempDir = new File( tempHolderDir.getPath() + File.separator + folderHost.getHostname() + p );
-            p = idapi.find( parentFolder ).getPath();
+            p = parentPath;
             if ( !p.endsWith( "/" ) )
                 p = p + "/";
             if ( !p.startsWith( "/" ) )
@@ -470,6 +574,38 @@ public class DotWebdavHelper {
         return result;
     }
 
+    /**
+     * Finds a host by name, only once per request
+     */
+    private Host findHost ( final String hostName, final User user ) throws DotDataException, DotSecurityException {
+        try {
+            return WebdavRequestContext.get( "host:" + getUserKey( user ) + ":" + hostName,
+                    () -> hostAPI.findByName( hostName, user, false ) );
+        } catch ( DotDataException | DotSecurityException | RuntimeException e ) {
+            throw e;
+        } catch ( Exception e ) {
+            throw new DotDataException( e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Finds a folder by path, only once per request
+     */
+    private Folder findFolder ( final String path, final Host host, final User user ) throws DotDataException, DotSecurityException {
+        try {
+            return WebdavRequestContext.get( "folder:" + getUserKey( user ) + ":" + ( null != host ? host.getIdentifier() : null ) + ":" + path,
+                    () -> folderAPI.findFolderByPath( path, host, user, false ) );
+        } catch ( DotDataException | DotSecurityException | RuntimeException e ) {
+            throw e;
+        } catch ( Exception e ) {
+            throw new DotDataException( e.getMessage(), e );
+        }
+    }
+
+    private String getUserKey ( final User user ) {
+        return ( null != user ) ? user.getUserId() : null;
+    }
+
     public File getTempDir () {
         return tempHolderDir;
     }
@@ -552,6 +688,7 @@ public class DotWebdavHelper {
 	}
 
 	public void copyTempDirToStorage(File fromFileFolder, String destPath, User user,boolean autoPublish) throws Exception{
+		WebdavRequestContext.clear();
 		if(fromFileFolder == null || !fromFileFolder.isDirectory()){
 			throw new IOException("The temp source file must be a directory");
 		}
@@ -570,6 +707,7 @@ public class DotWebdavHelper {
 	}
 
 	public void copyTempFileToStorage(File fromFile, String destPath,User user,boolean autoPublish) throws Exception{
+		WebdavRequestContext.clear();
 		destPath = stripMapping(destPath);
 		if(fromFile == null){
 			throw new IOException("The temp source file must exist");
@@ -579,10 +717,12 @@ public class DotWebdavHelper {
 	}
 
 	public void copyResource(String fromPath, String toPath, User user, boolean autoPublish) throws Exception {
+		WebdavRequestContext.clear();
 		setResourceContent(toPath, getResourceContent(fromPath,user), null, null, user);
 	}
 
 	public void copyFolder(String sourcePath, String destinationPath, User user, boolean autoPublish) throws IOException, DotDataException {
+		WebdavRequestContext.clear();
 		try{
 			destinationPath=stripMapping(destinationPath);
 			sourcePath=stripMapping(sourcePath);
@@ -666,6 +806,7 @@ public class DotWebdavHelper {
 	}
 
 	public void setResourceContent(String resourceUri, InputStream content,	String contentType, String characterEncoding, Date modifiedDate, User user, boolean isAutoPub) throws Exception {
+		WebdavRequestContext.clear();
 		resourceUri = stripMapping(resourceUri);
 		Logger.debug(this.getClass(), "setResourceContent");
 		String hostName = getHostname(resourceUri);
@@ -848,6 +989,7 @@ public class DotWebdavHelper {
 	}
 
 	public Folder createFolder(String folderUri, User user) throws IOException, DotDataException {
+		WebdavRequestContext.clear();
 		Folder folder = null;
 		folderUri = stripMapping(folderUri);
 		PermissionAPI perAPI = APILocator.getPermissionAPI();
@@ -912,6 +1054,7 @@ public class DotWebdavHelper {
 	}
 
 	public void move(String fromPath, String toPath, User user,boolean autoPublish)throws IOException, DotDataException {
+		WebdavRequestContext.clear();
 	    String resourceFromPath = fromPath;
 		fromPath = stripMapping(fromPath);
 		toPath = stripMapping(toPath);
@@ -1090,6 +1233,7 @@ public class DotWebdavHelper {
 	}
 
 	public void removeObject(String uri, User user) throws IOException, DotDataException, DotSecurityException {
+		WebdavRequestContext.clear();
 	    String resourceUri = uri;
 		uri = stripMapping(uri);
 		Logger.debug(this.getClass(), "In the removeObject Method");
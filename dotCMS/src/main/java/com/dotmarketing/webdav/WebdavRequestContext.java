@@ -0,0 +1,98 @@
+package com.dotmarketing.webdav;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.dotcms.repackage.com.bradmcevoy.http.HttpManager;
+import com.dotcms.repackage.com.bradmcevoy.http.Request;
+
+/**
+ * Keeps the hosts, folders and listings resolved while serving a single WebDAV
+ * request, so the {@link DotWebdavHelper} calls made by the different resources
+ * of the same request (i.e. a PROPFIND resolving the same path in
+ * <code>isFolder</code>, <code>isResource</code>, <code>loadFolder</code> and
+ * <code>getChildrenOfFolder</code>) only hit the APIs once.
+ * <p>
+ * The context is bound to the current Milton {@link Request}: as soon as the
+ * thread serves a different request, the previous values are discarded. When
+ * there is no request (i.e. a job using the helper) nothing is kept.
+ */
+class WebdavRequestContext {
+
+    private static final ThreadLocal<WebdavRequestContext> currentContext = new ThreadLocal<>();
+
+    private final Request request;
+    private final Map<String, Object> values = new HashMap<>();
+    private boolean disabled = false;
+
+    private WebdavRequestContext(final Request request) {
+        this.request = request;
+    }
+
+    /**
+     * Returns the value stored under the key for the current request, calling the
+     * loader to resolve it the first time. Null values are not stored.
+     *
+     * @param key    {@link String} key, should include anything the value depends on (user, path, etc.)
+     * @param loader {@link Callable} used to resolve the value
+     * @return the value
+     * @throws Exception if the loader fails
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T get(final String key, final Callable<T> loader) throws Exception {
+
+        final WebdavRequestContext context = getContext();
+        if (null == context || context.disabled) {
+
+            return loader.call();
+        }
+
+        T value = (T) context.values.get(key);
+        if (null == value) {
+
+            value = loader.call();
+            if (null != value) {
+
+                context.values.put(key, value);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Discards the values resolved so far by the current request and stops keeping
+     * new ones until the request is done. Should be called before anything is
+     * created, moved or removed.
+     */
+    static void clear() {
+
+        final WebdavRequestContext context = getContext();
+        if (null != context) {
+
+            context.values.clear();
+            context.disabled = true;
+        }
+    }
+
+    private static WebdavRequestContext getContext() {
+
+        final Request request = HttpManager.request();
+        if (null == request) {
+
+            currentContext.remove();
+            return null;
+        }
+
+        WebdavRequestContext context = currentContext.get();
+        if (null == context || context.request != request) {
+
+            context = new WebdavRequestContext(request);
+            currentContext.set(context);
+        }
+
+        return context;
+    }
+
+} // E:O:F:WebdavRequestContext.
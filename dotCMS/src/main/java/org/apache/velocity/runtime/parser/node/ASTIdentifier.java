@@ -29,8 +29,10 @@ import org.apache.velocity.exception.VelocityException;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.RuntimeServices;
 import org.apache.velocity.runtime.parser.Parser;
+import org.apache.velocity.util.introspection.CallSiteCache;
 import org.apache.velocity.util.introspection.Info;
 import org.apache.velocity.util.introspection.IntrospectionCacheData;
+import org.apache.velocity.util.introspection.MethodHandleUberspector;
 import org.apache.velocity.util.introspection.VelPropertyGet;
 
 import com.dotmarketing.util.Logger;
@@ -66,6 +68,16 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
      */
     protected boolean strictRef = false;
 
+    /**
+     * Indicates if the getters resolved are kept in the node, see {@link MethodHandleUberspector}
+     */
+    protected boolean callSiteCaching = false;
+
+    /**
+     * Getters resolved by this node, shared by all the renders of the template
+     */
+    private transient volatile CallSiteCache<VelPropertyGet> callSites;
+
     /**
      * @param id
      */
@@ -110,10 +122,23 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
         uberInfo = new Info(getTemplateName(), getLine(), getColumn());
         RuntimeServices rsvc=VelocityUtil.getEngine().getRuntimeServices();
         strictRef = rsvc.getBoolean(RuntimeConstants.RUNTIME_REFERENCES_STRICT, false);
+        callSiteCaching = rsvc.getUberspect() instanceof MethodHandleUberspector;
         
         return data;
     }
 
+    private CallSiteCache<VelPropertyGet> getCallSites()
+    {
+        // not serialized with the template, so it is created again when needed
+        CallSiteCache<VelPropertyGet> cache = callSites;
+        if (cache == null)
+        {
+            cache = new CallSiteCache<>();
+            callSites = cache;
+        }
+        return cache;
+    }
+
     /**
      * @see org.apache.velocity.runtime.parser.node.SimpleNode#execute(java.lang.Object, org.apache.velocity.context.InternalContextAdapter)
      */
@@ -129,7 +154,13 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
              *  first, see if we have this information cached.
              */
 
-            IntrospectionCacheData icd = context.icacheGet(this);
+            final CallSiteCache<VelPropertyGet> cache = (callSiteCaching && o != null) ? getCallSites() : null;
+            if (cache != null)
+            {
+                vg = cache.get(o.getClass(), null);
+            }
+
+            IntrospectionCacheData icd = (vg == null) ? context.icacheGet(this) : null;
 
             /*
              * if we have the cache data and the class of the object we are
@@ -142,7 +173,7 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
             {
                 vg = (VelPropertyGet) icd.thingy;
             }
-            else
+            else if ( vg == null )
             {
                 /*
                  *  otherwise, do the introspection, and cache it.  Use the
@@ -157,6 +188,11 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
                     icd.contextData = o.getClass();
                     icd.thingy = vg;
                     context.icachePut(this,icd);
+
+                    if (cache != null)
+                    {
+                        cache.put(o.getClass(), null, vg);
+                    }
                 }
             }
         }
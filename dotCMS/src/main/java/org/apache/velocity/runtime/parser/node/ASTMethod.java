@@ -33,7 +33,9 @@ import org.apache.velocity.runtime.RuntimeServices;
 import org.apache.velocity.runtime.directive.StopCommand;
 import org.apache.velocity.runtime.parser.Parser;
 import org.apache.velocity.util.ClassUtils;
+import org.apache.velocity.util.introspection.CallSiteCache;
 import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.MethodHandleUberspector;
 import org.apache.velocity.util.introspection.VelMethod;
 
 import com.dotmarketing.util.Logger;
@@ -67,6 +69,16 @@ public class ASTMethod extends SimpleNode
      */
     protected boolean strictRef = false;
 
+    /**
+     * Indicates if the methods resolved are kept in the node, see {@link MethodHandleUberspector}
+     */
+    protected boolean callSiteCaching = false;
+
+    /**
+     * Methods resolved by this node, shared by all the renders of the template
+     */
+    private transient volatile CallSiteCache<VelMethod> callSites;
+
     /**
      * @param id
      */
@@ -120,10 +132,23 @@ public class ASTMethod extends SimpleNode
         
         RuntimeServices rsvc=VelocityUtil.getEngine().getRuntimeServices();
         strictRef = rsvc.getBoolean(RuntimeConstants.RUNTIME_REFERENCES_STRICT, false);
+        callSiteCaching = rsvc.getUberspect() instanceof MethodHandleUberspector;
         
         return data;
     }
 
+    private CallSiteCache<VelMethod> getCallSites()
+    {
+        // not serialized with the template, so it is created again when needed
+        CallSiteCache<VelMethod> cache = callSites;
+        if (cache == null)
+        {
+            cache = new CallSiteCache<>();
+            callSites = cache;
+        }
+        return cache;
+    }
+
     /**
      *  invokes the method.  Returns null if a problem, the
      *  actual return if the method returns something, or
@@ -160,9 +185,19 @@ public class ASTMethod extends SimpleNode
             }
         }
             
-        VelMethod method = ClassUtils.getMethod(methodName, params, paramClasses, 
-            o, context, this, strictRef);
-        if (method == null) return null;
+        final CallSiteCache<VelMethod> cache = (callSiteCaching && o != null) ? getCallSites() : null;
+        VelMethod method = (cache != null) ? cache.get(o.getClass(), paramClasses) : null;
+        if (method == null)
+        {
+            method = ClassUtils.getMethod(methodName, params, paramClasses,
+                o, context, this, strictRef);
+            if (method == null) return null;
+
+            if (cache != null && method.isCacheable())
+            {
+                cache.put(o.getClass(), paramClasses, method);
+            }
+        }
 
         try
         {
@@ -0,0 +1,105 @@
+package org.apache.velocity.util.introspection;
+
+import java.util.Arrays;
+
+/**
+ * Inline cache of the methods resolved at one call site of a template, keyed by the class of the receiver and
+ * the classes of the arguments. It keeps up to {@link #MAX_ENTRIES} entries (monomorphic with one, polymorphic
+ * up to the max); once a call site sees more receivers than that it is megamorphic and it stops caching, so the
+ * node goes back to the introspection cache of the context.
+ *
+ * <p>The entries are published through a volatile copy-on-write array, so the cache can be shared by all the
+ * threads rendering the same parsed template. Two threads adding an entry at the same time may lose one of them,
+ * which only costs a new lookup the next time.</p>
+ *
+ * @param <T> what is resolved at the call site, a {@link VelMethod} or a {@link VelPropertyGet}
+ */
+public final class CallSiteCache<T>
+{
+    public static final int MAX_ENTRIES = 4;
+
+    private static final Class[] NO_ARGUMENTS = new Class[0];
+
+    private volatile Entry<T>[] entries = newEntries(0);
+    private volatile boolean megamorphic = false;
+
+    /**
+     * Returns what was resolved for the receiver and argument classes
+     * @param receiver class of the object the method is called on
+     * @param arguments classes of the arguments, null for property getters
+     * @return T or null if there is nothing cached for them
+     */
+    public T get(final Class receiver, final Class[] arguments)
+    {
+        final Class[] key = (arguments != null) ? arguments : NO_ARGUMENTS;
+        for (final Entry<T> entry : this.entries)
+        {
+            if (entry.receiver == receiver && Arrays.equals(entry.arguments, key))
+            {
+                return entry.target;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps what was resolved for the receiver and argument classes, unless the call site is megamorphic
+     * @param receiver class of the object the method is called on
+     * @param arguments classes of the arguments, null for property getters
+     * @param target what was resolved
+     */
+    public void put(final Class receiver, final Class[] arguments, final T target)
+    {
+        if (this.megamorphic)
+        {
+            return;
+        }
+
+        final Entry<T>[] current = this.entries;
+        if (current.length >= MAX_ENTRIES)
+        {
+            this.megamorphic = true;
+            return;
+        }
+
+        final Entry<T>[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new Entry<>(receiver, (arguments != null) ? arguments.clone() : NO_ARGUMENTS, target);
+        this.entries = updated;
+    }
+
+    /**
+     * @return int number of receivers cached
+     */
+    public int size()
+    {
+        return this.entries.length;
+    }
+
+    /**
+     * @return boolean true if the call site saw more receivers than it can keep
+     */
+    public boolean isMegamorphic()
+    {
+        return this.megamorphic;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newEntries(final int size)
+    {
+        return new Entry[size];
+    }
+
+    private static final class Entry<T>
+    {
+        private final Class receiver;
+        private final Class[] arguments;
+        private final T target;
+
+        private Entry(final Class receiver, final Class[] arguments, final T target)
+        {
+            this.receiver = receiver;
+            this.arguments = arguments;
+            this.target = target;
+        }
+    }
+}
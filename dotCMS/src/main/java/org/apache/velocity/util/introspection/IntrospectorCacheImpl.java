@@ -19,10 +19,9 @@ package org.apache.velocity.util.introspection;
  * under the License.    
  */
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 import com.dotmarketing.util.Logger;
@@ -44,8 +43,9 @@ public final class IntrospectorCacheImpl implements IntrospectorCache
     
     /**
      * Holds the method maps for the classes we know about. Map: Class --&gt; ClassMap object.
+     * Concurrent, so the lookups done on every render don't need a lock.
      */
-    private final Map classMapCache = new HashMap();
+    private final Map<Class, ClassMap> classMapCache = new ConcurrentHashMap<>();
 
     /**
      * Keep the names of the classes in another map. This is needed for a multi-classloader environment where it is possible
@@ -53,7 +53,7 @@ public final class IntrospectorCacheImpl implements IntrospectorCache
      * two Class objects have the same name, a <code>classMethodMaps.get(Foo.class)</code> will return null. For that case, we
      * keep a set of class names to recognize this case.  
      */
-    private final Set classNameCache = new HashSet();
+    private final Set<String> classNameCache = ConcurrentHashMap.newKeySet();
 
     /**
      * C'tor
@@ -90,7 +90,7 @@ public final class IntrospectorCacheImpl implements IntrospectorCache
             throw new IllegalArgumentException("class is null!");
         }
 
-        ClassMap classMap = (ClassMap)classMapCache.get(c);
+        ClassMap classMap = classMapCache.get(c);
         if (classMap == null)
         {
             /*
@@ -99,9 +99,11 @@ public final class IntrospectorCacheImpl implements IntrospectorCache
              * name but loaded through a different class loader.
              * In that case, we will just dump the cache to be sure.
              */
-            synchronized (classMapCache)
+            if (classNameCache.contains(c.getName()))
             {
-                if (classNameCache.contains(c.getName()))
+                // another thread may have just put it
+                classMap = classMapCache.get(c);
+                if (classMap == null)
                 {
                     clear();
                 }
@@ -121,12 +123,9 @@ public final class IntrospectorCacheImpl implements IntrospectorCache
     public ClassMap put(final Class c)
     {
         final ClassMap classMap = new ClassMap(c);
-        synchronized (classMapCache)
-        {
-            classMapCache.put(c, classMap);
-            classNameCache.add(c.getName());
-        }
-        return classMap;
+        final ClassMap existing = classMapCache.putIfAbsent(c, classMap);
+        classNameCache.add(c.getName());
+        return (existing != null) ? existing : classMap;
     }
 
 }
@@ -0,0 +1,373 @@
+package org.apache.velocity.util.introspection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.velocity.runtime.parser.node.AbstractExecutor;
+import org.apache.velocity.runtime.parser.node.GetExecutor;
+import org.apache.velocity.runtime.parser.node.PropertyExecutor;
+
+import com.dotmarketing.util.Logger;
+
+/**
+ * A {@link SecureUberspector} that invokes the methods and property getters it resolves through
+ * {@link MethodHandle}s instead of {@link Method#invoke(Object, Object...)}, so the JIT can inline the calls
+ * made from the templates. It also tells the method and identifier nodes to keep what they resolve in a
+ * {@link CallSiteCache}, shared by all the renders of the parsed template, instead of resolving it again on
+ * every render.
+ *
+ * <p>The invocations behave as the reflective ones: the exceptions thrown by the methods come wrapped in an
+ * {@link InvocationTargetException} and the receivers and arguments that can't be passed throw an
+ * {@link IllegalArgumentException}, they are checked before the call instead of failing in the casts of the
+ * handle.</p>
+ *
+ * <p>To use this introspector, set the following property:
+ * <pre>
+ * runtime.introspector.uberspect = org.apache.velocity.util.introspection.MethodHandleUberspector
+ * </pre>
+ */
+public class MethodHandleUberspector extends SecureUberspector
+{
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.genericMethodType(1);
+
+    /**
+     * Method, wrapping the {@link VelMethodImpl} resolved by the {@link SecureUberspector} when it can be turned
+     * into a handle
+     */
+    public VelMethod getMethod(Object obj, String methodName, Object[] args, Info i)
+        throws Exception
+    {
+        final VelMethod method = super.getMethod(obj, methodName, args, i);
+        if (method != null && method.getClass() == VelMethodImpl.class)
+        {
+            final VelMethodImpl impl = (VelMethodImpl) method;
+            final MethodHandle handle = toMethodHandle(impl.method);
+            if (handle != null)
+            {
+                return new VelMethodHandleImpl(impl.method, impl.wrapArray, handle);
+            }
+        }
+        return method;
+    }
+
+    /**
+     * Property getter, wrapping the getFoo(), isFoo() and get("foo") getters resolved by the
+     * {@link SecureUberspector} when they can be turned into handles. Map getters are already direct calls.
+     */
+    public VelPropertyGet getPropertyGet(Object obj, String identifier, Info i)
+        throws Exception
+    {
+        final VelPropertyGet getter = super.getPropertyGet(obj, identifier, i);
+        if (getter != null && getter.getClass() == VelGetterImpl.class)
+        {
+            final AbstractExecutor executor = ((VelGetterImpl) getter).getExecutor;
+            final MethodHandle handle = toGetterHandle(executor, identifier);
+            if (handle != null)
+            {
+                return new VelGetterHandleImpl(executor, handle);
+            }
+        }
+        return getter;
+    }
+
+    /**
+     * Turns the method into a handle taking the receiver and an array with the arguments, the same way
+     * {@link Method#invoke(Object, Object...)} does. Static methods ignore the receiver.
+     * @return MethodHandle or null if the method is not accessible to the handles
+     */
+    static MethodHandle toMethodHandle(final Method method)
+    {
+        try
+        {
+            MethodHandle handle = LOOKUP.unreflect(method).asFixedArity();
+            if (Modifier.isStatic(method.getModifiers()))
+            {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            else
+            {
+                handle = MethodHandles.filterArguments(handle, 0, Arguments.checker(method.getDeclaringClass()));
+            }
+
+            final Class[] parameters = method.getParameterTypes();
+            for (int index = 0; index < parameters.length; index++)
+            {
+                handle = MethodHandles.filterArguments(handle, index + 1, parameters[index].isPrimitive()
+                        ? Arguments.converter(parameters[index]) : Arguments.checker(parameters[index]));
+            }
+
+            return handle.asType(MethodType.genericMethodType(parameters.length + 1))
+                         .asSpreader(Object[].class, parameters.length);
+        }
+        catch (IllegalAccessException e)
+        {
+            Logger.debug(MethodHandleUberspector.class, "Can't get a handle for " + method + ", using reflection: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Turns the getter of the executor into a handle taking the receiver
+     * @return MethodHandle or null if it is not a getter that can be turned into a handle
+     */
+    static MethodHandle toGetterHandle(final AbstractExecutor executor, final String identifier)
+    {
+        final Method method = executor.getMethod();
+        if (method == null || Modifier.isStatic(method.getModifiers()))
+        {
+            return null;
+        }
+
+        try
+        {
+            final MethodHandle receiver = Arguments.checker(method.getDeclaringClass());
+            if (executor instanceof PropertyExecutor)
+            {
+                return MethodHandles.filterArguments(LOOKUP.unreflect(method), 0, receiver).asType(GETTER_TYPE);
+            }
+            else if (executor instanceof GetExecutor && method.getParameterTypes().length == 1 && identifier != null)
+            {
+                final MethodHandle handle = MethodHandles.filterArguments(LOOKUP.unreflect(method).asFixedArity(), 0, receiver)
+                        .asType(MethodType.genericMethodType(2));
+                return MethodHandles.insertArguments(handle, 1, identifier);
+            }
+        }
+        catch (IllegalAccessException e)
+        {
+            Logger.debug(MethodHandleUberspector.class, "Can't get a handle for " + method + ", using reflection: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Method invoked through a handle. The array wrapping and the varargs are still handled by the
+     * {@link VelMethodImpl}.
+     */
+    public static class VelMethodHandleImpl extends VelMethodImpl
+    {
+        private final MethodHandle handle;
+
+        public VelMethodHandleImpl(Method method, boolean wrapArray, MethodHandle handle)
+        {
+            super(method, wrapArray);
+            this.handle = handle;
+        }
+
+        protected Object doInvoke(Object o, Object[] actual) throws Exception
+        {
+            final Object[] arguments = (actual != null) ? actual : Arguments.NONE;
+            try
+            {
+                return (Object) this.handle.invokeExact(o, arguments);
+            }
+            catch (Arguments.IllegalArgument e)
+            {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+            catch (Throwable t)
+            {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    /**
+     * Property getter invoked through a handle
+     */
+    public static class VelGetterHandleImpl extends VelGetterImpl
+    {
+        private final MethodHandle handle;
+
+        public VelGetterHandleImpl(AbstractExecutor executor, MethodHandle handle)
+        {
+            super(executor);
+            this.handle = handle;
+        }
+
+        public Object invoke(Object o) throws Exception
+        {
+            try
+            {
+                return (Object) this.handle.invokeExact(o);
+            }
+            catch (Arguments.IllegalArgument e)
+            {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+            catch (Throwable t)
+            {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    /**
+     * Conversions of the arguments passed to primitive parameters. {@link Method#invoke(Object, Object...)}
+     * unboxes the argument and widens it, so an Integer can be passed to a long; the handles would only unbox
+     * a Long. The receivers and the arguments passed to the other parameters are checked, the casts of the
+     * handle would throw a ClassCastException that can't be told apart from one thrown by the method.
+     */
+    static final class Arguments
+    {
+        static final Object[] NONE = new Object[0];
+
+        private static final MethodHandle CHECK;
+
+        static
+        {
+            try
+            {
+                CHECK = LOOKUP.findStatic(Arguments.class, "check",
+                        MethodType.methodType(Object.class, Class.class, Object.class));
+            }
+            catch (NoSuchMethodException | IllegalAccessException e)
+            {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private Arguments()
+        {
+        }
+
+        /**
+         * @return MethodHandle taking any object and returning it as the type, if it is one
+         */
+        static MethodHandle checker(final Class type)
+        {
+            return MethodHandles.insertArguments(CHECK, 0, type).asType(MethodType.methodType(type, Object.class));
+        }
+
+        static Object check(final Class type, final Object value)
+        {
+            if (value == null || type.isInstance(value))
+            {
+                return value;
+            }
+            throw new IllegalArgument(value, type);
+        }
+
+        static MethodHandle converter(final Class type)
+        {
+            try
+            {
+                return LOOKUP.findStatic(Arguments.class, "to" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1),
+                        MethodType.methodType(type, Object.class));
+            }
+            catch (NoSuchMethodException | IllegalAccessException e)
+            {
+                throw new IllegalStateException("No conversion to " + type, e);
+            }
+        }
+
+        static boolean toBoolean(final Object value)
+        {
+            if (value instanceof Boolean)
+            {
+                return (Boolean) value;
+            }
+            throw new IllegalArgument(value, boolean.class);
+        }
+
+        static char toChar(final Object value)
+        {
+            if (value instanceof Character)
+            {
+                return (Character) value;
+            }
+            throw new IllegalArgument(value, char.class);
+        }
+
+        static byte toByte(final Object value)
+        {
+            if (value instanceof Byte)
+            {
+                return (Byte) value;
+            }
+            throw new IllegalArgument(value, byte.class);
+        }
+
+        static short toShort(final Object value)
+        {
+            if (value instanceof Short || value instanceof Byte)
+            {
+                return ((Number) value).shortValue();
+            }
+            throw new IllegalArgument(value, short.class);
+        }
+
+        static int toInt(final Object value)
+        {
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+            {
+                return ((Number) value).intValue();
+            }
+            if (value instanceof Character)
+            {
+                return (Character) value;
+            }
+            throw new IllegalArgument(value, int.class);
+        }
+
+        static long toLong(final Object value)
+        {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            {
+                return ((Number) value).longValue();
+            }
+            if (value instanceof Character)
+            {
+                return (Character) value;
+            }
+            throw new IllegalArgument(value, long.class);
+        }
+
+        static float toFloat(final Object value)
+        {
+            if (value instanceof Float || value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte)
+            {
+                return ((Number) value).floatValue();
+            }
+            if (value instanceof Character)
+            {
+                return (Character) value;
+            }
+            throw new IllegalArgument(value, float.class);
+        }
+
+        static double toDouble(final Object value)
+        {
+            if (value instanceof Double || value instanceof Float || value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte)
+            {
+                return ((Number) value).doubleValue();
+            }
+            if (value instanceof Character)
+            {
+                return (Character) value;
+            }
+            throw new IllegalArgument(value, double.class);
+        }
+
+        /**
+         * Thrown by the conversions so it is not confused with an IllegalArgumentException thrown by the method
+         */
+        static final class IllegalArgument extends RuntimeException
+        {
+            private static final long serialVersionUID = 1L;
+
+            IllegalArgument(final Object value, final Class type)
+            {
+                super("argument type mismatch, " + ((value == null) ? "null" : value.getClass().getName())
+                        + " can't be passed as " + type.getName(), null, false, false);
+            }
+        }
+    }
+}
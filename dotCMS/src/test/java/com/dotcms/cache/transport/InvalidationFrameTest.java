@@ -0,0 +1,113 @@
+package com.dotcms.cache.transport;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.repackage.com.google.common.collect.Lists;
+import com.dotcms.repackage.com.google.common.collect.Sets;
+import com.dotmarketing.business.DotCacheAdministrator;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class InvalidationFrameTest extends UnitTestBase {
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        List<String> messages = Lists.newArrayList("a-key:contentletcache", "0:identifiercache", "HELLO CLUSTER!", "\u00f1and\u00fa:navcache");
+        List<Set<String>> history = Lists.<Set<String>>newArrayList(Sets.newHashSet("navcache"), Collections.<String>emptySet());
+        InvalidationFrame frame = new InvalidationFrame("server-1", 1234L, 42L, messages, history);
+
+        byte[] data = frame.encode();
+        InvalidationFrame decoded = InvalidationFrame.decode(data, 0, data.length);
+
+        assertThat(decoded.sender, is("server-1"));
+        assertThat(decoded.incarnation, is(1234L));
+        assertThat(decoded.sequence, is(42L));
+        assertThat(decoded.messages, is(messages));
+        assertThat(decoded.history, is(history));
+
+        int size = InvalidationFrame.headerSize("server-1", history);
+        for (String message : messages) {
+            size += InvalidationFrame.sizeOf(message);
+        }
+        assertThat(data.length, is(size));
+    }
+
+    @Test
+    public void testGroupsOf() throws Exception {
+        assertThat(InvalidationFrame.groupsOf(Lists.newArrayList("a:b:ContentletCache", "0:navcache", "ACK")),
+                is((Set<String>) Sets.newHashSet("contentletcache", "navcache")));
+        assertThat(InvalidationFrame.groupsOf(Lists.newArrayList("key:navcache", "0:" + DotCacheAdministrator.ROOT_GOUP)),
+                is(Collections.singleton(DotCacheAdministrator.ROOT_GOUP)));
+    }
+
+    @Test
+    public void testMissedFramesFlushTheirGroups() throws Exception {
+        SequenceTracker tracker = new SequenceTracker();
+
+        assertThat(tracker.missedGroups(frame(1, history())), is(empty()));
+        assertThat(tracker.missedGroups(frame(2, history("navcache"))), is(empty()));
+
+        // 3 and 4 were lost
+        assertThat(tracker.missedGroups(frame(5, history("identifiercache", "contentletcache", "navcache"))),
+                is((Set<String>) Sets.newHashSet("identifiercache", "contentletcache")));
+        assertThat(tracker.getGaps(), is(1L));
+        assertThat(tracker.getMissedFrames(), is(2L));
+
+        // a late frame doesn't flush anything
+        assertThat(tracker.missedGroups(frame(4, history("contentletcache"))), is(empty()));
+    }
+
+    @Test
+    public void testMissingMoreFramesThanTheHistoryFlushesEverything() throws Exception {
+        SequenceTracker tracker = new SequenceTracker();
+
+        tracker.missedGroups(frame(1, history()));
+        assertThat(tracker.missedGroups(frame(5, history("navcache"))),
+                is(Collections.singleton(DotCacheAdministrator.ROOT_GOUP)));
+    }
+
+    @Test
+    public void testHeartbeatFindsTheLastFramesLost() throws Exception {
+        SequenceTracker tracker = new SequenceTracker();
+
+        tracker.missedGroups(frame(1, history()));
+        // 2 was lost and nothing else was sent, the empty frame of the idle sender carries its groups
+        InvalidationFrame heartbeat = frame(3, Lists.<Set<String>>newArrayList(Collections.singleton("navcache"),
+                Collections.<String>emptySet()));
+        assertThat(heartbeat.messages, is(empty()));
+        assertThat(tracker.missedGroups(heartbeat), is(Collections.singleton("navcache")));
+
+        // and once seen, the next heartbeat finds nothing missing
+        assertThat(tracker.missedGroups(frame(4, history())), is(empty()));
+        assertThat(tracker.getGaps(), is(1L));
+    }
+
+    @Test
+    public void testRestartedSenderStartsOver() throws Exception {
+        SequenceTracker tracker = new SequenceTracker();
+
+        tracker.missedGroups(frame(100, history()));
+        InvalidationFrame restarted = new InvalidationFrame("server-1", 2L, 1L, Collections.<String>emptyList(), history());
+        assertThat(tracker.missedGroups(restarted), is(empty()));
+        assertThat(tracker.getGaps(), is(0L));
+    }
+
+    private static InvalidationFrame frame(long sequence, List<Set<String>> history) {
+        return new InvalidationFrame("server-1", 1L, sequence, Collections.<String>emptyList(), history);
+    }
+
+    private static List<Set<String>> history(String... groups) {
+        List<Set<String>> history = Lists.newArrayList();
+        for (String group : groups) {
+            history.add(Collections.singleton(group));
+        }
+        return history;
+    }
+}
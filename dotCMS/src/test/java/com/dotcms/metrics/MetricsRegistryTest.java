@@ -0,0 +1,119 @@
+package com.dotcms.metrics;
+
+import com.dotcms.UnitTestBase;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class MetricsRegistryTest extends UnitTestBase {
+
+    @Test
+    public void testHistogramBucketsHoldTheirValues() {
+
+        for (long value = 0; value < 100_000; value++) {
+
+            final int index = Histogram.index(value);
+            assertThat(index < Histogram.BUCKETS, is(true));
+            assertThat(Histogram.highestValue(index) >= value, is(true));
+            assertThat(index == 0 || Histogram.highestValue(index - 1) < value, is(true));
+        }
+        assertThat(Histogram.index(Long.MAX_VALUE), is(Histogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void testHistogramQuantilesAreWithinTheBucketWidth() {
+
+        final Histogram histogram = new Histogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount(), is(1000L));
+        assertThat(snapshot.getMax(), is(TimeUnit.MILLISECONDS.toNanos(1000)));
+
+        final long median = snapshot.getValueAtQuantile(0.5);
+        assertThat(median, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(500)));
+        assertThat(median, lessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(500) * 9 / 8));
+        assertThat(snapshot.getValueAtQuantile(1), is(snapshot.getMax()));
+        assertThat(new Histogram().snapshot().getValueAtQuantile(0.99), is(0L));
+    }
+
+    @Test
+    public void testHistogramCountsBelowTheBucketBounds() {
+
+        final Histogram histogram = new Histogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        final long[] below = histogram.snapshot().getCountsBelow(MetricsRegistry.BUCKET_BOUNDS);
+        for (int bound = 0; bound < below.length; bound++) {
+
+            final long expected = Math.min(1000, (MetricsRegistry.BUCKET_BOUNDS[bound] - 1) / 1_000_000);
+            assertThat(below[bound], is(expected));
+            assertThat(bound == 0 || below[bound] >= below[bound - 1], is(true));
+        }
+    }
+
+    @Test
+    public void testTheSameMetricIsReturnedForANameAndLabel() {
+
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        final Counter counter = registry.counter("test_same_total", "Test", "region", "a");
+
+        assertThat(registry.counter("test_same_total", "Test", "region", "a"), sameInstance(counter));
+        assertThat(registry.counter("test_same_total", "Test", "region", "b") == counter, is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAMetricCanNotChangeItsType() {
+
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.counter("test_type_total", "Test");
+        registry.histogram("test_type_total", "Test");
+    }
+
+    @Test
+    public void testWriteUsesThePrometheusTextFormat() throws Exception {
+
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.counter("test_write_total", "Counted things", "region", "quote\"d").add(3);
+        registry.gauge("test_write_gauge", "A gauge", () -> 1.5);
+        registry.gauge("test_write_failing", "A failing gauge", () -> { throw new IllegalStateException(); });
+        registry.histogram("test_write_seconds", "Timed things", "mode", "live").record(TimeUnit.SECONDS.toNanos(2));
+
+        final StringWriter writer = new StringWriter();
+        registry.write(writer);
+        final String text = writer.toString();
+
+        assertThat(text, containsString("# HELP test_write_total Counted things\n# TYPE test_write_total counter\n"));
+        assertThat(text, containsString("test_write_total{region=\"quote\\\"d\"} 3\n"));
+        assertThat(text, containsString("# TYPE test_write_gauge gauge\ntest_write_gauge 1.5\n"));
+        assertThat(text, containsString("test_write_failing NaN\n"));
+        assertThat(text, containsString("# TYPE test_write_seconds histogram\n"));
+        assertThat(text, containsString("test_write_seconds_bucket{mode=\"live\",le=\"1.073741824\"} 0\n"));
+        assertThat(text, containsString("test_write_seconds_bucket{mode=\"live\",le=\"4.294967296\"} 1\n"));
+        assertThat(text, containsString("test_write_seconds_bucket{mode=\"live\",le=\"+Inf\"} 1\n"));
+        assertThat(text, containsString("test_write_seconds_sum{mode=\"live\"} 2\n"));
+        assertThat(text, containsString("test_write_seconds_count{mode=\"live\"} 1\n"));
+    }
+
+    @Test
+    public void testFormat() {
+
+        assertThat(MetricsRegistry.format(Double.NaN), is("NaN"));
+        assertThat(MetricsRegistry.format(Double.POSITIVE_INFINITY), is("+Inf"));
+        assertThat(MetricsRegistry.format(Double.NEGATIVE_INFINITY), is("-Inf"));
+        assertThat(MetricsRegistry.format(42), is("42"));
+        assertThat(MetricsRegistry.format(0.25), is("0.25"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.dotcms.rest;
+
+import com.dotcms.UnitTestBase;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ContentStreamingOutputTest extends UnitTestBase {
+
+    @Test
+    public void testWritesTheValuesLikeTheJSONObjects() throws IOException {
+
+        final Map<String, Object> keyValue = new LinkedHashMap<>();
+        keyValue.put("color", "blue");
+
+        final Date date = new Date(0);
+        final Map<String, Object> contentlet = new LinkedHashMap<>();
+        contentlet.put("title", "dotCMS");
+        contentlet.put("sortOrder", 3L);
+        contentlet.put("live", true);
+        contentlet.put("modDate", date);
+        contentlet.put("description", null);
+        contentlet.put("tags", Arrays.asList("a", "b"));
+        contentlet.put("metadata", keyValue);
+
+        assertThat(write(contentlet), is("{\"title\":\"dotCMS\",\"sortOrder\":3,\"live\":true,\"modDate\":\""
+                + date + "\",\"tags\":[\"a\",\"b\"],\"metadata\":{\"color\":\"blue\"}}"));
+    }
+
+    @Test
+    public void testNotFiniteNumbersAreWrittenAsStrings() throws IOException {
+
+        assertThat(write(Double.NaN), is("\"NaN\""));
+        assertThat(write(1.5f), is("1.5"));
+    }
+
+    private static String write(final Object value) throws IOException {
+
+        final StringWriter writer = new StringWriter();
+        try (final JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(writer)) {
+            ContentStreamingOutput.writeValue(generator, value);
+        }
+        return writer.toString();
+    }
+}
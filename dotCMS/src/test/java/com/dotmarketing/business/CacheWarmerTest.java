@@ -0,0 +1,57 @@
+package com.dotmarketing.business;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.repackage.com.google.common.collect.Lists;
+import com.dotmarketing.business.CacheWarmer.HotKeys;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CacheWarmerTest extends UnitTestBase {
+
+    @Test
+    public void testHottestKeysComeFirst() throws Exception {
+        HotKeys keys = new HotKeys(10);
+        hit(keys, "a", 1);
+        hit(keys, "b", 5);
+        hit(keys, "c", 3);
+
+        assertThat(keys.hottest(10), is(Lists.newArrayList("b", "c", "a")));
+        assertThat(keys.hottest(2), is(Lists.newArrayList("b", "c")));
+    }
+
+    @Test
+    public void testNewKeysAreIgnoredOnceFull() throws Exception {
+        HotKeys keys = new HotKeys(2);
+        hit(keys, "a", 1);
+        hit(keys, "b", 1);
+        hit(keys, "c", 10);
+        hit(keys, "a", 1);
+
+        assertThat(keys.size(), is(2));
+        assertThat(keys.hottest(10), is(Lists.newArrayList("a", "b")));
+    }
+
+    @Test
+    public void testDecayHalvesTheCountsAndForgetsTheColdKeys() throws Exception {
+        HotKeys keys = new HotKeys(10);
+        hit(keys, "a", 1);
+        hit(keys, "b", 4);
+        hit(keys, "c", 3);
+
+        keys.decay();
+        assertThat(keys.size(), is(2));
+
+        // b=2, c=1, now c gets ahead
+        hit(keys, "c", 2);
+        assertThat(keys.hottest(10), is(Lists.newArrayList("c", "b")));
+    }
+
+    private static void hit(HotKeys keys, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            keys.hit(key);
+        }
+    }
+}
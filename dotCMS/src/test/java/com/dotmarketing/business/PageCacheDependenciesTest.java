@@ -0,0 +1,134 @@
+package com.dotmarketing.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PageCacheDependenciesTest {
+
+    @Test
+    public void testNothingRecordedOutsideARender() {
+
+        PageCacheDependencies.recordIdentifier("1234");
+        PageCacheDependencies.recordQuery("+contentType:News");
+
+        assertTrue(PageCacheDependencies.stopRecording().isEmpty());
+    }
+
+    @Test
+    public void testRecordContentTypesOfQuery() {
+
+        PageCacheDependencies.startRecording();
+        PageCacheDependencies.recordQuery("+contentType:News +structureName:\"Blog\" +languageId:1");
+        final Set<String> dependencies = PageCacheDependencies.stopRecording();
+
+        assertEquals(2, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "news"));
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "blog"));
+    }
+
+    @Test
+    public void testQueryWithoutTypeDependsOnAnyContent() {
+
+        PageCacheDependencies.startRecording();
+        PageCacheDependencies.recordQuery("+title:dotcms");
+        final Set<String> dependencies = PageCacheDependencies.stopRecording();
+
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+    }
+
+    @Test
+    public void testDependenciesOfQueryOutsideARender() {
+
+        final Set<String> dependencies = PageCacheDependencies.forQuery("+stInode:ABC-123 +live:true");
+
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "abc-123"));
+        assertTrue(PageCacheDependencies.stopRecording().isEmpty());
+    }
+
+    @Test
+    public void testNegatedTypeDoesNotRestrictTheQuery() {
+
+        Set<String> dependencies = PageCacheDependencies.forQuery("-contentType:News +title:x");
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+
+        dependencies = PageCacheDependencies.forQuery("!contentType:News +live:true");
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+
+        dependencies = PageCacheDependencies.forQuery("+contentType:Blog -contentType:News");
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "blog"));
+    }
+
+    @Test
+    public void testNotTypeDoesNotRestrictTheQuery() {
+
+        Set<String> dependencies = PageCacheDependencies.forQuery("NOT contentType:News");
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+
+        dependencies = PageCacheDependencies.forQuery("+live:true AND NOT structureName:News");
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+    }
+
+    @Test
+    public void testOrGroupOfTypesRestrictsTheQuery() {
+
+        Set<String> dependencies = PageCacheDependencies.forQuery("+(contentType:News contentType:Blog) +live:true");
+        assertEquals(2, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "news"));
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "blog"));
+
+        dependencies = PageCacheDependencies.forQuery("+contentType:(News OR Blog) +languageId:1");
+        assertEquals(2, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "news"));
+        assertTrue(dependencies.contains(PageCacheDependencies.CONTENT_TYPE_PREFIX + "blog"));
+    }
+
+    @Test
+    public void testOrGroupWithOtherClausesDoesNotRestrictTheQuery() {
+
+        Set<String> dependencies = PageCacheDependencies.forQuery("+(contentType:News title:dotcms) +live:true");
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+
+        dependencies = PageCacheDependencies.forQuery("contentType:News OR title:dotcms");
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+    }
+
+    @Test
+    public void testWildcardTypeDoesNotRestrictTheQuery() {
+
+        final Set<String> dependencies = PageCacheDependencies.forQuery("+contentType:New* +live:true");
+
+        assertEquals(1, dependencies.size());
+        assertTrue(dependencies.contains(PageCacheDependencies.ANY_CONTENT));
+    }
+
+    @Test
+    public void testNestedRecordings() {
+
+        PageCacheDependencies.startRecording();
+        PageCacheDependencies.recordIdentifier("outer");
+        PageCacheDependencies.startRecording();
+        PageCacheDependencies.recordNavigation("folder");
+        final Set<String> inner = PageCacheDependencies.stopRecording();
+        final Set<String> outer = PageCacheDependencies.stopRecording();
+
+        assertEquals(1, inner.size());
+        assertTrue(inner.contains(PageCacheDependencies.NAVIGATION_PREFIX + "folder"));
+        assertEquals(2, outer.size());
+        assertTrue(outer.contains(PageCacheDependencies.IDENTIFIER_PREFIX + "outer"));
+        assertTrue(outer.contains(PageCacheDependencies.NAVIGATION_PREFIX + "folder"));
+    }
+
+}
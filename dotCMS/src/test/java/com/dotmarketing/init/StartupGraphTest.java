@@ -0,0 +1,116 @@
+package com.dotmarketing.init;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.business.DotStateException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.dotmarketing.init.StartupTask.task;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class StartupGraphTest extends UnitTestBase {
+
+    @Test
+    public void testTasksRunAfterTheirDependencies() {
+
+        final List<String> ran = new CopyOnWriteArrayList<>();
+        final StartupGraph graph = new StartupGraph()
+                .add(task("c", () -> ran.add("c")).after("b").blocking())
+                .add(task("b", () -> ran.add("b")).after("a"))
+                .add(task("a", () -> ran.add("a")));
+
+        graph.start(Runnable::run);
+        graph.awaitReady();
+
+        assertThat(ran, contains("a", "b", "c"));
+        assertThat(graph.hasFailed(), is(false));
+        assertThat(StartupProfile.getInstance().getReadyMillis() >= 0, is(true));
+    }
+
+    @Test
+    public void testIndependentTasksRunAtTheSameTime() throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+
+            // each task waits for the other one, they only end if they run in parallel
+            final CountDownLatch latch = new CountDownLatch(2);
+            final StartupTask.Action action = () -> {
+                latch.countDown();
+                if (!latch.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("not run in parallel");
+                }
+            };
+
+            final StartupGraph graph = new StartupGraph()
+                    .add(task("one", action).fatal())
+                    .add(task("two", action).fatal());
+
+            graph.start(executor);
+            graph.awaitReady();
+            graph.whenDone().get(10, TimeUnit.SECONDS);
+
+            assertThat(StartupProfile.getInstance().getDoneMillis() >= 0, is(true));
+            for (final StartupProfile.Entry entry : StartupProfile.getInstance().getEntries()) {
+                assertThat(entry.getStatus(), is(StartupProfile.Status.DONE));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAFailedFatalTaskSkipsItsDependentsAndFailsTheStartup() {
+
+        final List<String> ran = new CopyOnWriteArrayList<>();
+        final StartupGraph graph = new StartupGraph()
+                .add(task("broken", () -> { throw new IllegalStateException("broken"); }).fatal())
+                .add(task("dependent", () -> ran.add("dependent")).after("broken"))
+                .add(task("optional", () -> { throw new IllegalStateException("optional"); }))
+                .add(task("afterOptional", () -> ran.add("afterOptional")).after("optional"));
+
+        graph.start(Runnable::run);
+
+        try {
+            graph.awaitReady();
+            throw new AssertionError("The startup should have failed");
+        } catch (DotStateException e) {
+            // expected
+        }
+
+        assertThat(ran, contains("afterOptional"));
+        assertThat(graph.hasFailed(), is(true));
+        for (final StartupProfile.Entry entry : StartupProfile.getInstance().getEntries()) {
+            if ("dependent".equals(entry.getName())) {
+                assertThat(entry.getStatus(), is(StartupProfile.Status.SKIPPED));
+            } else if ("broken".equals(entry.getName())) {
+                assertThat(entry.getStatus(), is(StartupProfile.Status.FAILED));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCyclesAreRejected() {
+
+        new StartupGraph()
+                .add(task("a", () -> {}).after("b"))
+                .add(task("b", () -> {}).after("a"))
+                .start(Runnable::run);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDependenciesAreRejected() {
+
+        new StartupGraph()
+                .add(task("a", () -> {}).after("missing"))
+                .start(Runnable::run);
+    }
+}
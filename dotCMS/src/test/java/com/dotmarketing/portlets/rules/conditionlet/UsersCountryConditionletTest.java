@@ -6,6 +6,8 @@ import com.dotcms.repackage.com.google.common.collect.Maps;
 import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.dotcms.unittest.TestUtil;
 import com.dotcms.util.GeoIp2CityDbUtil;
+import com.dotcms.visitor.business.VisitorAPI;
+import com.dotcms.visitor.domain.Visitor;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
 import com.dotmarketing.portlets.rules.model.ParameterModel;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
@@ -20,6 +22,7 @@ import org.junit.runner.RunWith;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -31,7 +34,10 @@ import static com.dotmarketing.portlets.rules.parameter.comparison.Comparison.IS
 import static com.dotmarketing.portlets.rules.parameter.comparison.Comparison.IS_NOT;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(DataProviderRunner.class)
@@ -146,6 +152,19 @@ public class UsersCountryConditionletTest extends UnitTestBase {
         assertThat(aCase.testDescription, runCase(aCase), is(false));
     }
 
+    @Test
+    public void testVisitorIsLocatedOnceByTheVisitor() throws Exception {
+        TestCase aCase = new TestCase("A visitor that can not be located is in the 'unknown' country.")
+            .withComparison(IS_NOT)
+            .withIsoCode("US")
+            .withRequestIpAddress(MOCK_IP_ADDRESS)
+            .withMockIpToIsoCode(MOCK_IP_ADDRESS, "US")
+            .withVisitor(mock(Visitor.class))
+            .shouldBeTrue();
+        assertThat(aCase.testDescription, runCase(aCase), is(true));
+        verify(aCase.geoIp2Util, never()).getCountryIsoCode(anyString());
+    }
+
     @Test(expected = ComparisonNotSupportedException.class)
     public void testUnsupportedComparisonThrowsException() throws Exception {
         TestCase aCase = new TestCase("Exists: Unsupported comparison should throw.")
@@ -161,6 +180,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
 
         public final UsersCountryConditionlet conditionlet;
         public final GeoIp2CityDbUtil geoIp2Util = mock(GeoIp2CityDbUtil.class);
+        public final VisitorAPI visitorAPI = mock(VisitorAPI.class);
         private final HttpServletRequest request;
         private final HttpServletResponse response;
         private final Map<String, ParameterModel> params = Maps.newLinkedHashMap();
@@ -172,7 +192,8 @@ public class UsersCountryConditionletTest extends UnitTestBase {
             this.testDescription = testDescription;
             this.request = mock(HttpServletRequest.class);
             this.response = mock(HttpServletResponse.class);
-            conditionlet = new UsersCountryConditionlet(geoIp2Util);
+            when(visitorAPI.getVisitor(request, false)).thenReturn(Optional.empty());
+            conditionlet = new UsersCountryConditionlet(geoIp2Util, visitorAPI);
         }
 
         TestCase shouldBeTrue() {
@@ -200,6 +221,11 @@ public class UsersCountryConditionletTest extends UnitTestBase {
             return this;
         }
 
+        TestCase withVisitor(Visitor visitor) {
+            when(visitorAPI.getVisitor(request, false)).thenReturn(Optional.of(visitor));
+            return this;
+        }
+
         TestCase withIsoCode(String isoCode) {
             params.put(COUNTRY_KEY, new ParameterModel(COUNTRY_KEY, isoCode));
             return this;
@@ -6,7 +6,10 @@ import com.dotcms.repackage.com.google.common.collect.Maps;
 import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.dotcms.unittest.TestUtil;
 import com.dotcms.util.GeoIp2CityDbUtil;
+import com.dotcms.visitor.business.VisitorAPI;
+import com.dotcms.visitor.domain.Visitor;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
+import com.dotmarketing.portlets.rules.exception.RuleEvaluationFailedException;
 import com.dotmarketing.portlets.rules.model.ParameterModel;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
 import com.tngtech.java.junit.dataprovider.DataProvider;
@@ -19,6 +22,7 @@ import org.junit.runner.RunWith;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -134,6 +138,20 @@ public class VisitorsGeolocationConditionletTest extends UnitTestBase {
         new TestCase("").conditionlet.instanceFrom(Maps.newHashMap());
     }
 
+    @Test(expected = RuleEvaluationFailedException.class)
+    public void testVisitorThatCanNotBeLocatedThrowsException() throws Exception {
+        TestCase aCase = new TestCase("A visitor that can not be located should throw.")
+                .withComparison(WITHIN_DISTANCE)
+                .withDistance(1000.0)
+                .withUnitOfDistance()
+                .withLatitude(LATITUDE)
+                .withLongitude(LONGITUDE)
+                .withRequestIpAddress(MOCK_IP_ADDRESS)
+                .withMockVisitorsLocation(LATITUDE, LONGITUDE)
+                .withVisitor(mock(Visitor.class));
+        runCase(aCase);
+    }
+
     @Test(expected = ComparisonNotSupportedException.class)
     public void testUnsupportedComparisonThrowsException() throws Exception {
         TestCase aCase = new TestCase("Exists: Unsupported comparison should throw.")
@@ -150,6 +168,7 @@ public class VisitorsGeolocationConditionletTest extends UnitTestBase {
 
         public final VisitorsGeolocationConditionlet conditionlet;
         public final GeoIp2CityDbUtil geoIp2Util = mock(GeoIp2CityDbUtil.class);
+        public final VisitorAPI visitorAPI = mock(VisitorAPI.class);
 
         private final HttpServletRequest request ;
         private final HttpServletResponse response;
@@ -163,7 +182,8 @@ public class VisitorsGeolocationConditionletTest extends UnitTestBase {
             this.testDescription = testDescription;
             this.request = mock(HttpServletRequest.class);
             this.response = mock(HttpServletResponse.class);
-            conditionlet = new VisitorsGeolocationConditionlet(geoIp2Util);
+            when(visitorAPI.getVisitor(request, false)).thenReturn(Optional.empty());
+            conditionlet = new VisitorsGeolocationConditionlet(geoIp2Util, visitorAPI);
         }
 
         TestCase shouldBeTrue() {
@@ -192,6 +212,11 @@ public class VisitorsGeolocationConditionletTest extends UnitTestBase {
             return this;
         }
 
+        TestCase withVisitor(Visitor visitor) {
+            when(visitorAPI.getVisitor(request, false)).thenReturn(Optional.of(visitor));
+            return this;
+        }
+
         TestCase withDistance(double distance) {
             params.put(RADIUS_KEY, new ParameterModel(RADIUS_KEY, Double.toString(distance)));
             return this;
@@ -0,0 +1,186 @@
+package com.dotmarketing.portlets.rules.model;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.repackage.com.google.common.collect.Lists;
+import com.dotmarketing.portlets.rules.RuleComponentInstance;
+import com.dotmarketing.portlets.rules.conditionlet.Conditionlet;
+import com.dotmarketing.portlets.rules.model.RuleEvaluationPlan.Step;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.dotmarketing.portlets.rules.model.LogicalOperator.AND;
+import static com.dotmarketing.portlets.rules.model.LogicalOperator.OR;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RuleEvaluationPlanTest extends UnitTestBase {
+
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final List<FixedConditionlet> conditionlets = Lists.newArrayList();
+
+    @Test
+    public void testCheapestFirstSortsTermsAndedTogether() throws Exception {
+        // A && B && C with costs 100, 1, 10
+        List<Step<Term>> steps = plan(new Term("A", AND, 100), new Term("B", AND, 1), new Term("C", AND, 10));
+
+        assertThat(names(steps), is("B,C,A"));
+        assertThat(operators(steps), is("AND,AND,AND"));
+    }
+
+    @Test
+    public void testCheapestFirstDoesNotMoveTermsAcrossAnOr() throws Exception {
+        // A && B || C && D with costs 100, 1, 10, 1 ==> (B && A) || (D && C)
+        List<Step<Term>> steps = plan(new Term("A", AND, 100), new Term("B", AND, 1),
+                                      new Term("C", OR, 10), new Term("D", AND, 1));
+
+        assertThat(names(steps), is("B,A,D,C"));
+        assertThat(operators(steps), is("AND,AND,OR,AND"));
+    }
+
+    @Test
+    public void testCheapestFirstKeepsTheOrderOfTermsWithTheSameCost() throws Exception {
+        List<Step<Term>> steps = plan(new Term("A", OR, 10), new Term("B", AND, 10), new Term("C", AND, 1),
+                                      new Term("D", OR, 1));
+
+        assertThat(names(steps), is("C,A,B,D"));
+        assertThat(operators(steps), is("OR,AND,AND,OR"));
+    }
+
+    @Test
+    public void testThePlanEvaluatesGroupsAndedThenOredAsTheRule() throws Exception {
+        // A && B || C with costs 100, 1, 1 ==> (B && A) || C
+        Rule rule = rule(group(AND, condition(AND, 100)),
+                         group(AND, condition(AND, 1)),
+                         group(OR, condition(AND, 1)));
+
+        assertSameResults(rule);
+    }
+
+    @Test
+    public void testThePlanEvaluatesGroupsOredThenAndedAsTheRule() throws Exception {
+        // A || B && C && D || E with costs 1, 100, 10, 1, 100 ==> A || (D && C && B) || E
+        Rule rule = rule(group(AND, condition(AND, 1)),
+                         group(OR, condition(AND, 100)),
+                         group(AND, condition(AND, 10)),
+                         group(AND, condition(AND, 1)),
+                         group(OR, condition(AND, 100)));
+
+        assertSameResults(rule);
+    }
+
+    @Test
+    public void testThePlanEvaluatesMixedConditionsAsTheRule() throws Exception {
+        // (A && B || C) && (D || E && F) with costs 100, 1, 10, 10, 100, 1
+        Rule rule = rule(group(AND, condition(AND, 100), condition(AND, 1), condition(OR, 10)),
+                         group(AND, condition(AND, 10), condition(OR, 100), condition(AND, 1)));
+
+        assertSameResults(rule);
+    }
+
+    /**
+     * Evaluates the plan of the rule and the rule itself, unsorted, for every combination of the
+     * results of its conditions.
+     */
+    private void assertSameResults(Rule rule) {
+        RuleEvaluationPlan plan = rule.getEvaluationPlan();
+        for (int results = 0; results < 1 << conditionlets.size(); results++) {
+            for (int i = 0; i < conditionlets.size(); i++) {
+                conditionlets.get(i).result = (results & 1 << i) != 0;
+            }
+            assertThat("Results " + Integer.toBinaryString(results), plan.evaluateConditions(request, response),
+                       is(rule.evaluateConditions(request, response, rule.getGroups())));
+        }
+    }
+
+    private Condition condition(LogicalOperator operator, int cost) {
+        FixedConditionlet conditionlet = new FixedConditionlet(cost);
+        conditionlets.add(conditionlet);
+        Condition condition = mock(Condition.class);
+        when(condition.getOperator()).thenReturn(operator);
+        when(condition.getConditionlet()).thenReturn(conditionlet);
+        return condition;
+    }
+
+    private static ConditionGroup group(LogicalOperator operator, Condition... conditions) {
+        ConditionGroup group = new ConditionGroup();
+        group.setOperator(operator);
+        group.conditions = Lists.newArrayList(conditions);
+        return group;
+    }
+
+    private static Rule rule(ConditionGroup... groups) {
+        Rule rule = new Rule();
+        rule.setGroups(Lists.newArrayList(groups));
+        rule.setRuleActions(Collections.emptyList());
+        return rule;
+    }
+
+    private static List<Step<Term>> plan(Term... terms) {
+        return RuleEvaluationPlan.cheapestFirst(Lists.newArrayList(terms), term -> term.operator, term -> term.cost);
+    }
+
+    private static String names(List<Step<Term>> steps) {
+        StringBuilder names = new StringBuilder();
+        for (Step<Term> step : steps) {
+            names.append(names.length() > 0 ? "," : "").append(step.term.name);
+        }
+        return names.toString();
+    }
+
+    private static String operators(List<Step<Term>> steps) {
+        StringBuilder operators = new StringBuilder();
+        for (Step<Term> step : steps) {
+            operators.append(operators.length() > 0 ? "," : "").append(step.operator);
+        }
+        return operators.toString();
+    }
+
+    private static class Term {
+
+        private final String name;
+        private final LogicalOperator operator;
+        private final int cost;
+
+        private Term(String name, LogicalOperator operator, int cost) {
+            this.name = name;
+            this.operator = operator;
+            this.cost = cost;
+        }
+    }
+
+    private static class FixedConditionlet extends Conditionlet<RuleComponentInstance> {
+
+        private final int cost;
+        private boolean result;
+
+        private FixedConditionlet(int cost) {
+            super("api.system.ruleengine.conditionlet.Fixed");
+            this.cost = cost;
+        }
+
+        @Override
+        public int getEvaluationCost() {
+            return cost;
+        }
+
+        @Override
+        public RuleComponentInstance instanceFrom(Map<String, ParameterModel> parameters) {
+            return null;
+        }
+
+        @Override
+        public boolean evaluate(HttpServletRequest request, HttpServletResponse response, RuleComponentInstance instance) {
+            return result;
+        }
+    }
+}
@@ -41,6 +41,21 @@ public class LogicalStatementTest extends UnitTestBase {
                      .shouldBeTrue()
         );
 
+        data.add(new TestCase("A && B || C should evaluate as ( ( A && B ) || C ):  ( ( false && true ) || true ) ==> true.")
+                     .withTerm(AND, false)
+                     .withTerm(AND, true)
+                     .withTerm(OR, true)
+                     .shouldBeTrue()
+        );
+
+        data.add(new TestCase("A && B || C && D should evaluate as ( ( A && B ) || ( C && D ) ):  ( ( false && true ) || ( true && false ) ) ==> false.")
+                     .withTerm(AND, false)
+                     .withTerm(AND, true)
+                     .withTerm(OR, true)
+                     .withTerm(AND, false)
+                     .shouldBeFalse()
+        );
+
         // four terms
         data.add(new TestCase("A || B && C || D should evaluate as ( A || ( B && C) || D ):  (true || ( true && true ) || true ) ==> true.")
                      .withTerm(AND, true)
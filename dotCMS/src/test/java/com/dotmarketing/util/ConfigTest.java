@@ -0,0 +1,137 @@
+package com.dotmarketing.util;
+
+import com.dotcms.UnitTestBase;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ConfigTest extends UnitTestBase {
+
+    @Test
+    public void testSetPropertyPublishesANewSnapshot() {
+
+        final ConfigSnapshot before = Config.getSnapshot();
+        assertThat(before, notNullValue());
+
+        Config.setProperty("CONFIG_TEST_SNAPSHOT", "a,b");
+
+        final ConfigSnapshot after = Config.getSnapshot();
+        assertThat(after, not(sameInstance(before)));
+        assertThat(after.getVersion() > before.getVersion(), is(true));
+        assertThat(after.getString("CONFIG_TEST_SNAPSHOT"), is("a,b"));
+        assertThat(before.getString("CONFIG_TEST_SNAPSHOT"), nullValue());
+        assertThat(after.changedKeys(before), contains("CONFIG_TEST_SNAPSHOT"));
+        assertThat(Config.getStringProperty("CONFIG_TEST_SNAPSHOT", "c"), is("a,b"));
+    }
+
+    @Test
+    public void testPropertyHandlesFollowTheSnapshot() {
+
+        final ConfigProperty<Integer> property = Config.intProperty("CONFIG_TEST_HANDLE", 5);
+        assertThat(property.get(), is(5));
+
+        Config.setProperty("CONFIG_TEST_HANDLE", 10);
+        assertThat(property.get(), is(10));
+
+        final ConfigProperty<Boolean> flag = Config.booleanProperty("CONFIG_TEST_FLAG", false);
+        Config.setProperty("CONFIG_TEST_FLAG", "true");
+        assertThat(flag.get(), is(true));
+    }
+
+    @Test
+    public void testListenersAreNotifiedOfTheChanges() {
+
+        final AtomicReference<ConfigSnapshot> notified = new AtomicReference<>();
+        final ConfigListener listener = (previous, current) -> notified.set(current);
+
+        Config.addListener(listener);
+        try {
+
+            Config.setProperty("CONFIG_TEST_LISTENER", "yes");
+            assertThat(notified.get(), sameInstance(Config.getSnapshot()));
+            assertThat(notified.get().getString("CONFIG_TEST_LISTENER"), is("yes"));
+        } finally {
+            Config.removeListener(listener);
+        }
+
+        notified.set(null);
+        Config.setProperty("CONFIG_TEST_LISTENER", "no");
+        assertThat(notified.get(), nullValue());
+    }
+
+    @Test
+    public void testListenersNeverGoBackToAnOlderSnapshot() throws Exception {
+
+        final List<ConfigSnapshot> notified = new CopyOnWriteArrayList<>();
+        final List<ConfigSnapshot> previous = new CopyOnWriteArrayList<>();
+        final ConfigListener listener = (before, current) -> {
+            previous.add(before);
+            notified.add(current);
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        Config.addListener(listener);
+        try {
+
+            final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int value = i;
+                futures.add(executor.submit(() -> Config.setProperty("CONFIG_TEST_ORDER", value)));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            Config.removeListener(listener);
+            executor.shutdownNow();
+        }
+
+        // the last snapshot published is always notified
+        assertThat(notified.get(notified.size() - 1), sameInstance(Config.getSnapshot()));
+        for (int i = 1; i < notified.size(); i++) {
+            assertThat(notified.get(i).getVersion() > notified.get(i - 1).getVersion(), is(true));
+            assertThat(previous.get(i), sameInstance(notified.get(i - 1)));
+        }
+    }
+
+    @Test
+    public void testTypedGettersConvertTheProperties() {
+
+        Config.setProperty("CONFIG_TEST_INT", "42");
+        Config.setProperty("CONFIG_TEST_BOOLEAN", "true");
+        Config.setProperty("CONFIG_TEST_NOT_A_NUMBER", "forty-two");
+
+        final ConfigSnapshot snapshot = Config.getSnapshot();
+        assertThat(snapshot.getInt("CONFIG_TEST_INT", 1), is(42));
+        assertThat(snapshot.getInt("CONFIG_TEST_INT", 1), is(42));
+        assertThat(snapshot.getLong("CONFIG_TEST_INT", 1L), is(42L));
+        assertThat(snapshot.getFloat("CONFIG_TEST_INT", 1f), is(42f));
+        assertThat(snapshot.getInt("CONFIG_TEST_MISSING", 7), is(7));
+        assertThat(snapshot.getInt("CONFIG_TEST_MISSING", 8), is(8));
+        assertThat(snapshot.getBoolean("CONFIG_TEST_BOOLEAN", false), is(true));
+        assertThat(snapshot.getBoolean("CONFIG_TEST_MISSING", true), is(true));
+
+        // a value that can't be converted fails every time it is read
+        for (int i = 0; i < 2; i++) {
+            try {
+                snapshot.getInt("CONFIG_TEST_NOT_A_NUMBER", 1);
+                throw new AssertionError("forty-two is not an int");
+            } catch (RuntimeException e) {
+                assertThat(e.getClass().getSimpleName(), is("ConversionException"));
+            }
+        }
+    }
+}
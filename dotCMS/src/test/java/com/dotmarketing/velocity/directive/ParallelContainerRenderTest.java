@@ -0,0 +1,168 @@
+package com.dotmarketing.velocity.directive;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.concurrent.DotSubmitter;
+import com.dotmarketing.velocity.directive.ParallelContainerRender.Rendered;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelContainerRenderTest extends UnitTestBase {
+
+    private ExecutorService executor;
+    private HttpServletRequest request;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        request = mock(HttpServletRequest.class);
+        when(request.getRequestURI()).thenReturn("/index");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testContainersAreSplicedWhereTheyWereFound() throws Exception {
+
+        final ParallelContainerRender render = render(10000);
+        final CountDownLatch last = new CountDownLatch(1);
+
+        render.getWriter().write("<header>");
+        // the first container ends after the second one
+        render.splice(() -> {
+            last.await(10, TimeUnit.SECONDS);
+            return rendered("<first/>");
+        });
+        render.getWriter().write("<main>");
+        render.splice(() -> {
+            last.countDown();
+            return rendered("<second/>");
+        });
+        render.getWriter().write("<footer>");
+
+        final StringWriter out = new StringWriter();
+        assertThat(render.finish(out), is(true));
+        assertThat(out.toString(), is("<header><first/><main><second/><footer>"));
+    }
+
+    @Test
+    public void testContainersNotDoneByTheDeadlineAreLeftOutAndCancelled() throws Exception {
+
+        final ParallelContainerRender render = render(100);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        render.getWriter().write("<header>");
+        render.splice(() -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return rendered("<slow/>");
+        });
+        render.getWriter().write("<footer>");
+
+        final long start = System.currentTimeMillis();
+        final StringWriter out = new StringWriter();
+        assertThat(render.finish(out), is(false));
+        assertThat(System.currentTimeMillis() - start, lessThan(5000L));
+        assertThat(out.toString(), is("<header><footer>"));
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testFailedContainersAreLeftOut() throws Exception {
+
+        final ParallelContainerRender render = render(10000);
+
+        render.getWriter().write("<header>");
+        render.splice(() -> {
+            throw new IllegalStateException("broken container");
+        });
+        render.splice(() -> rendered("<working/>"));
+
+        final StringWriter out = new StringWriter();
+        assertThat(render.finish(out), is(false));
+        assertThat(out.toString(), is("<header><working/>"));
+    }
+
+    @Test
+    public void testContainersCanNotUseTheRequestOnceThePageIsWrittenOut() throws Exception {
+
+        final ParallelContainerRender render = render(10000);
+        assertThat(render.getContainerRequest().getRequestURI(), is("/index"));
+
+        render.finish(new StringWriter());
+        try {
+            render.getContainerRequest().getRequestURI();
+            throw new AssertionError("the request was still usable");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private ParallelContainerRender render(final long timeoutMillis) {
+        return new ParallelContainerRender(request, mock(HttpServletResponse.class), submitter(), 4, timeoutMillis);
+    }
+
+    private static Rendered rendered(final String output) {
+        return new Rendered(output, Collections.<String>emptySet());
+    }
+
+    private DotSubmitter submitter() {
+        return new DotSubmitter() {
+
+            @Override
+            public Future<?> submit(final Runnable command) {
+                return executor.submit(command);
+            }
+
+            @Override
+            public <T> Future<T> submit(final Callable<T> callable) {
+                return executor.submit(callable);
+            }
+
+            @Override
+            public void execute(final Runnable command) {
+                executor.execute(command);
+            }
+
+            @Override
+            public int getActiveCount() {
+                return 0;
+            }
+
+            @Override
+            public void shutdown() {
+                executor.shutdown();
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return executor.shutdownNow();
+            }
+        };
+    }
+}
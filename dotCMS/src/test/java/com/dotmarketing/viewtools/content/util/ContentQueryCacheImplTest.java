@@ -0,0 +1,71 @@
+package com.dotmarketing.viewtools.content.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.business.DotCacheAdministrator;
+import com.dotmarketing.business.PageCacheDependencies;
+
+public class ContentQueryCacheImplTest extends UnitTestBase {
+
+    private static final String GENERATION_GROUP = "ContentQueryGenerationCache";
+
+    @Test
+    public void testNegatedTypeQueryTakesTheGenerationOfAnyContent() throws Exception {
+
+        final DotCacheAdministrator cache = mock(DotCacheAdministrator.class);
+        when(cache.get(PageCacheDependencies.ANY_CONTENT, GENERATION_GROUP)).thenReturn("0-any");
+        when(cache.get(PageCacheDependencies.CONTENT_TYPE_PREFIX + "news", GENERATION_GROUP)).thenReturn("0-news");
+        when(cache.get("permissions", GENERATION_GROUP)).thenReturn("0-permissions");
+
+        final String key = new ContentQueryCacheImpl(cache)
+                .getKey("pull", "-contentType:News +title:x", null, 0, 10, null);
+
+        // publishing any content, not only news, has to leave the result behind
+        assertThat(key, containsString("|0-any"));
+        assertThat(key, not(containsString("0-news")));
+    }
+
+    @Test
+    public void testEveryQueryTakesTheGenerationOfThePermissions() throws Exception {
+
+        final DotCacheAdministrator cache = mock(DotCacheAdministrator.class);
+        when(cache.get(PageCacheDependencies.CONTENT_TYPE_PREFIX + "news", GENERATION_GROUP)).thenReturn("0-news");
+        when(cache.get("permissions", GENERATION_GROUP)).thenReturn("0-permissions");
+
+        final String key = new ContentQueryCacheImpl(cache)
+                .getKey("pull", "+contentType:News +live:true", null, 0, 10, null);
+
+        assertThat(key, containsString("|0-news"));
+        assertThat(key, containsString("|0-permissions"));
+    }
+
+    @Test
+    public void testPermissionChangeMovesThePermissionsGeneration() throws Exception {
+
+        final DotCacheAdministrator cache = mock(DotCacheAdministrator.class);
+        when(cache.get("permissions", GENERATION_GROUP)).thenReturn("0-permissions");
+
+        new ContentQueryCacheImpl(cache).removePermissions();
+
+        verify(cache).remove("permissions", GENERATION_GROUP);
+    }
+
+    @Test
+    public void testPermissionChangeWithoutCachedQueriesRemovesNothing() throws Exception {
+
+        final DotCacheAdministrator cache = mock(DotCacheAdministrator.class);
+
+        new ContentQueryCacheImpl(cache).removePermissions();
+
+        verify(cache, never()).remove("permissions", GENERATION_GROUP);
+    }
+}
@@ -0,0 +1,92 @@
+package org.apache.velocity.util.introspection;
+
+import com.dotcms.UnitTestBase;
+import org.apache.velocity.util.introspection.MethodHandleUberspector.VelMethodHandleImpl;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MethodHandleUberspectorTest extends UnitTestBase {
+
+    @Test
+    public void testInvokesLikeReflection() throws Exception {
+        VelMethod substring = handleOf(String.class.getMethod("substring", int.class, int.class));
+        assertThat(substring.invoke("dotCMS", new Object[]{3, 6}), is((Object) "CMS"));
+
+        VelMethod clear = handleOf(StringBuilder.class.getMethod("setLength", int.class));
+        StringBuilder builder = new StringBuilder("dotCMS");
+        assertThat(clear.invoke(builder, new Object[]{3}), nullValue());
+        assertThat(builder.toString(), is("dot"));
+    }
+
+    @Test
+    public void testWidensThePrimitiveArguments() throws Exception {
+        VelMethod max = handleOf(Math.class.getMethod("max", long.class, long.class));
+        assertThat(max.invoke(Math.class, new Object[]{3, (short) 5}), is((Object) 5L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullForAPrimitiveIsAnIllegalArgument() throws Exception {
+        handleOf(String.class.getMethod("charAt", int.class)).invoke("dotCMS", new Object[]{null});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArgumentOfAnotherTypeIsAnIllegalArgument() throws Exception {
+        handleOf(String.class.getMethod("concat", String.class)).invoke("dot", new Object[]{42});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReceiverOfAnotherTypeIsAnIllegalArgument() throws Exception {
+        handleOf(String.class.getMethod("concat", String.class)).invoke(42, new Object[]{"CMS"});
+    }
+
+    @Test
+    public void testClassCastExceptionsOfTheMethodAreWrapped() throws Exception {
+        VelMethod cast = handleOf(String.class.getMethod("compareTo", Object.class));
+        try {
+            cast.invoke("dotCMS", new Object[]{42});
+        } catch (InvocationTargetException e) {
+            assertThat(e.getTargetException(), instanceOf(ClassCastException.class));
+            return;
+        }
+        throw new AssertionError("the ClassCastException wasn't wrapped");
+    }
+
+    @Test
+    public void testExceptionsOfTheMethodAreWrapped() throws Exception {
+        VelMethod parse = handleOf(Integer.class.getMethod("parseInt", String.class));
+        try {
+            parse.invoke(Integer.class, new Object[]{"dotCMS"});
+        } catch (InvocationTargetException e) {
+            assertThat(e.getTargetException(), instanceOf(NumberFormatException.class));
+            return;
+        }
+        throw new AssertionError("the NumberFormatException wasn't wrapped");
+    }
+
+    @Test
+    public void testCallSiteCacheBecomesMegamorphic() throws Exception {
+        CallSiteCache<String> cache = new CallSiteCache<>();
+        Class[] receivers = {String.class, Integer.class, Long.class, Double.class, Float.class};
+        for (Class receiver : receivers) {
+            cache.put(receiver, new Class[]{String.class}, receiver.getSimpleName());
+        }
+
+        assertThat(cache.size(), is(CallSiteCache.MAX_ENTRIES));
+        assertThat(cache.isMegamorphic(), is(true));
+        assertThat(cache.get(Integer.class, new Class[]{String.class}), is("Integer"));
+        assertThat(cache.get(Integer.class, new Class[]{Integer.class}), nullValue());
+        assertThat(cache.get(Float.class, new Class[]{String.class}), nullValue());
+    }
+
+    private static VelMethod handleOf(Method method) {
+        return new VelMethodHandleImpl(method, false, MethodHandleUberspector.toMethodHandle(method));
+    }
+}
@@ -0,0 +1,202 @@
+package org.apache.velocity.util.introspection;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.loader.StringResourceLoader;
+import org.apache.velocity.runtime.resource.util.StringResourceRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders templates like the ones of a site, a content listing, a navigation built from maps and a template
+ * calling methods with arguments, with the {@link SecureUberspector} used by default and with the
+ * {@link MethodHandleUberspector}. The templates are parsed once, as the velocity cache does, so the call-site
+ * caches of the nodes are shared by all the renders.
+ *
+ * <p>It is not a test, run it from the test classpath with its main method or through the JMH runner:
+ * <pre>
+ * java -cp &lt;test classpath&gt; org.apache.velocity.util.introspection.UberspectorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UberspectorBenchmark {
+
+    private static final String LISTING =
+            "#foreach($content in $contents)\n"
+            + "<article id=\"$content.identifier\">\n"
+            + "  <h2><a href=\"$content.urlTitle\">$content.title</a></h2>\n"
+            + "  <time>$content.publishDate.time</time>\n"
+            + "  #if($content.featured)<span class=\"featured\">$content.tags.size()</span>#end\n"
+            + "  <p>$content.summary</p>\n"
+            + "</article>\n"
+            + "#end";
+
+    private static final String NAVIGATION =
+            "<ul>\n"
+            + "#foreach($item in $navigation)\n"
+            + "  <li class=\"$item.cssClass\"><a href=\"$item.href\">$item.title</a>\n"
+            + "  #if($item.children.size() > 0)<ul>#foreach($child in $item.children)"
+            + "<li><a href=\"$child.href\">$child.title</a></li>#end</ul>#end\n"
+            + "  </li>\n"
+            + "#end\n"
+            + "</ul>";
+
+    private static final String METHODS =
+            "#foreach($content in $contents)\n"
+            + "$content.getTitle().substring(0, 5) $content.getTitle().toUpperCase() "
+            + "$content.getSummary().indexOf(\"content\") $math.max($velocityCount, 10) "
+            + "$content.getTags().get(0).replace(\"-\", \" \")\n"
+            + "#end";
+
+    @Param({"org.apache.velocity.util.introspection.SecureUberspector",
+            "org.apache.velocity.util.introspection.MethodHandleUberspector"})
+    public String uberspector;
+
+    private VelocityContext context;
+    private Template listing;
+    private Template navigation;
+    private Template methods;
+
+    @Setup
+    public void setup() throws Exception {
+        final VelocityEngine engine = new VelocityEngine();
+        engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "string");
+        engine.setProperty("string.resource.loader.class", StringResourceLoader.class.getName());
+        engine.setProperty(RuntimeConstants.UBERSPECT_CLASSNAME, uberspector);
+        engine.init();
+
+        final StringResourceRepository repository = StringResourceLoader.getRepository();
+        repository.putStringResource("listing.vtl", LISTING);
+        repository.putStringResource("navigation.vtl", NAVIGATION);
+        repository.putStringResource("methods.vtl", METHODS);
+        listing = engine.getTemplate("listing.vtl");
+        navigation = engine.getTemplate("navigation.vtl");
+        methods = engine.getTemplate("methods.vtl");
+
+        final List<Content> contents = new ArrayList<>();
+        for (int index = 0; index < 20; index++) {
+            contents.add(new Content(index));
+        }
+
+        final List<Map<String, Object>> items = new ArrayList<>();
+        for (int index = 0; index < 8; index++) {
+            final List<Map<String, Object>> children = new ArrayList<>();
+            for (int child = 0; child < index % 4; child++) {
+                children.add(navigationItem("/section-" + index + "/page-" + child, "Page " + child,
+                        new ArrayList<Map<String, Object>>()));
+            }
+            items.add(navigationItem("/section-" + index, "Section " + index, children));
+        }
+
+        context = new VelocityContext();
+        context.put("contents", contents);
+        context.put("navigation", items);
+        context.put("math", Math.class);
+    }
+
+    @Benchmark
+    public String renderListing() {
+        return render(listing);
+    }
+
+    @Benchmark
+    public String renderNavigation() {
+        return render(navigation);
+    }
+
+    @Benchmark
+    public String renderMethods() {
+        return render(methods);
+    }
+
+    private String render(final Template template) {
+        final StringWriter writer = new StringWriter(4096);
+        template.merge(context, writer);
+        return writer.toString();
+    }
+
+    private static Map<String, Object> navigationItem(final String href, final String title,
+                                                      final List<Map<String, Object>> children) {
+        final Map<String, Object> item = new HashMap<>();
+        item.put("href", href);
+        item.put("title", title);
+        item.put("cssClass", children.isEmpty() ? "leaf" : "folder");
+        item.put("children", children);
+        return item;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(UberspectorBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * A content as the templates see it, through its getters
+     */
+    public static class Content {
+
+        private final int index;
+        private final Date publishDate;
+        private final List<String> tags = new ArrayList<>();
+
+        Content(final int index) {
+            this.index = index;
+            this.publishDate = new Date(1500000000000L + index * 86400000L);
+            this.tags.add("news-" + index);
+            this.tags.add("blog");
+        }
+
+        public String getIdentifier() {
+            return "content-" + index;
+        }
+
+        public String getTitle() {
+            return "Title of the content " + index;
+        }
+
+        public String getUrlTitle() {
+            return "/news/title-of-the-content-" + index;
+        }
+
+        public String getSummary() {
+            return "Summary of the content number " + index + " of the listing";
+        }
+
+        public Date getPublishDate() {
+            return publishDate;
+        }
+
+        public boolean isFeatured() {
+            return index % 3 == 0;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+}